@@ -45,7 +45,8 @@ public class AppTokenFilter extends OncePerRequestFilter {
         new EndpointPermitido("POST", "/api/trajetos"),
         new EndpointPermitido("PUT",  "/api/trajetos"),   
         new EndpointPermitido("POST", "/api/incidentes"),
-        new EndpointPermitido("POST", "/api/pontos-trajeto")     
+        new EndpointPermitido("POST", "/api/pontos-trajeto"),
+        new EndpointPermitido("GET",  "/api/pontos-trajeto/recibos")
     );
 
     @Override
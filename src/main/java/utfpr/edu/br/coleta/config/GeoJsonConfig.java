@@ -0,0 +1,20 @@
+package utfpr.edu.br.coleta.config;
+
+import com.fasterxml.jackson.databind.Module;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import utfpr.edu.br.coleta.rota.util.GeoJsonModule;
+
+@Configuration
+public class GeoJsonConfig {
+
+    /**
+     * Registra no ObjectMapper da aplicação a serialização de geometrias em GeoJSON, com as
+     * coordenadas arredondadas a {@code app.geojson.casas-decimais} casas.
+     */
+    @Bean
+    public Module geoJsonModule(@Value("${app.geojson.casas-decimais:6}") int casasDecimais) {
+        return new GeoJsonModule(casasDecimais);
+    }
+}
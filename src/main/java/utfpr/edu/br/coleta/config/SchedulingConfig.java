@@ -0,0 +1,20 @@
+package utfpr.edu.br.coleta.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita as tarefas agendadas ({@code @Scheduled}) da aplicação, como a manutenção
+ * das partições de ponto_trajeto.
+ *
+ * Pode ser desligado com {@code app.agendamento.habilitado=false}, por exemplo em
+ * instâncias extras que não devem executar as tarefas.
+ *
+ * Autor: Sistema
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "app.agendamento.habilitado", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
@@ -75,6 +75,7 @@ public class SecurityConfig {
                 // ✅ Consultas de coleta por coordenadas - endpoints públicos
                 .requestMatchers("/api/consulta/agenda-coleta/coordenadas").permitAll()
                 .requestMatchers("/api/consulta/historico-coleta/coordenadas").permitAll()
+                .requestMatchers("/api/consulta/previsao-coleta/coordenadas").permitAll()
 
                 // ✅ Endpoint público de ativação Android
                 .requestMatchers("/api/app/activate").permitAll()
@@ -1,9 +1,12 @@
 package utfpr.edu.br.coleta.incidente;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import utfpr.edu.br.coleta.generics.CrudServiceImpl;
 import utfpr.edu.br.coleta.incidente.dto.IncidenteDTO;
+import utfpr.edu.br.coleta.incidente.event.IncidenteAlteradoEvent;
 import utfpr.edu.br.coleta.storage.MinioService;
 import org.modelmapper.ModelMapper;
 import utfpr.edu.br.coleta.trajeto.Trajeto;
@@ -19,20 +22,36 @@ public class IncidenteService extends CrudServiceImpl<Incidente, Long> {
     private final MinioService minioService;
     private final ModelMapper modelMapper;
     private final TrajetoRepository trajetoRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public IncidenteService(IncidenteRepository repository,
                             MinioService minioService,
                             ModelMapper modelMapper,
-                            TrajetoRepository trajetoRepository) {
+                            TrajetoRepository trajetoRepository,
+                            ApplicationEventPublisher eventPublisher) {
         this.repository = repository;
         this.minioService = minioService;
         this.modelMapper = modelMapper;
         this.trajetoRepository = trajetoRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     protected IncidenteRepository getRepository() { return repository; }
 
+    @Override
+    public Incidente postSave(Incidente incidente) {
+        eventPublisher.publishEvent(new IncidenteAlteradoEvent(incidente.getId()));
+        return incidente;
+    }
+
+    @Override
+    @Transactional
+    public void delete(Long id) {
+        super.delete(id);
+        eventPublisher.publishEvent(new IncidenteAlteradoEvent(id));
+    }
+
     public Incidente saveWithPhoto(IncidenteDTO dto, MultipartFile foto) {
 
         Trajeto trajeto = trajetoRepository.findById(dto.getTrajetoId())
@@ -49,7 +68,7 @@ public class IncidenteService extends CrudServiceImpl<Incidente, Long> {
         incidente.setLongitude(dto.getLng());
         incidente.setFotoUrl(fotoUrl);
 
-        return repository.save(incidente);
+        return postSave(repository.save(incidente));
     }
 
     public List<IncidenteDTO> findByTrajeto(Long trajetoId) {
@@ -0,0 +1,16 @@
+package utfpr.edu.br.coleta.incidente.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Publicado quando um incidente é registrado, alterado ou removido.
+ *
+ * Autor: Sistema
+ */
+@Getter
+@RequiredArgsConstructor
+public class IncidenteAlteradoEvent {
+
+    private final Long incidenteId;
+}
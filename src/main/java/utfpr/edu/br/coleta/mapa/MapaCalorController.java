@@ -0,0 +1,60 @@
+package utfpr.edu.br.coleta.mapa;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import utfpr.edu.br.coleta.mapa.dto.MapaCalorDTO;
+
+import java.time.LocalDate;
+
+/**
+ * Controller REST do mapa de calor dos pontos GPS.
+ *
+ * Não estende CrudController, por isso o @RequestMapping inclui "/api/" manualmente.
+ *
+ * Autor: Sistema
+ */
+@RestController
+@RequestMapping("/api/mapa-calor")
+@Tag(name = "Mapa de calor", description = "Pontos GPS agregados por célula da grade")
+public class MapaCalorController {
+
+    private final MapaCalorService mapaCalorService;
+
+    public MapaCalorController(MapaCalorService mapaCalorService) {
+        this.mapaCalorService = mapaCalorService;
+    }
+
+    @GetMapping
+    @Operation(summary = "Mapa de calor dos pontos GPS de uma área",
+               description = "Soma, por célula da grade, os pontos e o tempo de permanência dos caminhões " +
+                       "entre as datas informadas. O tamanho da célula acompanha o zoom do mapa.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Células com pontos no período"),
+        @ApiResponse(responseCode = "400", description = "Área, zoom ou período inválidos")
+    })
+    public ResponseEntity<MapaCalorDTO> buscar(
+            @Parameter(description = "Longitude oeste da área", example = "-52.70")
+            @RequestParam double minLon,
+            @Parameter(description = "Latitude sul da área", example = "-26.25")
+            @RequestParam double minLat,
+            @Parameter(description = "Longitude leste da área", example = "-52.65")
+            @RequestParam double maxLon,
+            @Parameter(description = "Latitude norte da área", example = "-26.20")
+            @RequestParam double maxLat,
+            @Parameter(description = "Zoom do mapa", example = "14")
+            @RequestParam int zoom,
+            @Parameter(description = "Primeiro dia do período", example = "2025-11-01")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @Parameter(description = "Último dia do período", example = "2025-11-30")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim,
+            @Parameter(description = "Filtra pela rota (opcional)")
+            @RequestParam(required = false) Long rotaId) {
+        return ResponseEntity.ok(mapaCalorService.buscar(minLon, minLat, maxLon, maxLat, zoom, inicio, fim, rotaId));
+    }
+}
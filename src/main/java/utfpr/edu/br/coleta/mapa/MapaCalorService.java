@@ -0,0 +1,199 @@
+package utfpr.edu.br.coleta.mapa;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import utfpr.edu.br.coleta.mapa.dto.CelulaMapaCalorDTO;
+import utfpr.edu.br.coleta.mapa.dto.MapaCalorDTO;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoDTO;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.event.PontosTrajetoRegistradosEvent;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Mapa de calor dos pontos GPS, a partir do agregado diário em mapa_calor_celula.
+ *
+ * A grade é a de tiles XYZ (Web Mercator) nos níveis {@link #NIVEIS}; cada nível divide a
+ * célula do anterior em 4x4. A ingestão soma em cada célula os pontos novos e o tempo de
+ * permanência (intervalo até o ponto seguinte do trajeto, até
+ * {@link #LIMITE_INTERVALO_SEGUNDOS}), na mesma transação dos pontos. A consulta lê só as
+ * células da área no nível adequado ao zoom, sem tocar em ponto_trajeto.
+ *
+ * Autor: Sistema
+ */
+@Service
+public class MapaCalorService {
+
+    /** Níveis guardados, do mais grosso (~2,4 km no equador) ao mais fino (~38 m). */
+    static final int[] NIVEIS = {14, 16, 18, 20};
+
+    /** Intervalos maiores que isso entre dois pontos são falhas de sinal, não permanência. */
+    static final int LIMITE_INTERVALO_SEGUNDOS = 120;
+
+    /** Diferença entre o zoom do mapa e o nível da grade: células de ~16 px na tela. */
+    private static final int NIVEIS_ACIMA_DO_ZOOM = 4;
+
+    private static final double CIRCUNFERENCIA_METROS = 40_075_016.686;
+
+    // Cada ponto novo conta 1 na sua célula. A permanência é o intervalo de um ponto até o
+    // seguinte: credita os intervalos que envolvem pontos novos e debita os intervalos antigos
+    // que um ponto novo (atrasado) partiu ao meio. A janela de horários com o limite do
+    // intervalo basta para enxergar os vizinhos envolvidos e mantém o filtro nas partições.
+    private static final String SQL_ACUMULAR =
+            "WITH rota AS (SELECT rota_id FROM trajeto WHERE id = ?), " +
+            "pts AS (SELECT p.id, p.horario, ST_Transform(p.localizacao, 3857) AS g, p.id = ANY(?::BIGINT[]) AS novo " +
+            "FROM ponto_trajeto p WHERE p.trajeto_id = ? AND p.horario BETWEEN ? AND ?), " +
+            "atual AS (SELECT g, horario, novo, LEAD(horario) OVER w AS prox, LEAD(novo) OVER w AS prox_novo " +
+            "FROM pts WINDOW w AS (ORDER BY horario, id)), " +
+            "antigo AS (SELECT id, g, horario, LEAD(horario) OVER w AS prox, LEAD(id) OVER w AS prox_id " +
+            "FROM pts WHERE NOT novo WINDOW w AS (ORDER BY horario, id)), " +
+            "contribuicoes AS (" +
+            "SELECT g, horario, 1 AS pontos, 0::DOUBLE PRECISION AS segundos FROM pts WHERE novo " +
+            "UNION ALL " +
+            "SELECT g, horario, 0, EXTRACT(EPOCH FROM prox - horario)::DOUBLE PRECISION FROM atual " +
+            "WHERE (novo OR prox_novo) AND prox - horario <= make_interval(secs => ?) " +
+            "UNION ALL " +
+            "SELECT a.g, a.horario, 0, -EXTRACT(EPOCH FROM a.prox - a.horario)::DOUBLE PRECISION FROM antigo a " +
+            "WHERE a.prox - a.horario <= make_interval(secs => ?) " +
+            "AND EXISTS (SELECT 1 FROM pts n WHERE n.novo " +
+            "AND (n.horario, n.id) > (a.horario, a.id) AND (n.horario, n.id) < (a.prox, a.prox_id))) " +
+            "INSERT INTO mapa_calor_celula (nivel, dia, celula_x, celula_y, rota_id, pontos, permanencia_segundos) " +
+            "SELECT n.nivel, c.horario::DATE, " +
+            "floor((ST_X(c.g) + 20037508.342789244) / (40075016.68557849 / 2 ^ n.nivel))::INTEGER, " +
+            "floor((20037508.342789244 - ST_Y(c.g)) / (40075016.68557849 / 2 ^ n.nivel))::INTEGER, " +
+            "r.rota_id, sum(c.pontos), sum(c.segundos) " +
+            "FROM contribuicoes c CROSS JOIN rota r CROSS JOIN unnest(?::INTEGER[]) AS n(nivel) " +
+            "GROUP BY 1, 2, 3, 4, 5 " +
+            "ON CONFLICT (nivel, dia, celula_x, celula_y, rota_id) DO UPDATE SET " +
+            "pontos = mapa_calor_celula.pontos + EXCLUDED.pontos, " +
+            "permanencia_segundos = mapa_calor_celula.permanencia_segundos + EXCLUDED.permanencia_segundos";
+
+    private static final String SQL_BUSCAR =
+            "SELECT celula_x, celula_y, sum(pontos) AS pontos, sum(permanencia_segundos) AS permanencia " +
+            "FROM mapa_calor_celula " +
+            "WHERE nivel = ? AND dia BETWEEN ? AND ? " +
+            "AND celula_x BETWEEN ? AND ? AND celula_y BETWEEN ? AND ? " +
+            "AND (CAST(? AS BIGINT) IS NULL OR rota_id = ?) " +
+            "GROUP BY celula_x, celula_y HAVING sum(pontos) > 0";
+
+    private static final Integer[] NIVEIS_SQL = Arrays.stream(NIVEIS).boxed().toArray(Integer[]::new);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maximoCelulas;
+    private final int maximoDias;
+
+    public MapaCalorService(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.mapa-calor.maximo-celulas:40000}") int maximoCelulas,
+            @Value("${app.mapa-calor.maximo-dias:366}") int maximoDias) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maximoCelulas = maximoCelulas;
+        this.maximoDias = maximoDias;
+    }
+
+    // depois do caminho e da simplificação; na mesma transação, para o agregado nunca divergir dos pontos
+    @EventListener
+    @Order(20)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void aoRegistrarPontos(PontosTrajetoRegistradosEvent event) {
+        Long[] ids = event.getPontos().stream().map(PontoTrajetoDTO::getId).toArray(Long[]::new);
+        jdbcTemplate.update(SQL_ACUMULAR,
+                event.getTrajetoId(),
+                ids,
+                event.getTrajetoId(),
+                event.getHorarioMinimo().minusSeconds(LIMITE_INTERVALO_SEGUNDOS),
+                event.getHorarioMaximo().plusSeconds(LIMITE_INTERVALO_SEGUNDOS),
+                LIMITE_INTERVALO_SEGUNDOS,
+                LIMITE_INTERVALO_SEGUNDOS,
+                NIVEIS_SQL);
+    }
+
+    /**
+     * Mapa de calor da área no período.
+     *
+     * @param zoom   zoom do mapa; define o nível da grade (mais grosso se a área tiver
+     *               células demais)
+     * @param rotaId filtra pela rota (opcional)
+     */
+    @Transactional(readOnly = true)
+    public MapaCalorDTO buscar(double minLon, double minLat, double maxLon, double maxLat, int zoom,
+                               LocalDate inicio, LocalDate fim, Long rotaId) {
+        if (minLon >= maxLon || minLat >= maxLat || minLon < -180 || maxLon > 180
+                || minLat < -85 || maxLat > 85) {
+            throw new IllegalArgumentException("Área inválida para o mapa de calor");
+        }
+        if (fim.isBefore(inicio)) {
+            throw new IllegalArgumentException("A data final deve ser igual ou posterior à inicial");
+        }
+        if (ChronoUnit.DAYS.between(inicio, fim) >= maximoDias) {
+            throw new IllegalArgumentException("O período do mapa de calor é limitado a " + maximoDias + " dias");
+        }
+
+        int nivel = escolherNivel(zoom, minLon, minLat, maxLon, maxLat, maximoCelulas);
+        int xMinimo = celulaX(minLon, nivel);
+        int xMaximo = celulaX(maxLon, nivel);
+        int yMinimo = celulaY(maxLat, nivel);
+        int yMaximo = celulaY(minLat, nivel);
+
+        List<CelulaMapaCalorDTO> celulas = jdbcTemplate.query(SQL_BUSCAR, (rs, i) -> {
+                    int x = rs.getInt("celula_x");
+                    int y = rs.getInt("celula_y");
+                    return new CelulaMapaCalorDTO(
+                            Tiles.latitude(nivel, y + 0.5),
+                            Tiles.longitude(nivel, x + 0.5),
+                            rs.getLong("pontos"),
+                            rs.getDouble("permanencia"));
+                },
+                nivel, inicio, fim, xMinimo, xMaximo, yMinimo, yMaximo, rotaId, rotaId);
+
+        return new MapaCalorDTO(nivel, tamanhoCelulaMetros(nivel, (minLat + maxLat) / 2), celulas);
+    }
+
+    /**
+     * Nível guardado mais próximo de {@code zoom + 4} (sem passar dele), subindo para um mais
+     * grosso enquanto a área tiver mais de {@code maximoCelulas} células.
+     */
+    static int escolherNivel(int zoom, double minLon, double minLat, double maxLon, double maxLat, int maximoCelulas) {
+        int indice = 0;
+        while (indice + 1 < NIVEIS.length && NIVEIS[indice + 1] <= zoom + NIVEIS_ACIMA_DO_ZOOM) {
+            indice++;
+        }
+        while (true) {
+            int nivel = NIVEIS[indice];
+            long colunas = celulaX(maxLon, nivel) - celulaX(minLon, nivel) + 1L;
+            long linhas = celulaY(minLat, nivel) - celulaY(maxLat, nivel) + 1L;
+            if (colunas * linhas <= maximoCelulas) {
+                return nivel;
+            }
+            if (indice == 0) {
+                throw new IllegalArgumentException("Área grande demais para o mapa de calor; aproxime o mapa");
+            }
+            indice--;
+        }
+    }
+
+    /** Coluna da grade XYZ que contém a longitude. */
+    static int celulaX(double longitude, int nivel) {
+        int limite = 1 << nivel;
+        return Math.min(limite - 1, (int) Math.floor((longitude + 180d) / 360d * limite));
+    }
+
+    /** Linha da grade XYZ que contém a latitude. */
+    static int celulaY(double latitude, int nivel) {
+        int limite = 1 << nivel;
+        double phi = Math.toRadians(latitude);
+        double y = (1 - Math.log(Math.tan(phi) + 1 / Math.cos(phi)) / Math.PI) / 2 * limite;
+        return Math.max(0, Math.min(limite - 1, (int) Math.floor(y)));
+    }
+
+    static double tamanhoCelulaMetros(int nivel, double latitude) {
+        return CIRCUNFERENCIA_METROS * Math.cos(Math.toRadians(latitude)) / (1 << nivel);
+    }
+}
@@ -0,0 +1,95 @@
+package utfpr.edu.br.coleta.mapa;
+
+import utfpr.edu.br.coleta.mapa.enums.CamadaMapa;
+
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Cache em memória dos tiles, limitado pelo total de bytes e com descarte do menos usado.
+ *
+ * Cada camada tem uma versão, incrementada a cada invalidação. O tile é guardado só se a
+ * versão não mudou enquanto ele era gerado; assim um tile montado com dados anteriores a
+ * uma invalidação nunca fica no cache.
+ *
+ * Autor: Sistema
+ */
+class TileCache {
+
+    record Chave(CamadaMapa camada, int z, int x, int y, Long rotaId, Long trajetoId) {
+    }
+
+    private final long capacidadeBytes;
+    private final LinkedHashMap<Chave, TileVetorial> tiles = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<CamadaMapa, Long> versoes = new EnumMap<>(CamadaMapa.class);
+    private long bytesUsados;
+
+    TileCache(long capacidadeBytes) {
+        this.capacidadeBytes = capacidadeBytes;
+        for (CamadaMapa camada : CamadaMapa.values()) {
+            versoes.put(camada, 0L);
+        }
+    }
+
+    synchronized Optional<TileVetorial> buscar(Chave chave) {
+        return Optional.ofNullable(tiles.get(chave));
+    }
+
+    synchronized long versao(CamadaMapa camada) {
+        return versoes.get(camada);
+    }
+
+    /**
+     * Guarda o tile, se a camada não foi invalidada desde {@code versaoLida}.
+     */
+    synchronized void guardar(Chave chave, TileVetorial tile, long versaoLida) {
+        if (versoes.get(chave.camada()) != versaoLida || tile.conteudo().length > capacidadeBytes) {
+            return;
+        }
+        TileVetorial anterior = tiles.put(chave, tile);
+        if (anterior != null) {
+            bytesUsados -= anterior.conteudo().length;
+        }
+        bytesUsados += tile.conteudo().length;
+
+        Iterator<Map.Entry<Chave, TileVetorial>> menosUsados = tiles.entrySet().iterator();
+        while (bytesUsados > capacidadeBytes && menosUsados.hasNext()) {
+            bytesUsados -= menosUsados.next().getValue().conteudo().length;
+            menosUsados.remove();
+        }
+    }
+
+    /**
+     * Descarta todos os tiles da camada.
+     */
+    synchronized void invalidar(CamadaMapa camada) {
+        versoes.merge(camada, 1L, Long::sum);
+        tiles.entrySet().removeIf(e -> {
+            boolean remover = e.getKey().camada() == camada;
+            if (remover) {
+                bytesUsados -= e.getValue().conteudo().length;
+            }
+            return remover;
+        });
+    }
+
+    /**
+     * Descarta os tiles da camada cujo envelope (com a margem de buffer do tile) intersecta
+     * a área informada, em graus.
+     */
+    synchronized void invalidar(CamadaMapa camada, double minLon, double minLat, double maxLon, double maxLat) {
+        versoes.merge(camada, 1L, Long::sum);
+        tiles.entrySet().removeIf(e -> {
+            Chave chave = e.getKey();
+            boolean remover = chave.camada() == camada
+                    && Tiles.intersecta(chave.z(), chave.x(), chave.y(), minLon, minLat, maxLon, maxLat);
+            if (remover) {
+                bytesUsados -= e.getValue().conteudo().length;
+            }
+            return remover;
+        });
+    }
+}
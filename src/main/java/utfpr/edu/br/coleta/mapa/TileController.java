@@ -0,0 +1,69 @@
+package utfpr.edu.br.coleta.mapa;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import utfpr.edu.br.coleta.mapa.enums.CamadaMapa;
+
+import java.time.Duration;
+
+/**
+ * Controller REST dos tiles vetoriais do mapa administrativo.
+ *
+ * Não estende CrudController, por isso o @RequestMapping inclui "/api/" manualmente.
+ *
+ * Autor: Sistema
+ */
+@RestController
+@RequestMapping("/api/tiles")
+@Tag(name = "Mapa", description = "Tiles vetoriais de rotas, trajetos e incidentes")
+public class TileController {
+
+    public static final String MEDIA_TYPE_MVT = "application/vnd.mapbox-vector-tile";
+
+    private final TileService tileService;
+    private final CacheControl cacheControl;
+
+    public TileController(TileService tileService,
+                          @Value("${app.tiles.max-age-segundos:60}") long maxAgeSegundos) {
+        this.tileService = tileService;
+        // privado: os tiles dependem de autenticação; depois do max-age o navegador revalida pela ETag
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(maxAgeSegundos)).cachePrivate();
+    }
+
+    @GetMapping(value = "/{camada}/{z}/{x}/{y}.mvt", produces = MEDIA_TYPE_MVT)
+    @Operation(summary = "Tile vetorial (MVT) de uma camada do mapa",
+               description = "Camadas: rotas, trajetos e incidentes. Grade XYZ (Web Mercator). " +
+                       "Retorna 204 quando o tile não tem geometrias e 304 quando a ETag informada ainda vale.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Tile retornado"),
+        @ApiResponse(responseCode = "204", description = "Tile sem geometrias"),
+        @ApiResponse(responseCode = "304", description = "Tile não mudou desde a ETag informada"),
+        @ApiResponse(responseCode = "400", description = "Camada ou coordenadas inválidas")
+    })
+    public ResponseEntity<byte[]> buscarTile(
+            @Parameter(description = "Camada: rotas, trajetos ou incidentes", example = "rotas")
+            @PathVariable String camada,
+            @PathVariable int z,
+            @PathVariable int x,
+            @PathVariable int y,
+            @Parameter(description = "Filtra pela rota (opcional)")
+            @RequestParam(required = false) Long rotaId,
+            @Parameter(description = "Filtra pelo trajeto; não se aplica à camada de rotas (opcional)")
+            @RequestParam(required = false) Long trajetoId) {
+
+        TileVetorial tile = tileService.buscar(CamadaMapa.deNome(camada), z, x, y, rotaId, trajetoId);
+
+        if (tile.vazio()) {
+            return ResponseEntity.noContent().cacheControl(cacheControl).build();
+        }
+        // com a ETag na resposta, o Spring devolve 304 quando o If-None-Match confere
+        return ResponseEntity.ok().eTag(tile.etag()).cacheControl(cacheControl).body(tile.conteudo());
+    }
+}
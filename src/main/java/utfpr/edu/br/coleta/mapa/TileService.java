@@ -0,0 +1,216 @@
+package utfpr.edu.br.coleta.mapa;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import utfpr.edu.br.coleta.incidente.event.IncidenteAlteradoEvent;
+import utfpr.edu.br.coleta.mapa.enums.CamadaMapa;
+import utfpr.edu.br.coleta.rota.event.RotaAlteradaEvent;
+import utfpr.edu.br.coleta.trajeto.event.TrajetoExcluidoEvent;
+import utfpr.edu.br.coleta.trajeto.event.TrajetoStatusAlteradoEvent;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoDTO;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.event.PontosTrajetoRegistradosEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Gera os tiles vetoriais (Mapbox Vector Tile) do mapa administrativo no PostGIS, com
+ * {@code ST_AsMVTGeom}/{@code ST_AsMVT}: cada tile traz só as geometrias do seu envelope,
+ * recortadas e quantizadas para a grade do tile.
+ *
+ * Camadas:
+ * <ul>
+ *   <li>rotas: área geográfica de tb_rota (id, nome, ativo)</li>
+ *   <li>trajetos: caminho do trajeto (id, rota_id, status); usa a versão simplificada de
+ *       trajeto_caminho_simplificado com erro de até um pixel no zoom pedido</li>
+ *   <li>incidentes: ponto do incidente (id, trajeto_id, nome, ts)</li>
+ * </ul>
+ *
+ * Os tiles ficam em um cache em memória ({@link TileCache}). Alterações de rota e de
+ * incidente descartam os tiles da camada; pontos novos de um trajeto descartam só os tiles
+ * de trajetos que cobrem a área dos pontos e dos pontos já gravados vizinhos a eles (mais
+ * {@code app.tiles.margem-invalidacao-metros}).
+ *
+ * Autor: Sistema
+ */
+@Service
+public class TileService {
+
+    // envelope do tile em 3857 e, para o filtro no índice, em 4326 com a margem do buffer
+    private static final String SQL_LIMITES =
+            "WITH limites AS (SELECT ST_TileEnvelope(?, ?, ?) AS envelope, " +
+            "ST_Transform(ST_TileEnvelope(?, ?, ?, margin => ?), 4326) AS filtro) ";
+
+    private static final String SQL_ROTAS = SQL_LIMITES +
+            "SELECT ST_AsMVT(m, 'rotas', " + Tiles.EXTENSAO + ", 'geom') FROM (" +
+            "SELECT r.id, r.nome, r.ativo, " +
+            "ST_AsMVTGeom(ST_Transform(r.area_geografica, 3857), l.envelope, " + Tiles.EXTENSAO + ", " + Tiles.BUFFER + ", true) AS geom " +
+            "FROM tb_rota r CROSS JOIN limites l " +
+            "WHERE r.area_geografica && l.filtro " +
+            "AND (CAST(? AS BIGINT) IS NULL OR r.id = ?)" +
+            ") m WHERE m.geom IS NOT NULL";
+
+    private static final String SQL_TRAJETOS = SQL_LIMITES +
+            "SELECT ST_AsMVT(m, 'trajetos', " + Tiles.EXTENSAO + ", 'geom') FROM (" +
+            "SELECT t.id, t.rota_id, t.status, " +
+            "ST_AsMVTGeom(ST_Transform(caminho_para_buffer(t.id, t.caminho, ?), 3857), l.envelope, " +
+            Tiles.EXTENSAO + ", " + Tiles.BUFFER + ", true) AS geom " +
+            "FROM trajeto t CROSS JOIN limites l " +
+            "WHERE t.caminho && l.filtro " +
+            "AND (CAST(? AS BIGINT) IS NULL OR t.rota_id = ?) " +
+            "AND (CAST(? AS BIGINT) IS NULL OR t.id = ?)" +
+            ") m WHERE m.geom IS NOT NULL";
+
+    // mesma expressão do índice idx_incidente_localizacao
+    private static final String SQL_INCIDENTES = SQL_LIMITES +
+            "SELECT ST_AsMVT(m, 'incidentes', " + Tiles.EXTENSAO + ", 'geom') FROM (" +
+            "SELECT i.id, i.trajeto_id, i.nome, to_char(i.ts, 'YYYY-MM-DD\"T\"HH24:MI:SS') AS ts, " +
+            "ST_AsMVTGeom(ST_Transform(ST_SetSRID(ST_MakePoint(i.longitude, i.latitude), 4326), 3857), l.envelope, " +
+            Tiles.EXTENSAO + ", " + Tiles.BUFFER + ", true) AS geom " +
+            "FROM incidente i JOIN trajeto t ON t.id = i.trajeto_id CROSS JOIN limites l " +
+            "WHERE i.latitude IS NOT NULL AND i.longitude IS NOT NULL " +
+            "AND ST_SetSRID(ST_MakePoint(i.longitude, i.latitude), 4326) && l.filtro " +
+            "AND (CAST(? AS BIGINT) IS NULL OR t.rota_id = ?) " +
+            "AND (CAST(? AS BIGINT) IS NULL OR i.trajeto_id = ?)" +
+            ") m WHERE m.geom IS NOT NULL";
+
+    // pontos gravados do anterior ao primeiro do lote até o seguinte ao último: depois de uma
+    // falha de GPS, o trecho até o vizinho pode ser bem maior que a área do lote
+    private static final String SQL_AREA_VIZINHOS =
+            "SELECT ST_XMin(e) AS min_lon, ST_YMin(e) AS min_lat, ST_XMax(e) AS max_lon, ST_YMax(e) AS max_lat " +
+            "FROM (SELECT ST_Extent(p.localizacao) AS e FROM ponto_trajeto p " +
+            "WHERE p.trajeto_id = ? " +
+            "AND p.horario >= COALESCE((SELECT max(horario) FROM ponto_trajeto WHERE trajeto_id = ? AND horario < ?), ?) " +
+            "AND p.horario <= COALESCE((SELECT min(horario) FROM ponto_trajeto WHERE trajeto_id = ? AND horario > ?), ?)" +
+            ") x";
+
+    private static final double METROS_POR_GRAU = 111_320d;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TileCache cache;
+    private final int zoomMinimoTrajetos;
+    private final double margemInvalidacaoMetros;
+
+    public TileService(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.tiles.cache-mb:64}") long cacheMb,
+            @Value("${app.tiles.zoom-minimo-trajetos:10}") int zoomMinimoTrajetos,
+            @Value("${app.tiles.margem-invalidacao-metros:300}") double margemInvalidacaoMetros) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cache = new TileCache(cacheMb * 1024 * 1024);
+        this.zoomMinimoTrajetos = zoomMinimoTrajetos;
+        this.margemInvalidacaoMetros = margemInvalidacaoMetros;
+    }
+
+    /**
+     * Tile da camada na posição z/x/y da grade XYZ.
+     *
+     * @param rotaId    filtra pela rota (opcional)
+     * @param trajetoId filtra pelo trajeto; ignorado na camada de rotas (opcional)
+     * @return o tile, possivelmente vazio
+     */
+    @Transactional(readOnly = true)
+    public TileVetorial buscar(CamadaMapa camada, int z, int x, int y, Long rotaId, Long trajetoId) {
+        Tiles.validar(z, x, y);
+        if (camada == CamadaMapa.ROTAS) {
+            trajetoId = null;
+        }
+
+        TileCache.Chave chave = new TileCache.Chave(camada, z, x, y, rotaId, trajetoId);
+        Optional<TileVetorial> emCache = cache.buscar(chave);
+        if (emCache.isPresent()) {
+            return emCache.get();
+        }
+
+        long versao = cache.versao(camada);
+        TileVetorial tile = TileVetorial.de(gerar(camada, z, x, y, rotaId, trajetoId));
+        cache.guardar(chave, tile, versao);
+        return tile;
+    }
+
+    private byte[] gerar(CamadaMapa camada, int z, int x, int y, Long rotaId, Long trajetoId) {
+        // todos os trajetos da cidade em zoom baixo: muitas linhas sobrepostas, pouco úteis
+        if (camada == CamadaMapa.TRAJETOS && z < zoomMinimoTrajetos && rotaId == null && trajetoId == null) {
+            return new byte[0];
+        }
+
+        List<Object> parametros = new ArrayList<>(List.of(z, x, y, z, x, y, Tiles.BUFFER / (double) Tiles.EXTENSAO));
+        String sql;
+        switch (camada) {
+            case ROTAS -> {
+                sql = SQL_ROTAS;
+                parametros.addAll(Arrays.asList(rotaId, rotaId));
+            }
+            case TRAJETOS -> {
+                sql = SQL_TRAJETOS;
+                // caminho_para_buffer escolhe a versão com tolerância de até 1/4 do valor: até 1 pixel
+                parametros.add(4 * Tiles.metrosPorPixel(z));
+                parametros.addAll(Arrays.asList(rotaId, rotaId, trajetoId, trajetoId));
+            }
+            case INCIDENTES -> {
+                sql = SQL_INCIDENTES;
+                parametros.addAll(Arrays.asList(rotaId, rotaId, trajetoId, trajetoId));
+            }
+            default -> throw new IllegalArgumentException("Camada inválida: " + camada);
+        }
+
+        byte[] conteudo = jdbcTemplate.queryForObject(sql, byte[].class, parametros.toArray());
+        return conteudo != null ? conteudo : new byte[0];
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoAlterarRota(RotaAlteradaEvent event) {
+        cache.invalidar(CamadaMapa.ROTAS);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoAlterarIncidente(IncidenteAlteradoEvent event) {
+        cache.invalidar(CamadaMapa.INCIDENTES);
+    }
+
+    // o status e o caminho simplificado mudam ao finalizar; raro o suficiente para descartar a camada
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoAlterarStatusTrajeto(TrajetoStatusAlteradoEvent event) {
+        cache.invalidar(CamadaMapa.TRAJETOS);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoExcluirTrajeto(TrajetoExcluidoEvent event) {
+        cache.invalidar(CamadaMapa.TRAJETOS);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoRegistrarPontos(PontosTrajetoRegistradosEvent event) {
+        double minLon = Double.POSITIVE_INFINITY;
+        double minLat = Double.POSITIVE_INFINITY;
+        double maxLon = Double.NEGATIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY;
+        for (PontoTrajetoDTO ponto : event.getPontos()) {
+            minLon = Math.min(minLon, ponto.getLongitude());
+            minLat = Math.min(minLat, ponto.getLatitude());
+            maxLon = Math.max(maxLon, ponto.getLongitude());
+            maxLat = Math.max(maxLat, ponto.getLatitude());
+        }
+        // o caminho também muda no trecho que liga os pontos novos aos vizinhos já gravados
+        Map<String, Object> vizinhos = jdbcTemplate.queryForMap(SQL_AREA_VIZINHOS,
+                event.getTrajetoId(),
+                event.getTrajetoId(), event.getHorarioMinimo(), event.getHorarioMinimo(),
+                event.getTrajetoId(), event.getHorarioMaximo(), event.getHorarioMaximo());
+        if (vizinhos.get("min_lon") != null) {
+            minLon = Math.min(minLon, ((Number) vizinhos.get("min_lon")).doubleValue());
+            minLat = Math.min(minLat, ((Number) vizinhos.get("min_lat")).doubleValue());
+            maxLon = Math.max(maxLon, ((Number) vizinhos.get("max_lon")).doubleValue());
+            maxLat = Math.max(maxLat, ((Number) vizinhos.get("max_lat")).doubleValue());
+        }
+        double margemLat = margemInvalidacaoMetros / METROS_POR_GRAU;
+        double margemLon = margemLat / Math.cos(Math.toRadians((minLat + maxLat) / 2));
+        cache.invalidar(CamadaMapa.TRAJETOS, minLon - margemLon, minLat - margemLat, maxLon + margemLon, maxLat + margemLat);
+    }
+}
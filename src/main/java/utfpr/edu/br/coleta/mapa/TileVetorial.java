@@ -0,0 +1,19 @@
+package utfpr.edu.br.coleta.mapa;
+
+import org.springframework.util.DigestUtils;
+
+/**
+ * Tile vetorial (Mapbox Vector Tile) já codificado, com a ETag do seu conteúdo.
+ *
+ * Autor: Sistema
+ */
+public record TileVetorial(byte[] conteudo, String etag) {
+
+    public static TileVetorial de(byte[] conteudo) {
+        return new TileVetorial(conteudo, DigestUtils.md5DigestAsHex(conteudo));
+    }
+
+    public boolean vazio() {
+        return conteudo.length == 0;
+    }
+}
@@ -0,0 +1,63 @@
+package utfpr.edu.br.coleta.mapa;
+
+/**
+ * Contas da grade de tiles XYZ (Web Mercator, EPSG:3857).
+ *
+ * Autor: Sistema
+ */
+final class Tiles {
+
+    static final int ZOOM_MAXIMO = 22;
+
+    /** Extensão das coordenadas dentro do tile (padrão do MVT). */
+    static final int EXTENSAO = 4096;
+
+    /** Margem, em unidades do tile, incluída além da borda para não cortar linhas e símbolos. */
+    static final int BUFFER = 64;
+
+    /** Metros por pixel no zoom 0, no equador, para tiles de 256 px. */
+    private static final double METROS_POR_PIXEL_Z0 = 156_543.033_928;
+
+    private Tiles() {
+    }
+
+    static void validar(int z, int x, int y) {
+        if (z < 0 || z > ZOOM_MAXIMO) {
+            throw new IllegalArgumentException("Zoom deve estar entre 0 e " + ZOOM_MAXIMO);
+        }
+        int limite = 1 << z;
+        if (x < 0 || x >= limite || y < 0 || y >= limite) {
+            throw new IllegalArgumentException("Tile " + z + "/" + x + "/" + y + " fora da grade");
+        }
+    }
+
+    /**
+     * Tamanho de um pixel do tile em unidades de EPSG:3857 (metros no equador; menos que
+     * isso em latitudes maiores).
+     */
+    static double metrosPorPixel(int z) {
+        return METROS_POR_PIXEL_Z0 / (1 << z);
+    }
+
+    /**
+     * Indica se o envelope do tile, com a margem de {@link #BUFFER}, intersecta a área em graus.
+     */
+    static boolean intersecta(int z, int x, int y, double minLon, double minLat, double maxLon, double maxLat) {
+        double margem = BUFFER / (double) EXTENSAO;
+        double oeste = longitude(z, x - margem);
+        double leste = longitude(z, x + 1 + margem);
+        double norte = latitude(z, y - margem);
+        double sul = latitude(z, y + 1 + margem);
+        return oeste <= maxLon && leste >= minLon && sul <= maxLat && norte >= minLat;
+    }
+
+    /** Longitude da borda oeste da coluna x (fracionária) da grade no zoom z. */
+    static double longitude(int z, double x) {
+        return x / (1 << z) * 360d - 180d;
+    }
+
+    /** Latitude da borda norte da linha y (fracionária) da grade no zoom z. */
+    static double latitude(int z, double y) {
+        return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2 * y / (1 << z)))));
+    }
+}
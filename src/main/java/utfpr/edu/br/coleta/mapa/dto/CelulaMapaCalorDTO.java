@@ -0,0 +1,30 @@
+package utfpr.edu.br.coleta.mapa.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Célula do mapa de calor com os totais do período.
+ *
+ * Autor: Sistema
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Célula do mapa de calor")
+public class CelulaMapaCalorDTO {
+
+    @Schema(description = "Latitude do centro da célula", example = "-26.2289")
+    private double latitude;
+
+    @Schema(description = "Longitude do centro da célula", example = "-52.6789")
+    private double longitude;
+
+    @Schema(description = "Quantidade de pontos GPS na célula", example = "184")
+    private long pontos;
+
+    @Schema(description = "Tempo que os caminhões passaram na célula, em segundos", example = "912.5")
+    private double permanenciaSegundos;
+}
@@ -0,0 +1,30 @@
+package utfpr.edu.br.coleta.mapa.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Mapa de calor de uma área: as células com pontos no período, no nível da grade escolhido
+ * para o zoom.
+ *
+ * Autor: Sistema
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Mapa de calor dos pontos GPS")
+public class MapaCalorDTO {
+
+    @Schema(description = "Nível da grade (zoom XYZ das células)", example = "18")
+    private int nivel;
+
+    @Schema(description = "Lado aproximado da célula na latitude da área, em metros", example = "137.2")
+    private double tamanhoCelulaMetros;
+
+    @Schema(description = "Células com pontos no período")
+    private List<CelulaMapaCalorDTO> celulas;
+}
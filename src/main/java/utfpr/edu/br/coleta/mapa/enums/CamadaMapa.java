@@ -0,0 +1,31 @@
+package utfpr.edu.br.coleta.mapa.enums;
+
+import lombok.Getter;
+
+/**
+ * Camadas disponíveis nos tiles vetoriais do mapa.
+ *
+ * Autor: Sistema
+ */
+@Getter
+public enum CamadaMapa {
+    ROTAS("rotas"),
+    TRAJETOS("trajetos"),
+    INCIDENTES("incidentes");
+
+    /** Nome usado na URL e como nome da camada dentro do tile. */
+    private final String nome;
+
+    CamadaMapa(String nome) {
+        this.nome = nome;
+    }
+
+    public static CamadaMapa deNome(String nome) {
+        for (CamadaMapa camada : values()) {
+            if (camada.nome.equals(nome)) {
+                return camada;
+            }
+        }
+        throw new IllegalArgumentException("Camada inválida: " + nome);
+    }
+}
@@ -0,0 +1,56 @@
+package utfpr.edu.br.coleta.rota;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Mantém a série diária de cobertura (ver {@link CoberturaDiariaService}): toda noite grava
+ * o dia anterior de todas as rotas ativas e, a cada intervalo, recalcula um lote dos dias
+ * marcados como pendentes por dados que chegaram atrasados.
+ *
+ * Autor: Sistema
+ */
+@Component
+@Slf4j
+public class CoberturaDiariaJob {
+
+    private final CoberturaDiariaService service;
+    private final boolean habilitado;
+    private final int pendentesPorExecucao;
+
+    public CoberturaDiariaJob(
+            CoberturaDiariaService service,
+            @Value("${app.cobertura.diaria.habilitado:true}") boolean habilitado,
+            @Value("${app.cobertura.diaria.pendentes-por-execucao:200}") int pendentesPorExecucao
+    ) {
+        this.service = service;
+        this.habilitado = habilitado;
+        this.pendentesPorExecucao = pendentesPorExecucao;
+    }
+
+    @Scheduled(cron = "${app.cobertura.diaria.cron:0 0 3 * * *}")
+    public void gravarDiaAnterior() {
+        if (!habilitado) {
+            return;
+        }
+        LocalDate dia = LocalDate.now().minusDays(1);
+        int gravadas = service.gravarDia(dia);
+        log.info("Cobertura diária de {} gravada para {} rota(s)", dia, gravadas);
+    }
+
+    @Scheduled(fixedDelayString = "${app.cobertura.diaria.pendentes-intervalo-ms:600000}",
+            initialDelayString = "${app.cobertura.diaria.pendentes-intervalo-ms:600000}")
+    public void processarPendentes() {
+        if (!habilitado) {
+            return;
+        }
+        int processados = service.processarPendentes(pendentesPorExecucao);
+        if (processados > 0) {
+            log.info("Cobertura diária: {} dia(s) pendente(s) recalculado(s)", processados);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package utfpr.edu.br.coleta.rota;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import utfpr.edu.br.coleta.rota.dto.AreasNaoPercorridasDTO.EstatisticasCobertura;
+import utfpr.edu.br.coleta.rota.dto.CoberturaDiariaDTO;
+import utfpr.edu.br.coleta.trajeto.enums.TrajetoStatus;
+import utfpr.edu.br.coleta.trajeto.event.TrajetoExcluidoEvent;
+import utfpr.edu.br.coleta.trajeto.event.TrajetoStatusAlteradoEvent;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.event.PontosTrajetoRegistradosEvent;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Série diária de cobertura por rota (tabela cobertura_diaria), para os gráficos de
+ * tendência não recalcularem a cobertura de cada dia a cada consulta.
+ *
+ * {@link CoberturaDiariaJob} grava o dia anterior de todas as rotas ativas e recalcula os
+ * dias pendentes. Um dia fica pendente quando, depois de passado, um trajeto iniciado nele
+ * muda de status, um trajeto finalizado recebe pontos ou é excluído; a marcação é feita na transação
+ * que altera o trajeto e o recálculo fica para o job.
+ *
+ * A série é mantida nos buffers de {@code app.cobertura.buffers-materializados-metros}, que
+ * já têm a cobertura por dia guardada em rota_cobertura_dia.
+ *
+ * Autor: Sistema
+ */
+@Service
+@Slf4j
+public class CoberturaDiariaService {
+
+    private static final String SQL_ROTAS_ATIVAS =
+            "SELECT id FROM tb_rota WHERE ativo AND area_geografica IS NOT NULL ORDER BY id";
+
+    private static final String SQL_ATUALIZAR = "SELECT atualizar_cobertura_diaria(?, ?::DOUBLE PRECISION[], ?)";
+
+    // dia que falhou em gravarDia vai para a fila; rota removida nesse meio-tempo é ignorada
+    private static final String SQL_MARCAR =
+            "INSERT INTO cobertura_diaria_pendente (rota_id, dia) SELECT id, ? FROM tb_rota WHERE id = ? " +
+            "ON CONFLICT (rota_id, dia) DO NOTHING";
+
+    // marcado_em muda a cada marcação, para processarPendentes não retirar da fila uma
+    // marcação feita durante o recálculo
+    private static final String SQL_MARCAR_TRAJETO =
+            "INSERT INTO cobertura_diaria_pendente (rota_id, dia) " +
+            "SELECT t.rota_id, t.data_inicio::DATE FROM trajeto t " +
+            "WHERE t.id = ? AND t.data_inicio < CURRENT_DATE " +
+            "ON CONFLICT (rota_id, dia) DO UPDATE SET marcado_em = EXCLUDED.marcado_em";
+
+    private static final String SQL_MARCAR_TRAJETO_FINALIZADO =
+            "INSERT INTO cobertura_diaria_pendente (rota_id, dia) " +
+            "SELECT t.rota_id, t.data_inicio::DATE FROM trajeto t " +
+            "WHERE t.id = ? AND t.data_inicio < CURRENT_DATE AND t.status = 'FINALIZADO' " +
+            "ON CONFLICT (rota_id, dia) DO UPDATE SET marcado_em = EXCLUDED.marcado_em";
+
+    // trajeto excluído: a linha já não existe, rota e dia vêm do evento
+    private static final String SQL_MARCAR_DIA =
+            "INSERT INTO cobertura_diaria_pendente (rota_id, dia) " +
+            "SELECT id, ?::DATE FROM tb_rota WHERE id = ? AND ?::DATE < CURRENT_DATE " +
+            "ON CONFLICT (rota_id, dia) DO UPDATE SET marcado_em = EXCLUDED.marcado_em";
+
+    private static final String SQL_PENDENTES =
+            "SELECT rota_id, dia, marcado_em FROM cobertura_diaria_pendente ORDER BY dia LIMIT ?";
+
+    // só depois do recálculo, e só se o dia não foi marcado de novo nesse meio-tempo
+    private static final String SQL_RETIRAR =
+            "DELETE FROM cobertura_diaria_pendente WHERE rota_id = ? AND dia = ? AND marcado_em = ?";
+
+    private static final String SQL_BUSCAR =
+            "SELECT dia, area_total_m2, area_coberta_m2, area_nao_coberta_m2, percentual_cobertura, " +
+            "quantidade_trajetos FROM cobertura_diaria " +
+            "WHERE rota_id = ? AND buffer_metros = ? AND dia BETWEEN ? AND ? ORDER BY dia";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final double[] buffersMetros;
+    private final Double[] buffersParametro;
+
+    public CoberturaDiariaService(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.cobertura.buffers-materializados-metros:20}") double[] buffersMetros) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.buffersMetros = buffersMetros;
+        this.buffersParametro = Arrays.stream(buffersMetros).boxed().toArray(Double[]::new);
+    }
+
+    /**
+     * Grava a cobertura do dia de todas as rotas ativas com área geográfica. Uma rota que
+     * falha fica pendente para a próxima passada.
+     *
+     * @return quantidade de rotas gravadas
+     */
+    public int gravarDia(LocalDate dia) {
+        int gravadas = 0;
+        for (Long rotaId : jdbcTemplate.queryForList(SQL_ROTAS_ATIVAS, Long.class)) {
+            if (atualizar(rotaId, dia)) {
+                gravadas++;
+            } else {
+                jdbcTemplate.update(SQL_MARCAR, dia, rotaId);
+            }
+        }
+        return gravadas;
+    }
+
+    /**
+     * Recalcula até {@code limite} dias pendentes, dos mais antigos para os mais recentes.
+     * Cada dia sai da fila só depois de recalculado: uma falha ou uma queda no meio do lote
+     * deixa o dia pendente para a próxima passada, e um dia marcado de novo durante o
+     * recálculo continua na fila.
+     *
+     * @return quantidade de dias retirados da fila
+     */
+    public int processarPendentes(int limite) {
+        List<Object[]> pendentes = jdbcTemplate.query(SQL_PENDENTES, (rs, i) -> new Object[]{
+                rs.getLong(1), rs.getObject(2, LocalDate.class), rs.getObject(3, LocalDateTime.class)}, limite);
+        int retirados = 0;
+        for (Object[] pendente : pendentes) {
+            Long rotaId = (Long) pendente[0];
+            LocalDate dia = (LocalDate) pendente[1];
+            if (atualizar(rotaId, dia)) {
+                retirados += jdbcTemplate.update(SQL_RETIRAR, rotaId, dia, pendente[2]);
+            }
+        }
+        return retirados;
+    }
+
+    /**
+     * Série diária da rota no buffer, entre {@code inicio} e {@code fim} (inclusive).
+     */
+    public List<CoberturaDiariaDTO> buscar(Long rotaId, double bufferMetros, LocalDate inicio, LocalDate fim) {
+        if (Arrays.stream(buffersMetros).noneMatch(b -> b == bufferMetros)) {
+            throw new IllegalArgumentException("Não há série diária para o buffer de " + bufferMetros +
+                    "m; buffers disponíveis: " + Arrays.toString(buffersMetros));
+        }
+        if (fim.isBefore(inicio)) {
+            throw new IllegalArgumentException("O fim do período deve ser igual ou posterior ao início");
+        }
+        return jdbcTemplate.query(SQL_BUSCAR, (rs, i) -> new CoberturaDiariaDTO(
+                rs.getObject("dia", LocalDate.class),
+                bufferMetros,
+                EstatisticasCobertura.builder()
+                        .areaTotalM2(rs.getDouble("area_total_m2"))
+                        .areaCobertaM2(rs.getDouble("area_coberta_m2"))
+                        .areaNaoCobertaM2(rs.getDouble("area_nao_coberta_m2"))
+                        .percentualCobertura(rs.getDouble("percentual_cobertura"))
+                        .quantidadeTrajetos(rs.getInt("quantidade_trajetos"))
+                        .build()
+        ), rotaId, bufferMetros, inicio, fim);
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void aoAlterarStatusTrajeto(TrajetoStatusAlteradoEvent event) {
+        // finalizado entra na cobertura do dia; cancelado ou reaberto, sai
+        jdbcTemplate.update(SQL_MARCAR_TRAJETO, event.getTrajetoId());
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void aoRegistrarPontos(PontosTrajetoRegistradosEvent event) {
+        // só trajetos finalizados contam na cobertura
+        jdbcTemplate.update(SQL_MARCAR_TRAJETO_FINALIZADO, event.getTrajetoId());
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void aoExcluirTrajeto(TrajetoExcluidoEvent event) {
+        if (event.getStatus() == TrajetoStatus.FINALIZADO && event.getDia() != null) {
+            jdbcTemplate.update(SQL_MARCAR_DIA, event.getDia(), event.getRotaId(), event.getDia());
+        }
+    }
+
+    private boolean atualizar(Long rotaId, LocalDate dia) {
+        try {
+            jdbcTemplate.queryForList(SQL_ATUALIZAR, Object.class, rotaId, buffersParametro, dia);
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Erro ao gravar a cobertura diária da rota {} em {}", rotaId, dia, e);
+            return false;
+        }
+    }
+}
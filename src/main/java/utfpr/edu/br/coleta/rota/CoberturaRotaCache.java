@@ -0,0 +1,164 @@
+package utfpr.edu.br.coleta.rota;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import utfpr.edu.br.coleta.rota.dto.AreasNaoPercorridasDTO;
+import utfpr.edu.br.coleta.rota.event.RotaAlteradaEvent;
+import utfpr.edu.br.coleta.trajeto.enums.TrajetoStatus;
+import utfpr.edu.br.coleta.trajeto.event.TrajetoExcluidoEvent;
+import utfpr.edu.br.coleta.trajeto.event.TrajetoStatusAlteradoEvent;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.event.PontosTrajetoRegistradosEvent;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Cache em memória do cálculo de cobertura das rotas (áreas não percorridas e estatísticas),
+ * por rota, buffer, trajeto e modo (exato ou aproximado), com descarte do menos usado acima de
+ * {@code app.cobertura.cache-maximo-entradas}.
+ *
+ * Pedidos iguais e simultâneos esperam o mesmo cálculo em vez de repetir as consultas
+ * geográficas. A entrada fica no mapa desde o início do cálculo; a invalidação a remove
+ * mesmo em andamento, então um resultado calculado com dados anteriores à alteração não
+ * é reaproveitado por pedidos posteriores.
+ *
+ * Invalidação, depois do commit:
+ * <ul>
+ *   <li>alteração ou exclusão da rota: todas as entradas da rota</li>
+ *   <li>mudança de status ou exclusão de um trajeto: todas as entradas da rota do trajeto</li>
+ *   <li>pontos novos: as entradas do trajeto e, se ele já está finalizado (os cálculos sem
+ *       trajeto só consideram finalizados), as da rota inteira</li>
+ * </ul>
+ *
+ * Autor: Sistema
+ */
+@Component
+class CoberturaRotaCache {
+
+    record Chave(Long rotaId, double bufferMetros, Long trajetoId, boolean aproximado) {
+
+        Chave(Long rotaId, double bufferMetros, Long trajetoId) {
+            this(rotaId, bufferMetros, trajetoId, false);
+        }
+    }
+
+    private static final String SQL_ROTA_DO_TRAJETO = "SELECT rota_id FROM trajeto WHERE id = ?";
+
+    private static final String SQL_TRAJETO = "SELECT rota_id, status FROM trajeto WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maximoEntradas;
+    private final LinkedHashMap<Chave, CompletableFuture<AreasNaoPercorridasDTO>> entradas =
+            new LinkedHashMap<>(64, 0.75f, true);
+
+    CoberturaRotaCache(JdbcTemplate jdbcTemplate,
+                       @Value("${app.cobertura.cache-maximo-entradas:500}") int maximoEntradas) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maximoEntradas = maximoEntradas;
+    }
+
+    /**
+     * Resultado em cache para a chave; sem ele, executa {@code calculo} (ou espera o cálculo
+     * já em andamento para a mesma chave). Erros não ficam em cache.
+     */
+    AreasNaoPercorridasDTO buscar(Chave chave, Supplier<AreasNaoPercorridasDTO> calculo) {
+        CompletableFuture<AreasNaoPercorridasDTO> futuro;
+        boolean calcular = false;
+        synchronized (this) {
+            futuro = entradas.get(chave);
+            if (futuro == null) {
+                futuro = new CompletableFuture<>();
+                entradas.put(chave, futuro);
+                calcular = true;
+                descartarExcedentes();
+            }
+        }
+
+        if (!calcular) {
+            return aguardar(futuro);
+        }
+        try {
+            AreasNaoPercorridasDTO resultado = calculo.get();
+            futuro.complete(resultado);
+            return resultado;
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                entradas.remove(chave, futuro);
+            }
+            futuro.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    synchronized void invalidar(Long rotaId) {
+        remover(chave -> chave.rotaId().equals(rotaId));
+    }
+
+    synchronized void invalidarTrajeto(Long rotaId, Long trajetoId, boolean incluirRota) {
+        remover(chave -> chave.rotaId().equals(rotaId)
+                && (trajetoId.equals(chave.trajetoId()) || (incluirRota && chave.trajetoId() == null)));
+    }
+
+    synchronized int tamanho() {
+        return entradas.size();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoAlterarRota(RotaAlteradaEvent event) {
+        invalidar(event.getRotaId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoAlterarStatusTrajeto(TrajetoStatusAlteradoEvent event) {
+        List<Long> rota = jdbcTemplate.queryForList(SQL_ROTA_DO_TRAJETO, Long.class, event.getTrajetoId());
+        if (!rota.isEmpty()) {
+            invalidar(rota.get(0));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoExcluirTrajeto(TrajetoExcluidoEvent event) {
+        invalidar(event.getRotaId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoRegistrarPontos(PontosTrajetoRegistradosEvent event) {
+        jdbcTemplate.query(SQL_TRAJETO, rs -> {
+            invalidarTrajeto(rs.getLong("rota_id"), event.getTrajetoId(),
+                    TrajetoStatus.FINALIZADO.name().equals(rs.getString("status")));
+        }, event.getTrajetoId());
+    }
+
+    private void remover(Predicate<Chave> filtro) {
+        entradas.keySet().removeIf(filtro);
+    }
+
+    private void descartarExcedentes() {
+        var menosUsadas = entradas.keySet().iterator();
+        while (entradas.size() > maximoEntradas && menosUsadas.hasNext()) {
+            menosUsadas.next();
+            menosUsadas.remove();
+        }
+    }
+
+    private static AreasNaoPercorridasDTO aguardar(CompletableFuture<AreasNaoPercorridasDTO> futuro) {
+        try {
+            return futuro.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            if (e.getCause() instanceof Error causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package utfpr.edu.br.coleta.rota;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import utfpr.edu.br.coleta.rota.dto.AreasNaoPercorridasDTO.EstatisticasCobertura;
+import utfpr.edu.br.coleta.rota.dto.CoberturaRotaDiaDTO;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Relatório de cobertura de todas as rotas ativas em um dia.
+ *
+ * Cada rota é calculada em uma virtual thread, e cada cálculo segura uma conexão do pool
+ * enquanto roda; o número de cálculos simultâneos é limitado por
+ * {@code app.cobertura.relatorio.concorrencia} ou, sem ela, pela metade do pool do Hikari,
+ * para o relatório não esgotar as conexões do resto da aplicação.
+ *
+ * As linhas são escritas em NDJSON na ordem em que os cálculos terminam. Rota sem área
+ * geográfica ou com falha no cálculo sai com {@code erro}, sem interromper as demais; toda
+ * rota ativa sai em exatamente uma linha.
+ *
+ * Autor: Sistema
+ */
+@Service
+@Slf4j
+public class RelatorioCoberturaService {
+
+    private static final int POOL_PADRAO = 10;
+
+    private final RotaRepository repository;
+    private final ObjectMapper objectMapper;
+    private final int concorrencia;
+
+    public RelatorioCoberturaService(
+            RotaRepository repository,
+            ObjectMapper objectMapper,
+            DataSource dataSource,
+            @Value("${app.cobertura.relatorio.concorrencia:0}") int concorrencia) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.concorrencia = concorrencia > 0 ? concorrencia : concorrenciaPadrao(dataSource);
+    }
+
+    static int concorrenciaPadrao(DataSource dataSource) {
+        int pool = dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : POOL_PADRAO;
+        return Math.max(1, pool / 2);
+    }
+
+    int getConcorrencia() {
+        return concorrencia;
+    }
+
+    /**
+     * Escreve em {@code saida} uma linha por rota ativa, conforme os cálculos terminam.
+     *
+     * @return quantidade de rotas escritas
+     */
+    public int gerarRelatorio(LocalDate dia, double bufferMetros, OutputStream saida) throws IOException {
+        List<Rota> rotas = repository.findByAtivoTrue();
+        Semaphore permissoes = new Semaphore(concorrencia);
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            CompletionService<CoberturaRotaDiaDTO> prontas = new ExecutorCompletionService<>(executor);
+            Map<Future<CoberturaRotaDiaDTO>, Long> rotaPorCalculo = new HashMap<>();
+            for (Rota rota : rotas) {
+                rotaPorCalculo.put(prontas.submit(() -> {
+                    permissoes.acquire();
+                    try {
+                        return calcular(rota, dia, bufferMetros);
+                    } finally {
+                        permissoes.release();
+                    }
+                }), rota.getId());
+            }
+
+            // cada cálculo submetido termina, com resultado ou com falha, e vira uma linha
+            for (int i = 0; i < rotas.size(); i++) {
+                Future<CoberturaRotaDiaDTO> pronta = prontas.take();
+                CoberturaRotaDiaDTO linha = linha(pronta, rotaPorCalculo.get(pronta), dia, bufferMetros);
+                saida.write(objectMapper.writeValueAsBytes(linha));
+                saida.write('\n');
+                saida.flush();
+            }
+            return rotas.size();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Relatório de cobertura interrompido");
+        } finally {
+            // em caso de erro na escrita, cancela o que ainda não rodou
+            executor.shutdownNow();
+        }
+    }
+
+    private CoberturaRotaDiaDTO linha(Future<CoberturaRotaDiaDTO> pronta, Long rotaId,
+                                      LocalDate dia, double bufferMetros) {
+        try {
+            return pronta.get();
+        } catch (InterruptedException | ExecutionException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.error("Erro ao calcular cobertura da rota ID {} no dia {}", rotaId, dia, e);
+            return CoberturaRotaDiaDTO.builder()
+                    .rotaId(rotaId)
+                    .dia(dia)
+                    .bufferMetros(bufferMetros)
+                    .erro("Erro ao calcular a cobertura da rota")
+                    .build();
+        }
+    }
+
+    private CoberturaRotaDiaDTO calcular(Rota rota, LocalDate dia, double bufferMetros) {
+        CoberturaRotaDiaDTO.CoberturaRotaDiaDTOBuilder linha = CoberturaRotaDiaDTO.builder()
+                .rotaId(rota.getId())
+                .rotaNome(rota.getNome())
+                .dia(dia)
+                .bufferMetros(bufferMetros);
+
+        if (rota.getAreaGeografica() == null) {
+            return linha.erro("Rota não possui área geográfica definida").build();
+        }
+
+        try {
+            String estatisticas = repository.calcularEstatisticasCoberturaDia(rota.getId(), bufferMetros, dia);
+            return linha.estatisticas(objectMapper.readValue(estatisticas, EstatisticasCobertura.class)).build();
+        } catch (Exception e) {
+            log.error("Erro ao calcular cobertura da rota ID {} no dia {}", rota.getId(), dia, e);
+            return linha.erro("Erro ao calcular a cobertura da rota").build();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package utfpr.edu.br.coleta.rota;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import utfpr.edu.br.coleta.trajeto.enums.TrajetoStatus;
+import utfpr.edu.br.coleta.trajeto.event.TrajetoExcluidoEvent;
+import utfpr.edu.br.coleta.trajeto.event.TrajetoStatusAlteradoEvent;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.event.PontosTrajetoRegistradosEvent;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mantém a área coberta de cada rota já calculada (tabelas rota_cobertura e
+ * rota_cobertura_dia), para o cálculo de cobertura não refazer a união dos buffers de todo
+ * o histórico a cada pedido.
+ *
+ * Roda na transação que altera o trajeto:
+ * <ul>
+ *   <li>trajeto finalizado: o buffer dele é unido à cobertura guardada da rota</li>
+ *   <li>pontos novos no fim de trajeto finalizado: o buffer do caminho atualizado é unido de novo</li>
+ *   <li>pontos atrasados no meio de trajeto finalizado: o traçado de um trecho mudou, então a
+ *       cobertura do dia do trajeto e a união da rota são refeitas</li>
+ *   <li>trajeto já incluído cancelado: a cobertura da rota é reconstruída sem ele</li>
+ *   <li>trajeto finalizado excluído: idem</li>
+ * </ul>
+ *
+ * Só os buffers de {@code app.cobertura.buffers-materializados-metros} são guardados; para
+ * os demais, e para o cálculo de um trajeto específico, calcular_cobertura_rota une na hora.
+ *
+ * Autor: Sistema
+ */
+@Service
+@Slf4j
+public class RotaCoberturaService {
+
+    private static final String SQL_ACUMULAR = "SELECT acumular_rota_cobertura(?, ?::DOUBLE PRECISION[])";
+
+    private static final String SQL_RECONSTRUIR = "SELECT reconstruir_rota_cobertura(?, ?::DOUBLE PRECISION[])";
+
+    private static final String SQL_RECONSTRUIR_DIA =
+            "SELECT reconstruir_rota_cobertura_dia(?, ?::DOUBLE PRECISION[], ?)";
+
+    private static final String SQL_INCLUIDO =
+            "SELECT rota_id FROM rota_cobertura_trajeto WHERE trajeto_id = ?";
+
+    private static final String SQL_TRAJETO = "SELECT status, rota_id, data_inicio::DATE AS dia FROM trajeto WHERE id = ?";
+
+    // pontos já gravados a partir do mais antigo do lote; mais que os do lote = inseridos no meio
+    private static final String SQL_CONTAR_A_PARTIR_DE =
+            "SELECT count(*) FROM ponto_trajeto WHERE trajeto_id = ? AND horario >= ?";
+
+    private static final String SQL_REMOVER_BUFFERS =
+            "DELETE FROM rota_cobertura WHERE NOT (buffer_metros = ANY(?::DOUBLE PRECISION[]))";
+
+    private static final String SQL_REMOVER_BUFFERS_DIA =
+            "DELETE FROM rota_cobertura_dia WHERE NOT (buffer_metros = ANY(?::DOUBLE PRECISION[]))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Double[] buffersMetros;
+
+    public RotaCoberturaService(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.cobertura.buffers-materializados-metros:20}") double[] buffersMetros) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.buffersMetros = Arrays.stream(buffersMetros).boxed().toArray(Double[]::new);
+    }
+
+    /**
+     * Descarta a cobertura guardada de buffers que saíram da configuração: deixariam de ser
+     * atualizados e o cálculo continuaria usando-os. Buffers novos são montados por rota na
+     * próxima finalização de trajeto; até lá, o cálculo une na hora.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void removerBuffersForaDaConfiguracao() {
+        int removidas = jdbcTemplate.update(SQL_REMOVER_BUFFERS, (Object) buffersMetros);
+        jdbcTemplate.update(SQL_REMOVER_BUFFERS_DIA, (Object) buffersMetros);
+        if (removidas > 0) {
+            log.info("Cobertura guardada de {} rota(s)/buffer(s) fora da configuração removida", removidas);
+        }
+    }
+
+    /**
+     * Refaz a cobertura guardada da rota a partir dos trajetos finalizados.
+     */
+    @Transactional
+    public void reconstruir(Long rotaId) {
+        jdbcTemplate.queryForList(SQL_RECONSTRUIR, Object.class, rotaId, buffersMetros);
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void aoAlterarStatusTrajeto(TrajetoStatusAlteradoEvent event) {
+        if (event.getStatus() == TrajetoStatus.FINALIZADO) {
+            jdbcTemplate.queryForList(SQL_ACUMULAR, Object.class, event.getTrajetoId(), buffersMetros);
+            return;
+        }
+        // deixou de ser finalizado: só reconstrói se já fazia parte da cobertura guardada
+        List<Long> rota = jdbcTemplate.queryForList(SQL_INCLUIDO, Long.class, event.getTrajetoId());
+        if (!rota.isEmpty()) {
+            reconstruir(rota.get(0));
+        }
+    }
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void aoExcluirTrajeto(TrajetoExcluidoEvent event) {
+        // rota_cobertura_trajeto já perdeu a linha em cascata; só finalizados entram na cobertura
+        if (event.getStatus() == TrajetoStatus.FINALIZADO) {
+            reconstruir(event.getRotaId());
+        }
+    }
+
+    // depois do caminho e da simplificação, para o buffer usar o caminho já atualizado
+    @EventListener
+    @Order(30)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void aoRegistrarPontos(PontosTrajetoRegistradosEvent event) {
+        List<Map<String, Object>> trajeto = jdbcTemplate.queryForList(SQL_TRAJETO, event.getTrajetoId());
+        if (trajeto.isEmpty() || !TrajetoStatus.FINALIZADO.name().equals(trajeto.get(0).get("status"))) {
+            return;
+        }
+        Long pontos = jdbcTemplate.queryForObject(SQL_CONTAR_A_PARTIR_DE, Long.class,
+                event.getTrajetoId(), event.getHorarioMinimo());
+        if (pontos != null && pontos > event.getPontos().size()) {
+            Long rotaId = ((Number) trajeto.get(0).get("rota_id")).longValue();
+            log.debug("Pontos no meio do trajeto finalizado {}: refazendo a cobertura da rota {} no dia",
+                    event.getTrajetoId(), rotaId);
+            jdbcTemplate.queryForList(SQL_RECONSTRUIR_DIA, Object.class, rotaId, buffersMetros, trajeto.get(0).get("dia"));
+        } else {
+            jdbcTemplate.queryForList(SQL_ACUMULAR, Object.class, event.getTrajetoId(), buffersMetros);
+        }
+    }
+}
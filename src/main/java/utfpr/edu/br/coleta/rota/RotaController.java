@@ -3,9 +3,14 @@ package utfpr.edu.br.coleta.rota;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import utfpr.edu.br.coleta.generics.CrudController;
 import utfpr.edu.br.coleta.rota.dto.RotaDTO;
 import utfpr.edu.br.coleta.tipocoleta.TipoColetaService;
@@ -21,6 +26,10 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import utfpr.edu.br.coleta.rota.dto.AreasNaoPercorridasDTO;
+import utfpr.edu.br.coleta.rota.dto.CoberturaDiariaDTO;
+
+import java.time.LocalDate;
+import java.util.List;
 
 /**
  * Controller responsável por expor os endpoints REST para operações de CRUD de Rota.
@@ -40,15 +49,24 @@ public class RotaController extends CrudController<Rota, RotaDTO> {
     private final RotaMapper rotaMapper;
     private final TipoResiduoService tipoResiduoService;
     private final TipoColetaService tipoColetaService;
+    private final RelatorioCoberturaService relatorioCoberturaService;
+    private final CoberturaDiariaService coberturaDiariaService;
+    private final long retryAfterSegundos;
 
     public RotaController(RotaService service, ModelMapper modelMapper, RotaMapper rotaMapper,
-                          TipoResiduoService tipoResiduoService, TipoColetaService tipoColetaService) {
+                          TipoResiduoService tipoResiduoService, TipoColetaService tipoColetaService,
+                          RelatorioCoberturaService relatorioCoberturaService,
+                          CoberturaDiariaService coberturaDiariaService,
+                          @Value("${app.cobertura.retry-after-segundos:5}") long retryAfterSegundos) {
         super(Rota.class, RotaDTO.class);
         this.service = service;
         this.modelMapper = modelMapper;
         this.rotaMapper = rotaMapper;
         this.tipoResiduoService = tipoResiduoService;
         this.tipoColetaService = tipoColetaService;
+        this.relatorioCoberturaService = relatorioCoberturaService;
+        this.coberturaDiariaService = coberturaDiariaService;
+        this.retryAfterSegundos = retryAfterSegundos;
     }
 
     @Override
@@ -186,6 +204,11 @@ public class RotaController extends CrudController<Rota, RotaDTO> {
                     responseCode = "500",
                     description = "Erro interno ao processar áreas não percorridas",
                     content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Cálculo de cobertura sobrecarregado, tente novamente após Retry-After segundos",
+                    content = @Content
             )
     })
     @GetMapping("/{id}/nao-percorridas")
@@ -196,12 +219,15 @@ public class RotaController extends CrudController<Rota, RotaDTO> {
             @Parameter(description = "Raio do buffer em metros aplicado ao redor do trajeto (padrão: 20m)")
             @RequestParam(required = false, defaultValue = "20.0") Double bufferMetros,
             @Parameter(description = "ID do trajeto específico para análise (opcional)")
-            @RequestParam(required = false) Long trajetoId
+            @RequestParam(required = false) Long trajetoId,
+            @Parameter(description = "Cálculo aproximado por grade de células, mais rápido; " +
+                    "o limite do erro vem em estatisticas.erro_maximo_m2")
+            @RequestParam(defaultValue = "false") boolean aproximado
     ) {
         log.info("GET /api/rotas/{}/nao-percorridas - buffer: {}m, trajetoId: {}", id, bufferMetros, trajetoId);
 
         try {
-            AreasNaoPercorridasDTO resultado = service.calcularAreasNaoPercorridas(id, bufferMetros, trajetoId);
+            AreasNaoPercorridasDTO resultado = service.calcularAreasNaoPercorridas(id, bufferMetros, trajetoId, aproximado);
 
             log.info("Áreas não percorridas calculadas com sucesso para rota ID: {} - Cobertura: {}%",
                     id, resultado.getEstatisticas().getPercentualCobertura());
@@ -216,6 +242,10 @@ public class RotaController extends CrudController<Rota, RotaDTO> {
             log.warn("Área geográfica não definida: {}", e.getMessage());
             return ResponseEntity.badRequest().build();
 
+        } catch (RotaService.CoberturaSobrecarregadaException e) {
+            log.warn("Cálculo de cobertura sobrecarregado para rota ID: {}", id);
+            return sobrecarregado();
+
         } catch (RotaService.ErroProcessamentoGeoespacialException e) {
             log.error("Erro ao processar áreas não percorridas para rota ID: {}", id, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -246,12 +276,15 @@ public class RotaController extends CrudController<Rota, RotaDTO> {
             @Parameter(description = "Raio do buffer em metros (padrão: 20m)")
             @RequestParam(required = false, defaultValue = "20.0") Double bufferMetros,
             @Parameter(description = "ID do trajeto específico para análise (opcional)")
-            @RequestParam(required = false) Long trajetoId
+            @RequestParam(required = false) Long trajetoId,
+            @Parameter(description = "Cálculo aproximado por grade de células, mais rápido; " +
+                    "o limite do erro vem em estatisticas.erro_maximo_m2")
+            @RequestParam(defaultValue = "false") boolean aproximado
     ) {
         log.info("GET /api/rotas/{}/estatisticas-cobertura - buffer: {}m, trajetoId: {}", id, bufferMetros, trajetoId);
 
         try {
-            AreasNaoPercorridasDTO resultado = service.calcularAreasNaoPercorridas(id, bufferMetros, trajetoId);
+            AreasNaoPercorridasDTO resultado = service.calcularAreasNaoPercorridas(id, bufferMetros, trajetoId, aproximado);
             return ResponseEntity.ok(resultado.getEstatisticas());
 
         } catch (RotaService.RotaNaoEncontradaException e) {
@@ -262,9 +295,81 @@ public class RotaController extends CrudController<Rota, RotaDTO> {
             log.warn("Área geográfica não definida: {}", e.getMessage());
             return ResponseEntity.badRequest().build();
 
+        } catch (RotaService.CoberturaSobrecarregadaException e) {
+            log.warn("Cálculo de cobertura sobrecarregado para rota ID: {}", id);
+            return sobrecarregado();
+
         } catch (Exception e) {
             log.error("Erro ao obter estatísticas de cobertura para rota ID: {}", id, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Relatório de cobertura de todas as rotas ativas em um dia, em NDJSON (uma rota por
+     * linha), enviado conforme cada rota termina de ser calculada.
+     *
+     * @param dia Dia de início dos trajetos considerados (padrão: ontem)
+     * @param bufferMetros Raio do buffer em metros (opcional, padrão: 20m)
+     * @return Stream NDJSON com a cobertura de cada rota ativa
+     */
+    @Operation(
+            summary = "Relatório de cobertura das rotas ativas no dia",
+            description = "Calcula em paralelo a cobertura de todas as rotas ativas pelos trajetos finalizados " +
+                    "iniciados no dia e envia uma linha NDJSON por rota assim que ela fica pronta. " +
+                    "Rotas sem área geográfica ou com falha no cálculo saem com o campo erro."
+    )
+    @GetMapping(value = "/cobertura/relatorio", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> relatorioCobertura(
+            @Parameter(description = "Dia de início dos trajetos (padrão: ontem)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dia,
+
+            @Parameter(description = "Raio do buffer em metros (padrão: 20m)")
+            @RequestParam(required = false, defaultValue = "20.0") Double bufferMetros
+    ) {
+        LocalDate diaRelatorio = dia != null ? dia : LocalDate.now().minusDays(1);
+        log.info("GET /api/rota/cobertura/relatorio - dia: {}, buffer: {}m", diaRelatorio, bufferMetros);
+
+        StreamingResponseBody corpo = saida -> relatorioCoberturaService.gerarRelatorio(diaRelatorio, bufferMetros, saida);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(corpo);
+    }
+
+    /**
+     * Série diária de cobertura da rota no período, lida da tabela cobertura_diaria.
+     *
+     * @param id ID da rota
+     * @param inicio Primeiro dia do período
+     * @param fim Último dia do período
+     * @param bufferMetros Raio do buffer em metros (opcional, padrão: 20m)
+     * @return Cobertura de cada dia já gravado no período
+     */
+    @Operation(
+            summary = "Obter série diária de cobertura da rota",
+            description = "Retorna a cobertura de cada dia do período, gravada pelo job noturno. " +
+                    "Dias com dados recebidos depois da gravação são recalculados em seguida."
+    )
+    @GetMapping("/{id}/cobertura/diaria")
+    public ResponseEntity<List<CoberturaDiariaDTO>> obterCoberturaDiaria(
+            @Parameter(description = "ID da rota", required = true)
+            @PathVariable Long id,
+
+            @Parameter(description = "Primeiro dia do período", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+
+            @Parameter(description = "Último dia do período", required = true)
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim,
+
+            @Parameter(description = "Raio do buffer em metros (padrão: 20m)")
+            @RequestParam(required = false, defaultValue = "20.0") Double bufferMetros
+    ) {
+        return ResponseEntity.ok(coberturaDiariaService.buscar(id, bufferMetros, inicio, fim));
+    }
+
+    private <T> ResponseEntity<T> sobrecarregado() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSegundos))
+                .build();
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import utfpr.edu.br.coleta.caminhao.Caminhao;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -52,42 +53,54 @@ public interface RotaRepository extends JpaRepository<Rota, Long>, JpaSpecificat
      */
     Page<Rota> findByNomeContainingIgnoreCase(String nome, Pageable pageable);
     /**
-     * Calcula as áreas não percorridas de uma rota específica.
+     * Calcula a cobertura de uma rota em uma única consulta.
      *
-     * Utiliza função PostGIS para comparar a área geográfica da rota
-     * com os trajetos realizados, aplicando um buffer configurável.
+     * Utiliza a função PostGIS calcular_cobertura_rota, que faz a união dos buffers dos
+     * trajetos uma vez só e devolve, na mesma linha, as áreas da rota não percorridas e as
+     * estatísticas de cobertura.
      *
      * @param rotaId ID da rota a ser analisada
      * @param bufferMetros Raio do buffer em metros (padrão: 20m)
-     * @return GeoJSON com as áreas não cobertas
+     * @param trajetoId ID do trajeto específico; nulo considera os trajetos finalizados da rota
+     * @param casasDecimais casas decimais das coordenadas do GeoJSON
+     * @return GeoJSON das áreas não cobertas e JSON das estatísticas
      */
     @Query(value = """
-    SELECT ST_AsGeoJSON(
-        calcular_areas_nao_percorridas(:rotaId, :bufferMetros, :trajetoId)
-    )::text as areas_nao_cobertas
+    SELECT areas_nao_cobertas AS "areasNaoCobertas", estatisticas::text AS "estatisticas"
+    FROM calcular_cobertura_rota(:rotaId, :bufferMetros, :trajetoId, :casasDecimais)
     """, nativeQuery = true)
-    Optional<String> calcularAreasNaoPercorridas(
+    Optional<CoberturaRota> calcularCobertura(
             @Param("rotaId") Long rotaId,
             @Param("bufferMetros") Double bufferMetros,
-            @Param("trajetoId") Long trajetoId
+            @Param("trajetoId") Long trajetoId,
+            @Param("casasDecimais") Integer casasDecimais
     );
 
     /**
-     * Obtém estatísticas de cobertura de uma rota.
+     * Estatísticas de cobertura da rota considerando só os trajetos finalizados iniciados no
+     * dia, pela função calcular_cobertura_rota_dia.
      *
-     * @param rotaId ID da rota a ser analisada
+     * @param rotaId ID da rota
      * @param bufferMetros Raio do buffer em metros
-     * @return JSON com estatísticas de cobertura
+     * @param dia Dia de início dos trajetos
+     * @return JSON das estatísticas, no mesmo formato de {@link #calcularCobertura}
      */
-    @Query(value = """
-    SELECT obter_estatisticas_cobertura(:rotaId, :bufferMetros, :trajetoId)::text as estatisticas
-    """, nativeQuery = true)
-    Optional<String> obterEstatisticasCobertura(
+    @Query(value = "SELECT calcular_cobertura_rota_dia(:rotaId, :bufferMetros, :dia)::text", nativeQuery = true)
+    String calcularEstatisticasCoberturaDia(
             @Param("rotaId") Long rotaId,
             @Param("bufferMetros") Double bufferMetros,
-            @Param("trajetoId") Long trajetoId
+            @Param("dia") LocalDate dia
     );
 
+    /**
+     * Resultado de {@link #calcularCobertura}.
+     */
+    interface CoberturaRota {
+        String getAreasNaoCobertas();
+
+        String getEstatisticas();
+    }
+
     /**
      * Verifica se a rota possui área geográfica definida.
      *
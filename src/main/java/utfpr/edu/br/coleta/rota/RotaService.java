@@ -2,17 +2,21 @@ package utfpr.edu.br.coleta.rota;
 
 import java.util.Optional;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import utfpr.edu.br.coleta.generics.CrudServiceImpl;
 import org.springframework.transaction.annotation.Transactional;
 import lombok.extern.slf4j.Slf4j;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import utfpr.edu.br.coleta.rota.cobertura.IMotorCobertura;
+import utfpr.edu.br.coleta.rota.cobertura.ResultadoCobertura;
 import utfpr.edu.br.coleta.rota.dto.AreasNaoPercorridasDTO;
 import utfpr.edu.br.coleta.rota.dto.AreasNaoPercorridasDTO.EstatisticasCobertura;
-import java.util.Map;
+import utfpr.edu.br.coleta.rota.enums.MotorCobertura;
+import utfpr.edu.br.coleta.rota.event.RotaAlteradaEvent;
+import java.util.List;
 
 
 /**
@@ -28,10 +32,26 @@ import java.util.Map;
 public class RotaService extends CrudServiceImpl<Rota, Long> {
 
     private final RotaRepository repository;
-    private final ObjectMapper objectMapper;
-    public RotaService(RotaRepository repository, ObjectMapper objectMapper) {
+    private final ApplicationEventPublisher eventPublisher;
+    private final CoberturaRotaCache coberturaCache;
+    private final IMotorCobertura motorCobertura;
+    private final IMotorCobertura motorAproximado;
+    public RotaService(RotaRepository repository, ApplicationEventPublisher eventPublisher,
+                       CoberturaRotaCache coberturaCache, List<IMotorCobertura> motores,
+                       @Value("${app.cobertura.motor:postgis}") String motor) {
         this.repository = repository;
-        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.coberturaCache = coberturaCache;
+        MotorCobertura tipo = MotorCobertura.valueOf(motor.trim().toUpperCase());
+        this.motorCobertura = motores.stream()
+                .filter(m -> m.tipo() == tipo)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Motor de cobertura não disponível: " + motor));
+        this.motorAproximado = motores.stream()
+                .filter(m -> m.tipo() == MotorCobertura.GRADE)
+                .findFirst()
+                .orElse(motorCobertura);
+        log.info("Cálculo de cobertura das rotas: {}", tipo);
     }
 
     private static final Double BUFFER_PADRAO_METROS = 20.0;
@@ -41,6 +61,19 @@ public class RotaService extends CrudServiceImpl<Rota, Long> {
         return repository;
     }
 
+    @Override
+    public Rota postSave(Rota rota) {
+        eventPublisher.publishEvent(new RotaAlteradaEvent(rota.getId()));
+        return rota;
+    }
+
+    @Override
+    @Transactional
+    public void delete(Long id) {
+        super.delete(id);
+        eventPublisher.publishEvent(new RotaAlteradaEvent(id));
+    }
+
     public Optional<Rota> findById(long id) {
         return repository.findById(id);
     }
@@ -59,19 +92,44 @@ public class RotaService extends CrudServiceImpl<Rota, Long> {
      * realizados (LineString), aplicando um buffer ao redor dos trajetos para
      * considerar a largura de cobertura da coleta.
      *
+     * O cálculo é feito pelo motor configurado em {@code app.cobertura.motor}: a função
+     * calcular_cobertura_rota no PostGIS (padrão) ou JTS na aplicação ({@link IMotorCobertura}).
+     * No modo aproximado, usa a grade de células (MotorCoberturaGrade), bem mais rápida, com
+     * o limite do erro em {@code erro_maximo_m2} nas estatísticas.
+     *
+     * O resultado fica em cache ({@link CoberturaRotaCache}) até a rota ou um trajeto dela
+     * mudar, e pedidos iguais simultâneos compartilham o mesmo cálculo. Sem transação própria:
+     * quem espera o cálculo de outro pedido não segura uma conexão com o banco.
+     *
      * @param rotaId ID da rota a ser analisada
      * @param bufferMetros Raio do buffer em metros (opcional, padrão: 20m)
+     * @param aproximado true para o cálculo aproximado por grade
      * @return DTO com áreas não cobertas e estatísticas
      * @throws RotaNaoEncontradaException se a rota não existir
      * @throws AreaPlanejadaNaoDefinidaException se a rota não tiver área planejada
+     * @throws CoberturaSobrecarregadaException se o motor não aceitar mais cálculos no momento
      * @throws ErroProcessamentoGeoespacialException em caso de erro no processamento
      */
-    @Transactional(readOnly = true)
-    public AreasNaoPercorridasDTO calcularAreasNaoPercorridas(Long rotaId, Double bufferMetros, Long trajetoId) {
-        log.info("Calculando áreas não percorridas para rota ID: {} com buffer: {}m e trajeto ID: {}", rotaId, bufferMetros, trajetoId);
-
+    public AreasNaoPercorridasDTO calcularAreasNaoPercorridas(Long rotaId, Double bufferMetros, Long trajetoId,
+                                                              boolean aproximado) {
         // Validar buffer
         Double bufferFinal = (bufferMetros != null && bufferMetros > 0) ? bufferMetros : BUFFER_PADRAO_METROS;
+        IMotorCobertura motor = aproximado ? motorAproximado : motorCobertura;
+
+        return coberturaCache.buscar(new CoberturaRotaCache.Chave(rotaId, bufferFinal, trajetoId, aproximado),
+                () -> calcularCobertura(rotaId, bufferFinal, trajetoId, motor));
+    }
+
+    /**
+     * Cálculo exato, pelo motor configurado.
+     */
+    public AreasNaoPercorridasDTO calcularAreasNaoPercorridas(Long rotaId, Double bufferMetros, Long trajetoId) {
+        return calcularAreasNaoPercorridas(rotaId, bufferMetros, trajetoId, false);
+    }
+
+    private AreasNaoPercorridasDTO calcularCobertura(Long rotaId, Double bufferFinal, Long trajetoId,
+                                                     IMotorCobertura motor) {
+        log.info("Calculando áreas não percorridas para rota ID: {} com buffer: {}m e trajeto ID: {}", rotaId, bufferFinal, trajetoId);
 
         // Verificar se a rota existe
         Rota rota = repository.findById(rotaId)
@@ -89,43 +147,14 @@ public class RotaService extends CrudServiceImpl<Rota, Long> {
         }
 
         try {
-            // Obter áreas não cobertas em GeoJSON
-            String areasNaoCobertas = repository.calcularAreasNaoPercorridas(rotaId, bufferFinal, trajetoId)
-                    .orElse(null);
-
-            // Obter estatísticas de cobertura
-            String estatisticasJson = repository.obterEstatisticasCobertura(rotaId, bufferFinal, trajetoId)
-                    .orElseThrow(() -> new ErroProcessamentoGeoespacialException(
-                            "Erro ao obter estatísticas de cobertura para rota ID " + rotaId
-                    ));
-
-            // Converter JSON para objetos
-            Map<String, Object> areasGeoJSON = null;
-            if (areasNaoCobertas != null && !areasNaoCobertas.equals("null")) {
-                areasGeoJSON = objectMapper.readValue(
-                        areasNaoCobertas,
-                        new TypeReference<Map<String, Object>>() {}
-                );
-            }
-
-            Map<String, Object> estatisticasMap = objectMapper.readValue(
-                    estatisticasJson,
-                    new TypeReference<Map<String, Object>>() {}
-            );
+            ResultadoCobertura cobertura = motor.calcular(rotaId, bufferFinal, trajetoId);
+            EstatisticasCobertura estatisticas = cobertura.estatisticas();
 
             // Construir DTO de resposta
-            EstatisticasCobertura estatisticas = EstatisticasCobertura.builder()
-                    .areaTotalM2(getDoubleValue(estatisticasMap, "area_total_m2"))
-                    .areaCobertaM2(getDoubleValue(estatisticasMap, "area_coberta_m2"))
-                    .areaNaoCobertaM2(getDoubleValue(estatisticasMap, "area_nao_coberta_m2"))
-                    .percentualCobertura(getDoubleValue(estatisticasMap, "percentual_cobertura"))
-                    .quantidadeTrajetos(getIntegerValue(estatisticasMap, "quantidade_trajetos"))
-                    .build();
-
             AreasNaoPercorridasDTO resultado = AreasNaoPercorridasDTO.builder()
                     .rotaId(rotaId)
                     .rotaNome(rota.getNome())
-                    .areasNaoCobertas(areasGeoJSON)
+                    .areasNaoCobertas(cobertura.areasNaoCobertas())
                     .estatisticas(estatisticas)
                     .bufferMetros(bufferFinal)
                     .build();
@@ -135,6 +164,8 @@ public class RotaService extends CrudServiceImpl<Rota, Long> {
 
             return resultado;
 
+        } catch (CoberturaSobrecarregadaException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Erro ao processar áreas não percorridas para rota ID: {}", rotaId, e);
             throw new ErroProcessamentoGeoespacialException(
@@ -147,7 +178,6 @@ public class RotaService extends CrudServiceImpl<Rota, Long> {
     /**
      * Sobrecarga do método com buffer padrão.
      */
-    @Transactional(readOnly = true)
     public AreasNaoPercorridasDTO calcularAreasNaoPercorridas(Long rotaId) {
         return calcularAreasNaoPercorridas(rotaId, BUFFER_PADRAO_METROS, null);
     }
@@ -156,33 +186,10 @@ public class RotaService extends CrudServiceImpl<Rota, Long> {
     /**
      * Sobrecarga do método com buffer e sem trajetoId.
      */
-    @Transactional(readOnly = true)
     public AreasNaoPercorridasDTO calcularAreasNaoPercorridas(Long rotaId, Double bufferMetros) {
         return calcularAreasNaoPercorridas(rotaId, bufferMetros, null);
     }
 
-// =====================================================================
-// MÉTODOS AUXILIARES
-// =====================================================================
-
-    private Double getDoubleValue(Map<String, Object> map, String key) {
-        Object value = map.get(key);
-        if (value == null) return null;
-        if (value instanceof Number) {
-            return ((Number) value).doubleValue();
-        }
-        return Double.parseDouble(value.toString());
-    }
-
-    private Integer getIntegerValue(Map<String, Object> map, String key) {
-        Object value = map.get(key);
-        if (value == null) return null;
-        if (value instanceof Number) {
-            return ((Number) value).intValue();
-        }
-        return Integer.parseInt(value.toString());
-    }
-
 // =====================================================================
 //  EXCEÇÕES CUSTOMIZADAS
 // =====================================================================
@@ -199,6 +206,15 @@ public class RotaService extends CrudServiceImpl<Rota, Long> {
         }
     }
 
+    /**
+     * O cálculo não foi aceito porque o motor está no limite de pedidos; pode ser repetido em instantes.
+     */
+    public static class CoberturaSobrecarregadaException extends RuntimeException {
+        public CoberturaSobrecarregadaException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
     public static class ErroProcessamentoGeoespacialException extends RuntimeException {
         public ErroProcessamentoGeoespacialException(String message) {
             super(message);
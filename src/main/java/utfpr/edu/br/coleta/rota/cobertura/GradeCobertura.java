@@ -0,0 +1,273 @@
+package utfpr.edu.br.coleta.rota.cobertura;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Área de uma rota rasterizada em células quadradas (EPSG:3857), uma vez por rota, para
+ * calcular a cobertura com operações de bits em vez de buffers e uniões de polígonos.
+ *
+ * Cada célula é classificada pelo centro: está na área se o centro está dentro do polígono,
+ * e coberta se o centro está a até {@code buffer} de algum segmento dos caminhos. A
+ * classificação só pode errar em células a menos de meia diagonal ({@code lado·√2/2}) da
+ * borda da área ou da borda do buffer; as demais estão inteiramente de um lado. Essas
+ * células "incertas" são contadas à parte e dão o limite do erro: cada uma erra no máximo
+ * a própria área ({@code lado²}).
+ *
+ * Autor: Sistema
+ */
+final class GradeCobertura {
+
+    private static final double MEIA_DIAGONAL = Math.sqrt(2) / 2;
+
+    private final double lado;
+    private final double origemX;
+    private final double origemY;
+    private final int colunas;
+    private final int linhas;
+    /** Células com centro dentro da área. */
+    private final BitSet area;
+    /** Células com centro a até meia diagonal da borda da área. */
+    private final BitSet bordaArea;
+
+    private GradeCobertura(double lado, double origemX, double origemY, int colunas, int linhas) {
+        this.lado = lado;
+        this.origemX = origemX;
+        this.origemY = origemY;
+        this.colunas = colunas;
+        this.linhas = linhas;
+        this.area = new BitSet(colunas * linhas);
+        this.bordaArea = new BitSet(colunas * linhas);
+    }
+
+    /**
+     * Rasteriza a área (EPSG:3857). O lado da célula cresce além de {@code ladoMetros} se
+     * necessário para a grade ter no máximo cerca de {@code maximoCelulas} células.
+     */
+    static GradeCobertura rasterizar(Geometry area, double ladoMetros, long maximoCelulas) {
+        Envelope envelope = area.getEnvelopeInternal();
+        double lado = Math.max(ladoMetros, Math.sqrt(envelope.getArea() / maximoCelulas));
+        int colunas = Math.max(1, (int) Math.ceil(envelope.getWidth() / lado));
+        int linhas = Math.max(1, (int) Math.ceil(envelope.getHeight() / lado));
+        GradeCobertura grade = new GradeCobertura(lado, envelope.getMinX(), envelope.getMinY(), colunas, linhas);
+
+        List<double[]> arestas = new ArrayList<>();
+        for (int i = 0; i < area.getNumGeometries(); i++) {
+            if (area.getGeometryN(i) instanceof Polygon poligono) {
+                adicionarSegmentos(poligono.getExteriorRing(), arestas);
+                for (int j = 0; j < poligono.getNumInteriorRing(); j++) {
+                    adicionarSegmentos(poligono.getInteriorRingN(j), arestas);
+                }
+            }
+        }
+        grade.preencher(arestas);
+
+        double[] raio = {lado * MEIA_DIAGONAL};
+        BitSet[] marcas = {grade.bordaArea};
+        for (double[] aresta : arestas) {
+            grade.marcar(aresta, raio, marcas);
+        }
+        return grade;
+    }
+
+    double getLado() {
+        return lado;
+    }
+
+    int getColunas() {
+        return colunas;
+    }
+
+    int getLinhas() {
+        return linhas;
+    }
+
+    /** Tamanho aproximado em memória dos bitmaps da grade, em bytes. */
+    long tamanhoBytes() {
+        return (area.size() + bordaArea.size()) / 8;
+    }
+
+    /**
+     * Cobertura da área pelos caminhos (EPSG:3857; nulos são ignorados).
+     */
+    Contagem calcular(List<Geometry> caminhos, double bufferMetros) {
+        double folga = lado * MEIA_DIAGONAL;
+        // dentro: inteiramente coberta; coberta: centro no buffer; alcance: tocada pelo buffer
+        BitSet dentro = new BitSet(colunas * linhas);
+        BitSet coberta = new BitSet(colunas * linhas);
+        BitSet alcance = new BitSet(colunas * linhas);
+        double[] raios = {bufferMetros - folga, bufferMetros, bufferMetros + folga};
+        BitSet[] marcas = {dentro, coberta, alcance};
+
+        List<double[]> segmentos = new ArrayList<>();
+        for (Geometry caminho : caminhos) {
+            if (caminho == null || caminho.isEmpty()) {
+                continue;
+            }
+            segmentos.clear();
+            adicionarSegmentos(caminho, segmentos);
+            for (double[] segmento : segmentos) {
+                marcar(segmento, raios, marcas);
+            }
+        }
+
+        coberta.and(area);
+        BitSet naoCobertas = (BitSet) area.clone();
+        naoCobertas.andNot(coberta);
+
+        // incertas: borda da área, ou borda do buffer dentro da área
+        BitSet incertas = alcance;
+        incertas.andNot(dentro);
+        incertas.and(area);
+        incertas.or(bordaArea);
+
+        return new Contagem(lado * lado, area.cardinality(), coberta.cardinality(),
+                incertas.cardinality(), naoCobertas);
+    }
+
+    /**
+     * Células marcadas como polígonos (EPSG:3857): trechos contínuos de cada linha, unidos
+     * às linhas seguintes enquanto o trecho se repete. Os retângulos podem se tocar pelas
+     * arestas; a geometria serve para exibição.
+     */
+    Geometry paraGeometria(BitSet celulas, GeometryFactory factory) {
+        List<Polygon> retangulos = new ArrayList<>();
+        // trecho [inicio, fim) -> linha em que o retângulo aberto começou
+        Map<Long, Integer> abertos = new HashMap<>();
+        for (int linha = 0; linha <= linhas; linha++) {
+            Map<Long, Integer> continuam = new HashMap<>();
+            if (linha < linhas) {
+                int base = linha * colunas;
+                int inicio = celulas.nextSetBit(base);
+                while (inicio >= 0 && inicio < base + colunas) {
+                    int fim = Math.min(celulas.nextClearBit(inicio), base + colunas);
+                    long trecho = ((long) (inicio - base) << 32) | (fim - base);
+                    Integer aberto = abertos.remove(trecho);
+                    continuam.put(trecho, aberto != null ? aberto : linha);
+                    inicio = celulas.nextSetBit(fim);
+                }
+            }
+            for (Map.Entry<Long, Integer> fechado : abertos.entrySet()) {
+                int colunaInicio = (int) (fechado.getKey() >>> 32);
+                int colunaFim = (int) (fechado.getKey() & 0xFFFFFFFFL);
+                retangulos.add((Polygon) factory.toGeometry(new Envelope(
+                        origemX + colunaInicio * lado, origemX + colunaFim * lado,
+                        origemY + fechado.getValue() * lado, origemY + linha * lado)));
+            }
+            abertos = continuam;
+        }
+        return factory.createMultiPolygon(retangulos.toArray(Polygon[]::new));
+    }
+
+    /** Marca em {@link #area} as células com centro dentro dos anéis (regra par-ímpar). */
+    private void preencher(List<double[]> arestas) {
+        double[] cruzamentos = new double[arestas.size()];
+        for (int linha = 0; linha < linhas; linha++) {
+            double y = origemY + (linha + 0.5) * lado;
+            int n = 0;
+            for (double[] a : arestas) {
+                if ((a[1] <= y) != (a[3] <= y)) {
+                    cruzamentos[n++] = a[0] + (y - a[1]) * (a[2] - a[0]) / (a[3] - a[1]);
+                }
+            }
+            Arrays.sort(cruzamentos, 0, n);
+            for (int i = 0; i + 1 < n; i += 2) {
+                int inicio = coluna(cruzamentos[i]);
+                int fim = coluna(cruzamentos[i + 1]);
+                if (fim > inicio) {
+                    area.set(linha * colunas + inicio, linha * colunas + fim);
+                }
+            }
+        }
+    }
+
+    /** Primeira coluna com centro em {@code x} ou depois, limitada à grade. */
+    private int coluna(double x) {
+        double posicao = Math.ceil((x - origemX) / lado - 0.5);
+        return (int) Math.max(0, Math.min(colunas, posicao));
+    }
+
+    /**
+     * Marca em {@code marcas[k]} as células com centro a até {@code raios[k]} do segmento
+     * {x1, y1, x2, y2}. O último raio deve ser o maior; raios negativos não marcam nada.
+     */
+    private void marcar(double[] s, double[] raios, BitSet[] marcas) {
+        double maior = raios[raios.length - 1];
+        int linhaInicio = (int) Math.max(0, Math.floor((Math.min(s[1], s[3]) - maior - origemY) / lado));
+        int linhaFim = (int) Math.min(linhas - 1, Math.floor((Math.max(s[1], s[3]) + maior - origemY) / lado));
+        int colunaInicio = (int) Math.max(0, Math.floor((Math.min(s[0], s[2]) - maior - origemX) / lado));
+        int colunaFim = (int) Math.min(colunas - 1, Math.floor((Math.max(s[0], s[2]) + maior - origemX) / lado));
+
+        double dx = s[2] - s[0];
+        double dy = s[3] - s[1];
+        double comprimento2 = dx * dx + dy * dy;
+        for (int linha = linhaInicio; linha <= linhaFim; linha++) {
+            double y = origemY + (linha + 0.5) * lado;
+            for (int coluna = colunaInicio; coluna <= colunaFim; coluna++) {
+                double x = origemX + (coluna + 0.5) * lado;
+                double t = comprimento2 == 0 ? 0
+                        : Math.max(0, Math.min(1, ((x - s[0]) * dx + (y - s[1]) * dy) / comprimento2));
+                double ex = s[0] + t * dx - x;
+                double ey = s[1] + t * dy - y;
+                double distancia2 = ex * ex + ey * ey;
+                for (int k = 0; k < raios.length; k++) {
+                    if (raios[k] >= 0 && distancia2 <= raios[k] * raios[k]) {
+                        marcas[k].set(linha * colunas + coluna);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void adicionarSegmentos(Geometry geometria, List<double[]> segmentos) {
+        for (int i = 0; i < geometria.getNumGeometries(); i++) {
+            Geometry parte = geometria.getGeometryN(i);
+            if (parte instanceof Point ponto && !ponto.isEmpty()) {
+                segmentos.add(new double[]{ponto.getX(), ponto.getY(), ponto.getX(), ponto.getY()});
+            } else if (parte instanceof LineString linha) {
+                Coordinate[] coordenadas = linha.getCoordinates();
+                if (coordenadas.length == 1) {
+                    segmentos.add(new double[]{coordenadas[0].x, coordenadas[0].y, coordenadas[0].x, coordenadas[0].y});
+                }
+                for (int j = 1; j < coordenadas.length; j++) {
+                    segmentos.add(new double[]{coordenadas[j - 1].x, coordenadas[j - 1].y, coordenadas[j].x, coordenadas[j].y});
+                }
+            } else if (parte instanceof Polygon poligono) {
+                adicionarSegmentos(poligono.getExteriorRing(), segmentos);
+            }
+        }
+    }
+
+    /**
+     * Resultado em células de {@code areaCelula} m².
+     *
+     * @param incertas células que podem estar mal classificadas; {@code incertas · areaCelula}
+     *                 limita o erro das áreas total, coberta e não coberta
+     */
+    record Contagem(double areaCelula, int celulasArea, int celulasCobertas, int incertas, BitSet naoCobertas) {
+
+        double areaTotalM2() {
+            return celulasArea * areaCelula;
+        }
+
+        double areaCobertaM2() {
+            return celulasCobertas * areaCelula;
+        }
+
+        double erroMaximoM2() {
+            return incertas * areaCelula;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package utfpr.edu.br.coleta.rota.cobertura;
+
+import utfpr.edu.br.coleta.rota.enums.MotorCobertura;
+
+/**
+ * Cálculo da cobertura de uma rota: áreas da área geográfica planejada que ficaram fora do
+ * buffer dos trajetos e as estatísticas de cobertura.
+ *
+ * As implementações assumem que a rota existe e tem área geográfica; essas validações
+ * ficam no RotaService.
+ *
+ * Autor: Sistema
+ */
+public interface IMotorCobertura {
+
+    MotorCobertura tipo();
+
+    /**
+     * @param rotaId       ID da rota
+     * @param bufferMetros raio do buffer aplicado aos trajetos, em metros
+     * @param trajetoId    trajeto específico (qualquer status); nulo considera os trajetos
+     *                     finalizados da rota
+     */
+    ResultadoCobertura calcular(Long rotaId, double bufferMetros, Long trajetoId);
+}
@@ -0,0 +1,134 @@
+package utfpr.edu.br.coleta.rota.cobertura;
+
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import utfpr.edu.br.coleta.rota.dto.AreasNaoPercorridasDTO.EstatisticasCobertura;
+import utfpr.edu.br.coleta.rota.enums.MotorCobertura;
+import utfpr.edu.br.coleta.rota.event.RotaAlteradaEvent;
+import utfpr.edu.br.coleta.rota.util.GeometriaGeoJson;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cobertura aproximada por grade ({@link GradeCobertura}): a área da rota é rasterizada uma
+ * vez em células de {@code app.cobertura.grade.tamanho-celula-metros} e guardada em memória
+ * como bitmap; cada cálculo só marca as células ao alcance dos segmentos dos caminhos e
+ * conta bits, sem buffers nem uniões de polígonos.
+ *
+ * O erro das áreas é limitado por {@code erro_maximo_m2} nas estatísticas: a quantidade de
+ * células na borda da área ou do buffer vezes a área da célula, cerca de
+ * 1,4 × lado × (perímetro da área + perímetro da faixa coberta dentro dela) — com células de
+ * 10 m, uns 14 m² por metro de borda. É o pior caso; na prática os erros das bordas se
+ * compensam e a diferença para o cálculo exato é bem menor.
+ *
+ * As grades das {@code app.cobertura.grade.cache-maximo-rotas} rotas usadas por último ficam
+ * em memória e são descartadas quando a rota é alterada.
+ *
+ * Autor: Sistema
+ */
+@Component
+public class MotorCoberturaGrade implements IMotorCobertura {
+
+    // limita a memória de rotas muito grandes; acima disso a célula cresce
+    private static final long MAXIMO_CELULAS = 16_000_000L;
+
+    private static final GeometryFactory FACTORY_METROS = new GeometryFactory(new PrecisionModel(), 3857);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final double ladoCelula;
+    private final int maximoRotas;
+    private final LinkedHashMap<Long, GradeCobertura> grades = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong invalidacoes = new AtomicLong();
+
+    public MotorCoberturaGrade(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.cobertura.grade.tamanho-celula-metros:10}") double ladoCelula,
+            @Value("${app.cobertura.grade.cache-maximo-rotas:200}") int maximoRotas) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ladoCelula = ladoCelula;
+        this.maximoRotas = maximoRotas;
+    }
+
+    @Override
+    public MotorCobertura tipo() {
+        return MotorCobertura.GRADE;
+    }
+
+    @Override
+    public ResultadoCobertura calcular(Long rotaId, double bufferMetros, Long trajetoId) {
+        GradeCobertura grade = grade(rotaId);
+        List<Geometry> caminhos = jdbcTemplate.query(MotorCoberturaJts.SQL_CAMINHOS,
+                (rs, i) -> MotorCoberturaJts.lerWkb(rs.getBytes(1)),
+                bufferMetros, rotaId, trajetoId, trajetoId, trajetoId);
+        return calcular(grade, caminhos, bufferMetros);
+    }
+
+    /**
+     * Cobertura da grade pelos caminhos (EPSG:4326; nulos contam na quantidade de trajetos,
+     * sem área coberta).
+     */
+    static ResultadoCobertura calcular(GradeCobertura grade, List<Geometry> caminhosGraus, double bufferMetros) {
+        List<Geometry> caminhos = caminhosGraus.stream()
+                .map(caminho -> caminho == null ? null : WebMercator.paraMetros(caminho))
+                .toList();
+        GradeCobertura.Contagem contagem = grade.calcular(caminhos, bufferMetros);
+
+        double areaTotal = contagem.areaTotalM2();
+        double areaCoberta = contagem.areaCobertaM2();
+        EstatisticasCobertura estatisticas = EstatisticasCobertura.builder()
+                .areaTotalM2(areaTotal)
+                .areaCobertaM2(areaCoberta)
+                .areaNaoCobertaM2(areaTotal - areaCoberta)
+                .percentualCobertura(areaTotal > 0 ? areaCoberta / areaTotal * 100 : 0)
+                .quantidadeTrajetos(caminhosGraus.size())
+                .erroMaximoM2(contagem.erroMaximoM2())
+                .build();
+
+        Geometry naoCobertas = grade.paraGeometria(contagem.naoCobertas(), FACTORY_METROS);
+        return new ResultadoCobertura(GeometriaGeoJson.de(WebMercator.paraGraus(naoCobertas)), estatisticas);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoAlterarRota(RotaAlteradaEvent event) {
+        synchronized (grades) {
+            invalidacoes.incrementAndGet();
+            grades.remove(event.getRotaId());
+        }
+    }
+
+    private GradeCobertura grade(Long rotaId) {
+        long invalidacoesAntes;
+        synchronized (grades) {
+            invalidacoesAntes = invalidacoes.get();
+            GradeCobertura grade = grades.get(rotaId);
+            if (grade != null) {
+                return grade;
+            }
+        }
+
+        // rasteriza fora do lock; dois pedidos simultâneos da mesma rota só repetem o trabalho
+        Geometry area = jdbcTemplate.queryForObject(MotorCoberturaJts.SQL_AREA,
+                (rs, i) -> MotorCoberturaJts.lerWkb(rs.getBytes(1)), rotaId);
+        GradeCobertura grade = GradeCobertura.rasterizar(WebMercator.paraMetros(area), ladoCelula, MAXIMO_CELULAS);
+
+        synchronized (grades) {
+            // alguma rota mudou durante a leitura: usa a grade, mas não guarda
+            if (invalidacoes.get() != invalidacoesAntes) {
+                return grade;
+            }
+            grades.put(rotaId, grade);
+            while (grades.size() > maximoRotas) {
+                grades.remove(grades.keySet().iterator().next());
+            }
+        }
+        return grade;
+    }
+}
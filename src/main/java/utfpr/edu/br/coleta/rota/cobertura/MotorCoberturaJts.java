@@ -0,0 +1,174 @@
+package utfpr.edu.br.coleta.rota.cobertura;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+import org.locationtech.jts.operation.union.CascadedPolygonUnion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import utfpr.edu.br.coleta.rota.RotaService.CoberturaSobrecarregadaException;
+import utfpr.edu.br.coleta.rota.RotaService.ErroProcessamentoGeoespacialException;
+import utfpr.edu.br.coleta.rota.dto.AreasNaoPercorridasDTO.EstatisticasCobertura;
+import utfpr.edu.br.coleta.rota.enums.MotorCobertura;
+import utfpr.edu.br.coleta.rota.util.GeometriaGeoJson;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cobertura calculada na aplicação com JTS, para tirar do PostgreSQL o custo dos buffers e
+ * da união.
+ *
+ * O banco só entrega a área da rota e os caminhos (a versão simplificada de
+ * {@code caminho_para_buffer}, a mesma do cálculo no PostGIS). Na aplicação, em EPSG:3857:
+ * buffer de cada caminho, descarte dos que não tocam a área ({@link PreparedGeometry}),
+ * união com {@link CascadedPolygonUnion} e diferença com a área, pulada quando a união
+ * cobre a área inteira.
+ *
+ * O cálculo roda em um pool próprio de {@code app.cobertura.jts.threads} threads, com fila
+ * de até {@code app.cobertura.jts.fila} pedidos; acima disso o pedido falha em vez de
+ * disputar CPU com o resto da aplicação.
+ *
+ * Autor: Sistema
+ */
+@Component
+@Slf4j
+public class MotorCoberturaJts implements IMotorCobertura {
+
+    // consultas também usadas por MotorCoberturaGrade
+    static final String SQL_AREA = "SELECT ST_AsBinary(area_geografica) FROM tb_rota WHERE id = ?";
+
+    // mesmo filtro de calcular_cobertura_rota; caminho nulo conta na quantidade de trajetos
+    static final String SQL_CAMINHOS =
+            "SELECT ST_AsBinary(caminho_para_buffer(t.id, t.caminho, ?)) FROM trajeto t " +
+            "WHERE t.rota_id = ? " +
+            "AND (CAST(? AS BIGINT) IS NULL OR t.id = ?) " +
+            "AND (CAST(? AS BIGINT) IS NOT NULL OR t.status = 'FINALIZADO')";
+
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory(new PrecisionModel(), 4326);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ThreadPoolExecutor executor;
+
+    public MotorCoberturaJts(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.cobertura.jts.threads:0}") int threads,
+            @Value("${app.cobertura.jts.fila:50}") int fila) {
+        this.jdbcTemplate = jdbcTemplate;
+        int quantidade = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(quantidade, quantidade, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(fila), r -> {
+                    Thread thread = new Thread(r, "cobertura-jts-" + contador.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public MotorCobertura tipo() {
+        return MotorCobertura.JTS;
+    }
+
+    @Override
+    public ResultadoCobertura calcular(Long rotaId, double bufferMetros, Long trajetoId) {
+        // leitura na thread do pedido; o pool fica só com o trabalho de CPU
+        Geometry area = jdbcTemplate.queryForObject(SQL_AREA, (rs, i) -> lerWkb(rs.getBytes(1)), rotaId);
+        List<Geometry> caminhos = jdbcTemplate.query(SQL_CAMINHOS, (rs, i) -> lerWkb(rs.getBytes(1)),
+                bufferMetros, rotaId, trajetoId, trajetoId, trajetoId);
+
+        Future<ResultadoCobertura> futuro;
+        try {
+            futuro = executor.submit(() -> calcular(area, caminhos, bufferMetros));
+        } catch (RejectedExecutionException e) {
+            throw new CoberturaSobrecarregadaException(
+                    "Cálculo de cobertura sobrecarregado; tente novamente em instantes", e);
+        }
+
+        try {
+            return futuro.get();
+        } catch (InterruptedException e) {
+            futuro.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ErroProcessamentoGeoespacialException("Cálculo de cobertura interrompido", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new ErroProcessamentoGeoespacialException("Erro no cálculo de cobertura da rota " + rotaId, e.getCause());
+        }
+    }
+
+    /**
+     * Cobertura da área (EPSG:4326) pelos caminhos (EPSG:4326; nulos contam na quantidade de
+     * trajetos, sem área coberta).
+     */
+    static ResultadoCobertura calcular(Geometry areaGraus, List<Geometry> caminhosGraus, double bufferMetros) {
+        Geometry area = WebMercator.paraMetros(areaGraus);
+        PreparedGeometry areaPreparada = PreparedGeometryFactory.prepare(area);
+
+        List<Geometry> buffers = new ArrayList<>();
+        for (Geometry caminho : caminhosGraus) {
+            if (caminho == null || caminho.isEmpty()) {
+                continue;
+            }
+            Geometry buffer = WebMercator.paraMetros(caminho).buffer(bufferMetros);
+            if (areaPreparada.intersects(buffer)) {
+                buffers.add(buffer);
+            }
+        }
+
+        Geometry naoCobertas;
+        if (buffers.isEmpty()) {
+            naoCobertas = area;
+        } else {
+            Geometry cobertos = CascadedPolygonUnion.union(buffers);
+            naoCobertas = PreparedGeometryFactory.prepare(cobertos).covers(area)
+                    ? area.getFactory().createPolygon()
+                    : area.difference(cobertos);
+        }
+
+        double areaTotal = area.getArea();
+        double areaNaoCoberta = naoCobertas.getArea();
+        EstatisticasCobertura estatisticas = EstatisticasCobertura.builder()
+                .areaTotalM2(areaTotal)
+                .areaCobertaM2(areaTotal - areaNaoCoberta)
+                .areaNaoCobertaM2(areaNaoCoberta)
+                .percentualCobertura(areaTotal > 0 ? (areaTotal - areaNaoCoberta) / areaTotal * 100 : 0)
+                .quantidadeTrajetos(caminhosGraus.size())
+                .build();
+
+        return new ResultadoCobertura(GeometriaGeoJson.de(WebMercator.paraGraus(naoCobertas)), estatisticas);
+    }
+
+    static Geometry lerWkb(byte[] wkb) {
+        if (wkb == null) {
+            return null;
+        }
+        try {
+            return new WKBReader(GEOMETRY_FACTORY).read(wkb);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Geometria inválida retornada pelo banco", e);
+        }
+    }
+}
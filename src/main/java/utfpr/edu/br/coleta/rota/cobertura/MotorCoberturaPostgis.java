@@ -0,0 +1,89 @@
+package utfpr.edu.br.coleta.rota.cobertura;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import utfpr.edu.br.coleta.rota.RotaRepository;
+import utfpr.edu.br.coleta.rota.RotaService.ErroProcessamentoGeoespacialException;
+import utfpr.edu.br.coleta.rota.dto.AreasNaoPercorridasDTO.EstatisticasCobertura;
+import utfpr.edu.br.coleta.rota.enums.MotorCobertura;
+import utfpr.edu.br.coleta.rota.util.GeometriaGeoJson;
+
+import java.util.Map;
+
+/**
+ * Cobertura calculada no banco pela função calcular_cobertura_rota (usa a cobertura guardada
+ * em rota_cobertura quando há uma para a rota e o buffer). O GeoJSON das áreas não cobertas
+ * já sai do banco com {@code app.geojson.casas-decimais} casas e vai para a resposta como
+ * texto, sem ser convertido em objetos.
+ *
+ * Autor: Sistema
+ */
+@Component
+public class MotorCoberturaPostgis implements IMotorCobertura {
+
+    private static final TypeReference<Map<String, Object>> TIPO_MAPA = new TypeReference<>() {};
+
+    private final RotaRepository repository;
+    private final ObjectMapper objectMapper;
+    private final int casasDecimais;
+
+    public MotorCoberturaPostgis(
+            RotaRepository repository,
+            ObjectMapper objectMapper,
+            @Value("${app.geojson.casas-decimais:6}") int casasDecimais) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.casasDecimais = casasDecimais;
+    }
+
+    @Override
+    public MotorCobertura tipo() {
+        return MotorCobertura.POSTGIS;
+    }
+
+    @Override
+    public ResultadoCobertura calcular(Long rotaId, double bufferMetros, Long trajetoId) {
+        RotaRepository.CoberturaRota cobertura = repository.calcularCobertura(rotaId, bufferMetros, trajetoId, casasDecimais)
+                .orElseThrow(() -> new ErroProcessamentoGeoespacialException(
+                        "Erro ao obter estatísticas de cobertura para rota ID " + rotaId
+                ));
+
+        try {
+            Map<String, Object> estatisticasMap = objectMapper.readValue(cobertura.getEstatisticas(), TIPO_MAPA);
+
+            EstatisticasCobertura estatisticas = EstatisticasCobertura.builder()
+                    .areaTotalM2(getDoubleValue(estatisticasMap, "area_total_m2"))
+                    .areaCobertaM2(getDoubleValue(estatisticasMap, "area_coberta_m2"))
+                    .areaNaoCobertaM2(getDoubleValue(estatisticasMap, "area_nao_coberta_m2"))
+                    .percentualCobertura(getDoubleValue(estatisticasMap, "percentual_cobertura"))
+                    .quantidadeTrajetos(getIntegerValue(estatisticasMap, "quantidade_trajetos"))
+                    .build();
+
+            return new ResultadoCobertura(GeometriaGeoJson.texto(cobertura.getAreasNaoCobertas()), estatisticas);
+        } catch (JsonProcessingException e) {
+            throw new ErroProcessamentoGeoespacialException(
+                    "Resposta inválida de calcular_cobertura_rota para rota ID " + rotaId, e);
+        }
+    }
+
+    private Double getDoubleValue(Map<String, Object> map, String key) {
+        Object value = map.get(key);
+        if (value == null) return null;
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        return Double.parseDouble(value.toString());
+    }
+
+    private Integer getIntegerValue(Map<String, Object> map, String key) {
+        Object value = map.get(key);
+        if (value == null) return null;
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        return Integer.parseInt(value.toString());
+    }
+}
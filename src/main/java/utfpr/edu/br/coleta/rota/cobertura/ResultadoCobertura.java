@@ -0,0 +1,15 @@
+package utfpr.edu.br.coleta.rota.cobertura;
+
+import utfpr.edu.br.coleta.rota.dto.AreasNaoPercorridasDTO.EstatisticasCobertura;
+import utfpr.edu.br.coleta.rota.util.GeometriaGeoJson;
+
+/**
+ * Resultado de um {@link IMotorCobertura}.
+ *
+ * @param areasNaoCobertas GeoJSON (EPSG:4326) das áreas não cobertas; nulo se não houver
+ * @param estatisticas     áreas em m² (EPSG:3857), percentual e quantidade de trajetos
+ *
+ * Autor: Sistema
+ */
+public record ResultadoCobertura(GeometriaGeoJson areasNaoCobertas, EstatisticasCobertura estatisticas) {
+}
@@ -0,0 +1,64 @@
+package utfpr.edu.br.coleta.rota.cobertura;
+
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.CoordinateSequenceFilter;
+import org.locationtech.jts.geom.Geometry;
+
+/**
+ * Conversão entre EPSG:4326 (graus) e EPSG:3857 (Web Mercator esférico), a mesma projeção
+ * que o PostGIS usa nas funções de cobertura. As áreas em 3857 ficam ampliadas por
+ * 1/cos²(latitude), como as de ST_Area no banco.
+ *
+ * Autor: Sistema
+ */
+final class WebMercator {
+
+    static final double RAIO_TERRA = 6_378_137d;
+
+    private WebMercator() {
+    }
+
+    /** Cópia da geometria em 3857. */
+    static Geometry paraMetros(Geometry geometria) {
+        Geometry copia = geometria.copy();
+        copia.apply(new Projecao(true));
+        copia.geometryChanged();
+        copia.setSRID(3857);
+        return copia;
+    }
+
+    /** Cópia da geometria em 4326. */
+    static Geometry paraGraus(Geometry geometria) {
+        Geometry copia = geometria.copy();
+        copia.apply(new Projecao(false));
+        copia.geometryChanged();
+        copia.setSRID(4326);
+        return copia;
+    }
+
+    private record Projecao(boolean paraMetros) implements CoordinateSequenceFilter {
+
+        @Override
+        public void filter(CoordinateSequence seq, int i) {
+            double x = seq.getX(i);
+            double y = seq.getY(i);
+            if (paraMetros) {
+                seq.setOrdinate(i, CoordinateSequence.X, RAIO_TERRA * Math.toRadians(x));
+                seq.setOrdinate(i, CoordinateSequence.Y, RAIO_TERRA * Math.log(Math.tan(Math.PI / 4 + Math.toRadians(y) / 2)));
+            } else {
+                seq.setOrdinate(i, CoordinateSequence.X, Math.toDegrees(x / RAIO_TERRA));
+                seq.setOrdinate(i, CoordinateSequence.Y, Math.toDegrees(2 * Math.atan(Math.exp(y / RAIO_TERRA)) - Math.PI / 2));
+            }
+        }
+
+        @Override
+        public boolean isDone() {
+            return false;
+        }
+
+        @Override
+        public boolean isGeometryChanged() {
+            return true;
+        }
+    }
+}
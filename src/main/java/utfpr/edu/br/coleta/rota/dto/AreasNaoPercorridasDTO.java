@@ -2,12 +2,12 @@ package utfpr.edu.br.coleta.rota.dto;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-
-import java.util.Map;
+import utfpr.edu.br.coleta.rota.util.GeometriaGeoJson;
 
 /**
  * DTO para resposta do endpoint de áreas não percorridas.
@@ -41,7 +41,8 @@ public class AreasNaoPercorridasDTO {
      * Geometria das áreas não cobertas em formato GeoJSON
      */
     @JsonProperty("areas_nao_cobertas")
-    private Map<String, Object> areasNaoCobertas;
+    @Schema(type = "object", description = "Geometria GeoJSON (Polygon ou MultiPolygon, EPSG:4326)")
+    private GeometriaGeoJson areasNaoCobertas;
 
     /**
      * Estatísticas de cobertura
@@ -94,6 +95,13 @@ public class AreasNaoPercorridasDTO {
         @JsonProperty("quantidade_trajetos")
         private Integer quantidadeTrajetos;
 
+        /**
+         * Limite do erro das áreas em metros quadrados; só no cálculo aproximado por grade
+         */
+        @JsonProperty("erro_maximo_m2")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Double erroMaximoM2;
+
         /**
          * Indica se a rota está completamente coberta
          */
@@ -0,0 +1,28 @@
+package utfpr.edu.br.coleta.rota.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Cobertura de uma rota em um dia da série diária (cobertura_diaria).
+ *
+ * Autor: Sistema
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CoberturaDiariaDTO {
+
+    @JsonProperty("dia")
+    private LocalDate dia;
+
+    @JsonProperty("buffer_metros")
+    private Double bufferMetros;
+
+    @JsonProperty("estatisticas")
+    private AreasNaoPercorridasDTO.EstatisticasCobertura estatisticas;
+}
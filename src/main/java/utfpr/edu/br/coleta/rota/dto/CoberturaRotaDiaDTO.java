@@ -0,0 +1,48 @@
+package utfpr.edu.br.coleta.rota.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Uma linha do relatório de cobertura das rotas ativas: a cobertura da rota pelos trajetos
+ * finalizados iniciados no dia, ou o motivo de não ter sido calculada.
+ *
+ * Autor: Sistema
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CoberturaRotaDiaDTO {
+
+    @JsonProperty("rota_id")
+    private Long rotaId;
+
+    @JsonProperty("rota_nome")
+    private String rotaNome;
+
+    @JsonProperty("dia")
+    private LocalDate dia;
+
+    @JsonProperty("buffer_metros")
+    private Double bufferMetros;
+
+    /**
+     * Estatísticas de cobertura; ausente quando há erro
+     */
+    @JsonProperty("estatisticas")
+    private AreasNaoPercorridasDTO.EstatisticasCobertura estatisticas;
+
+    /**
+     * Motivo de a rota ficar sem estatísticas (sem área geográfica, falha no cálculo)
+     */
+    @JsonProperty("erro")
+    private String erro;
+}
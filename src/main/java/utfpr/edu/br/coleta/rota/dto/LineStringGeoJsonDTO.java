@@ -0,0 +1,37 @@
+package utfpr.edu.br.coleta.rota.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * DTO que representa uma linha no formato GeoJSON.
+ *
+ * Exemplo de estrutura GeoJSON:
+ * {
+ *   "type": "LineString",
+ *   "coordinates": [
+ *     [-49.123, -26.456],
+ *     [-49.124, -26.457]
+ *   ]
+ * }
+ *
+ * Autor: Sistema
+ */
+@Data
+@Schema(description = "Linha no formato GeoJSON")
+public class LineStringGeoJsonDTO {
+
+    @Schema(description = "Tipo de geometria (sempre 'LineString')",
+            example = "LineString",
+            allowableValues = {"LineString"})
+    @JsonProperty("type")
+    private String type = "LineString";
+
+    @Schema(description = "Array de pontos [longitude, latitude] da linha, em ordem",
+            example = "[[-49.123, -26.456], [-49.124, -26.457]]")
+    @JsonProperty("coordinates")
+    private List<List<Double>> coordinates;
+}
@@ -0,0 +1,15 @@
+package utfpr.edu.br.coleta.rota.enums;
+
+/**
+ * Implementações do cálculo de cobertura das rotas, escolhida por {@code app.cobertura.motor}.
+ *
+ * Autor: Sistema
+ */
+public enum MotorCobertura {
+    /** Função calcular_cobertura_rota no banco. */
+    POSTGIS,
+    /** Buffers e diferença calculados na aplicação, com JTS. */
+    JTS,
+    /** Aproximação por grade de células (bitmap), com limite de erro nas estatísticas. */
+    GRADE
+}
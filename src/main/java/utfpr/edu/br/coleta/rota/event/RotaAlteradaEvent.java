@@ -0,0 +1,16 @@
+package utfpr.edu.br.coleta.rota.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Publicado quando uma rota é salva ou removida (inclusive a área geográfica).
+ *
+ * Autor: Sistema
+ */
+@Getter
+@RequiredArgsConstructor
+public class RotaAlteradaEvent {
+
+    private final Long rotaId;
+}
@@ -1,6 +1,7 @@
 package utfpr.edu.br.coleta.rota.util;
 
 import org.locationtech.jts.geom.*;
+import utfpr.edu.br.coleta.rota.dto.LineStringGeoJsonDTO;
 import utfpr.edu.br.coleta.rota.dto.PolygonGeoJsonDTO;
 
 import java.util.ArrayList;
@@ -64,7 +65,7 @@ public class GeoJsonConverter {
         PolygonGeoJsonDTO geoJson = new PolygonGeoJsonDTO();
         geoJson.setType("Polygon");
 
-        List<List<List<Double>>> coordinates = new ArrayList<>();
+        List<List<List<Double>>> coordinates = new ArrayList<>(1 + polygon.getNumInteriorRing());
 
         // Anel exterior
         coordinates.add(extractCoordinates(polygon.getExteriorRing()));
@@ -78,6 +79,23 @@ public class GeoJsonConverter {
         return geoJson;
     }
 
+    /**
+     * Converte um objeto JTS LineString para LineStringGeoJsonDTO.
+     *
+     * @param lineString objeto JTS LineString
+     * @return objeto GeoJSON representando a linha
+     */
+    public static LineStringGeoJsonDTO toGeoJson(LineString lineString) {
+        if (lineString == null) {
+            return null;
+        }
+
+        LineStringGeoJsonDTO geoJson = new LineStringGeoJsonDTO();
+        geoJson.setType("LineString");
+        geoJson.setCoordinates(extractCoordinates(lineString));
+        return geoJson;
+    }
+
     /**
      * Cria um LinearRing a partir de uma lista de coordenadas.
      */
@@ -108,12 +126,11 @@ public class GeoJsonConverter {
      * Extrai coordenadas de um LineString para formato GeoJSON.
      */
     private static List<List<Double>> extractCoordinates(LineString lineString) {
-        List<List<Double>> coordinates = new ArrayList<>();
-        for (Coordinate coord : lineString.getCoordinates()) {
-            List<Double> point = new ArrayList<>();
-            point.add(coord.x); // longitude
-            point.add(coord.y); // latitude
-            coordinates.add(point);
+        CoordinateSequence sequence = lineString.getCoordinateSequence();
+        List<List<Double>> coordinates = new ArrayList<>(sequence.size());
+        for (int i = 0; i < sequence.size(); i++) {
+            // longitude, latitude
+            coordinates.add(List.of(sequence.getX(i), sequence.getY(i)));
         }
         return coordinates;
     }
@@ -0,0 +1,132 @@
+package utfpr.edu.br.coleta.rota.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryCollection;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.MultiLineString;
+import org.locationtech.jts.geom.MultiPoint;
+import org.locationtech.jts.geom.MultiPolygon;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+
+import java.io.IOException;
+
+/**
+ * Serialização Jackson de geometrias JTS ({@link Geometry} e {@link GeometriaGeoJson}) em
+ * GeoJSON, escrita direto no gerador: sem listas intermediárias nem coordenadas em
+ * {@code Double}. As coordenadas são arredondadas a {@code casasDecimais} casas (6 casas em
+ * graus ≈ 11 cm), o que também encurta as respostas com polígonos grandes; o texto de um
+ * {@link GeometriaGeoJson#texto} é copiado como está.
+ *
+ * Autor: Sistema
+ */
+public class GeoJsonModule extends SimpleModule {
+
+    public GeoJsonModule(int casasDecimais) {
+        super("GeoJsonModule");
+        GeometriaSerializer geometria = new GeometriaSerializer(casasDecimais);
+        addSerializer(Geometry.class, geometria);
+        addSerializer(GeometriaGeoJson.class, new GeometriaGeoJsonSerializer(geometria));
+    }
+
+    static class GeometriaSerializer extends StdSerializer<Geometry> {
+
+        private final double escala;
+
+        GeometriaSerializer(int casasDecimais) {
+            super(Geometry.class);
+            this.escala = Math.pow(10, casasDecimais);
+        }
+
+        @Override
+        public void serialize(Geometry geometria, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            gen.writeStringField("type", geometria.getGeometryType());
+            if (geometria instanceof Point || geometria instanceof LineString || geometria instanceof Polygon
+                    || geometria instanceof MultiPoint || geometria instanceof MultiLineString
+                    || geometria instanceof MultiPolygon) {
+                gen.writeFieldName("coordinates");
+                escreverCoordenadas(geometria, gen);
+            } else if (geometria instanceof GeometryCollection) {
+                gen.writeArrayFieldStart("geometries");
+                for (int i = 0; i < geometria.getNumGeometries(); i++) {
+                    serialize(geometria.getGeometryN(i), gen, provider);
+                }
+                gen.writeEndArray();
+            } else {
+                throw new IllegalArgumentException("Tipo de geometria não suportado: " + geometria.getGeometryType());
+            }
+            gen.writeEndObject();
+        }
+
+        private void escreverCoordenadas(Geometry geometria, JsonGenerator gen) throws IOException {
+            if (geometria instanceof Point ponto) {
+                if (ponto.isEmpty()) {
+                    gen.writeStartArray();
+                    gen.writeEndArray();
+                } else {
+                    escreverPosicao(ponto.getCoordinateSequence(), 0, gen);
+                }
+            } else if (geometria instanceof LineString linha) {
+                CoordinateSequence sequencia = linha.getCoordinateSequence();
+                gen.writeStartArray();
+                for (int i = 0; i < sequencia.size(); i++) {
+                    escreverPosicao(sequencia, i, gen);
+                }
+                gen.writeEndArray();
+            } else if (geometria instanceof Polygon poligono) {
+                gen.writeStartArray();
+                if (!poligono.isEmpty()) {
+                    escreverCoordenadas(poligono.getExteriorRing(), gen);
+                    for (int i = 0; i < poligono.getNumInteriorRing(); i++) {
+                        escreverCoordenadas(poligono.getInteriorRingN(i), gen);
+                    }
+                }
+                gen.writeEndArray();
+            } else {
+                // MultiPoint, MultiLineString e MultiPolygon
+                gen.writeStartArray();
+                for (int i = 0; i < geometria.getNumGeometries(); i++) {
+                    escreverCoordenadas(geometria.getGeometryN(i), gen);
+                }
+                gen.writeEndArray();
+            }
+        }
+
+        // [longitude, latitude]
+        private void escreverPosicao(CoordinateSequence sequencia, int i, JsonGenerator gen) throws IOException {
+            gen.writeStartArray();
+            gen.writeNumber(arredondar(sequencia.getX(i)));
+            gen.writeNumber(arredondar(sequencia.getY(i)));
+            gen.writeEndArray();
+        }
+
+        private double arredondar(double valor) {
+            return Math.round(valor * escala) / escala;
+        }
+    }
+
+    static class GeometriaGeoJsonSerializer extends StdSerializer<GeometriaGeoJson> {
+
+        private final GeometriaSerializer geometria;
+
+        GeometriaGeoJsonSerializer(GeometriaSerializer geometria) {
+            super(GeometriaGeoJson.class);
+            this.geometria = geometria;
+        }
+
+        @Override
+        public void serialize(GeometriaGeoJson valor, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            if (valor.getTexto() != null) {
+                gen.writeRawValue(valor.getTexto());
+            } else {
+                geometria.serialize(valor.getGeometria(), gen, provider);
+            }
+        }
+    }
+}
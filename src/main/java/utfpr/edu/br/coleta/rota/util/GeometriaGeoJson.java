@@ -0,0 +1,44 @@
+package utfpr.edu.br.coleta.rota.util;
+
+import org.locationtech.jts.geom.Geometry;
+
+/**
+ * Geometria de resposta em GeoJSON: uma geometria JTS, escrita coordenada a coordenada por
+ * {@link GeoJsonModule}, ou o texto GeoJSON já pronto (ST_AsGeoJSON), copiado sem ser lido.
+ *
+ * Autor: Sistema
+ */
+public final class GeometriaGeoJson {
+
+    private final Geometry geometria;
+    private final String texto;
+
+    private GeometriaGeoJson(Geometry geometria, String texto) {
+        this.geometria = geometria;
+        this.texto = texto;
+    }
+
+    /**
+     * @param geometria geometria em EPSG:4326; nula resulta em nulo
+     */
+    public static GeometriaGeoJson de(Geometry geometria) {
+        return geometria == null ? null : new GeometriaGeoJson(geometria, null);
+    }
+
+    /**
+     * @param texto GeoJSON de uma geometria, como gerado pelo PostGIS; nulo ou "null" resulta em nulo
+     */
+    public static GeometriaGeoJson texto(String texto) {
+        return texto == null || texto.equals("null") ? null : new GeometriaGeoJson(null, texto);
+    }
+
+    /** Geometria JTS, ou nulo quando criada a partir do texto. */
+    public Geometry getGeometria() {
+        return geometria;
+    }
+
+    /** Texto GeoJSON, ou nulo quando criada a partir de uma geometria. */
+    public String getTexto() {
+        return texto;
+    }
+}
@@ -1,15 +1,19 @@
 package utfpr.edu.br.coleta.storage;
 
 import io.minio.BucketExistsArgs;
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
 import io.minio.MakeBucketArgs;
 import io.minio.MinioClient;
 import io.minio.PutObjectArgs;
+import io.minio.RemoveObjectArgs;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.util.UUID;
 
 @Service
@@ -45,16 +49,7 @@ public class MinioService {
     public String uploadFile(MultipartFile file, String folder) {
         try {
             MinioClient c = client();
-
-            boolean exists = c.bucketExists(
-                    BucketExistsArgs.builder().bucket(bucket).build()
-            );
-            if (!exists) {
-                log.info("Bucket {} não existe, criando...", bucket);
-                c.makeBucket(
-                        MakeBucketArgs.builder().bucket(bucket).build()
-                );
-            }
+            ensureBucket(c);
 
             String objectName = folder + "/" + UUID.randomUUID() + "_" + file.getOriginalFilename();
             log.info("Enviando objeto para MinIO. bucket={}, object={}", bucket, objectName);
@@ -78,4 +73,70 @@ public class MinioService {
             throw new RuntimeException("Erro ao fazer upload do arquivo para o MinIO", e);
         }
     }
+
+    /**
+     * Grava um conteúdo em memória no objeto informado, substituindo-o se já existir.
+     *
+     * @return o nome do objeto gravado
+     */
+    public String uploadBytes(String objectName, byte[] content, String contentType) {
+        try {
+            MinioClient c = client();
+            ensureBucket(c);
+
+            log.info("Enviando objeto para MinIO. bucket={}, object={}, bytes={}", bucket, objectName, content.length);
+            c.putObject(
+                    PutObjectArgs.builder()
+                            .bucket(bucket)
+                            .object(objectName)
+                            .stream(new ByteArrayInputStream(content), content.length, -1)
+                            .contentType(contentType)
+                            .build()
+            );
+            return objectName;
+
+        } catch (Exception e) {
+            log.error("Erro ao gravar o objeto {} no MinIO", objectName, e);
+            throw new RuntimeException("Erro ao gravar o objeto no MinIO", e);
+        }
+    }
+
+    /**
+     * Lê o conteúdo completo de um objeto.
+     */
+    public byte[] downloadBytes(String objectName) {
+        try (GetObjectResponse response = client().getObject(
+                GetObjectArgs.builder().bucket(bucket).object(objectName).build())) {
+            return response.readAllBytes();
+
+        } catch (Exception e) {
+            log.error("Erro ao ler o objeto {} do MinIO", objectName, e);
+            throw new RuntimeException("Erro ao ler o objeto do MinIO", e);
+        }
+    }
+
+    /**
+     * Remove o objeto; não falha se ele não existir.
+     */
+    public void deleteObject(String objectName) {
+        try {
+            client().removeObject(RemoveObjectArgs.builder().bucket(bucket).object(objectName).build());
+
+        } catch (Exception e) {
+            log.error("Erro ao remover o objeto {} do MinIO", objectName, e);
+            throw new RuntimeException("Erro ao remover o objeto do MinIO", e);
+        }
+    }
+
+    private void ensureBucket(MinioClient c) throws Exception {
+        boolean exists = c.bucketExists(
+                BucketExistsArgs.builder().bucket(bucket).build()
+        );
+        if (!exists) {
+            log.info("Bucket {} não existe, criando...", bucket);
+            c.makeBucket(
+                    MakeBucketArgs.builder().bucket(bucket).build()
+            );
+        }
+    }
 }
@@ -40,4 +40,10 @@ public class Trajeto extends BaseEntity {
 
     @Column(columnDefinition = "geometry(LineString, 4326)")
     private LineString caminho;
+
+    /** Horário do primeiro ponto incorporado ao caminho (mantido pela ingestão de pontos). */
+    private LocalDateTime horarioPrimeiroPonto;
+
+    /** Horário do último ponto incorporado ao caminho (mantido pela ingestão de pontos). */
+    private LocalDateTime horarioUltimoPonto;
 }
\ No newline at end of file
@@ -0,0 +1,351 @@
+package utfpr.edu.br.coleta.trajeto;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import utfpr.edu.br.coleta.trajeto.dto.PosicaoVeiculoDTO;
+import utfpr.edu.br.coleta.trajeto.enums.TrajetoStatus;
+import utfpr.edu.br.coleta.trajeto.event.TrajetoStatusAlteradoEvent;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoDTO;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.event.PontosTrajetoRegistradosEvent;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Posição atual da frota: a última posição de cada trajeto em andamento, mantida em memória
+ * e enviada aos painéis por Server-Sent Events.
+ *
+ * O mapa é atualizado pela ingestão de pontos (após o commit) e perde o trajeto quando ele é
+ * finalizado ou cancelado. Ao conectar, o cliente recebe um evento {@code snapshot} com todas
+ * as posições; depois, a cada {@code app.ao-vivo.intervalo-ms}, apenas o que mudou no intervalo:
+ * {@code posicoes} com a posição mais recente de cada trajeto alterado (vários pontos do mesmo
+ * trajeto no intervalo viram um só) e {@code removidos} com os ids dos trajetos encerrados.
+ * As alterações são coletadas por uma única thread, independente da quantidade de pontos
+ * recebidos, e postas na fila de cada cliente; cada fila é esvaziada em uma thread própria,
+ * então um cliente lento não atrasa os demais. Um cliente com mais de {@code app.ao-vivo.fila-maxima}
+ * eventos pendentes é desconectado e, ao reconectar, recebe um novo snapshot.
+ *
+ * Autor: Sistema
+ */
+@Service
+@Slf4j
+public class TrajetoAoVivoService {
+
+    static final String EVENTO_SNAPSHOT = "snapshot";
+    static final String EVENTO_POSICOES = "posicoes";
+    static final String EVENTO_REMOVIDOS = "removidos";
+
+    private static final String SQL_TRAJETO = "SELECT status, rota_id, caminhao_id FROM trajeto WHERE id = ?";
+
+    // posição do último ponto de cada trajeto em andamento (horario_ultimo_ponto é mantido na ingestão)
+    private static final String SQL_POSICOES_EM_ANDAMENTO =
+            "SELECT t.id, t.rota_id, t.caminhao_id, ST_Y(p.localizacao), ST_X(p.localizacao), p.horario " +
+            "FROM trajeto t JOIN ponto_trajeto p ON p.trajeto_id = t.id AND p.horario = t.horario_ultimo_ponto " +
+            "WHERE t.status = 'EM_ANDAMENTO'";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long intervaloMs;
+    private final long timeoutMs;
+    private final long heartbeatMs;
+    private final int filaMaxima;
+
+    private final Map<Long, PosicaoVeiculoDTO> posicoes = new ConcurrentHashMap<>();
+    private final Set<Long> alterados = ConcurrentHashMap.newKeySet();
+    private final Set<Long> removidos = ConcurrentHashMap.newKeySet();
+    private final List<Inscrito> inscritos = new CopyOnWriteArrayList<>();
+
+    private ScheduledExecutorService envio;
+    private ExecutorService envioPorInscrito;
+    private volatile long ultimoEnvio = System.currentTimeMillis();
+
+    public TrajetoAoVivoService(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.ao-vivo.intervalo-ms:1000}") long intervaloMs,
+            @Value("${app.ao-vivo.timeout-minutos:30}") long timeoutMinutos,
+            @Value("${app.ao-vivo.heartbeat-segundos:15}") long heartbeatSegundos,
+            @Value("${app.ao-vivo.fila-maxima:50}") int filaMaxima) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.intervaloMs = intervaloMs;
+        this.timeoutMs = TimeUnit.MINUTES.toMillis(timeoutMinutos);
+        this.heartbeatMs = TimeUnit.SECONDS.toMillis(heartbeatSegundos);
+        this.filaMaxima = filaMaxima;
+    }
+
+    @PostConstruct
+    void iniciar() {
+        envio = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ao-vivo-envio");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // no máximo uma thread por cliente com eventos pendentes; ociosas são encerradas
+        AtomicInteger threads = new AtomicInteger();
+        envioPorInscrito = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "ao-vivo-envio-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        envio.scheduleWithFixedDelay(this::enviarAlteracoes, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void encerrar() {
+        envio.shutdownNow();
+        envioPorInscrito.shutdownNow();
+        inscritos.forEach(inscrito -> inscrito.emitter().complete());
+        inscritos.clear();
+    }
+
+    /**
+     * Carrega a posição dos trajetos que já estavam em andamento quando a aplicação subiu.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregarPosicoes() {
+        jdbcTemplate.query(SQL_POSICOES_EM_ANDAMENTO, rs -> {
+            atualizar(new PosicaoVeiculoDTO(
+                    rs.getLong(1),
+                    toLong(rs.getObject(2)),
+                    toLong(rs.getObject(3)),
+                    rs.getDouble(4),
+                    rs.getDouble(5),
+                    rs.getTimestamp(6).toLocalDateTime()));
+        });
+        log.info("Posição ao vivo carregada para {} trajetos em andamento", posicoes.size());
+    }
+
+    // após o commit, para não divulgar pontos de um lote que ainda pode ser desfeito
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoRegistrarPontos(PontosTrajetoRegistradosEvent event) {
+        PontoTrajetoDTO ultimo = event.getPontos().stream()
+                .max(Comparator.comparing(PontoTrajetoDTO::getHorario))
+                .orElseThrow();
+
+        Long trajetoId = event.getTrajetoId();
+        PosicaoVeiculoDTO atual = posicoes.get(trajetoId);
+        if (atual != null) {
+            // só substitui se o trajeto ainda estiver no mapa (pode ter sido encerrado neste meio tempo)
+            PosicaoVeiculoDTO nova = new PosicaoVeiculoDTO(trajetoId, atual.getRotaId(), atual.getCaminhaoId(),
+                    ultimo.getLatitude(), ultimo.getLongitude(), ultimo.getHorario());
+            registrarAlteracao(nova, posicoes.computeIfPresent(trajetoId, (id, anterior) -> maisRecente(anterior, nova)));
+            return;
+        }
+
+        // primeiro ponto visto do trajeto: confirma que está em andamento (pontos atrasados
+        // de um trajeto já finalizado não devem reaparecer no mapa)
+        List<Map<String, Object>> trajeto = jdbcTemplate.queryForList(SQL_TRAJETO, trajetoId);
+        if (trajeto.isEmpty() || !TrajetoStatus.EM_ANDAMENTO.name().equals(trajeto.get(0).get("status"))) {
+            return;
+        }
+        atualizar(new PosicaoVeiculoDTO(trajetoId, toLong(trajeto.get(0).get("rota_id")),
+                toLong(trajeto.get(0).get("caminhao_id")),
+                ultimo.getLatitude(), ultimo.getLongitude(), ultimo.getHorario()));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoAlterarStatus(TrajetoStatusAlteradoEvent event) {
+        if (event.getStatus() != TrajetoStatus.EM_ANDAMENTO && posicoes.remove(event.getTrajetoId()) != null) {
+            removidos.add(event.getTrajetoId());
+        }
+    }
+
+    /**
+     * Registra um novo cliente. Ele recebe imediatamente todas as posições atuais e, em
+     * seguida, apenas as alterações.
+     */
+    public SseEmitter inscrever() {
+        return inscrever(new SseEmitter(timeoutMs));
+    }
+
+    SseEmitter inscrever(SseEmitter emitter) {
+        Inscrito inscrito = new Inscrito(emitter, new ArrayBlockingQueue<>(filaMaxima));
+        emitter.onCompletion(() -> inscritos.remove(inscrito));
+        emitter.onTimeout(() -> inscritos.remove(inscrito));
+        emitter.onError(e -> inscritos.remove(inscrito));
+
+        // inscrito antes do snapshot: uma alteração no meio pode chegar duas vezes, mas nunca se perde
+        inscritos.add(inscrito);
+        enfileirar(inscrito, SseEmitter.event().name(EVENTO_SNAPSHOT)
+                .data(listarPosicoes(), MediaType.APPLICATION_JSON));
+        return emitter;
+    }
+
+    public List<PosicaoVeiculoDTO> listarPosicoes() {
+        return new ArrayList<>(posicoes.values());
+    }
+
+    int quantidadeInscritos() {
+        return inscritos.size();
+    }
+
+    /**
+     * Mantém no mapa a posição mais recente do trajeto. Pontos mais antigos que o já
+     * conhecido (sincronização atrasada) não alteram a posição.
+     */
+    void atualizar(PosicaoVeiculoDTO nova) {
+        registrarAlteracao(nova, posicoes.merge(nova.getTrajetoId(), nova, TrajetoAoVivoService::maisRecente));
+    }
+
+    private void registrarAlteracao(PosicaoVeiculoDTO nova, PosicaoVeiculoDTO resultado) {
+        if (resultado == nova) {
+            removidos.remove(nova.getTrajetoId());
+            alterados.add(nova.getTrajetoId());
+        }
+    }
+
+    private static PosicaoVeiculoDTO maisRecente(PosicaoVeiculoDTO atual, PosicaoVeiculoDTO recebida) {
+        return recebida.getHorario().isAfter(atual.getHorario()) ? recebida : atual;
+    }
+
+    /**
+     * Retira e devolve as alterações acumuladas desde a última chamada.
+     */
+    Alteracoes coletarAlteracoes() {
+        List<PosicaoVeiculoDTO> alteradas = new ArrayList<>();
+        for (Long trajetoId : alterados) {
+            alterados.remove(trajetoId);
+            PosicaoVeiculoDTO posicao = posicoes.get(trajetoId);
+            if (posicao != null) {
+                alteradas.add(posicao);
+            }
+        }
+        List<Long> encerrados = new ArrayList<>();
+        for (Long trajetoId : removidos) {
+            removidos.remove(trajetoId);
+            encerrados.add(trajetoId);
+        }
+        return new Alteracoes(alteradas, encerrados);
+    }
+
+    void enviarAlteracoes() {
+        try {
+            Alteracoes alteracoes = coletarAlteracoes();
+            if (inscritos.isEmpty()) {
+                return;
+            }
+            long agora = System.currentTimeMillis();
+            if (!alteracoes.posicoes().isEmpty()) {
+                enviarParaTodos(() -> SseEmitter.event().name(EVENTO_POSICOES)
+                        .data(alteracoes.posicoes(), MediaType.APPLICATION_JSON));
+                ultimoEnvio = agora;
+            }
+            if (!alteracoes.removidos().isEmpty()) {
+                enviarParaTodos(() -> SseEmitter.event().name(EVENTO_REMOVIDOS)
+                        .data(alteracoes.removidos(), MediaType.APPLICATION_JSON));
+                ultimoEnvio = agora;
+            }
+            // mantém a conexão aberta em proxies que encerram conexões ociosas
+            if (agora - ultimoEnvio >= heartbeatMs) {
+                enviarParaTodos(() -> SseEmitter.event().comment("heartbeat"));
+                ultimoEnvio = agora;
+            }
+        } catch (RuntimeException e) {
+            // uma falha não pode cancelar o agendamento
+            log.error("Erro ao enviar posições ao vivo", e);
+        }
+    }
+
+    private void enviarParaTodos(Supplier<SseEmitter.SseEventBuilder> evento) {
+        for (Inscrito inscrito : inscritos) {
+            enfileirar(inscrito, evento.get());
+        }
+    }
+
+    private void enfileirar(Inscrito inscrito, SseEmitter.SseEventBuilder evento) {
+        if (inscrito.descartado().get()) {
+            return;
+        }
+        if (!inscrito.fila().offer(evento)) {
+            // cliente lento: a thread dele ainda está presa num envio e o encerra quando voltar
+            log.debug("Cliente ao vivo desconectado: {} eventos pendentes", filaMaxima);
+            inscritos.remove(inscrito);
+            inscrito.descartado().set(true);
+            inscrito.fila().clear();
+        }
+        agendarEnvio(inscrito);
+    }
+
+    private void agendarEnvio(Inscrito inscrito) {
+        if (!inscrito.enviando().compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            envioPorInscrito.execute(() -> esvaziar(inscrito));
+        } catch (RejectedExecutionException e) {
+            // aplicação encerrando
+            inscrito.enviando().set(false);
+        }
+    }
+
+    /**
+     * Envia os eventos pendentes do cliente, um de cada vez e na ordem em que foram enfileirados.
+     */
+    private void esvaziar(Inscrito inscrito) {
+        try {
+            SseEmitter.SseEventBuilder evento;
+            while (!inscrito.descartado().get() && (evento = inscrito.fila().poll()) != null) {
+                inscrito.emitter().send(evento);
+            }
+            if (inscrito.descartado().get()) {
+                inscrito.emitter().complete();
+                return;
+            }
+        } catch (IOException | IllegalStateException e) {
+            // cliente desconectado
+            inscritos.remove(inscrito);
+            inscrito.descartado().set(true);
+            inscrito.emitter().completeWithError(e);
+            return;
+        } finally {
+            inscrito.enviando().set(false);
+        }
+        // evento enfileirado (ou cliente descartado) entre o último poll e a liberação
+        if (!inscrito.fila().isEmpty() || inscrito.descartado().get()) {
+            agendarEnvio(inscrito);
+        }
+    }
+
+    private static Long toLong(Object valor) {
+        return valor == null ? null : ((Number) valor).longValue();
+    }
+
+    record Alteracoes(List<PosicaoVeiculoDTO> posicoes, List<Long> removidos) {
+    }
+
+    /**
+     * Cliente conectado, com a sua fila de eventos a enviar. {@code enviando} garante uma
+     * única thread esvaziando a fila por vez.
+     */
+    private record Inscrito(SseEmitter emitter, BlockingQueue<SseEmitter.SseEventBuilder> fila,
+                            AtomicBoolean enviando, AtomicBoolean descartado) {
+
+        Inscrito(SseEmitter emitter, BlockingQueue<SseEmitter.SseEventBuilder> fila) {
+            this(emitter, fila, new AtomicBoolean(), new AtomicBoolean());
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package utfpr.edu.br.coleta.trajeto;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Coordinate;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.event.PontosTrajetoRegistradosEvent;
+import utfpr.edu.br.coleta.trajeto.util.Haversine;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Mantém {@code trajeto.caminho} atualizado conforme os pontos chegam.
+ *
+ * O caminho é sempre a linha dos pontos do trajeto em ordem de horário, então o
+ * i-ésimo vértice corresponde ao i-ésimo ponto. A cada lote gravado:
+ * <ul>
+ *   <li>se todos os pontos novos são posteriores ao último já incorporado, apenas
+ *       os novos pontos são lidos e anexados ao fim da linha;</li>
+ *   <li>se chegou algum ponto atrasado, o prefixo anterior a ele é mantido e só o
+ *       sufixo a partir do ponto mais antigo do lote é relido de ponto_trajeto;</li>
+ *   <li>sem caminho (menos de 2 pontos até agora), a linha é montada do zero.</li>
+ * </ul>
+ *
+ * A {@code distanciaTotal} (km) acompanha o caminho: só o trecho alterado é medido
+ * ({@link Haversine}), antes e depois da alteração, e a diferença é somada ao total.
+ *
+ * Roda na transação da ingestão, com a linha do trajeto bloqueada, para que lotes
+ * simultâneos do mesmo trajeto não se intercalem. O bloqueio é FOR NO KEY UPDATE: quando
+ * ele é pedido, a transação já segura o FOR KEY SHARE da chave estrangeira dos pontos
+ * inseridos, e FOR UPDATE entraria em deadlock com outro lote do mesmo trajeto.
+ *
+ * Autor: Sistema
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TrajetoCaminhoService {
+
+    private static final String SQL_BLOQUEAR =
+            "SELECT horario_ultimo_ponto, ST_NPoints(caminho) AS vertices, distancia_total, " +
+            "pontos_arquivo IS NOT NULL AS arquivado " +
+            "FROM trajeto WHERE id = ? FOR NO KEY UPDATE";
+
+    private static final String SQL_VERTICES =
+            "SELECT ST_X(dp.geom), ST_Y(dp.geom) " +
+            "FROM trajeto t CROSS JOIN LATERAL ST_DumpPoints(t.caminho) dp " +
+            "WHERE t.id = ? ORDER BY dp.path[1]";
+
+    // para trechos curtos no fim da linha, ST_PointN evita expandir todos os vértices
+    private static final String SQL_VERTICES_A_PARTIR_DE =
+            "SELECT ST_X(ST_PointN(t.caminho, g)), ST_Y(ST_PointN(t.caminho, g)) " +
+            "FROM trajeto t CROSS JOIN LATERAL generate_series(?, ST_NPoints(t.caminho)) g " +
+            "WHERE t.id = ? ORDER BY g";
+
+    private static final String SQL_AMPLIAR_INTERVALO =
+            "UPDATE trajeto SET horario_primeiro_ponto = LEAST(horario_primeiro_ponto, ?), " +
+            "horario_ultimo_ponto = GREATEST(horario_ultimo_ponto, ?) WHERE id = ?";
+
+    private static final String SQL_ATUALIZAR_DISTANCIA = "UPDATE trajeto SET distancia_total = ? WHERE id = ?";
+
+    private static final String SQL_RECONSTRUIR =
+            "UPDATE trajeto t SET caminho = CASE WHEN s.quantidade >= 2 THEN s.linha END, " +
+            "horario_primeiro_ponto = s.primeiro, horario_ultimo_ponto = s.ultimo " +
+            "FROM (SELECT ST_MakeLine(localizacao ORDER BY horario) AS linha, count(*) AS quantidade, " +
+            "min(horario) AS primeiro, max(horario) AS ultimo " +
+            "FROM ponto_trajeto WHERE trajeto_id = ?) s " +
+            "WHERE t.id = ?";
+
+    // Os novos vértices entram como pontos (e não como uma segunda linha) porque o ST_MakeLine
+    // descarta o primeiro vértice de uma linha quando ele repete o último, o que quebraria a
+    // correspondência entre vértices e pontos quando o caminhão está parado.
+    private static final String SQL_ANEXAR =
+            "UPDATE trajeto t SET caminho = ST_MakeLine(ARRAY[t.caminho] || " +
+            "ARRAY(SELECT localizacao FROM ponto_trajeto WHERE trajeto_id = ? AND horario > ? ORDER BY horario)), " +
+            "horario_ultimo_ponto = GREATEST(t.horario_ultimo_ponto, ?) " +
+            "WHERE t.id = ?";
+
+    // o limite inferior permite descartar as partições de meses anteriores ao trajeto
+    private static final String SQL_CONTAR_ANTERIORES =
+            "SELECT count(*) FROM ponto_trajeto WHERE trajeto_id = ? AND horario < ? " +
+            "AND horario >= (SELECT horario_primeiro_ponto FROM trajeto WHERE id = ?)";
+
+    private static final String SQL_RECONSTRUIR_SUFIXO =
+            "UPDATE trajeto t SET caminho = ST_MakeLine(" +
+            "ARRAY(SELECT ST_PointN(t.caminho, g) FROM generate_series(1, ?) g ORDER BY g) || " +
+            "ARRAY(SELECT localizacao FROM ponto_trajeto WHERE trajeto_id = ? AND horario >= ? ORDER BY horario)), " +
+            "horario_primeiro_ponto = LEAST(t.horario_primeiro_ponto, ?), " +
+            "horario_ultimo_ponto = GREATEST(t.horario_ultimo_ponto, ?) " +
+            "WHERE t.id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener
+    @Order(0)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void aoRegistrarPontos(PontosTrajetoRegistradosEvent event) {
+        atualizarCaminho(event.getTrajetoId(), event.getHorarioMinimo(), event.getHorarioMaximo());
+    }
+
+    /**
+     * Incorpora ao caminho os pontos gravados no intervalo informado.
+     *
+     * @param horarioMinimo horário do ponto mais antigo do lote gravado
+     * @param horarioMaximo horário do ponto mais recente do lote gravado
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void atualizarCaminho(Long trajetoId, LocalDateTime horarioMinimo, LocalDateTime horarioMaximo) {
+        List<EstadoCaminho> estados = jdbcTemplate.query(SQL_BLOQUEAR, (rs, rowNum) -> {
+            Timestamp ultimo = rs.getTimestamp("horario_ultimo_ponto");
+            double distancia = rs.getDouble("distancia_total");
+            Double distanciaKm = rs.wasNull() ? null : distancia;
+            return new EstadoCaminho(ultimo != null ? ultimo.toLocalDateTime() : null, rs.getInt("vertices"),
+                    distanciaKm, rs.getBoolean("arquivado"));
+        }, trajetoId);
+        if (estados.isEmpty()) {
+            return;
+        }
+        EstadoCaminho estado = estados.get(0);
+
+        boolean anexar = estado.horarioUltimoPonto() != null && estado.vertices() >= 2
+                && horarioMinimo.isAfter(estado.horarioUltimoPonto());
+        if (estado.arquivado() && !anexar) {
+            // os pontos antigos foram para o MinIO: reler de ponto_trajeto perderia o caminho arquivado.
+            // O intervalo de horários ainda precisa cobrir os novos pontos, que são lidos por ele.
+            log.warn("Pontos atrasados no trajeto arquivado {} não incorporados ao caminho", trajetoId);
+            jdbcTemplate.update(SQL_AMPLIAR_INTERVALO, horarioMinimo, horarioMaximo, trajetoId);
+            return;
+        }
+
+        if (estado.horarioUltimoPonto() == null || estado.vertices() < 2) {
+            reconstruir(trajetoId);
+            return;
+        }
+
+        if (anexar) {
+            // o trecho alterado começa no último vértice atual, que se liga aos novos pontos
+            int inicioTrecho = estado.vertices();
+            jdbcTemplate.update(SQL_ANEXAR, trajetoId, estado.horarioUltimoPonto(), horarioMaximo, trajetoId);
+            somarDistancia(trajetoId, estado, 0, inicioTrecho);
+        } else {
+            Integer anteriores = jdbcTemplate.queryForObject(SQL_CONTAR_ANTERIORES, Integer.class,
+                    trajetoId, horarioMinimo, trajetoId);
+            if (anteriores == null || anteriores > estado.vertices()) {
+                // caminho não corresponde mais aos pontos (alterado fora da ingestão)
+                log.warn("Caminho do trajeto {} inconsistente com os pontos, reconstruindo", trajetoId);
+                reconstruir(trajetoId);
+                return;
+            }
+            log.debug("Pontos atrasados no trajeto {}: mantendo {} vértices e relendo a partir de {}",
+                    trajetoId, anteriores, horarioMinimo);
+
+            // o trecho alterado começa no último vértice mantido (ou no primeiro, se nenhum foi mantido)
+            int inicioTrecho = Math.max(anteriores, 1);
+            double antes = medirTrechoMetros(trajetoId, inicioTrecho);
+            jdbcTemplate.update(SQL_RECONSTRUIR_SUFIXO,
+                    anteriores, trajetoId, horarioMinimo, horarioMinimo, horarioMaximo, trajetoId);
+            somarDistancia(trajetoId, estado, antes, inicioTrecho);
+        }
+    }
+
+    /**
+     * Monta o caminho do zero a partir de todos os pontos do trajeto e recalcula a distância.
+     */
+    @Transactional
+    public void reconstruir(Long trajetoId) {
+        jdbcTemplate.update(SQL_RECONSTRUIR, trajetoId, trajetoId);
+        jdbcTemplate.update(SQL_ATUALIZAR_DISTANCIA, calcularDistanciaKm(trajetoId), trajetoId);
+    }
+
+    /**
+     * Mede o caminho inteiro do trajeto, em quilômetros.
+     *
+     * @return a distância, ou {@code null} se o trajeto ainda não tem caminho
+     */
+    @Transactional(readOnly = true)
+    public Double calcularDistanciaKm(Long trajetoId) {
+        List<Coordinate> vertices = jdbcTemplate.query(SQL_VERTICES,
+                (rs, rowNum) -> new Coordinate(rs.getDouble(1), rs.getDouble(2)), trajetoId);
+        return vertices.size() < 2 ? null : Haversine.comprimentoMetros(vertices) / 1000;
+    }
+
+    private void somarDistancia(Long trajetoId, EstadoCaminho estado, double antesMetros, int inicioTrecho) {
+        if (estado.distanciaKm() == null) {
+            jdbcTemplate.update(SQL_ATUALIZAR_DISTANCIA, calcularDistanciaKm(trajetoId), trajetoId);
+            return;
+        }
+        double depoisMetros = medirTrechoMetros(trajetoId, inicioTrecho);
+        double distanciaKm = Math.max(0, estado.distanciaKm() + (depoisMetros - antesMetros) / 1000);
+        jdbcTemplate.update(SQL_ATUALIZAR_DISTANCIA, distanciaKm, trajetoId);
+    }
+
+    /** Comprimento do caminho a partir do vértice informado (base 1) até o fim. */
+    private double medirTrechoMetros(Long trajetoId, int verticeInicial) {
+        List<Coordinate> vertices = jdbcTemplate.query(SQL_VERTICES_A_PARTIR_DE,
+                (rs, rowNum) -> new Coordinate(rs.getDouble(1), rs.getDouble(2)),
+                verticeInicial, trajetoId);
+        return Haversine.comprimentoMetros(vertices);
+    }
+
+    private record EstadoCaminho(LocalDateTime horarioUltimoPonto, int vertices, Double distanciaKm, boolean arquivado) {
+    }
+}
@@ -1,19 +1,28 @@
 package utfpr.edu.br.coleta.trajeto;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import org.modelmapper.ModelMapper;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import utfpr.edu.br.coleta.generics.CrudController;
 import utfpr.edu.br.coleta.generics.ICrudService;
 import utfpr.edu.br.coleta.incidente.IncidenteService;
 import utfpr.edu.br.coleta.incidente.dto.IncidenteDTO;
+import utfpr.edu.br.coleta.rota.dto.LineStringGeoJsonDTO;
+import utfpr.edu.br.coleta.rota.util.GeoJsonConverter;
 import utfpr.edu.br.coleta.tiporesiduo.TipoResiduoDTO;
 import utfpr.edu.br.coleta.trajeto.pontotrajeto.IPontoTrajetoService;
 import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoDTO;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoFeedDTO;
 import utfpr.edu.br.coleta.trajeto.dto.TrajetoCreateDTO;
 import utfpr.edu.br.coleta.trajeto.dto.TrajetoDTO;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -23,18 +32,24 @@ public class TrajetoController extends CrudController<Trajeto, TrajetoDTO> {
     private final ITrajetoService service;
     private final IPontoTrajetoService pontoTrajetoService;
     private final IncidenteService incidenteService;
+    private final TrajetoSimplificacaoService simplificacaoService;
+    private final TrajetoAoVivoService aoVivoService;
     private final ModelMapper modelMapper;
 
     public TrajetoController(
             ITrajetoService service,
             IPontoTrajetoService pontoTrajetoService,
             IncidenteService incidenteService,
+            TrajetoSimplificacaoService simplificacaoService,
+            TrajetoAoVivoService aoVivoService,
             ModelMapper modelMapper
     ) {
         super(Trajeto.class, TrajetoDTO.class);
         this.service = service;
         this.pontoTrajetoService = pontoTrajetoService;
         this.incidenteService = incidenteService;
+        this.simplificacaoService = simplificacaoService;
+        this.aoVivoService = aoVivoService;
         this.modelMapper = modelMapper;
     }
 
@@ -77,12 +92,63 @@ public class TrajetoController extends CrudController<Trajeto, TrajetoDTO> {
         return ResponseEntity.ok(service.cancelarTrajeto(id));
     }
 
+    @Operation(summary = "Acompanha a posição dos caminhões em trajetos em andamento (Server-Sent Events)",
+            description = "Envia um evento 'snapshot' com todas as posições ao conectar e, depois, apenas as " +
+                    "alterações: 'posicoes' (última posição de cada trajeto que andou) e 'removidos' " +
+                    "(ids dos trajetos finalizados ou cancelados).")
+    @GetMapping(value = "/ao-vivo", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter aoVivo() {
+        return aoVivoService.inscrever();
+    }
+
     @Operation(summary = "Lista todos os pontos registrados de um trajeto")
     @GetMapping("/{id}/pontos")
     public ResponseEntity<List<PontoTrajetoDTO>> listarPontos(@PathVariable Long id) {
         return ResponseEntity.ok(pontoTrajetoService.findByTrajeto(id));
     }
 
+    @Operation(summary = "Lista os pontos de um trajeto posteriores a um cursor, para acompanhamento incremental",
+            description = "Repita a consulta com aposHorario/aposId iguais a proximoHorario/proximoId da resposta " +
+                    "anterior para receber apenas os pontos novos.")
+    @GetMapping("/{id}/pontos/feed")
+    public ResponseEntity<PontoTrajetoFeedDTO> feedPontos(
+            @PathVariable Long id,
+            @Parameter(description = "Horário do último ponto já recebido")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime aposHorario,
+            @Parameter(description = "ID do último ponto já recebido")
+            @RequestParam(required = false) Long aposId,
+            @Parameter(description = "Máximo de pontos retornados (1 a 5000)")
+            @RequestParam(defaultValue = "500") int limite
+    ) {
+        return ResponseEntity.ok(pontoTrajetoService.buscarPontosApos(id, aposHorario, aposId, limite));
+    }
+
+    @Operation(summary = "Exporta os pontos de um trajeto em NDJSON (um ponto por linha), em streaming",
+            description = "Indicado para trajetos longos: os pontos são enviados conforme são lidos do banco, " +
+                    "sem montar a lista inteira em memória.")
+    @GetMapping(value = "/{id}/pontos/exportar", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportarPontos(@PathVariable Long id) {
+        if (!service.exists(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        StreamingResponseBody corpo = saida -> pontoTrajetoService.exportarPontos(id, saida);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(corpo);
+    }
+
+    @Operation(summary = "Retorna o caminho do trajeto em GeoJSON, simplificado conforme a tolerância informada")
+    @GetMapping("/{id}/caminho")
+    public ResponseEntity<LineStringGeoJsonDTO> buscarCaminho(
+            @PathVariable Long id,
+            @Parameter(description = "Erro aceitável em metros (ex.: 1, 5, 20). Sem tolerância, retorna o caminho completo")
+            @RequestParam(required = false) Double toleranciaMetros
+    ) {
+        return simplificacaoService.buscarCaminho(id, toleranciaMetros)
+                .map(caminho -> ResponseEntity.ok(GeoJsonConverter.toGeoJson(caminho)))
+                .orElse(ResponseEntity.noContent().build());
+    }
+
     @Operation(summary = "Lista todos os incidentes registrados de um trajeto")
     @GetMapping("/{id}/incidentes")
     public ResponseEntity<List<IncidenteDTO>> listarIncidentes(@PathVariable Long id) {
@@ -2,8 +2,14 @@ package utfpr.edu.br.coleta.trajeto;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import utfpr.edu.br.coleta.caminhao.Caminhao;
 
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+
 public interface TrajetoRepository extends JpaRepository<Trajeto, Long> , JpaSpecificationExecutor<Trajeto> {
 
     /**
@@ -13,4 +19,29 @@ public interface TrajetoRepository extends JpaRepository<Trajeto, Long> , JpaSpe
      * @return lista de trajetos da rota
      */
     java.util.List<Trajeto> findByRotaIdOrderByDataInicioDesc(Long rotaId);
+
+    /**
+     * Retorna, dentre os IDs informados, apenas os que existem.
+     * Usado na validação de lotes de pontos sem carregar as entidades.
+     *
+     * @param ids IDs de trajeto a verificar
+     * @return IDs existentes
+     */
+    @Query("SELECT t.id FROM Trajeto t WHERE t.id IN :ids")
+    Set<Long> findIdsExistentes(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Busca o trajeto bloqueando a linha até o fim da transação, serializando a alteração
+     * com a ingestão de pontos do mesmo trajeto (que bloqueia a linha do mesmo jeito, ver
+     * TrajetoCaminhoService).
+     *
+     * É FOR NO KEY UPDATE, e não o FOR UPDATE do PESSIMISTIC_WRITE: um lote em gravação já
+     * segura o FOR KEY SHARE da chave estrangeira dos pontos, e FOR UPDATE esperaria por ele
+     * enquanto ele espera por este bloqueio.
+     *
+     * @param id ID do trajeto
+     * @return trajeto bloqueado, se existir
+     */
+    @Query(value = "SELECT * FROM trajeto WHERE id = :id FOR NO KEY UPDATE", nativeQuery = true)
+    Optional<Trajeto> findByIdParaAtualizacao(@Param("id") Long id);
 }
\ No newline at end of file
@@ -2,7 +2,9 @@ package utfpr.edu.br.coleta.trajeto;
 
 import lombok.RequiredArgsConstructor;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import utfpr.edu.br.coleta.caminhao.Caminhao;
 import utfpr.edu.br.coleta.caminhao.CaminhaoRepository;
 import utfpr.edu.br.coleta.generics.CrudServiceImpl;
@@ -12,9 +14,12 @@ import utfpr.edu.br.coleta.rota.RotaRepository;
 import utfpr.edu.br.coleta.trajeto.dto.TrajetoCreateDTO;
 import utfpr.edu.br.coleta.trajeto.dto.TrajetoDTO;
 import utfpr.edu.br.coleta.trajeto.enums.TrajetoStatus;
+import utfpr.edu.br.coleta.trajeto.event.TrajetoExcluidoEvent;
+import utfpr.edu.br.coleta.trajeto.event.TrajetoStatusAlteradoEvent;
 import utfpr.edu.br.coleta.motorista.validator.CNHVeiculoValidator;
 
 import java.time.LocalDateTime;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -26,6 +31,9 @@ public class TrajetoServiceImpl extends CrudServiceImpl<Trajeto, Long> implement
     private final RotaRepository rotaRepository;
     private final ModelMapper mapper;
     private final CNHVeiculoValidator cnhVeiculoValidator;
+    private final TrajetoCaminhoService caminhoService;
+    private final TrajetoSimplificacaoService simplificacaoService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     protected TrajetoRepository getRepository() {
@@ -39,6 +47,7 @@ public class TrajetoServiceImpl extends CrudServiceImpl<Trajeto, Long> implement
     }
 
     @Override
+    @Transactional
     public TrajetoDTO iniciarTrajeto(TrajetoCreateDTO dto) {
         Trajeto trajeto = new Trajeto();
         trajeto.setRota(rotaRepository.findById(dto.getRotaId())
@@ -58,26 +67,57 @@ public class TrajetoServiceImpl extends CrudServiceImpl<Trajeto, Long> implement
         trajeto.setDataInicio(LocalDateTime.now());
         trajeto.setStatus(TrajetoStatus.EM_ANDAMENTO);
 
-        return mapper.map(repository.save(trajeto), TrajetoDTO.class);
+        // flush antes do evento: os listeners na transação leem o trajeto via SQL
+        Trajeto iniciado = repository.saveAndFlush(trajeto);
+        eventPublisher.publishEvent(new TrajetoStatusAlteradoEvent(iniciado.getId(), TrajetoStatus.EM_ANDAMENTO));
+
+        return mapper.map(iniciado, TrajetoDTO.class);
     }
 
     @Override
+    @Transactional
     public TrajetoDTO finalizarTrajeto(Long id) {
-        Trajeto trajeto = repository.findById(id)
+        // bloqueia o trajeto para não sobrescrever caminho/distância de um lote de pontos em gravação
+        Trajeto trajeto = repository.findByIdParaAtualizacao(id)
                 .orElseThrow(() -> new RuntimeException("Trajeto não encontrado"));
         trajeto.setDataFim(LocalDateTime.now());
         trajeto.setStatus(TrajetoStatus.FINALIZADO);
 
-        return mapper.map(repository.save(trajeto), TrajetoDTO.class);
+        // a distância é mantida incrementalmente na ingestão; aqui é recalculada sobre o caminho completo
+        trajeto.setDistanciaTotal(caminhoService.calcularDistanciaKm(id));
+        Trajeto finalizado = repository.saveAndFlush(trajeto);
+
+        // versões simplificadas do caminho, usadas pelo mapa e pelo cálculo de cobertura
+        simplificacaoService.gerar(id);
+
+        eventPublisher.publishEvent(new TrajetoStatusAlteradoEvent(id, TrajetoStatus.FINALIZADO));
+        return mapper.map(finalizado, TrajetoDTO.class);
     }
 
     @Override
+    @Transactional
     public TrajetoDTO cancelarTrajeto(Long id) {
-        Trajeto trajeto = repository.findById(id)
+        Trajeto trajeto = repository.findByIdParaAtualizacao(id)
                 .orElseThrow(() -> new RuntimeException("Trajeto não encontrado"));
         trajeto.setDataFim(LocalDateTime.now());
         trajeto.setStatus(TrajetoStatus.CANCELADO);
+        // flush antes do evento: os listeners na transação leem o status via SQL
+        Trajeto cancelado = repository.saveAndFlush(trajeto);
 
-        return mapper.map(repository.save(trajeto), TrajetoDTO.class);
+        eventPublisher.publishEvent(new TrajetoStatusAlteradoEvent(id, TrajetoStatus.CANCELADO));
+        return mapper.map(cancelado, TrajetoDTO.class);
+    }
+
+    @Override
+    @Transactional
+    public void delete(Long id) {
+        Optional<Trajeto> trajeto = repository.findByIdParaAtualizacao(id);
+        super.delete(id);
+        // flush antes do evento: os listeners na transação refazem a cobertura via SQL
+        repository.flush();
+        trajeto.ifPresent(excluido -> eventPublisher.publishEvent(new TrajetoExcluidoEvent(id,
+                excluido.getRota().getId(),
+                excluido.getDataInicio() != null ? excluido.getDataInicio().toLocalDate() : null,
+                excluido.getStatus())));
     }
-}
\ No newline at end of file
+}
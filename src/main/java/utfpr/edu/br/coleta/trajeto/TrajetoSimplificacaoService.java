@@ -0,0 +1,122 @@
+package utfpr.edu.br.coleta.trajeto;
+
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import utfpr.edu.br.coleta.trajeto.enums.TrajetoStatus;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.event.PontosTrajetoRegistradosEvent;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Gera as versões simplificadas do caminho de um trajeto finalizado, guardadas em
+ * trajeto_caminho_simplificado ao lado do caminho completo.
+ *
+ * A simplificação é Douglas-Peucker com tolerância em metros (função SQL
+ * {@code simplificar_caminho}), uma versão por tolerância configurada. O mapa
+ * pede a versão adequada ao zoom e o cálculo de cobertura usa a mais simplificada
+ * cuja tolerância não passa de 1/4 do buffer (função SQL {@code caminho_para_buffer}).
+ *
+ * As versões são geradas ao finalizar o trajeto e refeitas se chegarem pontos
+ * depois disso (sincronização atrasada do aplicativo).
+ *
+ * Autor: Sistema
+ */
+@Service
+@Slf4j
+public class TrajetoSimplificacaoService {
+
+    private static final String SQL_REMOVER = "DELETE FROM trajeto_caminho_simplificado WHERE trajeto_id = ?";
+
+    private static final String SQL_GERAR =
+            "INSERT INTO trajeto_caminho_simplificado (trajeto_id, tolerancia_metros, caminho, vertices) " +
+            "SELECT s.trajeto_id, s.tolerancia_metros, s.caminho, ST_NPoints(s.caminho) FROM (" +
+            "SELECT t.id AS trajeto_id, tol AS tolerancia_metros, simplificar_caminho(t.caminho, tol) AS caminho " +
+            "FROM trajeto t CROSS JOIN unnest(?::DOUBLE PRECISION[]) tol " +
+            "WHERE t.id = ? AND t.caminho IS NOT NULL) s";
+
+    private static final String SQL_STATUS = "SELECT status FROM trajeto WHERE id = ?";
+
+    // a maior tolerância que não passa da pedida; sem nenhuma, a menor disponível
+    private static final String SQL_BUSCAR =
+            "SELECT ST_AsBinary(caminho) FROM trajeto_caminho_simplificado WHERE trajeto_id = ? " +
+            "ORDER BY tolerancia_metros <= ? DESC, " +
+            "CASE WHEN tolerancia_metros <= ? THEN -tolerancia_metros ELSE tolerancia_metros END " +
+            "LIMIT 1";
+
+    private static final String SQL_CAMINHO_COMPLETO = "SELECT ST_AsBinary(caminho) FROM trajeto WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Double[] toleranciasMetros;
+
+    private final GeometryFactory geometryFactory = new GeometryFactory(new PrecisionModel(), 4326);
+
+    public TrajetoSimplificacaoService(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.trajeto.simplificacao.tolerancias-metros:1,5,20}") double[] toleranciasMetros
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.toleranciasMetros = Arrays.stream(toleranciasMetros).boxed().toArray(Double[]::new);
+    }
+
+    /**
+     * Refaz as versões simplificadas do caminho atual do trajeto.
+     */
+    @Transactional
+    public void gerar(Long trajetoId) {
+        jdbcTemplate.update(SQL_REMOVER, trajetoId);
+        int geradas = jdbcTemplate.update(SQL_GERAR, toleranciasMetros, trajetoId);
+        log.debug("Trajeto {}: {} versões simplificadas do caminho geradas", trajetoId, geradas);
+    }
+
+    // depois do TrajetoCaminhoService, para simplificar o caminho já atualizado
+    @EventListener
+    @Order(10)
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void aoRegistrarPontos(PontosTrajetoRegistradosEvent event) {
+        List<String> status = jdbcTemplate.queryForList(SQL_STATUS, String.class, event.getTrajetoId());
+        if (!status.isEmpty() && TrajetoStatus.FINALIZADO.name().equals(status.get(0))) {
+            gerar(event.getTrajetoId());
+        }
+    }
+
+    /**
+     * Caminho do trajeto para exibição.
+     *
+     * @param toleranciaMetros erro aceitável em metros; {@code null} ou 0 devolve o caminho completo
+     * @return a versão mais simplificada dentro da tolerância (ou a menos simplificada, se todas
+     *         passarem dela); o caminho completo se o trajeto ainda não tem versões simplificadas
+     */
+    @Transactional(readOnly = true)
+    public Optional<LineString> buscarCaminho(Long trajetoId, Double toleranciaMetros) {
+        if (toleranciaMetros != null && toleranciaMetros > 0) {
+            List<byte[]> simplificado = jdbcTemplate.queryForList(SQL_BUSCAR, byte[].class,
+                    trajetoId, toleranciaMetros, toleranciaMetros);
+            if (!simplificado.isEmpty()) {
+                return Optional.of(lerLinha(simplificado.get(0)));
+            }
+        }
+        List<byte[]> completo = jdbcTemplate.queryForList(SQL_CAMINHO_COMPLETO, byte[].class, trajetoId);
+        return completo.isEmpty() || completo.get(0) == null ? Optional.empty() : Optional.of(lerLinha(completo.get(0)));
+    }
+
+    private LineString lerLinha(byte[] wkb) {
+        try {
+            return (LineString) new WKBReader(geometryFactory).read(wkb);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Caminho do trajeto inválido: " + e.getMessage(), e);
+        }
+    }
+}
@@ -12,6 +12,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import utfpr.edu.br.coleta.trajeto.consulta.dto.AgendaColetaDTO;
 import utfpr.edu.br.coleta.trajeto.consulta.dto.HistoricoColetaDTO;
+import utfpr.edu.br.coleta.trajeto.consulta.dto.PrevisaoColetaDTO;
 import utfpr.edu.br.coleta.usuario.Usuario;
 
 import java.util.List;
@@ -84,6 +85,33 @@ public class ConsultaColetaController {
         return ResponseEntity.ok(historico);
     }
 
+    @GetMapping("/previsao-coleta")
+    @PreAuthorize("hasAuthority('ROLE_MORADOR')")
+    @Operation(summary = "Consultar previsão de passagem do caminhão",
+               description = "Retorna o horário em que o caminhão costuma passar pelo endereço do morador autenticado " +
+                       "e, se houver coleta em andamento, a janela de chegada prevista")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Previsão retornada com sucesso"),
+        @ApiResponse(responseCode = "401", description = "Não autenticado"),
+        @ApiResponse(responseCode = "403", description = "Acesso negado - apenas moradores"),
+        @ApiResponse(responseCode = "400", description = "Endereço do morador não possui coordenadas")
+    })
+    public ResponseEntity<List<PrevisaoColetaDTO>> consultarPrevisaoColeta(Authentication authentication) {
+        Usuario usuario = (Usuario) authentication.getPrincipal();
+
+        // Verifica se o usuário possui coordenadas cadastradas
+        if (usuario.getLatitude() == null || usuario.getLongitude() == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<PrevisaoColetaDTO> previsao = consultaColetaService.buscarPrevisaoColeta(
+                usuario.getLatitude(),
+                usuario.getLongitude()
+        );
+
+        return ResponseEntity.ok(previsao);
+    }
+
     @GetMapping("/agenda-coleta/coordenadas")
     @Operation(summary = "Consultar agenda de coleta por coordenadas", 
                description = "Retorna o cronograma de coleta para coordenadas específicas (endpoint público para consulta)")
@@ -125,4 +153,25 @@ public class ConsultaColetaController {
         List<HistoricoColetaDTO> historico = consultaColetaService.buscarHistoricoColeta(latitude, longitude);
         return ResponseEntity.ok(historico);
     }
+
+    @GetMapping("/previsao-coleta/coordenadas")
+    @Operation(summary = "Consultar previsão de passagem do caminhão por coordenadas",
+               description = "Retorna a previsão de passagem para coordenadas específicas (endpoint público para consulta)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Previsão retornada com sucesso"),
+        @ApiResponse(responseCode = "400", description = "Coordenadas inválidas")
+    })
+    public ResponseEntity<List<PrevisaoColetaDTO>> consultarPrevisaoColetaPorCoordenadas(
+            @Parameter(description = "Latitude do endereço", example = "-26.2289")
+            @RequestParam Double latitude,
+            @Parameter(description = "Longitude do endereço", example = "-52.6789")
+            @RequestParam Double longitude) {
+
+        if (latitude == null || longitude == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<PrevisaoColetaDTO> previsao = consultaColetaService.buscarPrevisaoColeta(latitude, longitude);
+        return ResponseEntity.ok(previsao);
+    }
 }
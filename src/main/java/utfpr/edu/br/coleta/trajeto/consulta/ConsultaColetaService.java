@@ -8,6 +8,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import utfpr.edu.br.coleta.trajeto.consulta.dto.AgendaColetaDTO;
 import utfpr.edu.br.coleta.trajeto.consulta.dto.HistoricoColetaDTO;
+import utfpr.edu.br.coleta.trajeto.consulta.dto.PrevisaoColetaDTO;
 import utfpr.edu.br.coleta.rota.FrequenciaRota;
 import utfpr.edu.br.coleta.rota.Rota;
 import utfpr.edu.br.coleta.rota.RotaRepository;
@@ -15,6 +16,7 @@ import utfpr.edu.br.coleta.rota.enums.Periodo;
 import utfpr.edu.br.coleta.trajeto.Trajeto;
 import utfpr.edu.br.coleta.trajeto.TrajetoRepository;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -30,6 +32,7 @@ public class ConsultaColetaService {
 
     private final RotaRepository rotaRepository;
     private final TrajetoRepository trajetoRepository;
+    private final PrevisaoPassagemService previsaoPassagemService;
     private final GeometryFactory geometryFactory = new GeometryFactory();
 
     /**
@@ -72,6 +75,35 @@ public class ConsultaColetaService {
         return agenda;
     }
 
+    /**
+     * Retorna a previsão de passagem do caminhão pelo endereço, para cada rota que o atende.
+     * Usa as estatísticas pré-calculadas dos trajetos finalizados e, se houver caminhão da
+     * rota em coleta, a posição atual dele para estimar a chegada.
+     *
+     * @param latitude Latitude do endereço
+     * @param longitude Longitude do endereço
+     * @return Lista com a previsão por rota
+     */
+    @Transactional(readOnly = true)
+    public List<PrevisaoColetaDTO> buscarPrevisaoColeta(Double latitude, Double longitude) {
+        Point ponto = geometryFactory.createPoint(new Coordinate(longitude, latitude));
+        ponto.setSRID(4326);
+
+        LocalDateTime agora = LocalDateTime.now();
+        List<PrevisaoColetaDTO> previsoes = new ArrayList<>();
+
+        for (Rota rota : rotaRepository.findByAtivoTrue()) {
+            if (rota.getAreaGeografica() != null && rota.getAreaGeografica().contains(ponto)) {
+                PrevisaoColetaDTO previsao = previsaoPassagemService.prever(rota.getId(), latitude, longitude, agora);
+                previsao.setNomeRota(rota.getNome());
+                previsao.setTipoResiduo(rota.getTipoResiduo().getNome());
+                previsoes.add(previsao);
+            }
+        }
+
+        return previsoes;
+    }
+
     /**
      * Retorna o histórico de coletas realizadas próximas a um endereço.
      * Busca trajetos finalizados em rotas que atendem o endereço.
@@ -0,0 +1,217 @@
+package utfpr.edu.br.coleta.trajeto.consulta;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import utfpr.edu.br.coleta.trajeto.TrajetoAoVivoService;
+import utfpr.edu.br.coleta.trajeto.consulta.dto.PrevisaoColetaDTO;
+import utfpr.edu.br.coleta.trajeto.dto.PosicaoVeiculoDTO;
+import utfpr.edu.br.coleta.trajeto.enums.TrajetoStatus;
+import utfpr.edu.br.coleta.trajeto.event.TrajetoStatusAlteradoEvent;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Previsão de passagem do caminhão por um endereço, aprendida dos trajetos finalizados.
+ *
+ * A cidade é dividida em células de {@value #TAMANHO_CELULA} unidades de EPSG:3857. Ao finalizar
+ * um trajeto, a primeira passagem dele por cada célula é gravada (passagem_celula) e as
+ * estatísticas da rota são recalculadas sobre os últimos {@code app.previsao.trajetos-por-rota}
+ * trajetos (previsao_passagem_celula): horário do dia e tempo desde o início do trajeto,
+ * em percentis 10/50/90. As funções SQL estão em V1.28.
+ *
+ * A consulta lê só as células ao redor do endereço. Com um caminhão da rota em andamento,
+ * a chegada é estimada pela diferença entre o tempo típico até o endereço e o tempo típico
+ * até a posição atual do caminhão.
+ *
+ * Autor: Sistema
+ */
+@Service
+@Slf4j
+public class PrevisaoPassagemService {
+
+    /** Lado da célula, em unidades de EPSG:3857 (metros no equador). */
+    static final int TAMANHO_CELULA = 150;
+
+    /** Atraso, em minutos, a partir do qual o caminhão é considerado já tendo passado. */
+    static final double TOLERANCIA_JA_PASSOU_MINUTOS = 5;
+
+    private static final double RAIO_TERRA = 6378137d;
+
+    private static final String SQL_ROTA_DO_TRAJETO = "SELECT rota_id FROM trajeto WHERE id = ?";
+
+    private static final String SQL_REGISTRAR = "SELECT registrar_passagens_trajeto(?)";
+
+    private static final String SQL_ATUALIZAR_ROTA = "SELECT atualizar_previsao_rota(?, ?)";
+
+    private static final String SQL_CELULAS =
+            "SELECT celula_x, celula_y, amostras, minuto_dia_p10, minuto_dia_mediano, minuto_dia_p90, " +
+            "minutos_inicio_p10, minutos_inicio_mediano, minutos_inicio_p90 " +
+            "FROM previsao_passagem_celula " +
+            "WHERE rota_id = ? AND celula_x BETWEEN ? AND ? AND celula_y BETWEEN ? AND ?";
+
+    private static final String SQL_INICIO_TRAJETO = "SELECT horario_primeiro_ponto FROM trajeto WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TrajetoAoVivoService aoVivoService;
+    private final int trajetosPorRota;
+
+    public PrevisaoPassagemService(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            TrajetoAoVivoService aoVivoService,
+            @Value("${app.previsao.trajetos-por-rota:20}") int trajetosPorRota) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.aoVivoService = aoVivoService;
+        this.trajetosPorRota = trajetosPorRota;
+    }
+
+    // depois do commit da finalização, em transação própria: uma falha aqui não desfaz a finalização
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoAlterarStatus(TrajetoStatusAlteradoEvent event) {
+        if (event.getStatus() != TrajetoStatus.FINALIZADO) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> atualizar(event.getTrajetoId()));
+        } catch (RuntimeException e) {
+            log.error("Erro ao atualizar a previsão de passagem com o trajeto {}", event.getTrajetoId(), e);
+        }
+    }
+
+    /**
+     * Registra as passagens do trajeto e recalcula as estatísticas da sua rota.
+     */
+    public void atualizar(Long trajetoId) {
+        List<Long> rota = jdbcTemplate.queryForList(SQL_ROTA_DO_TRAJETO, Long.class, trajetoId);
+        if (rota.isEmpty()) {
+            return;
+        }
+        Integer passagens = jdbcTemplate.queryForObject(SQL_REGISTRAR, Integer.class, trajetoId);
+        Integer celulas = jdbcTemplate.queryForObject(SQL_ATUALIZAR_ROTA, Integer.class, rota.get(0), trajetosPorRota);
+        log.debug("Trajeto {}: {} células percorridas; rota {} com {} células na previsão",
+                trajetoId, passagens, rota.get(0), celulas);
+    }
+
+    /**
+     * Previsão de passagem da rota pelo endereço. Sem histórico perto do endereço, retorna
+     * a previsão com {@code amostras = 0} e sem horários.
+     */
+    public PrevisaoColetaDTO prever(Long rotaId, double latitude, double longitude, LocalDateTime agora) {
+        PrevisaoColetaDTO dto = new PrevisaoColetaDTO();
+        dto.setRotaId(rotaId);
+
+        Optional<EstatisticaCelula> endereco = buscarEstatistica(rotaId, latitude, longitude);
+        endereco.ifPresent(e -> {
+            dto.setAmostras(e.amostras());
+            dto.setHorarioTipico(horarioDoDia(e.minutoDiaMediano()));
+            dto.setHorarioTipicoInicio(horarioDoDia(e.minutoDiaP10()));
+            dto.setHorarioTipicoFim(horarioDoDia(e.minutoDiaP90()));
+        });
+
+        Optional<PosicaoVeiculoDTO> veiculo = aoVivoService.listarPosicoes().stream()
+                .filter(p -> rotaId.equals(p.getRotaId()))
+                .max(Comparator.comparing(PosicaoVeiculoDTO::getHorario));
+        if (veiculo.isEmpty()) {
+            return dto;
+        }
+        dto.setEmAndamento(true);
+        dto.setTrajetoId(veiculo.get().getTrajetoId());
+
+        if (endereco.isPresent()) {
+            Double minutosVeiculo = minutosPercorridos(rotaId, veiculo.get());
+            if (minutosVeiculo != null) {
+                estimarChegada(dto, endereco.get(), minutosVeiculo, agora);
+            }
+        }
+        return dto;
+    }
+
+    /**
+     * Tempo típico até a posição atual do caminhão; sem histórico na posição, o tempo
+     * decorrido desde o primeiro ponto do trajeto.
+     */
+    private Double minutosPercorridos(Long rotaId, PosicaoVeiculoDTO veiculo) {
+        Optional<EstatisticaCelula> posicao = buscarEstatistica(rotaId, veiculo.getLatitude(), veiculo.getLongitude());
+        if (posicao.isPresent()) {
+            return posicao.get().minutosInicioMediano();
+        }
+        List<LocalDateTime> inicio = jdbcTemplate.queryForList(SQL_INICIO_TRAJETO, LocalDateTime.class,
+                veiculo.getTrajetoId());
+        if (inicio.isEmpty() || inicio.get(0) == null) {
+            return null;
+        }
+        return Duration.between(inicio.get(0), veiculo.getHorario()).toSeconds() / 60d;
+    }
+
+    private Optional<EstatisticaCelula> buscarEstatistica(Long rotaId, double latitude, double longitude) {
+        int[] celula = celula(latitude, longitude);
+        List<EstatisticaCelula> vizinhas = jdbcTemplate.query(SQL_CELULAS, (rs, i) -> new EstatisticaCelula(
+                rs.getInt(1), rs.getInt(2), rs.getInt(3),
+                rs.getDouble(4), rs.getDouble(5), rs.getDouble(6),
+                rs.getDouble(7), rs.getDouble(8), rs.getDouble(9)),
+                rotaId, celula[0] - 1, celula[0] + 1, celula[1] - 1, celula[1] + 1);
+        return escolherCelula(vizinhas, celula[0], celula[1]);
+    }
+
+    /**
+     * Célula do ponto na grade (mesma conta de registrar_passagens_trajeto).
+     */
+    static int[] celula(double latitude, double longitude) {
+        double x = RAIO_TERRA * Math.toRadians(longitude);
+        double y = RAIO_TERRA * Math.log(Math.tan(Math.PI / 4 + Math.toRadians(latitude) / 2));
+        return new int[]{(int) Math.floor(x / TAMANHO_CELULA), (int) Math.floor(y / TAMANHO_CELULA)};
+    }
+
+    /**
+     * A célula do endereço, se a rota passa por ela; senão a vizinha com mais amostras
+     * (o caminhão passa na rua, que pode cair na célula ao lado).
+     */
+    static Optional<EstatisticaCelula> escolherCelula(List<EstatisticaCelula> vizinhas, int celulaX, int celulaY) {
+        return vizinhas.stream().min(Comparator
+                .comparingInt((EstatisticaCelula e) -> Math.max(Math.abs(e.celulaX() - celulaX), Math.abs(e.celulaY() - celulaY)))
+                .thenComparing(EstatisticaCelula::amostras, Comparator.reverseOrder()));
+    }
+
+    /**
+     * Chegada = agora + (tempo típico até o endereço - tempo típico até o caminhão). A janela
+     * usa a dispersão histórica do tempo até o endereço (percentis 10 e 90).
+     */
+    static void estimarChegada(PrevisaoColetaDTO dto, EstatisticaCelula endereco, double minutosVeiculo, LocalDateTime agora) {
+        double restante = endereco.minutosInicioMediano() - minutosVeiculo;
+        if (restante < -TOLERANCIA_JA_PASSOU_MINUTOS) {
+            dto.setJaPassou(true);
+            return;
+        }
+        dto.setJaPassou(false);
+        double antes = endereco.minutosInicioMediano() - endereco.minutosInicioP10();
+        double depois = endereco.minutosInicioP90() - endereco.minutosInicioMediano();
+        dto.setPrevisaoChegada(somarMinutos(agora, Math.max(restante, 0)));
+        dto.setPrevisaoChegadaInicio(somarMinutos(agora, Math.max(restante - antes, 0)));
+        dto.setPrevisaoChegadaFim(somarMinutos(agora, Math.max(restante + depois, 0)));
+    }
+
+    private static LocalDateTime somarMinutos(LocalDateTime horario, double minutos) {
+        return horario.plusSeconds(Math.round(minutos * 60));
+    }
+
+    private static LocalTime horarioDoDia(double minutos) {
+        return LocalTime.ofSecondOfDay(Math.floorMod(Math.round(minutos * 60), 86_400L));
+    }
+
+    record EstatisticaCelula(int celulaX, int celulaY, int amostras,
+                             double minutoDiaP10, double minutoDiaMediano, double minutoDiaP90,
+                             double minutosInicioP10, double minutosInicioMediano, double minutosInicioP90) {
+    }
+}
@@ -0,0 +1,60 @@
+package utfpr.edu.br.coleta.trajeto.consulta.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * DTO com a previsão de passagem do caminhão de uma rota por um endereço.
+ *
+ * Autor: Sistema
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Schema(description = "Previsão de passagem do caminhão por um endereço")
+public class PrevisaoColetaDTO {
+
+    @Schema(description = "ID da rota")
+    private Long rotaId;
+
+    @Schema(description = "Nome da rota")
+    private String nomeRota;
+
+    @Schema(description = "Tipo de resíduo coletado")
+    private String tipoResiduo;
+
+    @Schema(description = "Quantidade de coletas anteriores usadas na previsão (0 = sem histórico para o endereço)")
+    private int amostras;
+
+    @Schema(description = "Horário em que o caminhão costuma passar pelo endereço (mediana)", example = "09:40:00")
+    private LocalTime horarioTipico;
+
+    @Schema(description = "Início da faixa usual de passagem (10% das coletas passaram antes)", example = "09:15:00")
+    private LocalTime horarioTipicoInicio;
+
+    @Schema(description = "Fim da faixa usual de passagem (90% das coletas passaram antes)", example = "10:05:00")
+    private LocalTime horarioTipicoFim;
+
+    @Schema(description = "Indica se há um caminhão desta rota em coleta agora")
+    private boolean emAndamento;
+
+    @Schema(description = "ID do trajeto em andamento")
+    private Long trajetoId;
+
+    @Schema(description = "Indica se o caminhão em andamento provavelmente já passou pelo endereço")
+    private Boolean jaPassou;
+
+    @Schema(description = "Chegada prevista do caminhão em andamento")
+    private LocalDateTime previsaoChegada;
+
+    @Schema(description = "Início da janela de chegada prevista")
+    private LocalDateTime previsaoChegadaInicio;
+
+    @Schema(description = "Fim da janela de chegada prevista")
+    private LocalDateTime previsaoChegadaFim;
+}
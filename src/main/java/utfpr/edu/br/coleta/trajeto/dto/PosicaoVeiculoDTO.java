@@ -0,0 +1,38 @@
+package utfpr.edu.br.coleta.trajeto.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Última posição conhecida do caminhão de um trajeto em andamento.
+ *
+ * Autor: Sistema
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Última posição conhecida de um trajeto em andamento")
+public class PosicaoVeiculoDTO {
+
+    @Schema(description = "ID do trajeto", example = "15")
+    private Long trajetoId;
+
+    @Schema(description = "ID da rota", example = "3")
+    private Long rotaId;
+
+    @Schema(description = "ID do caminhão", example = "7")
+    private Long caminhaoId;
+
+    @Schema(description = "Latitude", example = "-26.2289")
+    private double latitude;
+
+    @Schema(description = "Longitude", example = "-52.6789")
+    private double longitude;
+
+    @Schema(description = "Horário do ponto registrado pelo aplicativo")
+    private LocalDateTime horario;
+}
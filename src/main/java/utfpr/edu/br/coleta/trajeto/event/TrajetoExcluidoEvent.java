@@ -0,0 +1,23 @@
+package utfpr.edu.br.coleta.trajeto.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import utfpr.edu.br.coleta.trajeto.enums.TrajetoStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Publicado quando um trajeto é excluído, dentro da transação e depois do flush da exclusão.
+ * A linha do trajeto já não existe: a rota, o dia e o último status vão no próprio evento.
+ *
+ * Autor: Sistema
+ */
+@Getter
+@RequiredArgsConstructor
+public class TrajetoExcluidoEvent {
+
+    private final Long trajetoId;
+    private final Long rotaId;
+    private final LocalDate dia;
+    private final TrajetoStatus status;
+}
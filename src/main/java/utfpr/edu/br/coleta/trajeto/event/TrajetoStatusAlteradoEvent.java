@@ -0,0 +1,21 @@
+package utfpr.edu.br.coleta.trajeto.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import utfpr.edu.br.coleta.trajeto.enums.TrajetoStatus;
+
+/**
+ * Publicado quando um trajeto é iniciado, finalizado ou cancelado.
+ * Quando há transação, é publicado dentro dela, depois do flush do trajeto: listeners
+ * síncronos já leem o novo status via SQL; os que precisam do dado confirmado usam
+ * {@code @TransactionalEventListener}.
+ *
+ * Autor: Sistema
+ */
+@Getter
+@RequiredArgsConstructor
+public class TrajetoStatusAlteradoEvent {
+
+    private final Long trajetoId;
+    private final TrajetoStatus status;
+}
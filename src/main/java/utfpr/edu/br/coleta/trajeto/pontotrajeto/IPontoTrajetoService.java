@@ -4,12 +4,18 @@ import utfpr.edu.br.coleta.generics.ICrudService;
 import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoBatchResponseDTO;
 import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoCreateDTO;
 import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoDTO;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoFeedDTO;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface IPontoTrajetoService extends ICrudService<PontoTrajeto, Long> {
     /**
      * Registra um único ponto no trajeto.
+     * Se já existir um ponto do mesmo trajeto no mesmo horário, retorna o ponto existente.
      */
     PontoTrajetoDTO registrarPonto(PontoTrajetoCreateDTO dto);
 
@@ -18,16 +24,69 @@ public interface IPontoTrajetoService extends ICrudService<PontoTrajeto, Long> {
      */
     List<PontoTrajetoDTO> findByTrajeto(Long trajetoId);
 
+    /**
+     * Escreve todos os pontos de um trajeto em NDJSON, em ordem de horário, sem carregá-los em memória.
+     * Os pontos são lidos do banco com cursor e enviados à saída conforme chegam.
+     *
+     * @return quantidade de pontos exportados
+     */
+    long exportarPontos(Long trajetoId, OutputStream saida) throws IOException;
+
+    /**
+     * Busca os pontos do trajeto posteriores ao cursor (horario, id), até {@code limite} pontos.
+     * Usado por painéis que acompanham o trajeto: cada consulta traz só o que é novo.
+     * Sem cursor, começa do primeiro ponto. Se só {@code aposId} for informado, o horário
+     * do cursor é o desse ponto; se só {@code aposHorario}, traz os pontos estritamente posteriores.
+     * Em trajeto arquivado, percorre os pontos do arquivo junto com os da tabela.
+     */
+    PontoTrajetoFeedDTO buscarPontosApos(Long trajetoId, LocalDateTime aposHorario, Long aposId, int limite);
+
     /**
      * Registra múltiplos pontos em lote.
      * Continua processando mesmo se houver erros em alguns pontos.
      * Retorna detalhes de sucesso e erros.
+     *
+     * Pontos já registrados (mesmo trajeto e horário) são ignorados e contados como duplicados.
+     * Se {@code loteId} for informado e o lote já tiver sido processado, devolve o resumo anterior
+     * sem gravar nada.
      */
-    PontoTrajetoBatchResponseDTO registrarPontosLote(List<PontoTrajetoCreateDTO> pontos);
+    PontoTrajetoBatchResponseDTO registrarPontosLote(List<PontoTrajetoCreateDTO> pontos, String loteId);
 
     /**
      * Registra múltiplos pontos em lote de forma atômica.
      * Se houver erro em qualquer ponto, nenhum é salvo (rollback).
+     * Duplicados e {@code loteId} são tratados como em {@link #registrarPontosLote}.
+     */
+    PontoTrajetoBatchResponseDTO registrarPontosLoteAtomico(List<PontoTrajetoCreateDTO> pontos, String loteId);
+
+    /**
+     * Registra múltiplos pontos em lote usando COPY binário do PostgreSQL.
+     * Destinado a lotes grandes (ex.: um dia inteiro de pontos offline).
+     * Assim como o lote atômico, salva todos os pontos ou nenhum.
+     * Não retorna os pontos salvos, apenas os totais.
+     * Duplicados e {@code loteId} são tratados como em {@link #registrarPontosLote}.
+     */
+    PontoTrajetoBatchResponseDTO registrarPontosLoteCopy(List<PontoTrajetoCreateDTO> pontos, String loteId);
+
+    /**
+     * Registra pontos lidos incrementalmente de um array JSON, sem montar a lista inteira em memória.
+     * Os pontos são validados e gravados em blocos; cada bloco é confirmado separadamente.
+     * Erros são reportados pelo índice do ponto no array. A lista de pontos salvos não é retornada.
+     */
+    PontoTrajetoBatchResponseDTO registrarPontosLoteStream(InputStream entrada) throws IOException;
+
+    /**
+     * Registra pontos enviados no formato binário compacto
+     * ({@link utfpr.edu.br.coleta.trajeto.pontotrajeto.binario.FormatoBinarioPontos}).
+     * Os pontos são decodificados e gravados em blocos, com a mesma semântica do lote em streaming.
+     */
+    PontoTrajetoBatchResponseDTO registrarPontosLoteBinario(InputStream entrada) throws IOException;
+
+    /**
+     * Grava vários lotes numa única transação (usado pela fila de ingestão assíncrona).
+     * Cada lote é validado separadamente; a resposta de cada um traz apenas os totais e erros.
+     *
+     * @return uma resposta por lote, na mesma ordem
      */
-    PontoTrajetoBatchResponseDTO registrarPontosLoteAtomico(List<PontoTrajetoCreateDTO> pontos);
-}
\ No newline at end of file
+    List<PontoTrajetoBatchResponseDTO> registrarLotesAgrupados(List<List<PontoTrajetoCreateDTO>> lotes);
+}
@@ -0,0 +1,246 @@
+package utfpr.edu.br.coleta.trajeto.pontotrajeto;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import utfpr.edu.br.coleta.storage.MinioService;
+import utfpr.edu.br.coleta.trajeto.enums.TrajetoStatus;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.binario.PontoTrajetoArquivoCodec;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoDTO;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Arquivamento dos pontos de trajetos finalizados no MinIO.
+ *
+ * Os pontos do trajeto são compactados no formato colunar de {@link PontoTrajetoArquivoCodec},
+ * gravados no objeto {@code pontos-trajeto/trajeto-<id>-<quantidade>-<maior id>.pta} e
+ * removidos de ponto_trajeto. O envio ao MinIO é feito antes de bloquear o trajeto; a
+ * transação que marca o trajeto e remove os pontos é curta e só confere que os pontos não
+ * mudaram nesse meio-tempo.
+ *
+ * Pontos recebidos depois do arquivamento ficam na tabela até a próxima execução, que
+ * rearquiva o trajeto: um novo objeto com o arquivo anterior mais esses pontos substitui
+ * o anterior.
+ *
+ * O nome do objeto fica em {@code trajeto.pontos_arquivo}; a leitura dos pontos
+ * ({@link IPontoTrajetoService#findByTrajeto}, exportação) junta o arquivo com os pontos
+ * que ainda estiverem na tabela.
+ *
+ * Autor: Sistema
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PontoTrajetoArquivador {
+
+    static final String PASTA = "pontos-trajeto";
+
+    // NO KEY UPDATE não conflita com o FOR KEY SHARE da chave estrangeira de um lote de
+    // pontos em gravação (ver TrajetoCaminhoService)
+    private static final String SQL_BLOQUEAR =
+            "SELECT status, pontos_arquivo FROM trajeto WHERE id = ? FOR NO KEY UPDATE";
+
+    // quantidade e maior ID identificam o conjunto de pontos: uma inserção aumenta o maior
+    // ID, e uma remoção sem inserção diminui a quantidade
+    private static final String SQL_ASSINATURA =
+            "SELECT count(*) || '-' || max(id) FROM ponto_trajeto WHERE trajeto_id = ? " +
+            "AND horario >= COALESCE((SELECT horario_primeiro_ponto FROM trajeto WHERE id = ?), '-infinity') " +
+            "AND horario <= COALESCE((SELECT horario_ultimo_ponto FROM trajeto WHERE id = ?), 'infinity')";
+
+    private static final String SQL_OBJETO = "SELECT pontos_arquivo FROM trajeto WHERE id = ?";
+
+    // pontos na tabela e arquivo atual do trajeto, se ele estiver finalizado; estado e pontos
+    // vêm do mesmo comando, então um arquivamento concorrente nunca é visto pela metade
+    private static final String SQL_PONTOS =
+            "SELECT p.id, p.trajeto_id, ST_Y(p.localizacao), ST_X(p.localizacao), p.horario, p.observacao, " +
+            "t.pontos_arquivo " +
+            "FROM ponto_trajeto p JOIN trajeto t ON t.id = p.trajeto_id " +
+            "WHERE p.trajeto_id = ? AND t.status = 'FINALIZADO' " +
+            "AND p.horario >= COALESCE(t.horario_primeiro_ponto, '-infinity') " +
+            "AND p.horario <= COALESCE(t.horario_ultimo_ponto, 'infinity') " +
+            "ORDER BY p.horario";
+
+    private static final String SQL_MARCAR =
+            "UPDATE trajeto SET pontos_arquivo = ?, pontos_arquivados_em = now() WHERE id = ?";
+
+    private static final String SQL_REMOVER =
+            "DELETE FROM ponto_trajeto WHERE trajeto_id = ? " +
+            "AND horario >= COALESCE((SELECT horario_primeiro_ponto FROM trajeto WHERE id = ?), '-infinity') " +
+            "AND horario <= COALESCE((SELECT horario_ultimo_ponto FROM trajeto WHERE id = ?), 'infinity')";
+
+    // inclui os já arquivados que receberam pontos depois do arquivamento
+    private static final String SQL_CANDIDATOS =
+            "SELECT id FROM trajeto t WHERE status = 'FINALIZADO' " +
+            "AND data_fim < ? AND EXISTS (SELECT 1 FROM ponto_trajeto p WHERE p.trajeto_id = t.id) " +
+            "ORDER BY data_fim LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MinioService minioService;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Trajetos finalizados antes de {@code finalizadosAntesDe} com pontos na tabela: os ainda não
+     * arquivados e os arquivados que receberam pontos depois.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> buscarCandidatos(LocalDateTime finalizadosAntesDe, int limite) {
+        return jdbcTemplate.queryForList(SQL_CANDIDATOS, Long.class, finalizadosAntesDe, limite);
+    }
+
+    /**
+     * Arquiva os pontos do trajeto, ou rearquiva um trajeto arquivado com pontos na tabela.
+     * O arquivo é enviado sem bloquear o trajeto; o bloqueio só dura a marcação e a remoção
+     * dos pontos, então lotes de pontos simultâneos esperam pouco. Se os pontos ou o arquivo
+     * do trajeto mudarem entre a leitura e o bloqueio, nada é removido, o objeto enviado é
+     * apagado e o trajeto fica para a próxima execução.
+     *
+     * @return {@code false} se o trajeto não existe, não está finalizado, não tem pontos na
+     * tabela ou mudou durante o arquivamento
+     */
+    public boolean arquivar(Long trajetoId) {
+        List<PontoNaTabela> linhas = jdbcTemplate.query(SQL_PONTOS, (rs, rowNum) ->
+                new PontoNaTabela(PontoTrajetoExportador.toDTO(rs), rs.getString(7)), trajetoId);
+        if (linhas.isEmpty()) {
+            return false;
+        }
+        String anterior = linhas.get(0).arquivo();
+        List<PontoTrajetoDTO> naTabela = linhas.stream().map(PontoNaTabela::ponto).toList();
+        List<PontoTrajetoDTO> pontos = anterior == null
+                ? naTabela
+                : mesclar(ler(trajetoId, anterior), naTabela);
+
+        byte[] arquivo = PontoTrajetoArquivoCodec.codificar(trajetoId, pontos);
+        conferir(trajetoId, arquivo, pontos.size());
+
+        // o nome depende só dos pontos arquivados: uma tentativa repetida ou concorrente com
+        // os mesmos pontos sobrescreve o objeto com o mesmo conteúdo
+        String objeto = PASTA + "/trajeto-" + trajetoId + "-" + assinatura(pontos) + ".pta";
+        minioService.uploadBytes(objeto, arquivo, PontoTrajetoArquivoCodec.CONTENT_TYPE);
+
+        Integer removidos;
+        try {
+            removidos = transactionTemplate.execute(status -> marcar(trajetoId, anterior, assinatura(naTabela), objeto));
+        } catch (RuntimeException e) {
+            descartar(trajetoId, objeto);
+            throw e;
+        }
+        if (removidos == null) {
+            log.info("Trajeto {} mudou durante o arquivamento; fica para a próxima execução", trajetoId);
+            descartar(trajetoId, objeto);
+            return false;
+        }
+
+        if (anterior != null && !anterior.equals(objeto)) {
+            remover(anterior);
+        }
+        log.info("Trajeto {} arquivado em {}: {} pontos ({} da tabela), {} bytes",
+                trajetoId, objeto, pontos.size(), removidos, arquivo.length);
+        return true;
+    }
+
+    /**
+     * Pontos arquivados do trajeto, em ordem de horário; lista vazia se o trajeto não foi arquivado.
+     */
+    public List<PontoTrajetoDTO> lerArquivados(Long trajetoId) {
+        List<String> objeto = jdbcTemplate.queryForList(SQL_OBJETO, String.class, trajetoId);
+        if (objeto.isEmpty() || objeto.get(0) == null) {
+            return List.of();
+        }
+        return ler(trajetoId, objeto.get(0));
+    }
+
+    /**
+     * Junta os pontos arquivados com os que estão na tabela (recebidos depois do arquivamento),
+     * em ordem de horário. Um ponto da tabela no mesmo horário de um arquivado é descartado.
+     */
+    static List<PontoTrajetoDTO> mesclar(List<PontoTrajetoDTO> arquivados, List<PontoTrajetoDTO> naTabela) {
+        List<PontoTrajetoDTO> pontos = new ArrayList<>(arquivados.size() + naTabela.size());
+        int i = 0;
+        for (PontoTrajetoDTO ponto : naTabela) {
+            while (i < arquivados.size() && arquivados.get(i).getHorario().isBefore(ponto.getHorario())) {
+                pontos.add(arquivados.get(i++));
+            }
+            if (i < arquivados.size() && arquivados.get(i).getHorario().equals(ponto.getHorario())) {
+                continue;
+            }
+            pontos.add(ponto);
+        }
+        pontos.addAll(arquivados.subList(i, arquivados.size()));
+        return pontos;
+    }
+
+    /**
+     * Com o trajeto bloqueado, marca o novo arquivo e remove os pontos da tabela, se nada
+     * mudou desde a leitura.
+     *
+     * @return quantidade de pontos removidos, ou {@code null} se o trajeto mudou
+     */
+    private Integer marcar(Long trajetoId, String anterior, String assinatura, String objeto) {
+        List<Boolean> inalterado = jdbcTemplate.query(SQL_BLOQUEAR, (rs, rowNum) ->
+                TrajetoStatus.FINALIZADO.name().equals(rs.getString("status"))
+                        && Objects.equals(anterior, rs.getString("pontos_arquivo")),
+                trajetoId);
+        if (inalterado.isEmpty() || !inalterado.get(0)) {
+            return null;
+        }
+        // pontos recebidos ou removidos entre a leitura e o bloqueio não batem com o arquivo
+        String naTabela = jdbcTemplate.queryForObject(SQL_ASSINATURA, String.class, trajetoId, trajetoId, trajetoId);
+        if (!assinatura.equals(naTabela)) {
+            return null;
+        }
+        jdbcTemplate.update(SQL_MARCAR, objeto, trajetoId);
+        return jdbcTemplate.update(SQL_REMOVER, trajetoId, trajetoId, trajetoId);
+    }
+
+    // apaga o objeto enviado por uma tentativa que não marcou o trajeto, a menos que uma
+    // tentativa concorrente com os mesmos pontos o tenha marcado
+    private void descartar(Long trajetoId, String objeto) {
+        if (!objeto.equals(jdbcTemplate.queryForObject(SQL_OBJETO, String.class, trajetoId))) {
+            remover(objeto);
+        }
+    }
+
+    // falha na remoção só deixa um objeto sem uso no MinIO; o arquivamento já está feito
+    private void remover(String objeto) {
+        try {
+            minioService.deleteObject(objeto);
+        } catch (RuntimeException e) {
+            log.warn("Objeto {} sem uso não foi removido do MinIO: {}", objeto, e.getMessage());
+        }
+    }
+
+    private List<PontoTrajetoDTO> ler(Long trajetoId, String objeto) {
+        try {
+            return PontoTrajetoArquivoCodec.decodificar(minioService.downloadBytes(objeto));
+        } catch (IOException e) {
+            throw new IllegalStateException("Arquivo de pontos do trajeto " + trajetoId + " inválido: " + e.getMessage(), e);
+        }
+    }
+
+    // quantidade e maior ID dos pontos, no formato de SQL_ASSINATURA
+    private static String assinatura(List<PontoTrajetoDTO> pontos) {
+        return pontos.size() + "-" + pontos.stream().mapToLong(PontoTrajetoDTO::getId).max().getAsLong();
+    }
+
+    // os pontos só são removidos se o arquivo gerado puder ser lido de volta
+    private void conferir(Long trajetoId, byte[] arquivo, int quantidade) {
+        try {
+            if (PontoTrajetoArquivoCodec.decodificar(arquivo).size() != quantidade) {
+                throw new IllegalStateException("Arquivo de pontos do trajeto " + trajetoId + " incompleto");
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Arquivo de pontos do trajeto " + trajetoId + " ilegível", e);
+        }
+    }
+
+    record PontoNaTabela(PontoTrajetoDTO ponto, String arquivo) {
+    }
+}
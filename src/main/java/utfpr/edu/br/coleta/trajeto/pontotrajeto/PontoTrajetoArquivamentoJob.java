@@ -0,0 +1,63 @@
+package utfpr.edu.br.coleta.trajeto.pontotrajeto;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Arquiva no MinIO, uma vez por dia, os pontos dos trajetos finalizados há mais de
+ * {@code dias} dias (ver {@link PontoTrajetoArquivador}).
+ *
+ * Desligado por padrão; habilitar com {@code app.ponto-trajeto.arquivamento.habilitado=true}
+ * depois de configurar o MinIO.
+ *
+ * Autor: Sistema
+ */
+@Component
+@Slf4j
+public class PontoTrajetoArquivamentoJob {
+
+    private final PontoTrajetoArquivador arquivador;
+    private final boolean habilitado;
+    private final int dias;
+    private final int trajetosPorExecucao;
+
+    public PontoTrajetoArquivamentoJob(
+            PontoTrajetoArquivador arquivador,
+            @Value("${app.ponto-trajeto.arquivamento.habilitado:false}") boolean habilitado,
+            @Value("${app.ponto-trajeto.arquivamento.dias:90}") int dias,
+            @Value("${app.ponto-trajeto.arquivamento.trajetos-por-execucao:200}") int trajetosPorExecucao
+    ) {
+        this.arquivador = arquivador;
+        this.habilitado = habilitado;
+        this.dias = dias;
+        this.trajetosPorExecucao = trajetosPorExecucao;
+    }
+
+    @Scheduled(cron = "${app.ponto-trajeto.arquivamento.cron:0 0 4 * * *}")
+    public void executar() {
+        if (!habilitado) {
+            return;
+        }
+
+        List<Long> candidatos = arquivador.buscarCandidatos(LocalDateTime.now().minusDays(dias), trajetosPorExecucao);
+        int arquivados = 0;
+        for (Long trajetoId : candidatos) {
+            try {
+                if (arquivador.arquivar(trajetoId)) {
+                    arquivados++;
+                }
+            } catch (RuntimeException e) {
+                // os pontos continuam na tabela; tenta de novo na próxima execução
+                log.error("Erro ao arquivar os pontos do trajeto {}", trajetoId, e);
+            }
+        }
+        if (!candidatos.isEmpty()) {
+            log.info("Arquivamento de pontos: {} de {} trajetos arquivados", arquivados, candidatos.size());
+        }
+    }
+}
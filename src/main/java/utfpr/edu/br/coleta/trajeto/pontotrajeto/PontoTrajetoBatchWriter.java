@@ -0,0 +1,121 @@
+package utfpr.edu.br.coleta.trajeto.pontotrajeto;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoCreateDTO;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoDTO;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Caminho de escrita em lote para a tabela ponto_trajeto.
+ *
+ * Como a entidade usa {@code GenerationType.IDENTITY}, o Hibernate não consegue
+ * agrupar os INSERTs. Aqui os IDs são reservados de uma vez na sequência da tabela
+ * e os pontos são gravados com INSERTs de múltiplas linhas, em blocos de
+ * {@value #TAMANHO_BLOCO} pontos, reduzindo milhares de idas ao banco a poucas.
+ *
+ * Os INSERTs usam {@code ON CONFLICT DO NOTHING} sobre (trajeto_id, horario):
+ * pontos já registrados (reenvios do aplicativo) são ignorados e não aparecem no retorno.
+ *
+ * Os pontos recebidos já devem ter sido validados pelo serviço.
+ *
+ * Autor: Sistema
+ */
+@Component
+@RequiredArgsConstructor
+public class PontoTrajetoBatchWriter {
+
+    /** Quantidade de linhas por INSERT (6 parâmetros por linha, bem abaixo do limite de 32767). */
+    static final int TAMANHO_BLOCO = 1000;
+
+    private static final String SQL_RESERVAR_IDS =
+            "SELECT nextval(pg_get_serial_sequence('ponto_trajeto', 'id')) FROM generate_series(1, ?)";
+
+    private static final String SQL_INSERIR =
+            "INSERT INTO ponto_trajeto (id, trajeto_id, localizacao, horario, observacao) VALUES ";
+
+    private static final String SQL_VALORES = "(?, ?, ST_SetSRID(ST_MakePoint(?, ?), 4326), ?, ?)";
+
+    private static final String SQL_CONFLITO = " ON CONFLICT (trajeto_id, horario) DO NOTHING RETURNING id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Insere os pontos informados e retorna os DTOs com os IDs gerados,
+     * na mesma ordem da lista de entrada. Pontos duplicados são omitidos do retorno,
+     * então {@code pontos.size() - retorno.size()} é a quantidade deduplicada.
+     *
+     * Participa da transação corrente, se houver.
+     */
+    @Transactional
+    public List<PontoTrajetoDTO> inserir(List<PontoTrajetoCreateDTO> pontos) {
+        if (pontos.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> ids = jdbcTemplate.queryForList(SQL_RESERVAR_IDS, Long.class, pontos.size());
+
+        List<PontoTrajetoDTO> salvos = new ArrayList<>(pontos.size());
+        for (int inicio = 0; inicio < pontos.size(); inicio += TAMANHO_BLOCO) {
+            int fim = Math.min(inicio + TAMANHO_BLOCO, pontos.size());
+            Set<Long> inseridos = inserirBloco(pontos.subList(inicio, fim), ids.subList(inicio, fim));
+
+            for (int i = inicio; i < fim; i++) {
+                if (inseridos.contains(ids.get(i))) {
+                    salvos.add(toDTO(ids.get(i), pontos.get(i)));
+                }
+            }
+        }
+        return salvos;
+    }
+
+    /**
+     * @return IDs das linhas efetivamente inseridas (sem conflito)
+     */
+    private Set<Long> inserirBloco(List<PontoTrajetoCreateDTO> bloco, List<Long> ids) {
+        StringBuilder sql = new StringBuilder(
+                SQL_INSERIR.length() + SQL_CONFLITO.length() + bloco.size() * (SQL_VALORES.length() + 2));
+        sql.append(SQL_INSERIR);
+        for (int i = 0; i < bloco.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(SQL_VALORES);
+        }
+        sql.append(SQL_CONFLITO);
+
+        Set<Long> inseridos = new HashSet<>(bloco.size() * 2);
+        jdbcTemplate.query(sql.toString(), ps -> {
+            int p = 1;
+            for (int i = 0; i < bloco.size(); i++) {
+                PontoTrajetoCreateDTO dto = bloco.get(i);
+                ps.setLong(p++, ids.get(i));
+                ps.setLong(p++, dto.getTrajetoId());
+                ps.setDouble(p++, dto.getLongitude());
+                ps.setDouble(p++, dto.getLatitude());
+                ps.setObject(p++, dto.getHorario());
+                ps.setString(p++, dto.getObservacao());
+            }
+        }, rs -> {
+            inseridos.add(rs.getLong(1));
+        });
+        return inseridos;
+    }
+
+    private PontoTrajetoDTO toDTO(Long id, PontoTrajetoCreateDTO ponto) {
+        PontoTrajetoDTO dto = new PontoTrajetoDTO();
+        dto.setId(id);
+        dto.setTrajetoId(ponto.getTrajetoId());
+        dto.setLatitude(ponto.getLatitude());
+        dto.setLongitude(ponto.getLongitude());
+        dto.setHorario(ponto.getHorario());
+        dto.setObservacao(ponto.getObservacao());
+        return dto;
+    }
+}
@@ -5,30 +5,48 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import utfpr.edu.br.coleta.generics.CrudController;
 import utfpr.edu.br.coleta.generics.ICrudService;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.binario.FormatoBinarioPontos;
 import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoBatchResponseDTO;
 import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoCreateDTO;
 import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoDTO;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.ReciboIngestaoDTO;
 
+import java.io.IOException;
+import java.net.URI;
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/pontos-trajeto")
 public class PontoTrajetoController extends CrudController<PontoTrajeto, PontoTrajetoDTO> {
 
+    /** Cabeçalho opcional com um ID do lote gerado pelo aplicativo, usado para ignorar reenvios. */
+    static final String CABECALHO_LOTE_ID = "X-Lote-Id";
+
     private final IPontoTrajetoService service;
     private final ModelMapper modelMapper;
+    private final PontoTrajetoFilaIngestao filaIngestao;
+    private final long retryAfterSegundos;
 
-    public PontoTrajetoController(IPontoTrajetoService service, ModelMapper modelMapper) {
+    public PontoTrajetoController(IPontoTrajetoService service, ModelMapper modelMapper,
+                                  PontoTrajetoFilaIngestao filaIngestao,
+                                  @Value("${app.ingestao.fila.retry-after-segundos:5}") long retryAfterSegundos) {
         super(PontoTrajeto.class, PontoTrajetoDTO.class);
         this.service = service;
         this.modelMapper = modelMapper;
+        this.filaIngestao = filaIngestao;
+        this.retryAfterSegundos = retryAfterSegundos;
     }
 
     @Override
@@ -50,16 +68,19 @@ public class PontoTrajetoController extends CrudController<PontoTrajeto, PontoTr
     @Operation(
         summary = "Registra múltiplos pontos em lote",
         description = "Permite enviar vários pontos de uma vez. Continua processando mesmo se houver erros em alguns pontos. " +
-                      "Ideal para sincronização de pontos coletados offline."
+                      "Ideal para sincronização de pontos coletados offline. Pontos já registrados (mesmo trajeto e horário) " +
+                      "são ignorados e contados em totalDuplicados. Se o cabeçalho X-Lote-Id for enviado, um reenvio do mesmo " +
+                      "lote devolve o resumo original sem gravar nada."
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Lote processado com sucesso (pode conter erros parciais)",
                      content = @Content(schema = @Schema(implementation = PontoTrajetoBatchResponseDTO.class))),
-        @ApiResponse(responseCode = "400", description = "Requisição inválida")
+        @ApiResponse(responseCode = "400", description = "Lista de pontos vazia ou X-Lote-Id com mais de 64 caracteres")
     })
     @PostMapping("/registrar-lote")
     public ResponseEntity<PontoTrajetoBatchResponseDTO> registrarLote(
-            @RequestBody @Valid List<PontoTrajetoCreateDTO> pontos) {
+            @RequestBody @Valid List<PontoTrajetoCreateDTO> pontos,
+            @RequestHeader(value = CABECALHO_LOTE_ID, required = false) String loteId) {
         
         if (pontos == null || pontos.isEmpty()) {
             PontoTrajetoBatchResponseDTO response = new PontoTrajetoBatchResponseDTO();
@@ -67,7 +88,15 @@ public class PontoTrajetoController extends CrudController<PontoTrajeto, PontoTr
             return ResponseEntity.badRequest().body(response);
         }
 
-        PontoTrajetoBatchResponseDTO response = service.registrarPontosLote(pontos);
+        if (loteId != null && loteId.length() > PontoTrajetoLoteRegistro.TAMANHO_MAXIMO_LOTE_ID) {
+            PontoTrajetoBatchResponseDTO response = new PontoTrajetoBatchResponseDTO();
+            response.setTotalRecebidos(pontos.size());
+            response.setMensagem("O ID do lote deve ter no máximo " + PontoTrajetoLoteRegistro.TAMANHO_MAXIMO_LOTE_ID
+                    + " caracteres. Nenhum ponto foi salvo.");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        PontoTrajetoBatchResponseDTO response = service.registrarPontosLote(pontos, loteId);
         
         // Retorna 200 mesmo com erros parciais (cliente decide como tratar)
         return ResponseEntity.ok(response);
@@ -85,7 +114,8 @@ public class PontoTrajetoController extends CrudController<PontoTrajeto, PontoTr
     })
     @PostMapping("/registrar-lote-atomico")
     public ResponseEntity<PontoTrajetoBatchResponseDTO> registrarLoteAtomico(
-            @RequestBody @Valid List<PontoTrajetoCreateDTO> pontos) {
+            @RequestBody @Valid List<PontoTrajetoCreateDTO> pontos,
+            @RequestHeader(value = CABECALHO_LOTE_ID, required = false) String loteId) {
         
         if (pontos == null || pontos.isEmpty()) {
             PontoTrajetoBatchResponseDTO response = new PontoTrajetoBatchResponseDTO();
@@ -94,7 +124,7 @@ public class PontoTrajetoController extends CrudController<PontoTrajeto, PontoTr
         }
 
         try {
-            PontoTrajetoBatchResponseDTO response = service.registrarPontosLoteAtomico(pontos);
+            PontoTrajetoBatchResponseDTO response = service.registrarPontosLoteAtomico(pontos, loteId);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             PontoTrajetoBatchResponseDTO response = new PontoTrajetoBatchResponseDTO();
@@ -103,4 +133,128 @@ public class PontoTrajetoController extends CrudController<PontoTrajeto, PontoTr
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         }
     }
+
+    @Operation(
+        summary = "Registra múltiplos pontos em lote via COPY (transação atômica)",
+        description = "Grava os pontos com o protocolo COPY binário do PostgreSQL. Indicado para lotes grandes, " +
+                      "como um dia inteiro de pontos coletados offline. Salva todos os pontos ou nenhum. " +
+                      "A resposta traz apenas os totais, sem a lista de pontos salvos."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Todos os pontos foram salvos com sucesso",
+                     content = @Content(schema = @Schema(implementation = PontoTrajetoBatchResponseDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Erro no processamento - nenhum ponto foi salvo (rollback)")
+    })
+    @PostMapping("/registrar-lote-copy")
+    public ResponseEntity<PontoTrajetoBatchResponseDTO> registrarLoteCopy(
+            @RequestBody @Valid List<PontoTrajetoCreateDTO> pontos,
+            @RequestHeader(value = CABECALHO_LOTE_ID, required = false) String loteId) {
+
+        if (pontos == null || pontos.isEmpty()) {
+            PontoTrajetoBatchResponseDTO response = new PontoTrajetoBatchResponseDTO();
+            response.setMensagem("Lista de pontos vazia ou nula.");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        try {
+            return ResponseEntity.ok(service.registrarPontosLoteCopy(pontos, loteId));
+        } catch (Exception e) {
+            PontoTrajetoBatchResponseDTO response = new PontoTrajetoBatchResponseDTO();
+            response.setTotalRecebidos(pontos.size());
+            response.setMensagem("Erro no processamento: " + e.getMessage() + ". Nenhum ponto foi salvo (rollback).");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        }
+    }
+
+    @Operation(
+        summary = "Registra múltiplos pontos em lote lendo o JSON em streaming",
+        description = "Mesmo corpo do /registrar-lote (array JSON de pontos), mas lido incrementalmente e gravado em blocos, " +
+                      "sem carregar o array inteiro em memória. Indicado para sincronizações offline muito grandes. " +
+                      "Cada bloco é confirmado separadamente; a resposta traz os totais e os erros por índice, " +
+                      "sem a lista de pontos salvos."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lote processado (pode conter erros parciais)",
+                     content = @Content(schema = @Schema(implementation = PontoTrajetoBatchResponseDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Corpo da requisição não é um array JSON")
+    })
+    @PostMapping(value = "/registrar-lote-stream", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<PontoTrajetoBatchResponseDTO> registrarLoteStream(HttpServletRequest request)
+            throws IOException {
+        try {
+            return ResponseEntity.ok(service.registrarPontosLoteStream(request.getInputStream()));
+        } catch (IllegalArgumentException e) {
+            PontoTrajetoBatchResponseDTO response = new PontoTrajetoBatchResponseDTO();
+            response.setMensagem(e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @Operation(
+        summary = "Registra múltiplos pontos em lote no formato binário compacto",
+        description = "Formato para conexões lentas: cabeçalho com o trajetoId seguido de deltas em varint da latitude/longitude " +
+                      "(1e-6 graus) e do horário (ms). Ver FormatoBinarioPontos para o layout. " +
+                      "Os pontos são gravados em blocos, com a mesma resposta do /registrar-lote-stream."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lote processado (pode conter erros parciais)",
+                     content = @Content(schema = @Schema(implementation = PontoTrajetoBatchResponseDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Cabeçalho ausente ou versão do formato não suportada")
+    })
+    @PostMapping(value = "/registrar-lote-binario",
+                 consumes = {FormatoBinarioPontos.MEDIA_TYPE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<PontoTrajetoBatchResponseDTO> registrarLoteBinario(HttpServletRequest request)
+            throws IOException {
+        try {
+            return ResponseEntity.ok(service.registrarPontosLoteBinario(request.getInputStream()));
+        } catch (IllegalArgumentException e) {
+            PontoTrajetoBatchResponseDTO response = new PontoTrajetoBatchResponseDTO();
+            response.setMensagem(e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @Operation(
+        summary = "Enfileira um lote de pontos para gravação assíncrona",
+        description = "Aceita o lote imediatamente e devolve 202 com um recibo; os pontos são gravados em segundo plano. " +
+                      "Consulte GET /pontos-trajeto/recibos/{id} até o status ser CONCLUIDO. " +
+                      "Se a fila estiver cheia, devolve 429 com o cabeçalho Retry-After."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Lote aceito para processamento",
+                     content = @Content(schema = @Schema(implementation = ReciboIngestaoDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Lista de pontos vazia"),
+        @ApiResponse(responseCode = "429", description = "Fila de ingestão cheia, tente novamente após Retry-After segundos")
+    })
+    @PostMapping("/registrar-lote-async")
+    public ResponseEntity<ReciboIngestaoDTO> registrarLoteAsync(@RequestBody @Valid List<PontoTrajetoCreateDTO> pontos) {
+        if (pontos == null || pontos.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return filaIngestao.enfileirar(pontos)
+                .map(recibo -> ResponseEntity.accepted()
+                        .location(URI.create("/api/pontos-trajeto/recibos/" + recibo.getId()))
+                        .body(recibo))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSegundos))
+                        .build());
+    }
+
+    @Operation(
+        summary = "Consulta o recibo de um lote enviado para gravação assíncrona",
+        description = "CONCLUIDO indica que os pontos já estão gravados no banco. " +
+                      "Recibo inexistente (404) após um reinício do servidor significa que o lote deve ser reenviado."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Recibo encontrado",
+                     content = @Content(schema = @Schema(implementation = ReciboIngestaoDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Recibo não encontrado ou expirado")
+    })
+    @GetMapping("/recibos/{id}")
+    public ResponseEntity<ReciboIngestaoDTO> consultarRecibo(@PathVariable UUID id) {
+        return filaIngestao.consultar(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
 }
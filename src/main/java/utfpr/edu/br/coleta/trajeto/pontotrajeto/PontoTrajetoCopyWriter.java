@@ -0,0 +1,193 @@
+package utfpr.edu.br.coleta.trajeto.pontotrajeto;
+
+import lombok.RequiredArgsConstructor;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.locationtech.jts.io.ByteOrderValues;
+import org.locationtech.jts.io.WKBWriter;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoCreateDTO;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoDTO;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Escrita em massa de pontos na tabela ponto_trajeto usando o protocolo
+ * COPY binário do PostgreSQL ({@link org.postgresql.copy.CopyManager}).
+ *
+ * Os pontos são serializados diretamente no formato binário do COPY e enviados
+ * em blocos de {@value #TAMANHO_BUFFER} bytes, sem passar pelo Hibernate.
+ * A coluna localizacao é enviada como EWKB (com SRID 4326), que é o formato
+ * binário aceito pelo PostGIS.
+ *
+ * Como o COPY não aceita ON CONFLICT, os pontos vão primeiro para uma tabela
+ * temporária da transação e depois são movidos com um único
+ * {@code INSERT ... SELECT ... ON CONFLICT DO NOTHING}, ignorando pontos já
+ * registrados (mesmo trajeto e horário).
+ *
+ * Usa a conexão da transação corrente, então o COPY é confirmado ou
+ * desfeito junto com o restante do lote.
+ *
+ * Autor: Sistema
+ */
+@Component
+@RequiredArgsConstructor
+public class PontoTrajetoCopyWriter {
+
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+
+    private static final String SQL_CRIAR_TEMPORARIA =
+            "CREATE TEMP TABLE ponto_trajeto_copy (" +
+            "trajeto_id BIGINT, localizacao geometry(Point, 4326), horario TIMESTAMP, observacao TEXT" +
+            ") ON COMMIT DROP";
+
+    private static final String SQL_COPY =
+            "COPY ponto_trajeto_copy (trajeto_id, localizacao, horario, observacao) FROM STDIN (FORMAT BINARY)";
+
+    private static final String SQL_MOVER =
+            "INSERT INTO ponto_trajeto (trajeto_id, localizacao, horario, observacao) " +
+            "SELECT trajeto_id, localizacao, horario, observacao FROM ponto_trajeto_copy " +
+            "ON CONFLICT (trajeto_id, horario) DO NOTHING " +
+            "RETURNING id, trajeto_id, ST_Y(localizacao), ST_X(localizacao), horario, observacao";
+
+    /** Assinatura do formato binário do COPY: "PGCOPY\n\377\r\n\0". */
+    private static final byte[] ASSINATURA = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+
+    /** Timestamps binários do PostgreSQL são microssegundos desde 2000-01-01 00:00:00. */
+    private static final LocalDateTime EPOCA_POSTGRES = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    private static final short QUANTIDADE_COLUNAS = 4;
+
+    private final DataSource dataSource;
+
+    private final GeometryFactory geometryFactory = new GeometryFactory(new PrecisionModel(), 4326);
+
+    /**
+     * Copia os pontos (já validados) para a tabela ponto_trajeto.
+     * Deve ser chamado no máximo uma vez por transação, pois a tabela temporária
+     * só é descartada no commit.
+     *
+     * @param pontos pontos a gravar
+     * @return pontos efetivamente gravados, sem os duplicados
+     */
+    @Transactional
+    public List<PontoTrajetoDTO> copiar(List<PontoTrajetoCreateDTO> pontos) {
+        if (pontos.isEmpty()) {
+            return List.of();
+        }
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        CopyIn copyIn = null;
+        try {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(SQL_CRIAR_TEMPORARIA);
+            }
+
+            copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(SQL_COPY);
+
+            WKBWriter wkbWriter = new WKBWriter(2, ByteOrderValues.BIG_ENDIAN, true);
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(TAMANHO_BUFFER + 1024);
+            DataOutputStream out = new DataOutputStream(buffer);
+
+            out.write(ASSINATURA);
+            out.writeInt(0); // flags
+            out.writeInt(0); // tamanho da extensão do cabeçalho
+
+            for (PontoTrajetoCreateDTO ponto : pontos) {
+                escreverLinha(out, ponto, wkbWriter);
+                if (buffer.size() >= TAMANHO_BUFFER) {
+                    enviar(copyIn, buffer);
+                }
+            }
+
+            out.writeShort(-1); // fim dos dados
+            enviar(copyIn, buffer);
+
+            copyIn.endCopy();
+            copyIn = null;
+
+            List<PontoTrajetoDTO> gravados = new ArrayList<>(pontos.size());
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(SQL_MOVER)) {
+                while (rs.next()) {
+                    gravados.add(toDTO(rs));
+                }
+            }
+            return gravados;
+
+        } catch (SQLException | IOException e) {
+            throw new IllegalStateException("Erro ao copiar pontos para o banco: " + e.getMessage(), e);
+        } finally {
+            cancelarSeAtivo(copyIn);
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private void escreverLinha(DataOutputStream out, PontoTrajetoCreateDTO ponto, WKBWriter wkbWriter) throws IOException {
+        out.writeShort(QUANTIDADE_COLUNAS);
+
+        out.writeInt(8);
+        out.writeLong(ponto.getTrajetoId());
+
+        byte[] ewkb = wkbWriter.write(
+                geometryFactory.createPoint(new Coordinate(ponto.getLongitude(), ponto.getLatitude())));
+        out.writeInt(ewkb.length);
+        out.write(ewkb);
+
+        out.writeInt(8);
+        out.writeLong(ChronoUnit.MICROS.between(EPOCA_POSTGRES, ponto.getHorario()));
+
+        if (ponto.getObservacao() == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] texto = ponto.getObservacao().getBytes(StandardCharsets.UTF_8);
+            out.writeInt(texto.length);
+            out.write(texto);
+        }
+    }
+
+    private PontoTrajetoDTO toDTO(ResultSet rs) throws SQLException {
+        PontoTrajetoDTO dto = new PontoTrajetoDTO();
+        dto.setId(rs.getLong(1));
+        dto.setTrajetoId(rs.getLong(2));
+        dto.setLatitude(rs.getDouble(3));
+        dto.setLongitude(rs.getDouble(4));
+        dto.setHorario(rs.getTimestamp(5).toLocalDateTime());
+        dto.setObservacao(rs.getString(6));
+        return dto;
+    }
+
+    private void enviar(CopyIn copyIn, ByteArrayOutputStream buffer) throws SQLException {
+        if (buffer.size() > 0) {
+            copyIn.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+            buffer.reset();
+        }
+    }
+
+    private void cancelarSeAtivo(CopyIn copyIn) {
+        if (copyIn != null && copyIn.isActive()) {
+            try {
+                copyIn.cancelCopy();
+            } catch (SQLException ignored) {
+                // a transação será desfeita de qualquer forma
+            }
+        }
+    }
+}
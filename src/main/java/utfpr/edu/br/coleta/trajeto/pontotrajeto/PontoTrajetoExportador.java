@@ -0,0 +1,143 @@
+package utfpr.edu.br.coleta.trajeto.pontotrajeto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoDTO;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Exporta os pontos de um trajeto em NDJSON (um {@link PontoTrajetoDTO} por linha),
+ * escrevendo direto na saída à medida que as linhas chegam do banco.
+ *
+ * A consulta usa um cursor do PostgreSQL (fetch size dentro de uma transação), então
+ * só {@value #TAMANHO_FETCH} linhas ficam em memória por vez, qualquer que seja o
+ * tamanho do trajeto. A saída é descarregada logo após o primeiro ponto e depois a cada
+ * {@value #PONTOS_POR_FLUSH} pontos.
+ *
+ * Para trajetos arquivados ({@link PontoTrajetoArquivador}), os pontos do arquivo são
+ * intercalados, em ordem de horário, com os que ainda estiverem na tabela.
+ *
+ * Autor: Sistema
+ */
+@Component
+public class PontoTrajetoExportador {
+
+    static final int TAMANHO_FETCH = 1000;
+
+    private static final int PONTOS_POR_FLUSH = 5000;
+
+    // o intervalo de horários do trajeto limita a leitura às partições que têm seus pontos;
+    // sem intervalo (trajeto sem pontos gravados pela aplicação), lê todas
+    private static final String SQL_PONTOS =
+            "SELECT p.id, p.trajeto_id, ST_Y(p.localizacao), ST_X(p.localizacao), p.horario, p.observacao " +
+            "FROM ponto_trajeto p WHERE p.trajeto_id = ? " +
+            "AND p.horario >= COALESCE((SELECT horario_primeiro_ponto FROM trajeto WHERE id = ?), '-infinity') " +
+            "AND p.horario <= COALESCE((SELECT horario_ultimo_ponto FROM trajeto WHERE id = ?), 'infinity') " +
+            "ORDER BY p.horario, p.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PontoTrajetoArquivador arquivador;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter writer;
+
+    public PontoTrajetoExportador(JdbcTemplate jdbcTemplate, PontoTrajetoArquivador arquivador, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.arquivador = arquivador;
+        this.objectMapper = objectMapper;
+        // o flush é controlado aqui, não a cada ponto
+        this.writer = objectMapper.writerFor(PontoTrajetoDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Escreve os pontos do trajeto, em ordem de horário, na saída informada.
+     * A saída não é fechada.
+     *
+     * @return quantidade de pontos exportados
+     */
+    @Transactional(readOnly = true)
+    public long exportarNdjson(Long trajetoId, OutputStream saida) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(saida);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+
+        List<PontoTrajetoDTO> arquivados = arquivador.lerArquivados(trajetoId);
+        int[] proximoArquivado = {0};
+        long[] exportados = {0};
+        try {
+            jdbcTemplate.query(SQL_PONTOS, ps -> {
+                ps.setFetchSize(TAMANHO_FETCH);
+                ps.setLong(1, trajetoId);
+                ps.setLong(2, trajetoId);
+                ps.setLong(3, trajetoId);
+            }, rs -> {
+                PontoTrajetoDTO ponto = toDTO(rs);
+                while (proximoArquivado[0] < arquivados.size()
+                        && arquivados.get(proximoArquivado[0]).getHorario().isBefore(ponto.getHorario())) {
+                    escrever(generator, arquivados.get(proximoArquivado[0]++), exportados);
+                }
+                if (proximoArquivado[0] < arquivados.size()
+                        && arquivados.get(proximoArquivado[0]).getHorario().equals(ponto.getHorario())) {
+                    return;
+                }
+                escrever(generator, ponto, exportados);
+            });
+            for (int i = proximoArquivado[0]; i < arquivados.size(); i++) {
+                escrever(generator, arquivados.get(i), exportados);
+            }
+        } catch (UncheckedIOException e) {
+            // cliente desconectou ou a escrita falhou; a consulta já foi encerrada
+            throw e.getCause();
+        }
+
+        generator.close();
+        return exportados[0];
+    }
+
+    private void escrever(JsonGenerator generator, PontoTrajetoDTO dto, long[] exportados) {
+        escreverLinha(generator, dto);
+        exportados[0]++;
+        if (exportados[0] == 1 || exportados[0] % PONTOS_POR_FLUSH == 0) {
+            flush(generator);
+        }
+    }
+
+    private void escreverLinha(JsonGenerator generator, PontoTrajetoDTO dto) {
+        try {
+            writer.writeValue(generator, dto);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flush(JsonGenerator generator) {
+        try {
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static PontoTrajetoDTO toDTO(ResultSet rs) throws SQLException {
+        PontoTrajetoDTO dto = new PontoTrajetoDTO();
+        dto.setId(rs.getLong(1));
+        dto.setTrajetoId(rs.getLong(2));
+        dto.setLatitude(rs.getDouble(3));
+        dto.setLongitude(rs.getDouble(4));
+        dto.setHorario(rs.getTimestamp(5).toLocalDateTime());
+        dto.setObservacao(rs.getString(6));
+        return dto;
+    }
+}
@@ -0,0 +1,220 @@
+package utfpr.edu.br.coleta.trajeto.pontotrajeto;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoBatchResponseDTO;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoCreateDTO;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.ReciboIngestaoDTO;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.enums.StatusReciboIngestao;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+/**
+ * Fila de ingestão assíncrona de lotes de pontos (write-behind).
+ *
+ * O controller só enfileira o lote e devolve um recibo; um pequeno grupo de workers
+ * retira os lotes da fila e grava vários de uma vez numa única transação
+ * ({@link IPontoTrajetoService#registrarLotesAgrupados}).
+ *
+ * A fila é limitada: quando está cheia, {@link #enfileirar} retorna vazio e o cliente
+ * deve tentar de novo mais tarde. Os recibos ficam apenas em memória; se a aplicação
+ * reiniciar antes da confirmação, o recibo deixa de existir e o lote deve ser reenviado
+ * (a ingestão é idempotente, então pontos já gravados são ignorados).
+ *
+ * No desligamento, a fila para de aceitar lotes e os workers gravam o que restou
+ * antes de terminar.
+ *
+ * Autor: Sistema
+ */
+@Component
+@Slf4j
+public class PontoTrajetoFilaIngestao {
+
+    private static final long ESPERA_POLL_MS = 500;
+
+    private final IPontoTrajetoService service;
+    private final BlockingQueue<LoteEnfileirado> fila;
+    private final Map<UUID, ReciboIngestaoDTO> recibos = new ConcurrentHashMap<>();
+    private final ExecutorService workers;
+
+    private final int quantidadeWorkers;
+    private final int lotesPorTransacao;
+    private final Duration retencaoRecibos;
+    private final Duration esperaDesligamento;
+
+    private volatile boolean aceitando = true;
+
+    public PontoTrajetoFilaIngestao(
+            IPontoTrajetoService service,
+            @Value("${app.ingestao.fila.capacidade:200}") int capacidade,
+            @Value("${app.ingestao.fila.workers:2}") int quantidadeWorkers,
+            @Value("${app.ingestao.fila.lotes-por-transacao:20}") int lotesPorTransacao,
+            @Value("${app.ingestao.fila.retencao-recibos-minutos:60}") long retencaoRecibosMinutos,
+            @Value("${app.ingestao.fila.espera-desligamento-segundos:30}") long esperaDesligamentoSegundos) {
+        this.service = service;
+        this.fila = new ArrayBlockingQueue<>(capacidade);
+        this.quantidadeWorkers = quantidadeWorkers;
+        this.lotesPorTransacao = lotesPorTransacao;
+        this.retencaoRecibos = Duration.ofMinutes(retencaoRecibosMinutos);
+        this.esperaDesligamento = Duration.ofSeconds(esperaDesligamentoSegundos);
+
+        AtomicInteger contador = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(quantidadeWorkers, r -> {
+            Thread thread = new Thread(r, "ingestao-pontos-" + contador.incrementAndGet());
+            thread.setDaemon(false);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    void iniciar() {
+        for (int i = 0; i < quantidadeWorkers; i++) {
+            workers.submit(this::executarWorker);
+        }
+        log.info("Fila de ingestão iniciada: capacidade {}, {} workers, até {} lotes por transação",
+                fila.remainingCapacity(), quantidadeWorkers, lotesPorTransacao);
+    }
+
+    /**
+     * Enfileira um lote para gravação assíncrona.
+     *
+     * @return o recibo do lote, ou vazio se a fila estiver cheia ou em desligamento
+     */
+    public Optional<ReciboIngestaoDTO> enfileirar(List<PontoTrajetoCreateDTO> pontos) {
+        if (!aceitando) {
+            return Optional.empty();
+        }
+
+        removerRecibosExpirados();
+
+        ReciboIngestaoDTO recibo = ReciboIngestaoDTO.pendente(UUID.randomUUID(), pontos.size());
+        recibos.put(recibo.getId(), recibo);
+
+        if (!fila.offer(new LoteEnfileirado(recibo.getId(), pontos))) {
+            recibos.remove(recibo.getId());
+            log.warn("Fila de ingestão cheia, lote de {} pontos recusado", pontos.size());
+            return Optional.empty();
+        }
+        return Optional.of(recibo);
+    }
+
+    public Optional<ReciboIngestaoDTO> consultar(UUID id) {
+        return Optional.ofNullable(recibos.get(id));
+    }
+
+    /** Quantidade de lotes aguardando gravação. */
+    public int tamanho() {
+        return fila.size();
+    }
+
+    @PreDestroy
+    void encerrar() throws InterruptedException {
+        aceitando = false;
+        log.info("Encerrando fila de ingestão, {} lotes pendentes", fila.size());
+
+        workers.shutdown();
+        if (!workers.awaitTermination(esperaDesligamento.toMillis(), TimeUnit.MILLISECONDS)) {
+            log.error("Fila de ingestão não esvaziou em {}s; {} lotes não foram gravados",
+                    esperaDesligamento.toSeconds(), fila.size());
+            workers.shutdownNow();
+        }
+    }
+
+    private void executarWorker() {
+        while (aceitando || !fila.isEmpty()) {
+            try {
+                LoteEnfileirado primeiro = fila.poll(ESPERA_POLL_MS, TimeUnit.MILLISECONDS);
+                if (primeiro == null) {
+                    continue;
+                }
+                List<LoteEnfileirado> grupo = new ArrayList<>(lotesPorTransacao);
+                grupo.add(primeiro);
+                fila.drainTo(grupo, lotesPorTransacao - 1);
+                gravar(grupo);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Erro inesperado no worker de ingestão", e);
+            }
+        }
+    }
+
+    private void gravar(List<LoteEnfileirado> grupo) {
+        grupo.forEach(lote -> atualizar(lote.reciboId(), r -> r.toBuilder()
+                .status(StatusReciboIngestao.PROCESSANDO)
+                .build()));
+
+        try {
+            List<PontoTrajetoBatchResponseDTO> resultados =
+                    service.registrarLotesAgrupados(grupo.stream().map(LoteEnfileirado::pontos).toList());
+            for (int i = 0; i < grupo.size(); i++) {
+                concluir(grupo.get(i).reciboId(), resultados.get(i));
+            }
+        } catch (RuntimeException e) {
+            if (grupo.size() == 1) {
+                falhar(grupo.get(0).reciboId(), e);
+                return;
+            }
+            // um lote com problema não deve derrubar os outros do grupo: grava um a um
+            log.warn("Falha ao gravar {} lotes agrupados, gravando individualmente: {}", grupo.size(), e.getMessage());
+            for (LoteEnfileirado lote : grupo) {
+                try {
+                    concluir(lote.reciboId(), service.registrarLotesAgrupados(List.of(lote.pontos())).get(0));
+                } catch (RuntimeException erroLote) {
+                    falhar(lote.reciboId(), erroLote);
+                }
+            }
+        }
+    }
+
+    private void concluir(UUID reciboId, PontoTrajetoBatchResponseDTO resultado) {
+        atualizar(reciboId, r -> r.toBuilder()
+                .resultado(resultado)
+                .concluidoEm(LocalDateTime.now())
+                .status(StatusReciboIngestao.CONCLUIDO)
+                .build());
+    }
+
+    private void falhar(UUID reciboId, RuntimeException e) {
+        log.error("Erro ao gravar lote do recibo {}: {}", reciboId, e.getMessage());
+        atualizar(reciboId, r -> r.toBuilder()
+                .erro(e.getMessage())
+                .concluidoEm(LocalDateTime.now())
+                .status(StatusReciboIngestao.ERRO)
+                .build());
+    }
+
+    /**
+     * Troca o recibo guardado por uma cópia alterada. O recibo é imutável, então quem já
+     * o leu pelo controller continua com um estado completo enquanto ele é serializado.
+     */
+    private void atualizar(UUID reciboId, UnaryOperator<ReciboIngestaoDTO> alteracao) {
+        recibos.computeIfPresent(reciboId, (id, r) -> alteracao.apply(r));
+    }
+
+    private void removerRecibosExpirados() {
+        LocalDateTime limite = LocalDateTime.now().minus(retencaoRecibos);
+        recibos.values().removeIf(r -> r.finalizado() && r.getConcluidoEm().isBefore(limite));
+    }
+
+    private record LoteEnfileirado(UUID reciboId, List<PontoTrajetoCreateDTO> pontos) {
+    }
+}
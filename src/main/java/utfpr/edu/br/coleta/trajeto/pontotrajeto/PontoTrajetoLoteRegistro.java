@@ -0,0 +1,86 @@
+package utfpr.edu.br.coleta.trajeto.pontotrajeto;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoBatchResponseDTO;
+
+import java.util.Optional;
+
+/**
+ * Registro dos lotes de pontos já processados, identificados pelo ID enviado
+ * pelo aplicativo no cabeçalho {@code X-Lote-Id}.
+ *
+ * A reserva do lote é gravada na mesma transação dos pontos. Se o mesmo lote chegar
+ * de novo (reenvio após perda da resposta), a reserva falha e o resumo original é
+ * devolvido sem reprocessar nada. Dois envios simultâneos do mesmo lote se serializam
+ * na chave primária da tabela ponto_trajeto_lote.
+ * Os lotes antigos são removidos por {@link PontoTrajetoLoteRetencaoJob}.
+ *
+ * Autor: Sistema
+ */
+@Component
+@RequiredArgsConstructor
+public class PontoTrajetoLoteRegistro {
+
+    static final int TAMANHO_MAXIMO_LOTE_ID = 64;
+
+    private static final String SQL_RESERVAR =
+            "INSERT INTO ponto_trajeto_lote (lote_id, total_recebidos) VALUES (?, ?) ON CONFLICT (lote_id) DO NOTHING";
+
+    private static final String SQL_BUSCAR =
+            "SELECT total_recebidos, total_salvos, total_duplicados, total_erros FROM ponto_trajeto_lote WHERE lote_id = ?";
+
+    private static final String SQL_CONCLUIR =
+            "UPDATE ponto_trajeto_lote SET total_salvos = ?, total_duplicados = ?, total_erros = ? WHERE lote_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Reserva o lote para processamento.
+     *
+     * @param loteId ID do lote enviado pelo cliente; se nulo ou vazio, nada é feito
+     * @return vazio se o lote deve ser processado; ou o resumo do processamento anterior, se já foi processado
+     * @throws IllegalArgumentException se o ID for maior que {@value #TAMANHO_MAXIMO_LOTE_ID} caracteres
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<PontoTrajetoBatchResponseDTO> reservar(String loteId, int totalRecebidos) {
+        if (loteId == null || loteId.isBlank()) {
+            return Optional.empty();
+        }
+        if (loteId.length() > TAMANHO_MAXIMO_LOTE_ID) {
+            throw new IllegalArgumentException(
+                    "O ID do lote deve ter no máximo " + TAMANHO_MAXIMO_LOTE_ID + " caracteres.");
+        }
+
+        if (jdbcTemplate.update(SQL_RESERVAR, loteId, totalRecebidos) > 0) {
+            return Optional.empty();
+        }
+
+        return Optional.of(jdbcTemplate.queryForObject(SQL_BUSCAR, (rs, rowNum) -> {
+            PontoTrajetoBatchResponseDTO anterior = new PontoTrajetoBatchResponseDTO();
+            anterior.setTotalRecebidos(rs.getInt("total_recebidos"));
+            anterior.setTotalSalvos(rs.getInt("total_salvos"));
+            anterior.setTotalDuplicados(rs.getInt("total_duplicados"));
+            anterior.setTotalErros(rs.getInt("total_erros"));
+            anterior.setMensagem(String.format(
+                    "Lote %s já processado anteriormente (%d salvos, %d duplicados, %d erros). Nenhum ponto foi gravado novamente.",
+                    loteId, anterior.getTotalSalvos(), anterior.getTotalDuplicados(), anterior.getTotalErros()));
+            return anterior;
+        }, loteId));
+    }
+
+    /**
+     * Grava o resumo do processamento de um lote reservado.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void concluir(String loteId, PontoTrajetoBatchResponseDTO response) {
+        if (loteId == null || loteId.isBlank()) {
+            return;
+        }
+        jdbcTemplate.update(SQL_CONCLUIR,
+                response.getTotalSalvos(), response.getTotalDuplicados(), response.getTotalErros(), loteId);
+    }
+}
@@ -0,0 +1,71 @@
+package utfpr.edu.br.coleta.trajeto.pontotrajeto;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Remove de ponto_trajeto_lote (ver {@link PontoTrajetoLoteRegistro}) os lotes processados
+ * há mais de {@code retencao-dias} dias. Depois disso o aplicativo não reenvia mais o lote,
+ * e um reenvio tardio ainda é deduplicado ponto a ponto por (trajeto_id, horario).
+ *
+ * A remoção é feita em blocos, para não segurar a tabela numa transação longa.
+ * Com {@code retencao-dias} igual a zero nada é removido.
+ *
+ * Autor: Sistema
+ */
+@Component
+@Slf4j
+public class PontoTrajetoLoteRetencaoJob {
+
+    static final int LOTES_POR_BLOCO = 5000;
+
+    private static final String SQL_REMOVER =
+            "DELETE FROM ponto_trajeto_lote WHERE lote_id IN (" +
+            "SELECT lote_id FROM ponto_trajeto_lote WHERE processado_em < ? LIMIT " + LOTES_POR_BLOCO + ")";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int retencaoDias;
+
+    public PontoTrajetoLoteRetencaoJob(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.ponto-trajeto.lotes.retencao-dias:30}") int retencaoDias
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.retencaoDias = retencaoDias;
+    }
+
+    @Scheduled(cron = "${app.ponto-trajeto.lotes.cron:0 45 2 * * *}")
+    public void executar() {
+        if (retencaoDias <= 0) {
+            return;
+        }
+        try {
+            int removidos = removerAnteriores(LocalDateTime.now().minusDays(retencaoDias));
+            if (removidos > 0) {
+                log.info("{} lote(s) antigo(s) removido(s) de ponto_trajeto_lote", removidos);
+            }
+        } catch (RuntimeException e) {
+            log.error("Erro ao remover lotes antigos de ponto_trajeto_lote", e);
+        }
+    }
+
+    /**
+     * Remove os lotes processados antes de {@code limite}.
+     *
+     * @return quantidade de lotes removidos
+     */
+    public int removerAnteriores(LocalDateTime limite) {
+        int total = 0;
+        int removidos;
+        do {
+            removidos = jdbcTemplate.update(SQL_REMOVER, limite);
+            total += removidos;
+        } while (removidos == LOTES_POR_BLOCO);
+        return total;
+    }
+}
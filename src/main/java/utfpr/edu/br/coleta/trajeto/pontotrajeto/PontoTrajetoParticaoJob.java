@@ -0,0 +1,127 @@
+package utfpr.edu.br.coleta.trajeto.pontotrajeto;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Manutenção das partições mensais de ponto_trajeto (ver V1.26 e V1.38).
+ *
+ * Diariamente, e na subida da aplicação, garante que existam as partições do mês
+ * atual e dos próximos {@code meses-a-frente} meses, para que os pontos não caiam
+ * na partição padrão.
+ *
+ * Se {@code retencao-meses} for maior que zero, partições de meses mais antigos que
+ * isso são desanexadas, mas só quando já estão vazias: os pontos de trajetos arquivados
+ * ({@link PontoTrajetoArquivador}) saem da tabela, e uma partição com pontos ainda é lida
+ * pela aplicação (consultas, exportação, feed e caminho do trajeto). A tabela
+ * ponto_trajeto_AAAA_MM desanexada é mantida no banco para ser removida pelo DBA.
+ * Por padrão nada é desanexado.
+ *
+ * Autor: Sistema
+ */
+@Component
+@Slf4j
+public class PontoTrajetoParticaoJob {
+
+    static final String PREFIXO_PARTICAO = "ponto_trajeto_";
+
+    static final DateTimeFormatter FORMATO_MES = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private static final String SQL_CRIAR = "SELECT criar_particao_ponto_trajeto(?)";
+
+    private static final String SQL_PARTICOES =
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = 'ponto_trajeto'::regclass";
+
+    private static final String SQL_DESANEXAR = "SELECT desanexar_particao_ponto_trajeto(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int mesesAFrente;
+    private final int retencaoMeses;
+
+    public PontoTrajetoParticaoJob(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.ponto-trajeto.particoes.meses-a-frente:3}") int mesesAFrente,
+            @Value("${app.ponto-trajeto.particoes.retencao-meses:0}") int retencaoMeses
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.mesesAFrente = mesesAFrente;
+        this.retencaoMeses = retencaoMeses;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void aoIniciar() {
+        executar();
+    }
+
+    @Scheduled(cron = "${app.ponto-trajeto.particoes.cron:0 30 2 * * *}")
+    public void executar() {
+        try {
+            criarParticoesFuturas(YearMonth.now());
+            if (retencaoMeses > 0) {
+                desanexarAntigas(YearMonth.now().minusMonths(retencaoMeses));
+            }
+        } catch (RuntimeException e) {
+            // a partição padrão continua recebendo os pontos; tenta de novo na próxima execução
+            log.error("Erro na manutenção das partições de ponto_trajeto", e);
+        }
+    }
+
+    /**
+     * Cria as partições de {@code mesAtual} até {@code mesAtual + meses-a-frente}, se ainda não existirem.
+     */
+    public void criarParticoesFuturas(YearMonth mesAtual) {
+        for (int i = 0; i <= mesesAFrente; i++) {
+            LocalDate mes = mesAtual.plusMonths(i).atDay(1);
+            String criada = jdbcTemplate.queryForObject(SQL_CRIAR, String.class, mes);
+            if (criada != null) {
+                log.info("Partição {} criada", criada);
+            }
+        }
+    }
+
+    /**
+     * Desanexa as partições vazias de meses anteriores a {@code limite}. Partições antigas
+     * com pontos (trajetos ainda não arquivados) são mantidas.
+     */
+    public void desanexarAntigas(YearMonth limite) {
+        List<String> particoes = jdbcTemplate.queryForList(SQL_PARTICOES, String.class);
+        for (String particao : particoes) {
+            YearMonth mes = mesDaParticao(particao);
+            if (mes == null || !mes.isBefore(limite)) {
+                continue;
+            }
+            // a função confere se está vazia com a partição bloqueada (ver V1.38)
+            if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(SQL_DESANEXAR, Boolean.class, particao))) {
+                log.info("Partição {} desanexada de ponto_trajeto", particao);
+            } else {
+                log.debug("Partição {} mantida: ainda tem pontos não arquivados", particao);
+            }
+        }
+    }
+
+    /**
+     * @return o mês da partição ponto_trajeto_AAAA_MM, ou {@code null} para outras (ex.: a padrão)
+     */
+    static YearMonth mesDaParticao(String nome) {
+        if (!nome.startsWith(PREFIXO_PARTICAO)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(nome.substring(PREFIXO_PARTICAO.length()), FORMATO_MES);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -1,9 +1,46 @@
 package utfpr.edu.br.coleta.trajeto.pontotrajeto;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface PontoTrajetoRepository extends JpaRepository<PontoTrajeto, Long> {
-    List<PontoTrajeto> findByTrajetoId(Long trajetoId);
+
+    /**
+     * Todos os pontos do trajeto em ordem de horário. O intervalo de horários do trajeto
+     * (mantido a cada gravação de pontos) limita a consulta às partições mensais que têm
+     * seus pontos; sem intervalo, lê todas.
+     */
+    @Query(value = "SELECT * FROM ponto_trajeto WHERE trajeto_id = :trajetoId " +
+            "AND horario >= COALESCE((SELECT horario_primeiro_ponto FROM trajeto WHERE id = :trajetoId), '-infinity') " +
+            "AND horario <= COALESCE((SELECT horario_ultimo_ponto FROM trajeto WHERE id = :trajetoId), 'infinity') " +
+            "ORDER BY horario", nativeQuery = true)
+    List<PontoTrajeto> findByTrajetoId(@Param("trajetoId") Long trajetoId);
+
+    Optional<PontoTrajeto> findByTrajetoIdAndHorario(Long trajetoId, LocalDateTime horario);
+
+    /**
+     * Primeiros pontos do trajeto em ordem de (horario, id).
+     */
+    @Query(value = "SELECT * FROM ponto_trajeto WHERE trajeto_id = :trajetoId " +
+            "AND horario >= COALESCE((SELECT horario_primeiro_ponto FROM trajeto WHERE id = :trajetoId), '-infinity') " +
+            "ORDER BY horario, id LIMIT :limite", nativeQuery = true)
+    List<PontoTrajeto> findPrimeiros(@Param("trajetoId") Long trajetoId, @Param("limite") int limite);
+
+    /**
+     * Pontos do trajeto posteriores ao cursor (horario, id), em ordem. A comparação de
+     * linha usa o índice (trajeto_id, horario, id) como intervalo; o limite em horario,
+     * redundante, é o que permite descartar as partições anteriores ao cursor.
+     */
+    @Query(value = "SELECT * FROM ponto_trajeto WHERE trajeto_id = :trajetoId " +
+            "AND horario >= :horario AND (horario, id) > (:horario, :id) " +
+            "ORDER BY horario, id LIMIT :limite", nativeQuery = true)
+    List<PontoTrajeto> findApos(@Param("trajetoId") Long trajetoId,
+                                @Param("horario") LocalDateTime horario,
+                                @Param("id") Long id,
+                                @Param("limite") int limite);
 }
\ No newline at end of file
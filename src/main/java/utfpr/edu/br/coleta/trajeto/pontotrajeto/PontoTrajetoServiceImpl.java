@@ -1,31 +1,67 @@
 package utfpr.edu.br.coleta.trajeto.pontotrajeto;
 
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.geom.PrecisionModel;
 import org.modelmapper.ModelMapper;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import utfpr.edu.br.coleta.generics.CrudServiceImpl;
-import utfpr.edu.br.coleta.trajeto.Trajeto;
 import utfpr.edu.br.coleta.trajeto.TrajetoRepository;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.binario.PontoTrajetoBinarioDecoder;
 import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoBatchResponseDTO;
 import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoCreateDTO;
 import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoDTO;
-
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoFeedDTO;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.event.PontosTrajetoRegistradosEvent;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PontoTrajetoServiceImpl extends CrudServiceImpl<PontoTrajeto, Long> implements IPontoTrajetoService {
 
+    /** Quantidade de pontos validados e gravados por vez na ingestão em streaming. */
+    static final int TAMANHO_BLOCO_STREAM = 1000;
+
+    /** Máximo de pontos por página do feed incremental. */
+    static final int LIMITE_MAXIMO_FEED = 5000;
+
     private final PontoTrajetoRepository repository;
     private final TrajetoRepository trajetoRepository;
+    private final PontoTrajetoBatchWriter batchWriter;
+    private final PontoTrajetoCopyWriter copyWriter;
+    private final PontoTrajetoExportador exportador;
+    private final PontoTrajetoArquivador arquivador;
+    private final PontoTrajetoLoteRegistro loteRegistro;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
     private final ModelMapper mapper;
+    private final ObjectMapper objectMapper;
 
     private final GeometryFactory geometryFactory = new GeometryFactory(new PrecisionModel(), 4326);
 
@@ -38,9 +74,39 @@ public class PontoTrajetoServiceImpl extends CrudServiceImpl<PontoTrajeto, Long>
         return mapper;
     }
 
+    /**
+     * Pontos gravados pelo CRUD genérico passam pelos mesmos listeners da ingestão (caminho,
+     * intervalo de horários do trajeto, cobertura), na transação do {@code save}.
+     */
+    @Override
+    public PontoTrajeto postSave(PontoTrajeto entity) {
+        publicarRegistrados(List.of(convertToDTO(entity)));
+        return entity;
+    }
+
+    @Override
+    @Transactional
+    public PontoTrajeto saveAndFlush(PontoTrajeto entity) {
+        return postSave(super.saveAndFlush(entity));
+    }
+
+    @Override
+    @Transactional
+    public Iterable<PontoTrajeto> save(Iterable<PontoTrajeto> iterable) {
+        List<PontoTrajeto> salvos = getRepository().saveAll(iterable);
+        publicarRegistrados(salvos.stream().map(this::convertToDTO).toList());
+        return salvos;
+    }
+
     @Override
     public PontoTrajetoDTO registrarPonto(PontoTrajetoCreateDTO dto) {
 
+        // reenvio de um ponto já registrado: devolve o existente
+        Optional<PontoTrajeto> existente = repository.findByTrajetoIdAndHorario(dto.getTrajetoId(), dto.getHorario());
+        if (existente.isPresent()) {
+            return convertToDTO(existente.get());
+        }
+
         PontoTrajeto ponto = new PontoTrajeto();
         ponto.setId(null);
 
@@ -55,94 +121,160 @@ public class PontoTrajetoServiceImpl extends CrudServiceImpl<PontoTrajeto, Long>
         ponto.setHorario(dto.getHorario());
         ponto.setObservacao(dto.getObservacao());
 
-        PontoTrajeto salvo = repository.save(ponto);
-
-        // usa o conversor manual que pega X/Y do Point
-        return convertToDTO(salvo);
+        try {
+            return transactionTemplate.execute(status -> {
+                // usa o conversor manual que pega X/Y do Point
+                PontoTrajetoDTO salvo = convertToDTO(repository.save(ponto));
+                publicarRegistrados(List.of(salvo));
+                return salvo;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // o mesmo ponto foi gravado por outra requisição entre a busca e o save
+            return repository.findByTrajetoIdAndHorario(dto.getTrajetoId(), dto.getHorario())
+                    .map(this::convertToDTO)
+                    .orElseThrow(() -> e);
+        }
     }
 
     @Override
     public List<PontoTrajetoDTO> findByTrajeto(Long trajetoId) {
-        return repository.findByTrajetoId(trajetoId).stream()
+        List<PontoTrajetoDTO> pontos = repository.findByTrajetoId(trajetoId).stream()
                 .map(this::convertToDTO)
                 .toList();
+
+        // trajeto arquivado: os pontos vêm do arquivo, mais os recebidos depois do arquivamento
+        List<PontoTrajetoDTO> arquivados = arquivador.lerArquivados(trajetoId);
+        return arquivados.isEmpty() ? pontos : PontoTrajetoArquivador.mesclar(arquivados, pontos);
     }
 
     @Override
-    @Transactional
-    public PontoTrajetoBatchResponseDTO registrarPontosLote(List<PontoTrajetoCreateDTO> pontos) {
-        PontoTrajetoBatchResponseDTO response = new PontoTrajetoBatchResponseDTO();
-        response.setTotalRecebidos(pontos.size());
+    public long exportarPontos(Long trajetoId, OutputStream saida) throws IOException {
+        return exportador.exportarNdjson(trajetoId, saida);
+    }
 
-        log.info("Iniciando processamento de lote com {} pontos", pontos.size());
+    @Override
+    @Transactional(readOnly = true)
+    public PontoTrajetoFeedDTO buscarPontosApos(Long trajetoId, LocalDateTime aposHorario, Long aposId, int limite) {
+        if (limite < 1 || limite > LIMITE_MAXIMO_FEED) {
+            throw new IllegalArgumentException("O limite deve estar entre 1 e " + LIMITE_MAXIMO_FEED);
+        }
 
-        for (int i = 0; i < pontos.size(); i++) {
-            PontoTrajetoCreateDTO dto = pontos.get(i);
-            try {
-                PontoTrajetoDTO pontoSalvo = registrarPonto(dto);
-                response.adicionarPontoSalvo(pontoSalvo);
-            } catch (Exception e) {
-                log.error("Erro ao processar ponto no índice {}: {}", i, e.getMessage());
-                response.adicionarErro(i, dto, e.getMessage());
-            }
+        // trajeto arquivado: o feed percorre a junção do arquivo com a tabela, como findByTrajeto
+        List<PontoTrajetoDTO> arquivados = arquivador.lerArquivados(trajetoId);
+        List<PontoTrajetoDTO> todos = arquivados.isEmpty() ? null : PontoTrajetoArquivador.mesclar(arquivados,
+                repository.findByTrajetoId(trajetoId).stream().map(this::convertToDTO).toList());
+
+        LocalDateTime horarioCursor = aposHorario;
+        Long idCursor = aposId;
+        if (horarioCursor == null && idCursor != null) {
+            Optional<LocalDateTime> horarioDoId = todos == null
+                    ? repository.findById(idCursor)
+                            .filter(ponto -> ponto.getTrajeto().getId().equals(trajetoId))
+                            .map(PontoTrajeto::getHorario)
+                    : todos.stream().filter(ponto -> ponto.getId().equals(aposId)).findFirst()
+                            .map(PontoTrajetoDTO::getHorario);
+            horarioCursor = horarioDoId
+                    .orElseThrow(() -> new IllegalArgumentException("Ponto " + aposId + " não encontrado no trajeto"));
+        } else if (horarioCursor != null && idCursor == null) {
+            // sem id, o cursor fica depois de qualquer ponto no próprio horário
+            idCursor = Long.MAX_VALUE;
         }
 
-        if (response.todosSalvos()) {
-            response.setMensagem(String.format("Todos os %d pontos foram salvos com sucesso.", response.getTotalSalvos()));
-        } else if (response.getTotalSalvos() > 0) {
-            response.setMensagem(String.format("%d de %d pontos salvos. %d erros.",
-                    response.getTotalSalvos(), response.getTotalRecebidos(), response.getTotalErros()));
+        // um ponto a mais para saber se há outra página
+        List<PontoTrajetoDTO> encontrados;
+        if (todos != null) {
+            encontrados = todos.stream()
+                    .filter(depoisDoCursor(horarioCursor, idCursor))
+                    .limit(limite + 1)
+                    .toList();
         } else {
-            response.setMensagem("Nenhum ponto foi salvo. Verifique os erros.");
+            encontrados = (horarioCursor == null
+                    ? repository.findPrimeiros(trajetoId, limite + 1)
+                    : repository.findApos(trajetoId, horarioCursor, idCursor, limite + 1))
+                    .stream().map(this::convertToDTO).toList();
         }
 
-        log.info("Processamento concluído: {} salvos, {} erros", response.getTotalSalvos(), response.getTotalErros());
+        boolean temMais = encontrados.size() > limite;
+        List<PontoTrajetoDTO> pontos = encontrados.stream()
+                .limit(limite)
+                .toList();
 
-        return response;
+        PontoTrajetoFeedDTO feed = new PontoTrajetoFeedDTO();
+        feed.setPontos(pontos);
+        feed.setTemMais(temMais);
+        if (pontos.isEmpty()) {
+            feed.setProximoHorario(horarioCursor);
+            feed.setProximoId(aposId);
+        } else {
+            PontoTrajetoDTO ultimo = pontos.get(pontos.size() - 1);
+            feed.setProximoHorario(ultimo.getHorario());
+            feed.setProximoId(ultimo.getId());
+        }
+        return feed;
+    }
+
+    // mesma ordem de findApos: (horario, id) depois do cursor
+    private static Predicate<PontoTrajetoDTO> depoisDoCursor(LocalDateTime horario, Long id) {
+        if (horario == null) {
+            return ponto -> true;
+        }
+        return ponto -> ponto.getHorario().isAfter(horario)
+                || (ponto.getHorario().equals(horario) && ponto.getId() > id);
     }
 
     @Override
     @Transactional
-    public PontoTrajetoBatchResponseDTO registrarPontosLoteAtomico(List<PontoTrajetoCreateDTO> pontos) {
+    public PontoTrajetoBatchResponseDTO registrarPontosLote(List<PontoTrajetoCreateDTO> pontos, String loteId) {
+        Optional<PontoTrajetoBatchResponseDTO> anterior = loteRegistro.reservar(loteId, pontos.size());
+        if (anterior.isPresent()) {
+            log.info("Lote {} já processado anteriormente, ignorando reenvio", loteId);
+            return anterior.get();
+        }
+
         PontoTrajetoBatchResponseDTO response = new PontoTrajetoBatchResponseDTO();
         response.setTotalRecebidos(pontos.size());
 
-        log.info("Iniciando processamento ATÔMICO de lote com {} pontos", pontos.size());
+        log.info("Iniciando processamento de lote com {} pontos", pontos.size());
 
-        try {
-            for (PontoTrajetoCreateDTO dto : pontos) {
-                if (!trajetoRepository.existsById(dto.getTrajetoId())) {
-                    throw new RuntimeException("Trajeto ID " + dto.getTrajetoId() + " não encontrado");
-                }
-            }
+        List<PontoTrajetoCreateDTO> validos = validarLote(pontos, 0, response);
+        gravarValidos(validos, response);
 
-            List<PontoTrajeto> pontosParaSalvar = new ArrayList<>();
-            for (PontoTrajetoCreateDTO dto : pontos) {
-                Point point = geometryFactory.createPoint(
-                        new org.locationtech.jts.geom.Coordinate(dto.getLongitude(), dto.getLatitude())
-                );
+        preencherMensagemResumo(response);
+        loteRegistro.concluir(loteId, response);
 
-                Trajeto trajeto = trajetoRepository.findById(dto.getTrajetoId())
-                        .orElseThrow(() -> new RuntimeException("Trajeto não encontrado"));
+        log.info("Processamento concluído: {} salvos, {} duplicados, {} erros",
+                response.getTotalSalvos(), response.getTotalDuplicados(), response.getTotalErros());
 
-                PontoTrajeto ponto = new PontoTrajeto();
-                ponto.setId(null); // <--- MESMA CORREÇÃO AQUI
-                ponto.setTrajeto(trajeto);
-                ponto.setLocalizacao(point);
-                ponto.setHorario(dto.getHorario());
-                ponto.setObservacao(dto.getObservacao());
+        return response;
+    }
 
-                pontosParaSalvar.add(ponto);
-            }
+    @Override
+    @Transactional
+    public PontoTrajetoBatchResponseDTO registrarPontosLoteAtomico(List<PontoTrajetoCreateDTO> pontos, String loteId) {
+        Optional<PontoTrajetoBatchResponseDTO> anterior = loteRegistro.reservar(loteId, pontos.size());
+        if (anterior.isPresent()) {
+            log.info("Lote {} já processado anteriormente, ignorando reenvio", loteId);
+            return anterior.get();
+        }
 
-            List<PontoTrajeto> pontosSalvos = repository.saveAll(pontosParaSalvar);
+        PontoTrajetoBatchResponseDTO response = new PontoTrajetoBatchResponseDTO();
+        response.setTotalRecebidos(pontos.size());
+
+        log.info("Iniciando processamento ATÔMICO de lote com {} pontos", pontos.size());
 
-            for (PontoTrajeto ponto : pontosSalvos) {
-                response.adicionarPontoSalvo(convertToDTO(ponto));
+        try {
+            PontoTrajetoBatchResponseDTO validacao = new PontoTrajetoBatchResponseDTO();
+            List<PontoTrajetoCreateDTO> validos = validarLote(pontos, 0, validacao);
+            if (validacao.temErros()) {
+                PontoTrajetoBatchResponseDTO.ErroProcessamento erro = validacao.getErros().get(0);
+                throw new RuntimeException("Ponto no índice " + erro.getIndice() + ": " + erro.getMensagem());
             }
 
-            response.setMensagem(String.format("Todos os %d pontos foram salvos com sucesso (transação atômica).",
-                    response.getTotalSalvos()));
+            gravarValidos(validos, response);
+
+            response.setMensagem(String.format("Todos os %d pontos foram salvos com sucesso (transação atômica).%s",
+                    response.getTotalSalvos(), descreverDuplicados(response)));
+            loteRegistro.concluir(loteId, response);
 
             log.info("Processamento atômico concluído: {} pontos salvos", response.getTotalSalvos());
 
@@ -155,6 +287,294 @@ public class PontoTrajetoServiceImpl extends CrudServiceImpl<PontoTrajeto, Long>
         return response;
     }
 
+    @Override
+    @Transactional
+    public PontoTrajetoBatchResponseDTO registrarPontosLoteCopy(List<PontoTrajetoCreateDTO> pontos, String loteId) {
+        Optional<PontoTrajetoBatchResponseDTO> anterior = loteRegistro.reservar(loteId, pontos.size());
+        if (anterior.isPresent()) {
+            log.info("Lote {} já processado anteriormente, ignorando reenvio", loteId);
+            return anterior.get();
+        }
+
+        PontoTrajetoBatchResponseDTO response = new PontoTrajetoBatchResponseDTO();
+        response.setTotalRecebidos(pontos.size());
+
+        log.info("Iniciando processamento via COPY de lote com {} pontos", pontos.size());
+
+        PontoTrajetoBatchResponseDTO validacao = new PontoTrajetoBatchResponseDTO();
+        List<PontoTrajetoCreateDTO> validos = validarLote(pontos, 0, validacao);
+        if (validacao.temErros()) {
+            PontoTrajetoBatchResponseDTO.ErroProcessamento erro = validacao.getErros().get(0);
+            throw new RuntimeException("Ponto no índice " + erro.getIndice() + ": " + erro.getMensagem());
+        }
+
+        List<PontoTrajetoDTO> copiados = copyWriter.copiar(validos);
+        response.setTotalSalvos(copiados.size());
+        response.adicionarDuplicados(validos.size() - copiados.size());
+        publicarRegistrados(copiados);
+        response.setMensagem(String.format("Todos os %d pontos foram salvos com sucesso (COPY, transação atômica).%s",
+                response.getTotalSalvos(), descreverDuplicados(response)));
+        loteRegistro.concluir(loteId, response);
+
+        log.info("Processamento via COPY concluído: {} pontos salvos, {} duplicados",
+                response.getTotalSalvos(), response.getTotalDuplicados());
+
+        return response;
+    }
+
+    @Override
+    public PontoTrajetoBatchResponseDTO registrarPontosLoteStream(InputStream entrada) throws IOException {
+        PontoTrajetoBatchResponseDTO response = new PontoTrajetoBatchResponseDTO();
+        List<PontoTrajetoCreateDTO> bloco = new ArrayList<>(TAMANHO_BLOCO_STREAM);
+        int indice = 0;
+
+        log.info("Iniciando processamento em streaming de lote");
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(entrada)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("O corpo da requisição deve ser um array JSON de pontos.");
+            }
+
+            try {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    if (parser.currentToken() == null) {
+                        throw new JsonParseException(parser, "Array JSON de pontos incompleto");
+                    }
+
+                    // cada elemento é lido como árvore, então um valor inválido num ponto
+                    // não impede a leitura dos pontos seguintes
+                    JsonNode node = parser.readValueAsTree();
+                    try {
+                        bloco.add(objectMapper.treeToValue(node, PontoTrajetoCreateDTO.class));
+                    } catch (JsonProcessingException e) {
+                        // grava o que já foi lido para manter os índices do bloco contíguos
+                        gravarBlocoStream(bloco, indice - bloco.size(), response);
+                        bloco.clear();
+                        response.adicionarErro(indice, null, "Ponto inválido: " + e.getOriginalMessage());
+                        log.error("Ponto inválido no índice {}: {}", indice, e.getOriginalMessage());
+                    }
+                    indice++;
+
+                    if (bloco.size() == TAMANHO_BLOCO_STREAM) {
+                        gravarBlocoStream(bloco, indice - bloco.size(), response);
+                        bloco.clear();
+                    }
+                }
+            } catch (JsonProcessingException e) {
+                // JSON malformado: os blocos anteriores já foram gravados, o resto é descartado
+                gravarBlocoStream(bloco, indice - bloco.size(), response);
+                response.setTotalRecebidos(indice);
+                response.adicionarErro(indice, null, "JSON inválido a partir deste índice: " + e.getOriginalMessage());
+                response.setMensagem(String.format("Leitura interrompida no índice %d. %d pontos salvos antes do erro.",
+                        indice, response.getTotalSalvos()));
+                log.error("JSON inválido no índice {}: {}", indice, e.getOriginalMessage());
+                return response;
+            }
+        }
+
+        gravarBlocoStream(bloco, indice - bloco.size(), response);
+        response.setTotalRecebidos(indice);
+
+        preencherMensagemResumo(response);
+
+        log.info("Processamento em streaming concluído: {} recebidos, {} salvos, {} erros",
+                response.getTotalRecebidos(), response.getTotalSalvos(), response.getTotalErros());
+
+        return response;
+    }
+
+    @Override
+    public PontoTrajetoBatchResponseDTO registrarPontosLoteBinario(InputStream entrada) throws IOException {
+        PontoTrajetoBinarioDecoder decoder;
+        try {
+            decoder = new PontoTrajetoBinarioDecoder(entrada);
+        } catch (EOFException e) {
+            throw new IllegalArgumentException("Cabeçalho do formato binário incompleto.");
+        }
+
+        PontoTrajetoBatchResponseDTO response = new PontoTrajetoBatchResponseDTO();
+        List<PontoTrajetoCreateDTO> bloco = new ArrayList<>(TAMANHO_BLOCO_STREAM);
+        int indice = 0;
+
+        log.info("Iniciando processamento de lote binário com {} pontos do trajeto {}",
+                decoder.getQuantidade(), decoder.getTrajetoId());
+
+        try {
+            while (decoder.temProximo()) {
+                bloco.add(decoder.proximo());
+                indice++;
+
+                if (bloco.size() == TAMANHO_BLOCO_STREAM) {
+                    gravarBlocoStream(bloco, indice - bloco.size(), response);
+                    bloco.clear();
+                }
+            }
+        } catch (IOException e) {
+            // dados truncados ou corrompidos: os blocos anteriores já foram gravados, o resto é descartado
+            gravarBlocoStream(bloco, indice - bloco.size(), response);
+            response.setTotalRecebidos(indice);
+            response.adicionarErro(indice, null, "Dados binários inválidos a partir deste índice: " + e.getMessage());
+            response.setMensagem(String.format("Leitura interrompida no índice %d de %d. %d pontos salvos antes do erro.",
+                    indice, decoder.getQuantidade(), response.getTotalSalvos()));
+            log.error("Lote binário inválido no índice {}: {}", indice, e.getMessage());
+            return response;
+        }
+
+        gravarBlocoStream(bloco, indice - bloco.size(), response);
+        response.setTotalRecebidos(indice);
+
+        preencherMensagemResumo(response);
+
+        log.info("Processamento binário concluído: {} recebidos, {} salvos, {} erros",
+                response.getTotalRecebidos(), response.getTotalSalvos(), response.getTotalErros());
+
+        return response;
+    }
+
+    @Override
+    @Transactional
+    public List<PontoTrajetoBatchResponseDTO> registrarLotesAgrupados(List<List<PontoTrajetoCreateDTO>> lotes) {
+        List<PontoTrajetoBatchResponseDTO> respostas = new ArrayList<>(lotes.size());
+        for (List<PontoTrajetoCreateDTO> pontos : lotes) {
+            PontoTrajetoBatchResponseDTO response = new PontoTrajetoBatchResponseDTO();
+            response.setTotalRecebidos(pontos.size());
+            gravarBlocoStream(pontos, 0, response);
+            preencherMensagemResumo(response);
+            respostas.add(response);
+        }
+
+        log.info("Gravados {} lotes agrupados: {} pontos salvos",
+                lotes.size(), respostas.stream().mapToInt(PontoTrajetoBatchResponseDTO::getTotalSalvos).sum());
+
+        return respostas;
+    }
+
+    /**
+     * Valida e grava um bloco de pontos (ingestão em streaming, binária ou pela fila assíncrona).
+     * Só os totais vão para a resposta, para que o uso de memória não cresça com o tamanho do lote.
+     *
+     * Cada bloco tem a sua transação, ou participa da transação corrente, se houver.
+     */
+    private void gravarBlocoStream(List<PontoTrajetoCreateDTO> bloco, int indiceInicial,
+                                   PontoTrajetoBatchResponseDTO response) {
+        if (bloco.isEmpty()) {
+            return;
+        }
+        List<PontoTrajetoCreateDTO> validos = validarLote(bloco, indiceInicial, response);
+        transactionTemplate.executeWithoutResult(status -> {
+            List<PontoTrajetoDTO> salvos = batchWriter.inserir(validos);
+            publicarRegistrados(salvos);
+            response.setTotalSalvos(response.getTotalSalvos() + salvos.size());
+            response.adicionarDuplicados(validos.size() - salvos.size());
+        });
+    }
+
+    /**
+     * Grava os pontos válidos, adicionando à resposta os salvos e contando os duplicados.
+     */
+    private void gravarValidos(List<PontoTrajetoCreateDTO> validos, PontoTrajetoBatchResponseDTO response) {
+        List<PontoTrajetoDTO> salvos = batchWriter.inserir(validos);
+        publicarRegistrados(salvos);
+        salvos.forEach(response::adicionarPontoSalvo);
+        response.adicionarDuplicados(validos.size() - salvos.size());
+    }
+
+    /**
+     * Publica um {@link PontosTrajetoRegistradosEvent} por trajeto com os pontos recém-gravados.
+     * Deve ser chamado dentro da transação que gravou os pontos.
+     */
+    private void publicarRegistrados(List<PontoTrajetoDTO> salvos) {
+        if (salvos.isEmpty()) {
+            return;
+        }
+        salvos.stream()
+                .collect(Collectors.groupingBy(PontoTrajetoDTO::getTrajetoId, LinkedHashMap::new, Collectors.toList()))
+                .forEach((trajetoId, pontos) ->
+                        eventPublisher.publishEvent(new PontosTrajetoRegistradosEvent(trajetoId, pontos)));
+    }
+
+    /**
+     * Define a mensagem geral de um lote não atômico a partir dos totais.
+     */
+    private void preencherMensagemResumo(PontoTrajetoBatchResponseDTO response) {
+        if (response.todosSalvos()) {
+            response.setMensagem(String.format("Todos os %d pontos foram salvos com sucesso.%s",
+                    response.getTotalSalvos(), descreverDuplicados(response)));
+        } else if (response.getTotalSalvos() > 0) {
+            response.setMensagem(String.format("%d de %d pontos salvos. %d erros.%s",
+                    response.getTotalSalvos(), response.getTotalRecebidos(), response.getTotalErros(),
+                    descreverDuplicados(response)));
+        } else if (response.getTotalDuplicados() > 0 && !response.temErros()) {
+            response.setMensagem(String.format("Todos os %d pontos já estavam registrados.", response.getTotalDuplicados()));
+        } else {
+            response.setMensagem("Nenhum ponto foi salvo. Verifique os erros." + descreverDuplicados(response));
+        }
+    }
+
+    private String descreverDuplicados(PontoTrajetoBatchResponseDTO response) {
+        return response.getTotalDuplicados() > 0
+                ? String.format(" %d pontos já registrados foram ignorados.", response.getTotalDuplicados())
+                : "";
+    }
+
+    /**
+     * Valida os pontos de um lote, registrando no response um erro por índice
+     * para cada ponto inválido, e retorna apenas os pontos válidos.
+     *
+     * A existência dos trajetos é verificada com uma única consulta para todo o lote.
+     *
+     * @param pontos pontos recebidos
+     * @param indiceInicial índice do primeiro ponto no lote original (para lotes processados em partes)
+     * @param response resposta onde os erros são acumulados
+     * @return pontos válidos, na ordem original
+     */
+    private List<PontoTrajetoCreateDTO> validarLote(List<PontoTrajetoCreateDTO> pontos, int indiceInicial,
+                                                    PontoTrajetoBatchResponseDTO response) {
+        Set<Long> trajetoIds = new HashSet<>();
+        for (PontoTrajetoCreateDTO dto : pontos) {
+            if (dto != null && dto.getTrajetoId() != null) {
+                trajetoIds.add(dto.getTrajetoId());
+            }
+        }
+        Set<Long> existentes = trajetoIds.isEmpty() ? Set.of() : trajetoRepository.findIdsExistentes(trajetoIds);
+
+        List<PontoTrajetoCreateDTO> validos = new ArrayList<>(pontos.size());
+        for (int i = 0; i < pontos.size(); i++) {
+            PontoTrajetoCreateDTO dto = pontos.get(i);
+            String erro = validarPonto(dto, existentes);
+            if (erro != null) {
+                log.error("Erro ao processar ponto no índice {}: {}", indiceInicial + i, erro);
+                response.adicionarErro(indiceInicial + i, dto, erro);
+            } else {
+                validos.add(dto);
+            }
+        }
+        return validos;
+    }
+
+    private String validarPonto(PontoTrajetoCreateDTO dto, Set<Long> trajetosExistentes) {
+        if (dto == null) {
+            return "Ponto nulo";
+        }
+        if (dto.getTrajetoId() == null) {
+            return "O trajeto é obrigatório";
+        }
+        if (!trajetosExistentes.contains(dto.getTrajetoId())) {
+            return "Trajeto ID " + dto.getTrajetoId() + " não encontrado";
+        }
+        if (dto.getHorario() == null) {
+            return "O horário é obrigatório";
+        }
+        // escrito na forma positiva para NaN também ser recusado; ±Infinity já fica fora do intervalo
+        if (!(dto.getLatitude() >= -90 && dto.getLatitude() <= 90)) {
+            return "Latitude fora do intervalo [-90, 90]: " + dto.getLatitude();
+        }
+        if (!(dto.getLongitude() >= -180 && dto.getLongitude() <= 180)) {
+            return "Longitude fora do intervalo [-180, 180]: " + dto.getLongitude();
+        }
+        return null;
+    }
+
     private PontoTrajetoDTO convertToDTO(PontoTrajeto ponto) {
         PontoTrajetoDTO dto = new PontoTrajetoDTO();
         dto.setId(ponto.getId());
@@ -0,0 +1,39 @@
+package utfpr.edu.br.coleta.trajeto.pontotrajeto.binario;
+
+/**
+ * Constantes do formato binário compacto de upload de pontos de trajeto.
+ *
+ * Layout (todos os inteiros em {@link Varint}):
+ * <pre>
+ * versão            1 byte  (atualmente 1)
+ * trajetoId         varint sem sinal
+ * quantidade        varint sem sinal
+ * para cada ponto:
+ *   latitude        varint zigzag, em 1e-6 graus
+ *   longitude       varint zigzag, em 1e-6 graus
+ *   horario         varint zigzag, em milissegundos
+ *   observacao      varint sem sinal com o tamanho em bytes UTF-8 (0 = sem observação), seguido dos bytes
+ * </pre>
+ *
+ * No primeiro ponto latitude, longitude e horário são valores absolutos; nos demais,
+ * a diferença em relação ao ponto anterior. O horário absoluto é o {@code LocalDateTime}
+ * do ponto convertido em milissegundos desde 1970-01-01T00:00 sem aplicar fuso
+ * (equivalente a tratá-lo como UTC), preservando o mesmo valor enviado hoje no JSON.
+ *
+ * Autor: Sistema
+ */
+public final class FormatoBinarioPontos {
+
+    public static final String MEDIA_TYPE = "application/x-ponto-trajeto";
+
+    public static final int VERSAO = 1;
+
+    /** Escala do ponto fixo de latitude/longitude (1e-6 graus, ~11 cm no equador). */
+    public static final double ESCALA_COORDENADA = 1_000_000d;
+
+    /** Tamanho máximo aceito para a observação de um ponto, em bytes. */
+    public static final int TAMANHO_MAXIMO_OBSERVACAO = 4096;
+
+    private FormatoBinarioPontos() {
+    }
+}
@@ -0,0 +1,194 @@
+package utfpr.edu.br.coleta.trajeto.pontotrajeto.binario;
+
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoDTO;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Formato colunar compactado usado para arquivar os pontos de um trajeto no MinIO.
+ *
+ * Layout:
+ * <pre>
+ * assinatura        "PTA" + versão (1 byte, atualmente 1)
+ * o restante, comprimido com deflate (todos os inteiros em {@link Varint}):
+ *   trajetoId       varint sem sinal
+ *   quantidade      varint sem sinal
+ *   coluna id       varint zigzag, diferença para o id anterior
+ *   coluna horario  varint zigzag, diferença em microssegundos para o horário anterior
+ *   coluna latitude varint zigzag, diferença em 1e-7 graus
+ *   coluna longitude varint zigzag, diferença em 1e-7 graus
+ *   coluna observacao varint sem sinal com o tamanho em bytes UTF-8 + 1 (0 = sem observação), seguido dos bytes
+ * </pre>
+ *
+ * Cada coluna traz os valores de todos os pontos antes da próxima coluna. Com os pontos
+ * em ordem de horário, as diferenças são pequenas e parecidas entre si, o que deixa o
+ * deflate bem mais eficiente do que sobre os pontos intercalados.
+ *
+ * Os horários são preservados na precisão do banco (microssegundos) e as coordenadas com
+ * 1e-7 graus (~1 cm). Os ids são mantidos, então os pontos lidos do arquivo são os mesmos
+ * que estavam em ponto_trajeto.
+ *
+ * Autor: Sistema
+ */
+public final class PontoTrajetoArquivoCodec {
+
+    public static final String CONTENT_TYPE = "application/x-ponto-trajeto-arquivo";
+
+    static final int VERSAO = 1;
+
+    private static final byte[] ASSINATURA = {'P', 'T', 'A'};
+
+    /** Limite de segurança para a quantidade de pontos lida do cabeçalho. */
+    private static final long MAXIMO_PONTOS = 50_000_000L;
+
+    /** Escala do ponto fixo de latitude/longitude (1e-7 graus, ~1 cm). */
+    static final double ESCALA_COORDENADA = 10_000_000d;
+
+    private PontoTrajetoArquivoCodec() {
+    }
+
+    /**
+     * @param pontos pontos do trajeto, em ordem de horário
+     */
+    public static byte[] codificar(long trajetoId, List<PontoTrajetoDTO> pontos) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + pontos.size() * 6);
+        try {
+            bytes.write(ASSINATURA);
+            bytes.write(VERSAO);
+
+            DeflaterOutputStream out = new DeflaterOutputStream(bytes, new Deflater(Deflater.BEST_COMPRESSION));
+            Varint.escreverSemSinal(out, trajetoId);
+            Varint.escreverSemSinal(out, pontos.size());
+
+            long anterior = 0;
+            for (PontoTrajetoDTO ponto : pontos) {
+                anterior = escreverDelta(out, ponto.getId(), anterior);
+            }
+            anterior = 0;
+            for (PontoTrajetoDTO ponto : pontos) {
+                anterior = escreverDelta(out, microssegundos(ponto.getHorario()), anterior);
+            }
+            anterior = 0;
+            for (PontoTrajetoDTO ponto : pontos) {
+                anterior = escreverDelta(out, Math.round(ponto.getLatitude() * ESCALA_COORDENADA), anterior);
+            }
+            anterior = 0;
+            for (PontoTrajetoDTO ponto : pontos) {
+                anterior = escreverDelta(out, Math.round(ponto.getLongitude() * ESCALA_COORDENADA), anterior);
+            }
+            for (PontoTrajetoDTO ponto : pontos) {
+                escreverTexto(out, ponto.getObservacao());
+            }
+
+            out.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static List<PontoTrajetoDTO> decodificar(byte[] dados) throws IOException {
+        DataInputStream cabecalho = new DataInputStream(new ByteArrayInputStream(dados));
+        byte[] assinatura = new byte[ASSINATURA.length];
+        cabecalho.readFully(assinatura);
+        if (!Arrays.equals(assinatura, ASSINATURA)) {
+            throw new IOException("Arquivo de pontos inválido: assinatura não reconhecida");
+        }
+        int versao = cabecalho.readUnsignedByte();
+        if (versao != VERSAO) {
+            throw new IOException("Versão do arquivo de pontos não suportada: " + versao);
+        }
+
+        InputStream in = new InflaterInputStream(cabecalho);
+        long trajetoId = Varint.lerSemSinal(in);
+        long quantidade = Varint.lerSemSinal(in);
+        if (quantidade > MAXIMO_PONTOS) {
+            throw new IOException("Quantidade de pontos inválida: " + quantidade);
+        }
+        int total = (int) quantidade;
+
+        long[] ids = lerColuna(in, total);
+        long[] horarios = lerColuna(in, total);
+        long[] latitudes = lerColuna(in, total);
+        long[] longitudes = lerColuna(in, total);
+
+        List<PontoTrajetoDTO> pontos = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            PontoTrajetoDTO dto = new PontoTrajetoDTO();
+            dto.setId(ids[i]);
+            dto.setTrajetoId(trajetoId);
+            dto.setHorario(horario(horarios[i]));
+            dto.setLatitude(latitudes[i] / ESCALA_COORDENADA);
+            dto.setLongitude(longitudes[i] / ESCALA_COORDENADA);
+            dto.setObservacao(lerTexto(in));
+            pontos.add(dto);
+        }
+        return pontos;
+    }
+
+    private static long escreverDelta(OutputStream out, long valor, long anterior) throws IOException {
+        Varint.escreverComSinal(out, valor - anterior);
+        return valor;
+    }
+
+    private static long[] lerColuna(InputStream in, int total) throws IOException {
+        long[] valores = new long[total];
+        long anterior = 0;
+        for (int i = 0; i < total; i++) {
+            anterior += Varint.lerComSinal(in);
+            valores[i] = anterior;
+        }
+        return valores;
+    }
+
+    private static void escreverTexto(OutputStream out, String texto) throws IOException {
+        if (texto == null) {
+            Varint.escreverSemSinal(out, 0);
+            return;
+        }
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        Varint.escreverSemSinal(out, bytes.length + 1L);
+        out.write(bytes);
+    }
+
+    private static String lerTexto(InputStream in) throws IOException {
+        long tamanho = Varint.lerSemSinal(in);
+        if (tamanho == 0) {
+            return null;
+        }
+        if (tamanho - 1 > Integer.MAX_VALUE) {
+            throw new IOException("Observação com tamanho inválido: " + (tamanho - 1));
+        }
+        byte[] bytes = in.readNBytes((int) (tamanho - 1));
+        if (bytes.length != tamanho - 1) {
+            throw new EOFException("Fim inesperado dos dados ao ler observação");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // LocalDateTime sem fuso, tratado como UTC (como no formato de upload)
+    private static long microssegundos(LocalDateTime horario) {
+        return horario.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + horario.getNano() / 1_000;
+    }
+
+    private static LocalDateTime horario(long microssegundos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(microssegundos, 1_000_000L),
+                (int) Math.floorMod(microssegundos, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,129 @@
+package utfpr.edu.br.coleta.trajeto.pontotrajeto.binario;
+
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoCreateDTO;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Lê incrementalmente pontos no formato descrito em {@link FormatoBinarioPontos}.
+ *
+ * O cabeçalho é lido no construtor; cada chamada a {@link #proximo()} decodifica um ponto,
+ * então o lote nunca precisa estar inteiro em memória.
+ *
+ * Autor: Sistema
+ */
+public class PontoTrajetoBinarioDecoder {
+
+    private final InputStream in;
+    private final long trajetoId;
+    private final long quantidade;
+
+    private long lidos;
+    private long latAnterior;
+    private long lonAnterior;
+    private long horarioAnterior;
+
+    /**
+     * @throws IllegalArgumentException se a versão do formato não for suportada ou o cabeçalho
+     *                                  for inválido (varint malformado, trajeto ou quantidade fora do intervalo)
+     * @throws IOException se o cabeçalho estiver incompleto
+     */
+    public PontoTrajetoBinarioDecoder(InputStream entrada) throws IOException {
+        this.in = entrada instanceof BufferedInputStream ? entrada : new BufferedInputStream(entrada);
+
+        int versao = in.read();
+        if (versao < 0) {
+            throw new EOFException("Corpo vazio: cabeçalho do formato binário ausente");
+        }
+        if (versao != FormatoBinarioPontos.VERSAO) {
+            throw new IllegalArgumentException("Versão do formato binário não suportada: " + versao);
+        }
+
+        this.trajetoId = lerCabecalho("trajetoId");
+        this.quantidade = lerCabecalho("quantidade");
+        // lidos como varint sem sinal: acima de Long.MAX_VALUE chegam negativos
+        if (trajetoId < 0) {
+            throw new IllegalArgumentException("trajetoId inválido no cabeçalho: " + Long.toUnsignedString(trajetoId));
+        }
+        if (quantidade < 0 || quantidade > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Quantidade de pontos inválida no cabeçalho: "
+                    + Long.toUnsignedString(quantidade));
+        }
+    }
+
+    private long lerCabecalho(String campo) throws IOException {
+        try {
+            return Varint.lerSemSinal(in);
+        } catch (EOFException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cabeçalho do formato binário inválido (" + campo + "): " + e.getMessage(), e);
+        }
+    }
+
+    public long getTrajetoId() {
+        return trajetoId;
+    }
+
+    /** Quantidade de pontos declarada no cabeçalho. */
+    public long getQuantidade() {
+        return quantidade;
+    }
+
+    public boolean temProximo() {
+        return lidos < quantidade;
+    }
+
+    /**
+     * Decodifica o próximo ponto.
+     *
+     * @throws IOException se os dados terminarem antes do esperado ou estiverem corrompidos
+     */
+    public PontoTrajetoCreateDTO proximo() throws IOException {
+        if (!temProximo()) {
+            throw new IllegalStateException("Todos os pontos já foram lidos");
+        }
+
+        latAnterior += Varint.lerComSinal(in);
+        lonAnterior += Varint.lerComSinal(in);
+        horarioAnterior += Varint.lerComSinal(in);
+        String observacao = lerObservacao();
+        lidos++;
+
+        PontoTrajetoCreateDTO dto = new PontoTrajetoCreateDTO();
+        dto.setTrajetoId(trajetoId);
+        dto.setLatitude(latAnterior / FormatoBinarioPontos.ESCALA_COORDENADA);
+        dto.setLongitude(lonAnterior / FormatoBinarioPontos.ESCALA_COORDENADA);
+        try {
+            dto.setHorario(LocalDateTime.ofInstant(Instant.ofEpochMilli(horarioAnterior), ZoneOffset.UTC));
+        } catch (DateTimeException e) {
+            throw new IOException("Horário fora do intervalo suportado: " + horarioAnterior, e);
+        }
+        dto.setObservacao(observacao);
+        return dto;
+    }
+
+    private String lerObservacao() throws IOException {
+        long tamanho = Varint.lerSemSinal(in);
+        if (tamanho == 0) {
+            return null;
+        }
+        if (tamanho > FormatoBinarioPontos.TAMANHO_MAXIMO_OBSERVACAO) {
+            throw new IOException("Observação com " + tamanho + " bytes excede o máximo de "
+                    + FormatoBinarioPontos.TAMANHO_MAXIMO_OBSERVACAO);
+        }
+        byte[] texto = in.readNBytes((int) tamanho);
+        if (texto.length < tamanho) {
+            throw new EOFException("Fim inesperado dos dados ao ler observação");
+        }
+        return new String(texto, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,67 @@
+package utfpr.edu.br.coleta.trajeto.pontotrajeto.binario;
+
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoCreateDTO;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Codifica pontos de um trajeto no formato descrito em {@link FormatoBinarioPontos}.
+ *
+ * É a implementação de referência do lado do cliente (aplicativo Android) e é usada nos testes.
+ *
+ * Autor: Sistema
+ */
+public final class PontoTrajetoBinarioEncoder {
+
+    private PontoTrajetoBinarioEncoder() {
+    }
+
+    public static byte[] codificar(long trajetoId, List<PontoTrajetoCreateDTO> pontos) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + pontos.size() * 8);
+        try {
+            codificar(trajetoId, pontos, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public static void codificar(long trajetoId, List<PontoTrajetoCreateDTO> pontos, OutputStream out)
+            throws IOException {
+        out.write(FormatoBinarioPontos.VERSAO);
+        Varint.escreverSemSinal(out, trajetoId);
+        Varint.escreverSemSinal(out, pontos.size());
+
+        long latAnterior = 0;
+        long lonAnterior = 0;
+        long horarioAnterior = 0;
+
+        for (PontoTrajetoCreateDTO ponto : pontos) {
+            long lat = Math.round(ponto.getLatitude() * FormatoBinarioPontos.ESCALA_COORDENADA);
+            long lon = Math.round(ponto.getLongitude() * FormatoBinarioPontos.ESCALA_COORDENADA);
+            long horario = ponto.getHorario().toInstant(ZoneOffset.UTC).toEpochMilli();
+
+            Varint.escreverComSinal(out, lat - latAnterior);
+            Varint.escreverComSinal(out, lon - lonAnterior);
+            Varint.escreverComSinal(out, horario - horarioAnterior);
+
+            if (ponto.getObservacao() == null || ponto.getObservacao().isEmpty()) {
+                Varint.escreverSemSinal(out, 0);
+            } else {
+                byte[] texto = ponto.getObservacao().getBytes(StandardCharsets.UTF_8);
+                Varint.escreverSemSinal(out, texto.length);
+                out.write(texto);
+            }
+
+            latAnterior = lat;
+            lonAnterior = lon;
+            horarioAnterior = horario;
+        }
+    }
+}
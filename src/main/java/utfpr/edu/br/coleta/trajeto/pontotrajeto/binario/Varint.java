@@ -0,0 +1,63 @@
+package utfpr.edu.br.coleta.trajeto.pontotrajeto.binario;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Codificação de inteiros em tamanho variável (varint, 7 bits por byte, little-endian,
+ * como no Protocol Buffers) e mapeamento zigzag para valores com sinal.
+ *
+ * Valores pequenos em módulo ocupam poucos bytes: deltas de até ±63 cabem em 1 byte,
+ * até ±8191 em 2 bytes.
+ *
+ * Autor: Sistema
+ */
+public final class Varint {
+
+    /** Um long ocupa no máximo 10 bytes em varint. */
+    private static final int MAXIMO_BYTES = 10;
+
+    private Varint() {
+    }
+
+    public static void escreverSemSinal(OutputStream out, long valor) throws IOException {
+        while ((valor & ~0x7FL) != 0) {
+            out.write((int) ((valor & 0x7F) | 0x80));
+            valor >>>= 7;
+        }
+        out.write((int) valor);
+    }
+
+    public static void escreverComSinal(OutputStream out, long valor) throws IOException {
+        escreverSemSinal(out, zigzag(valor));
+    }
+
+    public static long lerSemSinal(InputStream in) throws IOException {
+        long resultado = 0;
+        for (int i = 0; i < MAXIMO_BYTES; i++) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Fim inesperado dos dados ao ler varint");
+            }
+            resultado |= (long) (b & 0x7F) << (7 * i);
+            if ((b & 0x80) == 0) {
+                return resultado;
+            }
+        }
+        throw new IOException("Varint com mais de " + MAXIMO_BYTES + " bytes");
+    }
+
+    public static long lerComSinal(InputStream in) throws IOException {
+        return deszigzag(lerSemSinal(in));
+    }
+
+    static long zigzag(long valor) {
+        return (valor << 1) ^ (valor >> 63);
+    }
+
+    static long deszigzag(long valor) {
+        return (valor >>> 1) ^ -(valor & 1);
+    }
+}
@@ -30,6 +30,9 @@ public class PontoTrajetoBatchResponseDTO {
     @Schema(description = "Total de pontos com erro", example = "1")
     private int totalErros;
 
+    @Schema(description = "Total de pontos ignorados por já estarem registrados (mesmo trajeto e horário)", example = "0")
+    private int totalDuplicados;
+
     @Schema(description = "Lista de pontos salvos com sucesso")
     private List<PontoTrajetoDTO> pontosSalvos = new ArrayList<>();
 
@@ -74,6 +77,13 @@ public class PontoTrajetoBatchResponseDTO {
         this.totalErros++;
     }
 
+    /**
+     * Contabiliza pontos ignorados por já estarem registrados.
+     */
+    public void adicionarDuplicados(int quantidade) {
+        this.totalDuplicados += quantidade;
+    }
+
     /**
      * Verifica se houve algum erro no processamento.
      */
@@ -83,9 +93,10 @@ public class PontoTrajetoBatchResponseDTO {
 
     /**
      * Verifica se todos os pontos foram salvos com sucesso.
+     * Pontos duplicados contam como salvos, pois já estavam registrados.
      */
     public boolean todosSalvos() {
-        return totalRecebidos > 0 && totalSalvos == totalRecebidos && totalErros == 0;
+        return totalRecebidos > 0 && totalSalvos + totalDuplicados == totalRecebidos && totalErros == 0;
     }
 }
 
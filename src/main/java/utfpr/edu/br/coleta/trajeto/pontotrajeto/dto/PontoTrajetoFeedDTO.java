@@ -0,0 +1,33 @@
+package utfpr.edu.br.coleta.trajeto.pontotrajeto.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Página do feed incremental de pontos de um trajeto.
+ *
+ * Para buscar a próxima página, o cliente repete a consulta com
+ * {@code aposHorario = proximoHorario} e {@code aposId = proximoId}.
+ * Sem pontos novos, o cursor devolvido é o mesmo que foi informado.
+ *
+ * Autor: Sistema
+ */
+@Data
+@Schema(description = "Pontos de um trajeto posteriores a um cursor (horario, id)")
+public class PontoTrajetoFeedDTO {
+
+    @Schema(description = "Pontos em ordem de horário")
+    private List<PontoTrajetoDTO> pontos;
+
+    @Schema(description = "Horário do último ponto retornado (cursor da próxima consulta)")
+    private LocalDateTime proximoHorario;
+
+    @Schema(description = "ID do último ponto retornado (cursor da próxima consulta)", example = "1520")
+    private Long proximoId;
+
+    @Schema(description = "Indica se há mais pontos além do limite desta página", example = "false")
+    private boolean temMais;
+}
@@ -0,0 +1,60 @@
+package utfpr.edu.br.coleta.trajeto.pontotrajeto.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.enums.StatusReciboIngestao;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Recibo de um lote de pontos aceito pela fila de ingestão assíncrona.
+ *
+ * O aplicativo consulta o recibo até o status ser CONCLUIDO (pontos gravados no banco)
+ * ou ERRO (o lote deve ser reenviado).
+ *
+ * É imutável: a fila troca o recibo guardado por uma cópia alterada a cada mudança de
+ * status, e as threads que serializam o recibo sempre veem um estado completo.
+ *
+ * Autor: Sistema
+ */
+@Value
+@Builder(toBuilder = true)
+@Schema(description = "Recibo de um lote de pontos enviado para ingestão assíncrona")
+public class ReciboIngestaoDTO {
+
+    @Schema(description = "ID do recibo", example = "3f1c2a4e-8b7d-4c2a-9f10-2b7e5d6a9c01")
+    UUID id;
+
+    @Schema(description = "Situação do lote", example = "PENDENTE")
+    StatusReciboIngestao status;
+
+    @Schema(description = "Quantidade de pontos no lote", example = "500")
+    int totalRecebidos;
+
+    @Schema(description = "Momento em que o lote foi aceito")
+    LocalDateTime recebidoEm;
+
+    @Schema(description = "Momento em que o processamento terminou (com sucesso ou erro)")
+    LocalDateTime concluidoEm;
+
+    @Schema(description = "Resultado do processamento, disponível quando CONCLUIDO (sem a lista de pontos salvos)")
+    PontoTrajetoBatchResponseDTO resultado;
+
+    @Schema(description = "Mensagem de erro, quando o status é ERRO")
+    String erro;
+
+    public static ReciboIngestaoDTO pendente(UUID id, int totalRecebidos) {
+        return ReciboIngestaoDTO.builder()
+                .id(id)
+                .totalRecebidos(totalRecebidos)
+                .status(StatusReciboIngestao.PENDENTE)
+                .recebidoEm(LocalDateTime.now())
+                .build();
+    }
+
+    public boolean finalizado() {
+        return status == StatusReciboIngestao.CONCLUIDO || status == StatusReciboIngestao.ERRO;
+    }
+}
@@ -0,0 +1,8 @@
+package utfpr.edu.br.coleta.trajeto.pontotrajeto.enums;
+
+public enum StatusReciboIngestao {
+    PENDENTE,
+    PROCESSANDO,
+    CONCLUIDO,
+    ERRO
+}
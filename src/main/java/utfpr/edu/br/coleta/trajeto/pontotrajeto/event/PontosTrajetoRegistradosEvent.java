@@ -0,0 +1,35 @@
+package utfpr.edu.br.coleta.trajeto.pontotrajeto.event;
+
+import lombok.Getter;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoDTO;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Publicado na transação de ingestão sempre que novos pontos de um trajeto são gravados.
+ *
+ * Contém apenas os pontos efetivamente inseridos (duplicados ignorados pelo banco não
+ * aparecem), em qualquer ordem. Os listeners síncronos rodam na mesma transação dos pontos.
+ *
+ * Autor: Sistema
+ */
+@Getter
+public class PontosTrajetoRegistradosEvent {
+
+    private final Long trajetoId;
+    private final List<PontoTrajetoDTO> pontos;
+    private final LocalDateTime horarioMinimo;
+    private final LocalDateTime horarioMaximo;
+
+    public PontosTrajetoRegistradosEvent(Long trajetoId, List<PontoTrajetoDTO> pontos) {
+        if (pontos.isEmpty()) {
+            throw new IllegalArgumentException("O evento precisa de ao menos um ponto");
+        }
+        this.trajetoId = trajetoId;
+        this.pontos = List.copyOf(pontos);
+        this.horarioMinimo = pontos.stream().map(PontoTrajetoDTO::getHorario).min(Comparator.naturalOrder()).orElseThrow();
+        this.horarioMaximo = pontos.stream().map(PontoTrajetoDTO::getHorario).max(Comparator.naturalOrder()).orElseThrow();
+    }
+}
@@ -0,0 +1,25 @@
+-- V1.21__ponto_trajeto_idempotencia.sql
+-- Ingestão idempotente de pontos: um ponto é identificado por (trajeto_id, horario).
+
+-- 1. Remover duplicatas já existentes, mantendo o ponto mais antigo (menor id)
+DELETE FROM ponto_trajeto p
+USING ponto_trajeto d
+WHERE p.trajeto_id = d.trajeto_id
+  AND p.horario = d.horario
+  AND p.id > d.id;
+
+-- 2. Chave de deduplicação usada pelo ON CONFLICT na ingestão
+CREATE UNIQUE INDEX uk_ponto_trajeto_trajeto_horario ON ponto_trajeto (trajeto_id, horario);
+
+-- 3. Lotes já processados, identificados pelo cabeçalho X-Lote-Id enviado pelo aplicativo.
+--    Um reenvio do mesmo lote devolve o resumo gravado sem processar os pontos de novo.
+CREATE TABLE ponto_trajeto_lote (
+    lote_id VARCHAR(64) PRIMARY KEY,
+    total_recebidos INT NOT NULL,
+    total_salvos INT NOT NULL DEFAULT 0,
+    total_duplicados INT NOT NULL DEFAULT 0,
+    total_erros INT NOT NULL DEFAULT 0,
+    processado_em TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_ponto_trajeto_lote_processado_em ON ponto_trajeto_lote (processado_em);
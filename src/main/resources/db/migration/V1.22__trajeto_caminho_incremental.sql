@@ -0,0 +1,23 @@
+-- V1.22__trajeto_caminho_incremental.sql
+-- Manutenção incremental de trajeto.caminho durante a ingestão de pontos.
+-- O caminho passa a ser sempre a linha dos pontos do trajeto em ordem de horário;
+-- horario_primeiro_ponto/horario_ultimo_ponto indicam o intervalo já incorporado.
+
+ALTER TABLE trajeto ADD COLUMN horario_primeiro_ponto TIMESTAMP;
+ALTER TABLE trajeto ADD COLUMN horario_ultimo_ponto TIMESTAMP;
+
+-- Reconstruir o caminho dos trajetos que já têm pontos
+UPDATE trajeto t
+SET caminho = CASE WHEN s.quantidade >= 2 THEN s.linha END,
+    horario_primeiro_ponto = s.primeiro,
+    horario_ultimo_ponto = s.ultimo
+FROM (
+    SELECT trajeto_id,
+           ST_MakeLine(localizacao ORDER BY horario) AS linha,
+           count(*) AS quantidade,
+           min(horario) AS primeiro,
+           max(horario) AS ultimo
+    FROM ponto_trajeto
+    GROUP BY trajeto_id
+) s
+WHERE t.id = s.trajeto_id;
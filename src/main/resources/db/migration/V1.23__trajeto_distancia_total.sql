@@ -0,0 +1,9 @@
+-- V1.23__trajeto_distancia_total.sql
+-- distancia_total (km) passa a ser mantida pela ingestão de pontos.
+-- Preenche os trajetos existentes a partir do caminho; o valor é reconciliado
+-- (haversine sobre o caminho completo) quando o trajeto é finalizado.
+
+UPDATE trajeto
+SET distancia_total = ST_Length(caminho::geography, false) / 1000
+WHERE caminho IS NOT NULL
+  AND distancia_total IS NULL;
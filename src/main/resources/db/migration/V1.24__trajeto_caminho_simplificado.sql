@@ -0,0 +1,191 @@
+-- V1.24__trajeto_caminho_simplificado.sql
+-- Versões simplificadas (Douglas-Peucker) do caminho dos trajetos finalizados,
+-- em algumas tolerâncias, para mapas e para o ST_Buffer do cálculo de cobertura.
+-- O buffer de um caminho com dezenas de milhares de vértices era a etapa mais cara
+-- de obter_estatisticas_cobertura.
+
+CREATE TABLE trajeto_caminho_simplificado (
+    trajeto_id BIGINT NOT NULL REFERENCES trajeto(id) ON DELETE CASCADE,
+    tolerancia_metros DOUBLE PRECISION NOT NULL,
+    caminho geometry(LineString, 4326) NOT NULL,
+    vertices INTEGER NOT NULL,
+    PRIMARY KEY (trajeto_id, tolerancia_metros)
+);
+
+-- Douglas-Peucker com tolerância em metros. Em 3857 as distâncias são ampliadas por
+-- 1/cos(latitude), então a tolerância é corrigida pela latitude do início do caminho
+-- (suficiente na escala de uma cidade). preserveCollapsed mantém ao menos 2 vértices.
+CREATE OR REPLACE FUNCTION simplificar_caminho(
+    caminho_param geometry,
+    tolerancia_metros_param DOUBLE PRECISION
+)
+RETURNS geometry AS $$
+    SELECT ST_Transform(
+               ST_Simplify(
+                       ST_Transform(caminho_param, 3857),
+                       tolerancia_metros_param / cos(radians(ST_Y(ST_StartPoint(caminho_param)))),
+                       true
+               ),
+               4326
+           )
+$$ LANGUAGE sql IMMUTABLE;
+
+-- Caminho usado no buffer: a versão mais simplificada cuja tolerância não passa de
+-- 1/4 do buffer (erro de no máximo 25% na largura da faixa coberta, em geral bem menos).
+-- Sem versão adequada (trajeto não finalizado, buffer pequeno), usa o caminho completo.
+CREATE OR REPLACE FUNCTION caminho_para_buffer(
+    trajeto_id_param BIGINT,
+    caminho_param geometry,
+    buffer_metros_param DOUBLE PRECISION
+)
+RETURNS geometry AS $$
+    SELECT COALESCE(
+                   (SELECT s.caminho
+                    FROM trajeto_caminho_simplificado s
+                    WHERE s.trajeto_id = trajeto_id_param
+                      AND s.tolerancia_metros <= buffer_metros_param / 4
+                    ORDER BY s.tolerancia_metros DESC
+                    LIMIT 1),
+                   caminho_param
+           )
+$$ LANGUAGE sql STABLE;
+
+-- Gerar as versões simplificadas dos trajetos já finalizados
+INSERT INTO trajeto_caminho_simplificado (trajeto_id, tolerancia_metros, caminho, vertices)
+SELECT s.trajeto_id, s.tolerancia_metros, s.caminho, ST_NPoints(s.caminho)
+FROM (
+    SELECT t.id AS trajeto_id, tol AS tolerancia_metros, simplificar_caminho(t.caminho, tol) AS caminho
+    FROM trajeto t
+    CROSS JOIN unnest(ARRAY[1, 5, 20]::DOUBLE PRECISION[]) tol
+    WHERE t.status = 'FINALIZADO'
+      AND t.caminho IS NOT NULL
+) s;
+
+-- calcular_areas_nao_percorridas: buffer sobre o caminho simplificado
+CREATE OR REPLACE FUNCTION calcular_areas_nao_percorridas(
+    rota_id_param BIGINT,
+    buffer_metros_param DOUBLE PRECISION,
+    trajeto_id_param BIGINT DEFAULT NULL
+)
+RETURNS geometry AS $$
+DECLARE
+area_planejada geometry;
+    geometria_trajetos_cobertos geometry;
+    areas_nao_cobertas geometry;
+BEGIN
+    -- Obter a área geográfica planejada da rota
+SELECT area_geografica INTO area_planejada
+FROM tb_rota
+WHERE id = rota_id_param;
+
+IF area_planejada IS NULL THEN
+        RETURN NULL;
+END IF;
+
+    -- Calcular a união dos buffers dos trajetos
+    -- CORREÇÃO 1: Usando nomes corretos: tabela 'trajeto' e coluna 'caminho'
+    -- CORREÇÃO 2: Usando ST_Transform para calcular buffer em metros (3857)
+SELECT ST_Union(
+               ST_Transform(
+                       ST_Buffer(
+                               ST_Transform(caminho_para_buffer(t.id, t.caminho, buffer_metros_param), 3857),
+                               buffer_metros_param
+                       ),
+                       4326
+               )
+       )
+INTO geometria_trajetos_cobertos
+FROM trajeto t
+WHERE t.rota_id = rota_id_param
+  AND (trajeto_id_param IS NULL OR t.id = trajeto_id_param) -- FILTRO DE TRAJETO
+  AND (trajeto_id_param IS NOT NULL OR t.status = 'FINALIZADO'); -- LÓGICA DE STATUS
+
+-- Calcular a diferença
+IF geometria_trajetos_cobertos IS NULL THEN
+        areas_nao_cobertas := area_planejada;
+ELSE
+        areas_nao_cobertas := ST_Difference(area_planejada, geometria_trajetos_cobertos);
+END IF;
+
+RETURN areas_nao_cobertas;
+END;
+$$ LANGUAGE plpgsql;
+
+-- obter_estatisticas_cobertura: buffer sobre o caminho simplificado
+CREATE OR REPLACE FUNCTION obter_estatisticas_cobertura(
+    rota_id_param BIGINT,
+    buffer_metros_param DOUBLE PRECISION,
+    trajeto_id_param BIGINT DEFAULT NULL
+)
+RETURNS json AS $$
+DECLARE
+area_planejada geometry;
+    geometria_trajetos_cobertos geometry;
+    area_total_m2 DOUBLE PRECISION;
+    area_coberta_m2 DOUBLE PRECISION;
+    area_nao_coberta_m2 DOUBLE PRECISION;
+    percentual_cobertura DOUBLE PRECISION;
+    quantidade_trajetos INTEGER;
+BEGIN
+SELECT area_geografica INTO area_planejada
+FROM tb_rota
+WHERE id = rota_id_param;
+
+IF area_planejada IS NULL THEN
+        RETURN json_build_object(
+            'area_total_m2', 0,
+            'area_coberta_m2', 0,
+            'area_nao_coberta_m2', 0,
+            'percentual_cobertura', 0,
+            'quantidade_trajetos', 0
+        );
+END IF;
+
+    -- CORREÇÃO: ST_Area deve ser calculado após a transformação para 3857 (metros)
+    area_total_m2 := ST_Area(ST_Transform(area_planejada, 3857));
+
+    -- CORREÇÃO: Usando nomes corretos: tabela 'trajeto', coluna 'caminho', ST_Transform
+SELECT ST_Union(
+               ST_Transform(
+                       ST_Buffer(
+                               ST_Transform(caminho_para_buffer(t.id, t.caminho, buffer_metros_param), 3857),
+                               buffer_metros_param
+                       ),
+                       4326
+               )
+       )
+INTO geometria_trajetos_cobertos
+FROM trajeto t
+WHERE t.rota_id = rota_id_param
+  AND (trajeto_id_param IS NULL OR t.id = trajeto_id_param) -- FILTRO DE TRAJETO
+  AND (trajeto_id_param IS NOT NULL OR t.status = 'FINALIZADO'); -- LÓGICA DE STATUS
+
+IF geometria_trajetos_cobertos IS NULL THEN
+        area_coberta_m2 := 0;
+ELSE
+        -- CORREÇÃO: ST_Area da interseção deve ser calculado após a transformação para 3857 (metros)
+        area_coberta_m2 := ST_Area(ST_Intersection(
+            ST_Transform(area_planejada, 3857),
+            ST_Transform(geometria_trajetos_cobertos, 3857)
+        ));
+END IF;
+
+    area_nao_coberta_m2 := area_total_m2 - area_coberta_m2;
+    percentual_cobertura := (area_coberta_m2 / area_total_m2) * 100;
+
+    -- Contar a quantidade de trajetos usados no cálculo
+SELECT COUNT(t.id) INTO quantidade_trajetos
+FROM trajeto t
+WHERE t.rota_id = rota_id_param
+  AND (trajeto_id_param IS NULL OR t.id = trajeto_id_param)
+  AND (trajeto_id_param IS NOT NULL OR t.status = 'FINALIZADO');
+
+RETURN json_build_object(
+        'area_total_m2', area_total_m2,
+        'area_coberta_m2', area_coberta_m2,
+        'area_nao_coberta_m2', area_nao_coberta_m2,
+        'percentual_cobertura', percentual_cobertura,
+        'quantidade_trajetos', quantidade_trajetos
+       );
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,7 @@
+-- V1.25__ponto_trajeto_indice_keyset.sql
+-- Índice para o feed incremental de pontos, paginado por (horario, id):
+-- WHERE trajeto_id = ? AND (horario, id) > (?, ?) ORDER BY horario, id LIMIT ?
+-- vira uma varredura de intervalo que lê só os pontos novos.
+
+CREATE INDEX IF NOT EXISTS idx_ponto_trajeto_trajeto_horario_id
+    ON ponto_trajeto (trajeto_id, horario, id);
@@ -0,0 +1,87 @@
+-- V1.26__ponto_trajeto_particionada.sql
+-- ponto_trajeto passa a ser particionada por mês em horario (RANGE).
+-- Partições: ponto_trajeto_AAAA_MM, criadas com antecedência pelo PontoTrajetoParticaoJob;
+-- ponto_trajeto_padrao recebe pontos fora das partições existentes (ex.: relógio do aparelho errado).
+-- A chave primária passa a ser (id, horario), pois toda restrição única precisa incluir a
+-- coluna de particionamento; o id continua vindo da mesma sequência.
+
+-- 1. Tirar a tabela atual do caminho, liberando os nomes dos índices
+ALTER TABLE ponto_trajeto RENAME TO ponto_trajeto_legado;
+ALTER INDEX ponto_trajeto_pkey RENAME TO ponto_trajeto_legado_pkey;
+DROP INDEX uk_ponto_trajeto_trajeto_horario;
+DROP INDEX idx_ponto_trajeto_trajeto_horario_id;
+
+-- 2. Tabela particionada
+CREATE TABLE ponto_trajeto (
+    id BIGINT NOT NULL DEFAULT nextval('ponto_trajeto_id_seq'),
+    trajeto_id BIGINT NOT NULL,
+    localizacao geometry(Point, 4326) NOT NULL,
+    horario TIMESTAMP NOT NULL,
+    observacao TEXT,
+
+    CONSTRAINT ponto_trajeto_pkey PRIMARY KEY (id, horario),
+    CONSTRAINT fk_ponto_trajeto_trajeto
+        FOREIGN KEY (trajeto_id)
+            REFERENCES trajeto (id)
+            ON DELETE CASCADE
+) PARTITION BY RANGE (horario);
+
+-- a sequência passa a pertencer à nova tabela (pg_get_serial_sequence continua funcionando
+-- e ela não é removida junto com a tabela antiga)
+ALTER SEQUENCE ponto_trajeto_id_seq OWNED BY ponto_trajeto.id;
+
+CREATE UNIQUE INDEX uk_ponto_trajeto_trajeto_horario ON ponto_trajeto (trajeto_id, horario);
+CREATE INDEX idx_ponto_trajeto_trajeto_horario_id ON ponto_trajeto (trajeto_id, horario, id);
+
+CREATE TABLE ponto_trajeto_padrao PARTITION OF ponto_trajeto DEFAULT;
+
+-- 3. Cria a partição do mês informado, se ainda não existir.
+--    Pontos desse mês que tenham caído na partição padrão são movidos para a nova partição
+--    (o ATTACH falharia com eles lá). Retorna o nome da partição criada, ou NULL.
+CREATE OR REPLACE FUNCTION criar_particao_ponto_trajeto(mes DATE)
+RETURNS TEXT AS $$
+DECLARE
+    inicio DATE := date_trunc('month', mes)::date;
+    fim DATE := (date_trunc('month', mes) + INTERVAL '1 month')::date;
+    nome TEXT := 'ponto_trajeto_' || to_char(date_trunc('month', mes), 'YYYY_MM');
+BEGIN
+    IF to_regclass(nome) IS NOT NULL THEN
+        RETURN NULL;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE ponto_trajeto INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', nome);
+
+    EXECUTE format(
+        'WITH movidos AS (DELETE FROM ponto_trajeto_padrao WHERE horario >= %L AND horario < %L RETURNING *) ' ||
+        'INSERT INTO %I SELECT * FROM movidos',
+        inicio, fim, nome);
+
+    -- índices e a chave estrangeira da tabela pai são criados na partição pelo ATTACH
+    EXECUTE format('ALTER TABLE ponto_trajeto ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+        nome, inicio, fim);
+
+    RETURN nome;
+END;
+$$ LANGUAGE plpgsql;
+
+-- 4. Partições para os meses com pontos (últimos 5 anos) e para os próximos 3 meses
+SELECT criar_particao_ponto_trajeto(m.mes)
+FROM (
+    SELECT DISTINCT date_trunc('month', horario)::date AS mes
+    FROM ponto_trajeto_legado
+    WHERE horario >= date_trunc('month', now()) - INTERVAL '5 years'
+      AND horario < date_trunc('month', now()) + INTERVAL '4 months'
+    UNION
+    SELECT generate_series(date_trunc('month', now()), date_trunc('month', now()) + INTERVAL '3 months',
+                           INTERVAL '1 month')::date
+) m
+ORDER BY m.mes;
+
+-- 5. Copiar os pontos e remover a tabela antiga
+INSERT INTO ponto_trajeto (id, trajeto_id, localizacao, horario, observacao)
+SELECT id, trajeto_id, localizacao, horario, observacao
+FROM ponto_trajeto_legado;
+
+DROP TABLE ponto_trajeto_legado;
+
+ANALYZE ponto_trajeto;
@@ -0,0 +1,7 @@
+-- V1.27__trajeto_pontos_arquivo.sql
+-- Arquivamento dos pontos de trajetos finalizados antigos no MinIO.
+-- pontos_arquivo é o nome do objeto com os pontos compactados; quando preenchido,
+-- os pontos do trajeto não estão mais em ponto_trajeto (exceto os recebidos depois).
+
+ALTER TABLE trajeto ADD COLUMN pontos_arquivo VARCHAR(255);
+ALTER TABLE trajeto ADD COLUMN pontos_arquivados_em TIMESTAMP;
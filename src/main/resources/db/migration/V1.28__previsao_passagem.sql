@@ -0,0 +1,103 @@
+-- V1.28__previsao_passagem.sql
+-- Previsão de passagem do caminhão por endereço, aprendida dos trajetos finalizados.
+-- A cidade é dividida em células de 150 unidades de EPSG:3857 (~135 m na latitude da cidade);
+-- para cada trajeto finalizado guarda-se a primeira passagem por célula, e para cada rota
+-- as estatísticas dessas passagens nos trajetos mais recentes. A consulta do morador lê
+-- só as células ao redor do endereço, sem percorrer o histórico de pontos.
+
+CREATE TABLE passagem_celula (
+    trajeto_id BIGINT NOT NULL REFERENCES trajeto(id) ON DELETE CASCADE,
+    rota_id BIGINT NOT NULL,
+    celula_x INTEGER NOT NULL,
+    celula_y INTEGER NOT NULL,
+    horario TIMESTAMP NOT NULL,
+    minutos_desde_inicio DOUBLE PRECISION NOT NULL,
+    PRIMARY KEY (trajeto_id, celula_x, celula_y)
+);
+
+CREATE INDEX idx_passagem_celula_rota ON passagem_celula (rota_id, trajeto_id);
+
+-- minuto_dia_*: horário do dia da passagem, em minutos desde a meia-noite
+-- minutos_inicio_*: tempo desde o primeiro ponto do trajeto até a passagem
+CREATE TABLE previsao_passagem_celula (
+    rota_id BIGINT NOT NULL REFERENCES tb_rota(id) ON DELETE CASCADE,
+    celula_x INTEGER NOT NULL,
+    celula_y INTEGER NOT NULL,
+    amostras INTEGER NOT NULL,
+    minuto_dia_p10 DOUBLE PRECISION NOT NULL,
+    minuto_dia_mediano DOUBLE PRECISION NOT NULL,
+    minuto_dia_p90 DOUBLE PRECISION NOT NULL,
+    minutos_inicio_p10 DOUBLE PRECISION NOT NULL,
+    minutos_inicio_mediano DOUBLE PRECISION NOT NULL,
+    minutos_inicio_p90 DOUBLE PRECISION NOT NULL,
+    atualizado_em TIMESTAMP NOT NULL DEFAULT now(),
+    PRIMARY KEY (rota_id, celula_x, celula_y)
+);
+
+-- Refaz as passagens por célula de um trajeto a partir dos seus pontos.
+CREATE OR REPLACE FUNCTION registrar_passagens_trajeto(trajeto_id_param BIGINT)
+RETURNS INTEGER AS $$
+DECLARE
+    registradas INTEGER;
+BEGIN
+    DELETE FROM passagem_celula WHERE trajeto_id = trajeto_id_param;
+
+    INSERT INTO passagem_celula (trajeto_id, rota_id, celula_x, celula_y, horario, minutos_desde_inicio)
+    SELECT c.trajeto_id, c.rota_id, c.celula_x, c.celula_y, min(c.horario),
+           EXTRACT(EPOCH FROM min(c.horario) - c.inicio) / 60
+    FROM (
+        SELECT t.id AS trajeto_id, t.rota_id, t.horario_primeiro_ponto AS inicio, p.horario,
+               floor(ST_X(ST_Transform(p.localizacao, 3857)) / 150)::INTEGER AS celula_x,
+               floor(ST_Y(ST_Transform(p.localizacao, 3857)) / 150)::INTEGER AS celula_y
+        FROM trajeto t
+        JOIN ponto_trajeto p ON p.trajeto_id = t.id
+             AND p.horario BETWEEN t.horario_primeiro_ponto AND t.horario_ultimo_ponto
+        WHERE t.id = trajeto_id_param
+    ) c
+    GROUP BY c.trajeto_id, c.rota_id, c.inicio, c.celula_x, c.celula_y;
+
+    GET DIAGNOSTICS registradas = ROW_COUNT;
+    RETURN registradas;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Recalcula as estatísticas da rota sobre os seus trajetos finalizados mais recentes.
+CREATE OR REPLACE FUNCTION atualizar_previsao_rota(rota_id_param BIGINT, trajetos_param INTEGER)
+RETURNS INTEGER AS $$
+DECLARE
+    celulas INTEGER;
+BEGIN
+    DELETE FROM previsao_passagem_celula WHERE rota_id = rota_id_param;
+
+    INSERT INTO previsao_passagem_celula (
+        rota_id, celula_x, celula_y, amostras,
+        minuto_dia_p10, minuto_dia_mediano, minuto_dia_p90,
+        minutos_inicio_p10, minutos_inicio_mediano, minutos_inicio_p90)
+    SELECT pc.rota_id, pc.celula_x, pc.celula_y, count(*),
+           percentile_cont(0.1) WITHIN GROUP (ORDER BY EXTRACT(EPOCH FROM pc.horario::TIME) / 60),
+           percentile_cont(0.5) WITHIN GROUP (ORDER BY EXTRACT(EPOCH FROM pc.horario::TIME) / 60),
+           percentile_cont(0.9) WITHIN GROUP (ORDER BY EXTRACT(EPOCH FROM pc.horario::TIME) / 60),
+           percentile_cont(0.1) WITHIN GROUP (ORDER BY pc.minutos_desde_inicio),
+           percentile_cont(0.5) WITHIN GROUP (ORDER BY pc.minutos_desde_inicio),
+           percentile_cont(0.9) WITHIN GROUP (ORDER BY pc.minutos_desde_inicio)
+    FROM passagem_celula pc
+    WHERE pc.rota_id = rota_id_param
+      AND pc.trajeto_id IN (
+          SELECT t.id FROM trajeto t
+          WHERE t.rota_id = rota_id_param AND t.status = 'FINALIZADO'
+          ORDER BY t.data_fim DESC NULLS LAST
+          LIMIT trajetos_param)
+    GROUP BY pc.rota_id, pc.celula_x, pc.celula_y;
+
+    GET DIAGNOSTICS celulas = ROW_COUNT;
+    RETURN celulas;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Carga inicial com os trajetos finalizados existentes
+SELECT registrar_passagens_trajeto(t.id)
+FROM trajeto t
+WHERE t.status = 'FINALIZADO' AND t.horario_primeiro_ponto IS NOT NULL;
+
+SELECT atualizar_previsao_rota(r.rota_id, 20)
+FROM (SELECT DISTINCT rota_id FROM passagem_celula) r;
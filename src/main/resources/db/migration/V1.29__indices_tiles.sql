@@ -0,0 +1,11 @@
+-- V1.29__indices_tiles.sql
+-- Índices espaciais usados pelos tiles vetoriais do mapa (TileService): cada tile
+-- filtra as geometrias pelo envelope, com &&.
+
+CREATE INDEX IF NOT EXISTS idx_trajeto_caminho ON trajeto USING GIST (caminho);
+
+-- incidente guarda latitude/longitude em colunas numéricas; o índice é sobre a mesma
+-- expressão usada na consulta dos tiles
+CREATE INDEX IF NOT EXISTS idx_incidente_localizacao ON incidente
+    USING GIST (ST_SetSRID(ST_MakePoint(longitude, latitude), 4326))
+    WHERE latitude IS NOT NULL AND longitude IS NOT NULL;
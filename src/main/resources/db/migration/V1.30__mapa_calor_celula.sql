@@ -0,0 +1,37 @@
+-- V1.30__mapa_calor_celula.sql
+-- Agregado diário dos pontos GPS em uma grade hierárquica, para o mapa de calor.
+-- As células são as da grade de tiles XYZ (Web Mercator) nos níveis 14, 16, 18 e 20:
+-- a célula (x, y) do nível n contém as células (x*4..x*4+3, y*4..y*4+3) do nível n+2.
+-- pontos: quantidade de pontos na célula
+-- permanencia_segundos: tempo entre cada ponto e o seguinte do mesmo trajeto, atribuído
+--   à célula do primeiro; intervalos acima de 120 s (falha de sinal, aplicativo fechado)
+--   não contam. Mantido pela ingestão (MapaCalorService).
+
+CREATE TABLE mapa_calor_celula (
+    nivel SMALLINT NOT NULL,
+    dia DATE NOT NULL,
+    celula_x INTEGER NOT NULL,
+    celula_y INTEGER NOT NULL,
+    rota_id BIGINT NOT NULL,
+    pontos BIGINT NOT NULL,
+    permanencia_segundos DOUBLE PRECISION NOT NULL,
+    PRIMARY KEY (nivel, dia, celula_x, celula_y, rota_id)
+);
+
+-- Carga inicial com os pontos existentes
+INSERT INTO mapa_calor_celula (nivel, dia, celula_x, celula_y, rota_id, pontos, permanencia_segundos)
+SELECT n.nivel, c.horario::DATE,
+       floor((ST_X(c.g) + 20037508.342789244) / (40075016.68557849 / 2 ^ n.nivel))::INTEGER,
+       floor((20037508.342789244 - ST_Y(c.g)) / (40075016.68557849 / 2 ^ n.nivel))::INTEGER,
+       c.rota_id,
+       count(*),
+       COALESCE(sum(EXTRACT(EPOCH FROM c.prox - c.horario))
+                FILTER (WHERE c.prox - c.horario <= INTERVAL '120 seconds'), 0)
+FROM (
+    SELECT ST_Transform(p.localizacao, 3857) AS g, p.horario, t.rota_id,
+           LEAD(p.horario) OVER (PARTITION BY p.trajeto_id ORDER BY p.horario, p.id) AS prox
+    FROM ponto_trajeto p
+    JOIN trajeto t ON t.id = p.trajeto_id
+) c
+CROSS JOIN unnest(ARRAY[14, 16, 18, 20]) AS n(nivel)
+GROUP BY 1, 2, 3, 4, 5;
@@ -0,0 +1,64 @@
+-- V1.31__calcular_cobertura_rota.sql
+-- Cobertura da rota em uma única passada: áreas não percorridas (GeoJSON) e estatísticas
+-- na mesma linha. Antes, calcular_areas_nao_percorridas e obter_estatisticas_cobertura
+-- carregavam a rota e faziam o ST_Union dos buffers dos trajetos cada uma por conta própria.
+--
+-- Tudo é feito em 3857: a união dos buffers não volta para 4326 e só a diferença final é
+-- transformada para o GeoJSON. A área coberta sai da própria diferença
+-- (área total - área não coberta), sem um ST_Intersection separado.
+
+ALTER FUNCTION simplificar_caminho(geometry, DOUBLE PRECISION) PARALLEL SAFE;
+ALTER FUNCTION caminho_para_buffer(BIGINT, geometry, DOUBLE PRECISION) PARALLEL SAFE;
+
+CREATE OR REPLACE FUNCTION calcular_cobertura_rota(
+    rota_id_param BIGINT,
+    buffer_metros_param DOUBLE PRECISION,
+    trajeto_id_param BIGINT DEFAULT NULL
+)
+RETURNS TABLE (areas_nao_cobertas TEXT, estatisticas JSON) AS $$
+    WITH area AS (
+        SELECT ST_Transform(r.area_geografica, 3857) AS planejada
+        FROM tb_rota r
+        WHERE r.id = rota_id_param
+          AND r.area_geografica IS NOT NULL
+    ),
+    trajetos AS (
+        SELECT ST_Union(
+                       ST_Buffer(
+                               ST_Transform(caminho_para_buffer(t.id, t.caminho, buffer_metros_param), 3857),
+                               buffer_metros_param
+                       )
+               ) AS cobertos,
+               count(*) AS quantidade
+        FROM trajeto t
+        WHERE t.rota_id = rota_id_param
+          AND (trajeto_id_param IS NULL OR t.id = trajeto_id_param)
+          AND (trajeto_id_param IS NOT NULL OR t.status = 'FINALIZADO')
+    ),
+    diferenca AS (
+        SELECT a.planejada,
+               COALESCE(ST_Difference(a.planejada, tr.cobertos), a.planejada) AS nao_cobertas,
+               tr.quantidade
+        FROM area a CROSS JOIN trajetos tr
+    ),
+    calculo AS (
+        SELECT d.nao_cobertas,
+               ST_Area(d.planejada) AS area_total_m2,
+               ST_Area(d.nao_cobertas) AS area_nao_coberta_m2,
+               d.quantidade
+        FROM diferenca d
+    )
+    -- sem área geográfica: GeoJSON nulo e estatísticas zeradas, como nas funções anteriores
+    SELECT ST_AsGeoJSON(ST_Transform(c.nao_cobertas, 4326)),
+           json_build_object(
+                   'area_total_m2', COALESCE(c.area_total_m2, 0),
+                   'area_coberta_m2', COALESCE(c.area_total_m2 - c.area_nao_coberta_m2, 0),
+                   'area_nao_coberta_m2', COALESCE(c.area_nao_coberta_m2, 0),
+                   'percentual_cobertura', CASE WHEN c.area_total_m2 > 0
+                                                THEN (c.area_total_m2 - c.area_nao_coberta_m2) / c.area_total_m2 * 100
+                                                ELSE 0 END,
+                   'quantidade_trajetos', COALESCE(c.quantidade, 0)
+           )
+    FROM (SELECT 1) um
+    LEFT JOIN calculo c ON true
+$$ LANGUAGE sql STABLE PARALLEL SAFE;
@@ -0,0 +1,207 @@
+-- V1.32__rota_cobertura.sql
+-- Área coberta de cada rota guardada pronta: a união dos buffers dos trajetos finalizados,
+-- em EPSG:3857, por rota e buffer (rota_cobertura) e também por dia de início do trajeto
+-- (rota_cobertura_dia). Só os buffers configurados em app.cobertura.buffers-materializados-metros
+-- são mantidos; os demais continuam calculados na hora.
+--
+-- Ao finalizar um trajeto, só o buffer dele é unido ao que já está guardado
+-- (acumular_rota_cobertura). Se um trajeto já incluído deixa de ser finalizado, a rota é
+-- reconstruída do zero (reconstruir_rota_cobertura). rota_cobertura_trajeto registra quais
+-- trajetos já foram incluídos.
+
+CREATE TABLE rota_cobertura (
+    rota_id BIGINT NOT NULL REFERENCES tb_rota(id) ON DELETE CASCADE,
+    buffer_metros DOUBLE PRECISION NOT NULL,
+    cobertura geometry(Geometry, 3857),
+    atualizado_em TIMESTAMP NOT NULL DEFAULT now(),
+    PRIMARY KEY (rota_id, buffer_metros)
+);
+
+CREATE TABLE rota_cobertura_dia (
+    rota_id BIGINT NOT NULL REFERENCES tb_rota(id) ON DELETE CASCADE,
+    buffer_metros DOUBLE PRECISION NOT NULL,
+    dia DATE NOT NULL,
+    cobertura geometry(Geometry, 3857) NOT NULL,
+    quantidade_trajetos INTEGER NOT NULL,
+    PRIMARY KEY (rota_id, buffer_metros, dia)
+);
+
+CREATE TABLE rota_cobertura_trajeto (
+    trajeto_id BIGINT PRIMARY KEY REFERENCES trajeto(id) ON DELETE CASCADE,
+    rota_id BIGINT NOT NULL
+);
+
+CREATE INDEX idx_rota_cobertura_trajeto_rota ON rota_cobertura_trajeto (rota_id);
+
+-- Faixa coberta por um trajeto, em 3857
+CREATE OR REPLACE FUNCTION buffer_cobertura_trajeto(
+    trajeto_id_param BIGINT,
+    caminho_param geometry,
+    buffer_metros_param DOUBLE PRECISION
+)
+RETURNS geometry AS $$
+    SELECT ST_Buffer(
+                   ST_Transform(caminho_para_buffer(trajeto_id_param, caminho_param, buffer_metros_param), 3857),
+                   buffer_metros_param
+           )
+$$ LANGUAGE sql STABLE PARALLEL SAFE;
+
+-- Refaz, a partir dos trajetos finalizados, a cobertura da rota nos buffers informados
+CREATE OR REPLACE FUNCTION reconstruir_rota_cobertura(
+    rota_id_param BIGINT,
+    buffers_metros_param DOUBLE PRECISION[]
+)
+RETURNS void AS $$
+BEGIN
+    -- serializa a manutenção da mesma rota (finalizações simultâneas)
+    PERFORM pg_advisory_xact_lock(hashtext('rota_cobertura'), rota_id_param::INTEGER);
+
+    DELETE FROM rota_cobertura WHERE rota_id = rota_id_param AND buffer_metros = ANY(buffers_metros_param);
+    DELETE FROM rota_cobertura_dia WHERE rota_id = rota_id_param AND buffer_metros = ANY(buffers_metros_param);
+    DELETE FROM rota_cobertura_trajeto WHERE rota_id = rota_id_param;
+
+    INSERT INTO rota_cobertura_dia (rota_id, buffer_metros, dia, cobertura, quantidade_trajetos)
+    SELECT rota_id_param, b, t.data_inicio::DATE, ST_Union(buffer_cobertura_trajeto(t.id, t.caminho, b)), count(*)
+    FROM trajeto t
+    CROSS JOIN unnest(buffers_metros_param) b
+    WHERE t.rota_id = rota_id_param
+      AND t.status = 'FINALIZADO'
+      AND t.caminho IS NOT NULL
+    GROUP BY b, t.data_inicio::DATE;
+
+    INSERT INTO rota_cobertura (rota_id, buffer_metros, cobertura)
+    SELECT rota_id_param, b, ST_Union(d.cobertura)
+    FROM unnest(buffers_metros_param) b
+    LEFT JOIN rota_cobertura_dia d ON d.rota_id = rota_id_param AND d.buffer_metros = b
+    GROUP BY b;
+
+    INSERT INTO rota_cobertura_trajeto (trajeto_id, rota_id)
+    SELECT t.id, t.rota_id
+    FROM trajeto t
+    WHERE t.rota_id = rota_id_param
+      AND t.status = 'FINALIZADO'
+      AND t.caminho IS NOT NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Une o buffer do trajeto finalizado à cobertura guardada da rota. Chamado de novo quando o
+-- trajeto recebe pontos depois de finalizado: a união é idempotente e a contagem não muda.
+CREATE OR REPLACE FUNCTION acumular_rota_cobertura(
+    trajeto_id_param BIGINT,
+    buffers_metros_param DOUBLE PRECISION[]
+)
+RETURNS void AS $$
+DECLARE
+    t RECORD;
+    inseridos INTEGER;
+BEGIN
+    SELECT tr.rota_id, tr.data_inicio::DATE AS dia, tr.caminho, tr.status INTO t
+    FROM trajeto tr
+    WHERE tr.id = trajeto_id_param;
+
+    IF NOT FOUND OR t.status <> 'FINALIZADO' OR t.caminho IS NULL THEN
+        RETURN;
+    END IF;
+
+    PERFORM pg_advisory_xact_lock(hashtext('rota_cobertura'), t.rota_id::INTEGER);
+
+    -- buffer ainda sem cobertura guardada nessa rota: precisa do histórico inteiro
+    IF EXISTS (SELECT 1 FROM unnest(buffers_metros_param) b
+               WHERE NOT EXISTS (SELECT 1 FROM rota_cobertura c
+                                 WHERE c.rota_id = t.rota_id AND c.buffer_metros = b)) THEN
+        PERFORM reconstruir_rota_cobertura(t.rota_id, buffers_metros_param);
+        RETURN;
+    END IF;
+
+    INSERT INTO rota_cobertura_trajeto (trajeto_id, rota_id)
+    VALUES (trajeto_id_param, t.rota_id)
+    ON CONFLICT (trajeto_id) DO NOTHING;
+    GET DIAGNOSTICS inseridos = ROW_COUNT;
+
+    UPDATE rota_cobertura c
+    SET cobertura = CASE WHEN c.cobertura IS NULL
+                         THEN buffer_cobertura_trajeto(trajeto_id_param, t.caminho, c.buffer_metros)
+                         ELSE ST_Union(c.cobertura, buffer_cobertura_trajeto(trajeto_id_param, t.caminho, c.buffer_metros))
+                    END,
+        atualizado_em = now()
+    WHERE c.rota_id = t.rota_id
+      AND c.buffer_metros = ANY(buffers_metros_param);
+
+    INSERT INTO rota_cobertura_dia (rota_id, buffer_metros, dia, cobertura, quantidade_trajetos)
+    SELECT t.rota_id, b, t.dia, buffer_cobertura_trajeto(trajeto_id_param, t.caminho, b), 1
+    FROM unnest(buffers_metros_param) b
+    ON CONFLICT (rota_id, buffer_metros, dia) DO UPDATE
+    SET cobertura = ST_Union(rota_cobertura_dia.cobertura, EXCLUDED.cobertura),
+        quantidade_trajetos = rota_cobertura_dia.quantidade_trajetos + inseridos;
+END;
+$$ LANGUAGE plpgsql;
+
+-- calcular_cobertura_rota: usa a cobertura guardada quando há uma para a rota e o buffer
+-- (cálculo de todos os trajetos finalizados); com trajeto específico ou outro buffer, une na hora.
+CREATE OR REPLACE FUNCTION calcular_cobertura_rota(
+    rota_id_param BIGINT,
+    buffer_metros_param DOUBLE PRECISION,
+    trajeto_id_param BIGINT DEFAULT NULL
+)
+RETURNS TABLE (areas_nao_cobertas TEXT, estatisticas JSON) AS $$
+    WITH area AS (
+        SELECT ST_Transform(r.area_geografica, 3857) AS planejada
+        FROM tb_rota r
+        WHERE r.id = rota_id_param
+          AND r.area_geografica IS NOT NULL
+    ),
+    guardada AS (
+        SELECT c.cobertura
+        FROM rota_cobertura c
+        WHERE trajeto_id_param IS NULL
+          AND c.rota_id = rota_id_param
+          AND c.buffer_metros = buffer_metros_param
+    ),
+    uniao AS (
+        SELECT ST_Union(buffer_cobertura_trajeto(t.id, t.caminho, buffer_metros_param)) AS cobertos
+        FROM trajeto t
+        WHERE t.rota_id = rota_id_param
+          AND (trajeto_id_param IS NULL OR t.id = trajeto_id_param)
+          AND (trajeto_id_param IS NOT NULL OR t.status = 'FINALIZADO')
+          AND NOT EXISTS (SELECT 1 FROM guardada)
+    ),
+    quantidade AS (
+        SELECT count(*) AS quantidade
+        FROM trajeto t
+        WHERE t.rota_id = rota_id_param
+          AND (trajeto_id_param IS NULL OR t.id = trajeto_id_param)
+          AND (trajeto_id_param IS NOT NULL OR t.status = 'FINALIZADO')
+    ),
+    diferenca AS (
+        SELECT a.planejada,
+               COALESCE(ST_Difference(a.planejada, COALESCE((SELECT g.cobertura FROM guardada g), u.cobertos)),
+                        a.planejada) AS nao_cobertas,
+               q.quantidade
+        FROM area a CROSS JOIN uniao u CROSS JOIN quantidade q
+    ),
+    calculo AS (
+        SELECT d.nao_cobertas,
+               ST_Area(d.planejada) AS area_total_m2,
+               ST_Area(d.nao_cobertas) AS area_nao_coberta_m2,
+               d.quantidade
+        FROM diferenca d
+    )
+    -- sem área geográfica: GeoJSON nulo e estatísticas zeradas, como nas funções anteriores
+    SELECT ST_AsGeoJSON(ST_Transform(c.nao_cobertas, 4326)),
+           json_build_object(
+                   'area_total_m2', COALESCE(c.area_total_m2, 0),
+                   'area_coberta_m2', COALESCE(c.area_total_m2 - c.area_nao_coberta_m2, 0),
+                   'area_nao_coberta_m2', COALESCE(c.area_nao_coberta_m2, 0),
+                   'percentual_cobertura', CASE WHEN c.area_total_m2 > 0
+                                                THEN (c.area_total_m2 - c.area_nao_coberta_m2) / c.area_total_m2 * 100
+                                                ELSE 0 END,
+                   'quantidade_trajetos', COALESCE(c.quantidade, 0)
+           )
+    FROM (SELECT 1) um
+    LEFT JOIN calculo c ON true
+$$ LANGUAGE sql STABLE PARALLEL SAFE;
+
+-- Carga inicial no buffer padrão (20 m)
+SELECT reconstruir_rota_cobertura(r.id, ARRAY[20]::DOUBLE PRECISION[])
+FROM tb_rota r
+WHERE EXISTS (SELECT 1 FROM trajeto t WHERE t.rota_id = r.id AND t.status = 'FINALIZADO');
@@ -0,0 +1,74 @@
+-- V1.33__calcular_cobertura_rota_dia.sql
+-- Estatísticas de cobertura de uma rota considerando só os trajetos finalizados iniciados em
+-- um dia, para o relatório diário de todas as rotas ativas.
+--
+-- Quando a rota tem cobertura guardada no buffer (rota_cobertura), rota_cobertura_dia está
+-- completa para ela: a linha do dia é usada direto e a falta dela significa nada coberto.
+-- Sem cobertura guardada, os buffers dos trajetos do dia são unidos na hora.
+
+CREATE OR REPLACE FUNCTION calcular_cobertura_rota_dia(
+    rota_id_param BIGINT,
+    buffer_metros_param DOUBLE PRECISION,
+    dia_param DATE
+)
+RETURNS JSON AS $$
+    WITH area AS (
+        SELECT ST_Transform(r.area_geografica, 3857) AS planejada
+        FROM tb_rota r
+        WHERE r.id = rota_id_param
+          AND r.area_geografica IS NOT NULL
+    ),
+    materializada AS (
+        SELECT EXISTS (SELECT 1 FROM rota_cobertura c
+                       WHERE c.rota_id = rota_id_param
+                         AND c.buffer_metros = buffer_metros_param) AS existe
+    ),
+    guardada AS (
+        SELECT d.cobertura
+        FROM rota_cobertura_dia d
+        WHERE d.rota_id = rota_id_param
+          AND d.buffer_metros = buffer_metros_param
+          AND d.dia = dia_param
+    ),
+    uniao AS (
+        SELECT CASE WHEN m.existe
+                    THEN (SELECT g.cobertura FROM guardada g)
+                    ELSE (SELECT ST_Union(buffer_cobertura_trajeto(t.id, t.caminho, buffer_metros_param))
+                          FROM trajeto t
+                          WHERE t.rota_id = rota_id_param
+                            AND t.status = 'FINALIZADO'
+                            AND t.data_inicio >= dia_param
+                            AND t.data_inicio < dia_param + 1)
+               END AS cobertos
+        FROM materializada m
+    ),
+    quantidade AS (
+        SELECT count(*) AS quantidade
+        FROM trajeto t
+        WHERE t.rota_id = rota_id_param
+          AND t.status = 'FINALIZADO'
+          AND t.data_inicio >= dia_param
+          AND t.data_inicio < dia_param + 1
+    ),
+    calculo AS (
+        SELECT ST_Area(a.planejada) AS area_total_m2,
+               ST_Area(COALESCE(ST_Difference(a.planejada, u.cobertos), a.planejada)) AS area_nao_coberta_m2,
+               q.quantidade
+        FROM area a CROSS JOIN uniao u CROSS JOIN quantidade q
+    )
+    -- mesmo formato de calcular_cobertura_rota; sem área geográfica, estatísticas zeradas
+    SELECT json_build_object(
+                   'area_total_m2', COALESCE(c.area_total_m2, 0),
+                   'area_coberta_m2', COALESCE(c.area_total_m2 - c.area_nao_coberta_m2, 0),
+                   'area_nao_coberta_m2', COALESCE(c.area_nao_coberta_m2, 0),
+                   'percentual_cobertura', CASE WHEN c.area_total_m2 > 0
+                                                THEN (c.area_total_m2 - c.area_nao_coberta_m2) / c.area_total_m2 * 100
+                                                ELSE 0 END,
+                   'quantidade_trajetos', COALESCE(c.quantidade, 0)
+           )
+    FROM (SELECT 1) um
+    LEFT JOIN calculo c ON true
+$$ LANGUAGE sql STABLE PARALLEL SAFE;
+
+-- trajetos de uma rota por dia de início
+CREATE INDEX IF NOT EXISTS idx_trajeto_rota_data_inicio ON trajeto (rota_id, data_inicio);
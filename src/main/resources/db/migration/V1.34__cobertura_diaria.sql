@@ -0,0 +1,61 @@
+-- V1.34__cobertura_diaria.sql
+-- Série diária de cobertura por rota: uma linha por rota, buffer e dia de início dos
+-- trajetos, com as mesmas estatísticas de calcular_cobertura_rota_dia. Os gráficos de
+-- tendência leem direto daqui.
+--
+-- O job noturno grava o dia anterior de todas as rotas ativas. Dados que chegam depois
+-- (trajeto finalizado, cancelado ou com pontos sincronizados com atraso) marcam o dia em
+-- cobertura_diaria_pendente, que é recalculado na próxima passada do job.
+
+CREATE TABLE cobertura_diaria (
+    rota_id BIGINT NOT NULL REFERENCES tb_rota(id) ON DELETE CASCADE,
+    buffer_metros DOUBLE PRECISION NOT NULL,
+    dia DATE NOT NULL,
+    area_total_m2 DOUBLE PRECISION NOT NULL,
+    area_coberta_m2 DOUBLE PRECISION NOT NULL,
+    area_nao_coberta_m2 DOUBLE PRECISION NOT NULL,
+    percentual_cobertura DOUBLE PRECISION NOT NULL,
+    quantidade_trajetos INTEGER NOT NULL,
+    atualizado_em TIMESTAMP NOT NULL DEFAULT now(),
+    PRIMARY KEY (rota_id, buffer_metros, dia)
+);
+
+CREATE TABLE cobertura_diaria_pendente (
+    rota_id BIGINT NOT NULL REFERENCES tb_rota(id) ON DELETE CASCADE,
+    dia DATE NOT NULL,
+    marcado_em TIMESTAMP NOT NULL DEFAULT now(),
+    PRIMARY KEY (rota_id, dia)
+);
+
+-- Grava (ou regrava) a cobertura da rota no dia para os buffers informados
+CREATE OR REPLACE FUNCTION atualizar_cobertura_diaria(
+    rota_id_param BIGINT,
+    buffers_metros_param DOUBLE PRECISION[],
+    dia_param DATE
+)
+RETURNS void AS $$
+    INSERT INTO cobertura_diaria (rota_id, buffer_metros, dia, area_total_m2, area_coberta_m2,
+                                  area_nao_coberta_m2, percentual_cobertura, quantidade_trajetos)
+    SELECT rota_id_param, b, dia_param,
+           (e.estatisticas->>'area_total_m2')::DOUBLE PRECISION,
+           (e.estatisticas->>'area_coberta_m2')::DOUBLE PRECISION,
+           (e.estatisticas->>'area_nao_coberta_m2')::DOUBLE PRECISION,
+           (e.estatisticas->>'percentual_cobertura')::DOUBLE PRECISION,
+           (e.estatisticas->>'quantidade_trajetos')::INTEGER
+    FROM unnest(buffers_metros_param) b
+    CROSS JOIN LATERAL calcular_cobertura_rota_dia(rota_id_param, b, dia_param) AS e(estatisticas)
+    ON CONFLICT (rota_id, buffer_metros, dia) DO UPDATE
+    SET area_total_m2 = EXCLUDED.area_total_m2,
+        area_coberta_m2 = EXCLUDED.area_coberta_m2,
+        area_nao_coberta_m2 = EXCLUDED.area_nao_coberta_m2,
+        percentual_cobertura = EXCLUDED.percentual_cobertura,
+        quantidade_trajetos = EXCLUDED.quantidade_trajetos,
+        atualizado_em = now()
+$$ LANGUAGE sql;
+
+-- Histórico: os dias com trajetos finalizados entram como pendentes e são gravados aos poucos
+INSERT INTO cobertura_diaria_pendente (rota_id, dia)
+SELECT DISTINCT t.rota_id, t.data_inicio::DATE
+FROM trajeto t
+WHERE t.status = 'FINALIZADO'
+  AND t.data_inicio < CURRENT_DATE;
@@ -0,0 +1,72 @@
+-- V1.35__cobertura_casas_decimais.sql
+-- calcular_cobertura_rota passa a receber as casas decimais das coordenadas do GeoJSON
+-- (app.geojson.casas-decimais), para o texto do PostGIS ir direto para a resposta com a
+-- mesma precisão das geometrias serializadas na aplicação. O corpo é o mesmo da V1.32.
+
+DROP FUNCTION IF EXISTS calcular_cobertura_rota(BIGINT, DOUBLE PRECISION, BIGINT);
+
+-- calcular_cobertura_rota: usa a cobertura guardada quando há uma para a rota e o buffer
+-- (cálculo de todos os trajetos finalizados); com trajeto específico ou outro buffer, une na hora.
+CREATE OR REPLACE FUNCTION calcular_cobertura_rota(
+    rota_id_param BIGINT,
+    buffer_metros_param DOUBLE PRECISION,
+    trajeto_id_param BIGINT DEFAULT NULL,
+    casas_decimais_param INTEGER DEFAULT 9
+)
+RETURNS TABLE (areas_nao_cobertas TEXT, estatisticas JSON) AS $$
+    WITH area AS (
+        SELECT ST_Transform(r.area_geografica, 3857) AS planejada
+        FROM tb_rota r
+        WHERE r.id = rota_id_param
+          AND r.area_geografica IS NOT NULL
+    ),
+    guardada AS (
+        SELECT c.cobertura
+        FROM rota_cobertura c
+        WHERE trajeto_id_param IS NULL
+          AND c.rota_id = rota_id_param
+          AND c.buffer_metros = buffer_metros_param
+    ),
+    uniao AS (
+        SELECT ST_Union(buffer_cobertura_trajeto(t.id, t.caminho, buffer_metros_param)) AS cobertos
+        FROM trajeto t
+        WHERE t.rota_id = rota_id_param
+          AND (trajeto_id_param IS NULL OR t.id = trajeto_id_param)
+          AND (trajeto_id_param IS NOT NULL OR t.status = 'FINALIZADO')
+          AND NOT EXISTS (SELECT 1 FROM guardada)
+    ),
+    quantidade AS (
+        SELECT count(*) AS quantidade
+        FROM trajeto t
+        WHERE t.rota_id = rota_id_param
+          AND (trajeto_id_param IS NULL OR t.id = trajeto_id_param)
+          AND (trajeto_id_param IS NOT NULL OR t.status = 'FINALIZADO')
+    ),
+    diferenca AS (
+        SELECT a.planejada,
+               COALESCE(ST_Difference(a.planejada, COALESCE((SELECT g.cobertura FROM guardada g), u.cobertos)),
+                        a.planejada) AS nao_cobertas,
+               q.quantidade
+        FROM area a CROSS JOIN uniao u CROSS JOIN quantidade q
+    ),
+    calculo AS (
+        SELECT d.nao_cobertas,
+               ST_Area(d.planejada) AS area_total_m2,
+               ST_Area(d.nao_cobertas) AS area_nao_coberta_m2,
+               d.quantidade
+        FROM diferenca d
+    )
+    -- sem área geográfica: GeoJSON nulo e estatísticas zeradas, como nas funções anteriores
+    SELECT ST_AsGeoJSON(ST_Transform(c.nao_cobertas, 4326), casas_decimais_param),
+           json_build_object(
+                   'area_total_m2', COALESCE(c.area_total_m2, 0),
+                   'area_coberta_m2', COALESCE(c.area_total_m2 - c.area_nao_coberta_m2, 0),
+                   'area_nao_coberta_m2', COALESCE(c.area_nao_coberta_m2, 0),
+                   'percentual_cobertura', CASE WHEN c.area_total_m2 > 0
+                                                THEN (c.area_total_m2 - c.area_nao_coberta_m2) / c.area_total_m2 * 100
+                                                ELSE 0 END,
+                   'quantidade_trajetos', COALESCE(c.quantidade, 0)
+           )
+    FROM (SELECT 1) um
+    LEFT JOIN calculo c ON true
+$$ LANGUAGE sql STABLE PARALLEL SAFE;
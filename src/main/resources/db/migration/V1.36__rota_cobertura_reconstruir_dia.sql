@@ -0,0 +1,148 @@
+-- V1.36__rota_cobertura_reconstruir_dia.sql
+-- Ajustes na manutenção de rota_cobertura (V1.32):
+--
+-- * o lock por rota usa a forma de um argumento bigint (a de dois argumentos int estourava
+--   com ids acima de 2^31);
+-- * reconstruir_rota_cobertura_dia refaz a cobertura de um dia e a união da rota. Um ponto
+--   atrasado no meio de um trajeto finalizado muda o traçado de um trecho, e unir o buffer
+--   novo ao guardado manteria o trecho antigo como coberto.
+
+-- Refaz, a partir dos trajetos finalizados, a cobertura da rota nos buffers informados
+CREATE OR REPLACE FUNCTION reconstruir_rota_cobertura(
+    rota_id_param BIGINT,
+    buffers_metros_param DOUBLE PRECISION[]
+)
+RETURNS void AS $$
+BEGIN
+    -- serializa a manutenção da mesma rota (finalizações simultâneas)
+    PERFORM pg_advisory_xact_lock(hashtextextended('rota_cobertura', rota_id_param));
+
+    DELETE FROM rota_cobertura WHERE rota_id = rota_id_param AND buffer_metros = ANY(buffers_metros_param);
+    DELETE FROM rota_cobertura_dia WHERE rota_id = rota_id_param AND buffer_metros = ANY(buffers_metros_param);
+    DELETE FROM rota_cobertura_trajeto WHERE rota_id = rota_id_param;
+
+    INSERT INTO rota_cobertura_dia (rota_id, buffer_metros, dia, cobertura, quantidade_trajetos)
+    SELECT rota_id_param, b, t.data_inicio::DATE, ST_Union(buffer_cobertura_trajeto(t.id, t.caminho, b)), count(*)
+    FROM trajeto t
+    CROSS JOIN unnest(buffers_metros_param) b
+    WHERE t.rota_id = rota_id_param
+      AND t.status = 'FINALIZADO'
+      AND t.caminho IS NOT NULL
+    GROUP BY b, t.data_inicio::DATE;
+
+    INSERT INTO rota_cobertura (rota_id, buffer_metros, cobertura)
+    SELECT rota_id_param, b, ST_Union(d.cobertura)
+    FROM unnest(buffers_metros_param) b
+    LEFT JOIN rota_cobertura_dia d ON d.rota_id = rota_id_param AND d.buffer_metros = b
+    GROUP BY b;
+
+    INSERT INTO rota_cobertura_trajeto (trajeto_id, rota_id)
+    SELECT t.id, t.rota_id
+    FROM trajeto t
+    WHERE t.rota_id = rota_id_param
+      AND t.status = 'FINALIZADO'
+      AND t.caminho IS NOT NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Une o buffer do trajeto finalizado à cobertura guardada da rota. Chamado de novo quando o
+-- trajeto finalizado recebe pontos só no fim do caminho: o traçado anterior não muda, a
+-- união é idempotente e a contagem não muda. Pontos no meio usam reconstruir_rota_cobertura_dia.
+CREATE OR REPLACE FUNCTION acumular_rota_cobertura(
+    trajeto_id_param BIGINT,
+    buffers_metros_param DOUBLE PRECISION[]
+)
+RETURNS void AS $$
+DECLARE
+    t RECORD;
+    inseridos INTEGER;
+BEGIN
+    SELECT tr.rota_id, tr.data_inicio::DATE AS dia, tr.caminho, tr.status INTO t
+    FROM trajeto tr
+    WHERE tr.id = trajeto_id_param;
+
+    IF NOT FOUND OR t.status <> 'FINALIZADO' OR t.caminho IS NULL THEN
+        RETURN;
+    END IF;
+
+    PERFORM pg_advisory_xact_lock(hashtextextended('rota_cobertura', t.rota_id));
+
+    -- buffer ainda sem cobertura guardada nessa rota: precisa do histórico inteiro
+    IF EXISTS (SELECT 1 FROM unnest(buffers_metros_param) b
+               WHERE NOT EXISTS (SELECT 1 FROM rota_cobertura c
+                                 WHERE c.rota_id = t.rota_id AND c.buffer_metros = b)) THEN
+        PERFORM reconstruir_rota_cobertura(t.rota_id, buffers_metros_param);
+        RETURN;
+    END IF;
+
+    INSERT INTO rota_cobertura_trajeto (trajeto_id, rota_id)
+    VALUES (trajeto_id_param, t.rota_id)
+    ON CONFLICT (trajeto_id) DO NOTHING;
+    GET DIAGNOSTICS inseridos = ROW_COUNT;
+
+    UPDATE rota_cobertura c
+    SET cobertura = CASE WHEN c.cobertura IS NULL
+                         THEN buffer_cobertura_trajeto(trajeto_id_param, t.caminho, c.buffer_metros)
+                         ELSE ST_Union(c.cobertura, buffer_cobertura_trajeto(trajeto_id_param, t.caminho, c.buffer_metros))
+                    END,
+        atualizado_em = now()
+    WHERE c.rota_id = t.rota_id
+      AND c.buffer_metros = ANY(buffers_metros_param);
+
+    INSERT INTO rota_cobertura_dia (rota_id, buffer_metros, dia, cobertura, quantidade_trajetos)
+    SELECT t.rota_id, b, t.dia, buffer_cobertura_trajeto(trajeto_id_param, t.caminho, b), 1
+    FROM unnest(buffers_metros_param) b
+    ON CONFLICT (rota_id, buffer_metros, dia) DO UPDATE
+    SET cobertura = ST_Union(rota_cobertura_dia.cobertura, EXCLUDED.cobertura),
+        quantidade_trajetos = rota_cobertura_dia.quantidade_trajetos + inseridos;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Refaz a cobertura do dia (trajetos finalizados iniciados nele) e, a partir dos dias, a da rota
+CREATE OR REPLACE FUNCTION reconstruir_rota_cobertura_dia(
+    rota_id_param BIGINT,
+    buffers_metros_param DOUBLE PRECISION[],
+    dia_param DATE
+)
+RETURNS void AS $$
+BEGIN
+    PERFORM pg_advisory_xact_lock(hashtextextended('rota_cobertura', rota_id_param));
+
+    -- buffer ainda sem cobertura guardada nessa rota: precisa do histórico inteiro
+    IF EXISTS (SELECT 1 FROM unnest(buffers_metros_param) b
+               WHERE NOT EXISTS (SELECT 1 FROM rota_cobertura c
+                                 WHERE c.rota_id = rota_id_param AND c.buffer_metros = b)) THEN
+        PERFORM reconstruir_rota_cobertura(rota_id_param, buffers_metros_param);
+        RETURN;
+    END IF;
+
+    DELETE FROM rota_cobertura_dia
+    WHERE rota_id = rota_id_param AND buffer_metros = ANY(buffers_metros_param) AND dia = dia_param;
+
+    INSERT INTO rota_cobertura_dia (rota_id, buffer_metros, dia, cobertura, quantidade_trajetos)
+    SELECT rota_id_param, b, dia_param, ST_Union(buffer_cobertura_trajeto(t.id, t.caminho, b)), count(*)
+    FROM trajeto t
+    CROSS JOIN unnest(buffers_metros_param) b
+    WHERE t.rota_id = rota_id_param
+      AND t.status = 'FINALIZADO'
+      AND t.caminho IS NOT NULL
+      AND t.data_inicio >= dia_param AND t.data_inicio < dia_param + 1
+    GROUP BY b;
+
+    INSERT INTO rota_cobertura_trajeto (trajeto_id, rota_id)
+    SELECT t.id, t.rota_id
+    FROM trajeto t
+    WHERE t.rota_id = rota_id_param
+      AND t.status = 'FINALIZADO'
+      AND t.caminho IS NOT NULL
+      AND t.data_inicio >= dia_param AND t.data_inicio < dia_param + 1
+    ON CONFLICT (trajeto_id) DO NOTHING;
+
+    UPDATE rota_cobertura c
+    SET cobertura = (SELECT ST_Union(d.cobertura) FROM rota_cobertura_dia d
+                     WHERE d.rota_id = c.rota_id AND d.buffer_metros = c.buffer_metros),
+        atualizado_em = now()
+    WHERE c.rota_id = rota_id_param
+      AND c.buffer_metros = ANY(buffers_metros_param);
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,40 @@
+-- V1.37__previsao_passagem_lock.sql
+-- atualizar_previsao_rota refaz as células da rota com DELETE e INSERT; dois trajetos da
+-- mesma rota finalizados ao mesmo tempo faziam o INSERT do segundo bater na chave primária
+-- e desfazer também as passagens dele. O recálculo passa a ser serializado por rota.
+
+-- Recalcula as estatísticas da rota sobre os seus trajetos finalizados mais recentes.
+CREATE OR REPLACE FUNCTION atualizar_previsao_rota(rota_id_param BIGINT, trajetos_param INTEGER)
+RETURNS INTEGER AS $$
+DECLARE
+    celulas INTEGER;
+BEGIN
+    -- o DELETE seguinte já enxerga as células gravadas pela transação que tinha o lock
+    PERFORM pg_advisory_xact_lock(hashtextextended('previsao_passagem', rota_id_param));
+
+    DELETE FROM previsao_passagem_celula WHERE rota_id = rota_id_param;
+
+    INSERT INTO previsao_passagem_celula (
+        rota_id, celula_x, celula_y, amostras,
+        minuto_dia_p10, minuto_dia_mediano, minuto_dia_p90,
+        minutos_inicio_p10, minutos_inicio_mediano, minutos_inicio_p90)
+    SELECT pc.rota_id, pc.celula_x, pc.celula_y, count(*),
+           percentile_cont(0.1) WITHIN GROUP (ORDER BY EXTRACT(EPOCH FROM pc.horario::TIME) / 60),
+           percentile_cont(0.5) WITHIN GROUP (ORDER BY EXTRACT(EPOCH FROM pc.horario::TIME) / 60),
+           percentile_cont(0.9) WITHIN GROUP (ORDER BY EXTRACT(EPOCH FROM pc.horario::TIME) / 60),
+           percentile_cont(0.1) WITHIN GROUP (ORDER BY pc.minutos_desde_inicio),
+           percentile_cont(0.5) WITHIN GROUP (ORDER BY pc.minutos_desde_inicio),
+           percentile_cont(0.9) WITHIN GROUP (ORDER BY pc.minutos_desde_inicio)
+    FROM passagem_celula pc
+    WHERE pc.rota_id = rota_id_param
+      AND pc.trajeto_id IN (
+          SELECT t.id FROM trajeto t
+          WHERE t.rota_id = rota_id_param AND t.status = 'FINALIZADO'
+          ORDER BY t.data_fim DESC NULLS LAST
+          LIMIT trajetos_param)
+    GROUP BY pc.rota_id, pc.celula_x, pc.celula_y;
+
+    GET DIAGNOSTICS celulas = ROW_COUNT;
+    RETURN celulas;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,23 @@
+-- V1.38__desanexar_particao_vazia.sql
+-- A retenção de PontoTrajetoParticaoJob desanexava partições antigas com pontos, que sumiam
+-- de todas as leituras (consultas, exportação, feed e caminho do trajeto). Só partições
+-- vazias (pontos já arquivados no MinIO) passam a ser desanexadas.
+
+-- Desanexa a partição de ponto_trajeto se ela estiver vazia.
+-- Retorna TRUE se a partição foi desanexada.
+CREATE OR REPLACE FUNCTION desanexar_particao_ponto_trajeto(nome TEXT)
+RETURNS BOOLEAN AS $$
+DECLARE
+    tem_pontos BOOLEAN;
+BEGIN
+    -- bloqueia a partição para que um ponto atrasado não entre entre a verificação e o DETACH
+    EXECUTE format('LOCK TABLE %I IN ACCESS EXCLUSIVE MODE', nome);
+    EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I)', nome) INTO tem_pontos;
+    IF tem_pontos THEN
+        RETURN FALSE;
+    END IF;
+
+    EXECUTE format('ALTER TABLE ponto_trajeto DETACH PARTITION %I', nome);
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,54 @@
+package utfpr.edu.br.coleta.config;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Cria, direto via SQL, um trajeto com rota, caminhão e motorista próprios
+ * para testes de integração que gravam pontos.
+ */
+public final class TrajetoFixture {
+
+    private TrajetoFixture() {
+    }
+
+    /**
+     * @return ID do trajeto criado (status EM_ANDAMENTO)
+     */
+    public static Long criarTrajeto(JdbcTemplate jdbcTemplate) {
+        return criarTrajeto(jdbcTemplate, criarRota(jdbcTemplate));
+    }
+
+    /**
+     * @return ID do trajeto criado na rota informada (status EM_ANDAMENTO)
+     */
+    public static Long criarTrajeto(JdbcTemplate jdbcTemplate, Long rotaId) {
+        Long tipoColetaId = jdbcTemplate.queryForObject(
+                "SELECT tipo_coleta_id FROM tb_rota WHERE id = ?", Long.class, rotaId);
+        Long residuoId = jdbcTemplate.queryForObject(
+                "SELECT residuo_id FROM tb_rota WHERE id = ?", Long.class, rotaId);
+        Long caminhaoId = jdbcTemplate.queryForObject(
+                "INSERT INTO tb_caminhao (modelo, placa, tipo_coleta_id, residuo_id, ativo, tipo_veiculo) " +
+                "VALUES ('Teste', substr(md5(random()::text), 1, 8), ?, ?, true, 'CAMINHAO_MEDIO') RETURNING id",
+                Long.class, tipoColetaId, residuoId);
+        Long motoristaId = jdbcTemplate.queryForObject(
+                "INSERT INTO tb_motorista (nome, cpf, ativo) VALUES ('Teste', lpad((random() * 1e10)::bigint::text, 11, '0'), true) RETURNING id",
+                Long.class);
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO trajeto (rota_id, caminhao_id, motorista_id) VALUES (?, ?, ?) RETURNING id",
+                Long.class, rotaId, caminhaoId, motoristaId);
+    }
+
+    /**
+     * @return ID de uma nova rota ativa, sem área geográfica
+     */
+    public static Long criarRota(JdbcTemplate jdbcTemplate) {
+        Long tipoColetaId = jdbcTemplate.queryForObject(
+                "INSERT INTO tb_tipo_coleta (nome) VALUES ('Teste') RETURNING id", Long.class);
+        Long residuoId = jdbcTemplate.queryForObject(
+                "INSERT INTO tb_tipo_residuo (nome, cor_hex) VALUES ('Teste ' || gen_random_uuid(), '#000000') RETURNING id",
+                Long.class);
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO tb_rota (nome, ativo, residuo_id, tipo_coleta_id) VALUES ('Teste', true, ?, ?) RETURNING id",
+                Long.class, residuoId, tipoColetaId);
+    }
+}
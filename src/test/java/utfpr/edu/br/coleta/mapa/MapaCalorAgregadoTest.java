@@ -0,0 +1,134 @@
+package utfpr.edu.br.coleta.mapa;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import utfpr.edu.br.coleta.config.AbstractIntegrationTest;
+import utfpr.edu.br.coleta.config.TrajetoFixture;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.IPontoTrajetoService;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoCreateDTO;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes de integração do agregado incremental do mapa de calor: depois de pontos em ordem
+ * e de pontos atrasados, mapa_calor_celula deve ser igual à agregação feita do zero, como
+ * na carga inicial da V1.30 (permanência até o ponto seguinte, ignorando intervalos acima
+ * de 120 s).
+ */
+class MapaCalorAgregadoTest extends AbstractIntegrationTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2025, 5, 5, 8, 0);
+
+    private static final String SQL_AGREGADO =
+            "SELECT nivel || ' ' || dia || ' ' || celula_x || ' ' || celula_y || ' ' || pontos || ' ' || " +
+            "round(permanencia_segundos::NUMERIC, 3) FROM mapa_calor_celula " +
+            "WHERE rota_id = ? AND (pontos <> 0 OR permanencia_segundos <> 0) ORDER BY 1";
+
+    // mesma agregação da carga inicial da V1.30, só com a rota do teste
+    private static final String SQL_DO_ZERO =
+            "SELECT nivel || ' ' || dia || ' ' || celula_x || ' ' || celula_y || ' ' || pontos || ' ' || " +
+            "round(permanencia_segundos::NUMERIC, 3) FROM (" +
+            "SELECT n.nivel, c.horario::DATE AS dia, " +
+            "floor((ST_X(c.g) + 20037508.342789244) / (40075016.68557849 / 2 ^ n.nivel))::INTEGER AS celula_x, " +
+            "floor((20037508.342789244 - ST_Y(c.g)) / (40075016.68557849 / 2 ^ n.nivel))::INTEGER AS celula_y, " +
+            "count(*) AS pontos, " +
+            "COALESCE(sum(EXTRACT(EPOCH FROM c.prox - c.horario)) " +
+            "FILTER (WHERE c.prox - c.horario <= INTERVAL '120 seconds'), 0) AS permanencia_segundos " +
+            "FROM (SELECT ST_Transform(p.localizacao, 3857) AS g, p.horario, " +
+            "LEAD(p.horario) OVER (PARTITION BY p.trajeto_id ORDER BY p.horario, p.id) AS prox " +
+            "FROM ponto_trajeto p JOIN trajeto t ON t.id = p.trajeto_id WHERE t.rota_id = ?) c " +
+            "CROSS JOIN unnest(ARRAY[14, 16, 18, 20]) AS n(nivel) " +
+            "GROUP BY 1, 2, 3, 4) a ORDER BY 1";
+
+    @Autowired
+    private IPontoTrajetoService pontoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long rotaId;
+    private Long trajetoId;
+
+    @BeforeEach
+    void setUp() {
+        rotaId = TrajetoFixture.criarRota(jdbcTemplate);
+        trajetoId = TrajetoFixture.criarTrajeto(jdbcTemplate, rotaId);
+    }
+
+    @Test
+    void deveAgregarPontosEmOrdem() {
+        pontoService.registrarPontosLote(pontos(0, 10), null);
+        pontoService.registrarPontosLote(pontos(10, 20), null);
+
+        assertAgregadoIgualAoDoZero();
+    }
+
+    @Test
+    void deveCreditarEDebitarIntervaloPartidoPorPontoAtrasado() {
+        pontoService.registrarPontosLote(pontos(0, 20), null);
+
+        // 5 s depois do ponto 3: o intervalo 3 -> 4 vira 3 -> atrasado -> 4
+        pontoService.registrarPonto(ponto(horario(3).plusSeconds(5), 3.5));
+
+        assertAgregadoIgualAoDoZero();
+    }
+
+    @Test
+    void deveCreditarFalhaDeSinalPreenchidaPorPontoAtrasado() {
+        // entre os pontos 9 e 10 há 200 s, acima do limite: não conta como permanência
+        pontoService.registrarPontosLote(pontos(0, 20), null);
+
+        // no meio da falha: os dois novos intervalos (100 s) passam a contar
+        pontoService.registrarPonto(ponto(horario(9).plusSeconds(100), 9.5));
+
+        assertAgregadoIgualAoDoZero();
+    }
+
+    @Test
+    void deveAgregarLoteComPontosAtrasadosENovos() {
+        pontoService.registrarPontosLote(pontos(0, 20), null);
+
+        List<PontoTrajetoCreateDTO> lote = new ArrayList<>(pontos(20, 25));
+        lote.add(ponto(horario(1).plusSeconds(3), 1.3));
+        lote.add(ponto(horario(1).plusSeconds(6), 1.6));
+        lote.add(ponto(horario(15).plusSeconds(5), 15.5));
+        pontoService.registrarPontosLote(lote, null);
+
+        assertAgregadoIgualAoDoZero();
+    }
+
+    private void assertAgregadoIgualAoDoZero() {
+        List<String> doZero = jdbcTemplate.queryForList(SQL_DO_ZERO, String.class, rotaId);
+        assertFalse(doZero.isEmpty());
+        assertEquals(doZero, jdbcTemplate.queryForList(SQL_AGREGADO, String.class, rotaId));
+    }
+
+    private List<PontoTrajetoCreateDTO> pontos(int inicio, int fim) {
+        List<PontoTrajetoCreateDTO> pontos = new ArrayList<>();
+        for (int i = inicio; i < fim; i++) {
+            pontos.add(ponto(horario(i), i));
+        }
+        return pontos;
+    }
+
+    // ~50 m para leste por ponto: vizinhos caem em células diferentes no nível 20 (~38 m)
+    private PontoTrajetoCreateDTO ponto(LocalDateTime horario, double posicao) {
+        PontoTrajetoCreateDTO dto = new PontoTrajetoCreateDTO();
+        dto.setTrajetoId(trajetoId);
+        dto.setLatitude(-26.2289);
+        dto.setLongitude(-52.6889 + posicao * 5e-4);
+        dto.setHorario(horario);
+        return dto;
+    }
+
+    /** Pontos a cada 10 s, com uma falha de sinal de 200 s entre o 9 e o 10. */
+    private static LocalDateTime horario(int i) {
+        return INICIO.plusSeconds(i * 10L + (i >= 10 ? 190 : 0));
+    }
+}
@@ -0,0 +1,62 @@
+package utfpr.edu.br.coleta.mapa;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários das contas da grade do mapa de calor (células e escolha do nível).
+ *
+ * Autor: Sistema
+ */
+class MapaCalorServiceTest {
+
+    /**
+     * A célula deve ser a do tile XYZ de mesmo zoom, e a do nível seguinte deve estar dentro dela.
+     */
+    @Test
+    void deveCalcularCelulaNaGradeXYZ() {
+        assertEquals(5794, MapaCalorService.celulaX(-52.6789, 14));
+        assertEquals(9429, MapaCalorService.celulaY(-26.2289, 14));
+
+        assertEquals(23178, MapaCalorService.celulaX(-52.6789, 16));
+        assertEquals(37718, MapaCalorService.celulaY(-26.2289, 16));
+        assertEquals(5794, MapaCalorService.celulaX(-52.6789, 16) / 4);
+        assertEquals(9429, MapaCalorService.celulaY(-26.2289, 16) / 4);
+    }
+
+    /**
+     * Sem limite de células, o nível deve ser o guardado mais próximo de zoom + 4.
+     */
+    @Test
+    void deveEscolherNivelPeloZoom() {
+        assertEquals(18, nivel(14, 40_000));
+        assertEquals(18, nivel(15, 40_000));
+        assertEquals(20, nivel(17, 1_000_000));
+        assertEquals(14, nivel(5, 40_000));
+    }
+
+    /**
+     * Com células demais na área, deve subir para um nível mais grosso.
+     */
+    @Test
+    void deveUsarNivelMaisGrossoQuandoAreaTemCelulasDemais() {
+        // a área tem 23798 células no nível 18, 1554 no 16 e 110 no 14
+        assertEquals(18, nivel(14, 25_000));
+        assertEquals(16, nivel(14, 2_000));
+        assertEquals(14, nivel(14, 1_000));
+    }
+
+    /**
+     * Se nem o nível mais grosso couber no limite, deve recusar a consulta.
+     */
+    @Test
+    void deveRejeitarAreaGrandeDemais() {
+        assertThrows(IllegalArgumentException.class,
+                () -> MapaCalorService.escolherNivel(4, -74, -34, -34, 5, 1_000));
+    }
+
+    private int nivel(int zoom, int maximoCelulas) {
+        return MapaCalorService.escolherNivel(zoom, -52.8, -26.3, -52.6, -26.1, maximoCelulas);
+    }
+}
@@ -0,0 +1,78 @@
+package utfpr.edu.br.coleta.mapa;
+
+import org.junit.jupiter.api.Test;
+import utfpr.edu.br.coleta.mapa.enums.CamadaMapa;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários do cache de tiles (limite de bytes, versões e invalidação por área).
+ *
+ * Autor: Sistema
+ */
+class TileCacheTest {
+
+    /**
+     * Acima da capacidade, deve descartar o tile usado há mais tempo.
+     */
+    @Test
+    void deveDescartarMenosUsadoAoPassarDaCapacidade() {
+        TileCache cache = new TileCache(250);
+        TileCache.Chave a = chave(CamadaMapa.ROTAS, 14, 1, 1);
+        TileCache.Chave b = chave(CamadaMapa.ROTAS, 14, 1, 2);
+        TileCache.Chave c = chave(CamadaMapa.ROTAS, 14, 1, 3);
+
+        cache.guardar(a, tile(100), 0);
+        cache.guardar(b, tile(100), 0);
+        cache.buscar(a);
+        cache.guardar(c, tile(100), 0);
+
+        assertTrue(cache.buscar(a).isPresent());
+        assertTrue(cache.buscar(b).isEmpty());
+        assertTrue(cache.buscar(c).isPresent());
+    }
+
+    /**
+     * Um tile gerado antes de uma invalidação da camada não deve ser guardado.
+     */
+    @Test
+    void naoDeveGuardarTileGeradoAntesDaInvalidacao() {
+        TileCache cache = new TileCache(1024);
+        TileCache.Chave chave = chave(CamadaMapa.ROTAS, 14, 1, 1);
+
+        long versao = cache.versao(CamadaMapa.ROTAS);
+        cache.invalidar(CamadaMapa.ROTAS);
+        cache.guardar(chave, tile(10), versao);
+
+        assertTrue(cache.buscar(chave).isEmpty());
+    }
+
+    /**
+     * A invalidação por área deve descartar só os tiles da camada que cobrem a área.
+     */
+    @Test
+    void deveInvalidarSomenteTilesDaArea() {
+        TileCache cache = new TileCache(1024);
+        // z14 em torno de (-26.2289, -52.6789): x = 5794, y = 9429
+        TileCache.Chave naArea = chave(CamadaMapa.TRAJETOS, 14, 5794, 9429);
+        TileCache.Chave longe = chave(CamadaMapa.TRAJETOS, 14, 5800, 9429);
+        TileCache.Chave outraCamada = chave(CamadaMapa.ROTAS, 14, 5794, 9429);
+        cache.guardar(naArea, tile(10), 0);
+        cache.guardar(longe, tile(10), 0);
+        cache.guardar(outraCamada, tile(10), 0);
+
+        cache.invalidar(CamadaMapa.TRAJETOS, -52.6790, -26.2290, -52.6788, -26.2288);
+
+        assertTrue(cache.buscar(naArea).isEmpty());
+        assertTrue(cache.buscar(longe).isPresent());
+        assertTrue(cache.buscar(outraCamada).isPresent());
+    }
+
+    private TileCache.Chave chave(CamadaMapa camada, int z, int x, int y) {
+        return new TileCache.Chave(camada, z, x, y, null, null);
+    }
+
+    private TileVetorial tile(int tamanho) {
+        return TileVetorial.de(new byte[tamanho]);
+    }
+}
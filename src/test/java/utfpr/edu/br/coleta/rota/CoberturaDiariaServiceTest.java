@@ -0,0 +1,135 @@
+package utfpr.edu.br.coleta.rota;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import utfpr.edu.br.coleta.config.AbstractIntegrationTest;
+import utfpr.edu.br.coleta.config.TrajetoFixture;
+import utfpr.edu.br.coleta.rota.dto.CoberturaDiariaDTO;
+import utfpr.edu.br.coleta.trajeto.ITrajetoService;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.IPontoTrajetoService;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoCreateDTO;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes de integração da série diária de cobertura: gravação do dia, marcação de dias
+ * com dados atrasados e recálculo dos pendentes. Os trajetos começam no dia anterior, já
+ * encerrado para o job.
+ */
+class CoberturaDiariaServiceTest extends AbstractIntegrationTest {
+
+    private static final LocalDate ONTEM = LocalDate.now().minusDays(1);
+    private static final int QUANTIDADE_PONTOS = 30;
+    private static final double BUFFER_METROS = 20.0;
+
+    @Autowired
+    private CoberturaDiariaService service;
+
+    @Autowired
+    private IPontoTrajetoService pontoService;
+
+    @Autowired
+    private ITrajetoService trajetoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long rotaId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM cobertura_diaria_pendente");
+        rotaId = TrajetoFixture.criarRota(jdbcTemplate);
+        jdbcTemplate.update("UPDATE tb_rota SET area_geografica = ST_MakeEnvelope(-52.69, -26.24, -52.67, -26.22, 4326) " +
+                "WHERE id = ?", rotaId);
+    }
+
+    @Test
+    void deveGravarCoberturaDoDia() {
+        Long trajetoId = trajetoComPontos(0, 0, QUANTIDADE_PONTOS);
+        trajetoService.finalizarTrajeto(trajetoId);
+
+        service.gravarDia(ONTEM);
+
+        List<CoberturaDiariaDTO> serie = service.buscar(rotaId, BUFFER_METROS, ONTEM, ONTEM);
+        assertEquals(1, serie.size());
+        assertEquals(1, serie.get(0).getEstatisticas().getQuantidadeTrajetos());
+        assertTrue(serie.get(0).getEstatisticas().getAreaCobertaM2() > 0);
+    }
+
+    @Test
+    void deveRecalcularDiaComTrajetoFinalizadoDepois() {
+        Long primeiro = trajetoComPontos(0, 0, QUANTIDADE_PONTOS);
+        trajetoService.finalizarTrajeto(primeiro);
+        service.gravarDia(ONTEM);
+        double antes = coberta();
+
+        Long segundo = trajetoComPontos(1, 0, QUANTIDADE_PONTOS);
+        trajetoService.finalizarTrajeto(segundo);
+        assertEquals(1, pendentes());
+
+        service.processarPendentes(10);
+
+        assertEquals(0, pendentes());
+        assertTrue(coberta() > antes);
+        assertEquals(2, service.buscar(rotaId, BUFFER_METROS, ONTEM, ONTEM).get(0)
+                .getEstatisticas().getQuantidadeTrajetos());
+    }
+
+    @Test
+    void deveRecalcularDiaComPontosAtrasados() {
+        Long trajetoId = trajetoComPontos(0, 0, QUANTIDADE_PONTOS);
+        trajetoService.finalizarTrajeto(trajetoId);
+        service.processarPendentes(10);
+        double antes = coberta();
+
+        pontoService.registrarPontosLote(pontos(trajetoId, 0, QUANTIDADE_PONTOS, QUANTIDADE_PONTOS + 10), null);
+        assertEquals(1, pendentes());
+
+        service.processarPendentes(10);
+
+        assertTrue(coberta() > antes);
+    }
+
+    @Test
+    void deveRejeitarBufferSemSerie() {
+        assertThrows(IllegalArgumentException.class, () -> service.buscar(rotaId, 35.0, ONTEM, ONTEM));
+    }
+
+    private Long trajetoComPontos(int faixa, int inicio, int fim) {
+        Long trajetoId = TrajetoFixture.criarTrajeto(jdbcTemplate, rotaId);
+        jdbcTemplate.update("UPDATE trajeto SET data_inicio = ? WHERE id = ?", ONTEM.atTime(8, 0), trajetoId);
+        pontoService.registrarPontosLote(pontos(trajetoId, faixa, inicio, fim), null);
+        return trajetoId;
+    }
+
+    private double coberta() {
+        return jdbcTemplate.queryForObject(
+                "SELECT area_coberta_m2 FROM cobertura_diaria WHERE rota_id = ? AND buffer_metros = ? AND dia = ?",
+                Double.class, rotaId, BUFFER_METROS, ONTEM);
+    }
+
+    private Integer pendentes() {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*)::INTEGER FROM cobertura_diaria_pendente WHERE rota_id = ?", Integer.class, rotaId);
+    }
+
+    private List<PontoTrajetoCreateDTO> pontos(Long trajetoId, int faixa, int inicio, int fim) {
+        List<PontoTrajetoCreateDTO> pontos = new ArrayList<>();
+        for (int i = inicio; i < fim; i++) {
+            PontoTrajetoCreateDTO dto = new PontoTrajetoCreateDTO();
+            dto.setTrajetoId(trajetoId);
+            dto.setLatitude(-26.2289 + faixa * 0.002);
+            dto.setLongitude(-52.6889 + i * 1e-4);
+            dto.setHorario(ONTEM.atTime(8, 0).plusSeconds(i * 10L));
+            pontos.add(dto);
+        }
+        return pontos;
+    }
+}
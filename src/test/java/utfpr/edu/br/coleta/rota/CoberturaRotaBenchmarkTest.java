@@ -0,0 +1,104 @@
+package utfpr.edu.br.coleta.rota;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import utfpr.edu.br.coleta.config.AbstractIntegrationTest;
+import utfpr.edu.br.coleta.config.TrajetoFixture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Benchmark do cálculo de cobertura: compara as duas funções antigas
+ * (calcular_areas_nao_percorridas + obter_estatisticas_cobertura, cada uma com seu
+ * ST_Union) com a passada única de calcular_cobertura_rota, e confere que as
+ * estatísticas batem.
+ *
+ * Não roda na suíte normal. Para executar:
+ * <pre>
+ * mvn test -Dtest=CoberturaRotaBenchmarkTest -Dbenchmark=true
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CoberturaRotaBenchmarkTest extends AbstractIntegrationTest {
+
+    private static final int QUANTIDADE_TRAJETOS = 20;
+    private static final int VERTICES_POR_TRAJETO = 2_000;
+    private static final int REPETICOES = 10;
+    private static final double BUFFER_METROS = 20.0;
+
+    @Autowired
+    private RotaRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long rotaId;
+
+    @BeforeEach
+    void criarRotaComTrajetos() {
+        rotaId = TrajetoFixture.criarRota(jdbcTemplate);
+        jdbcTemplate.update("UPDATE tb_rota SET area_geografica = ST_MakeEnvelope(-52.70, -26.25, -52.66, -26.21, 4326) " +
+                "WHERE id = ?", rotaId);
+
+        for (int i = 0; i < QUANTIDADE_TRAJETOS; i++) {
+            Long trajetoId = TrajetoFixture.criarTrajeto(jdbcTemplate, rotaId);
+            // zigue-zague de leste a oeste, cada trajeto em uma faixa de latitude
+            jdbcTemplate.update("UPDATE trajeto SET status = 'FINALIZADO', caminho = (" +
+                    "SELECT ST_MakeLine(ST_SetSRID(ST_MakePoint(-52.70 + n * 0.04 / ?, " +
+                    "-26.25 + ? * 0.002 + (n % 2) * 0.0004), 4326) ORDER BY n) " +
+                    "FROM generate_series(0, ? - 1) n) WHERE id = ?",
+                    VERTICES_POR_TRAJETO, i, VERTICES_POR_TRAJETO, trajetoId);
+        }
+    }
+
+    @Test
+    void compararDuasFuncoesComPassadaUnica() throws Exception {
+        // aquecimento
+        calcularSeparado();
+        calcularPassadaUnica();
+
+        long inicio = System.nanoTime();
+        String estatisticasSeparado = null;
+        for (int i = 0; i < REPETICOES; i++) {
+            estatisticasSeparado = calcularSeparado();
+        }
+        double msSeparado = (System.nanoTime() - inicio) / 1e6 / REPETICOES;
+
+        inicio = System.nanoTime();
+        String estatisticasPassadaUnica = null;
+        for (int i = 0; i < REPETICOES; i++) {
+            estatisticasPassadaUnica = calcularPassadaUnica();
+        }
+        double msPassadaUnica = (System.nanoTime() - inicio) / 1e6 / REPETICOES;
+
+        JsonNode separado = objectMapper.readTree(estatisticasSeparado);
+        JsonNode passadaUnica = objectMapper.readTree(estatisticasPassadaUnica);
+        assertEquals(separado.get("quantidade_trajetos").asInt(), passadaUnica.get("quantidade_trajetos").asInt());
+        assertEquals(separado.get("percentual_cobertura").asDouble(), passadaUnica.get("percentual_cobertura").asDouble(), 0.1);
+
+        System.out.printf("Cobertura de %d trajetos com %d vértices (buffer %.0fm)%n",
+                QUANTIDADE_TRAJETOS, VERTICES_POR_TRAJETO, BUFFER_METROS);
+        System.out.printf("  duas funções:  %8.1f ms%n", msSeparado);
+        System.out.printf("  passada única: %8.1f ms%n", msPassadaUnica);
+    }
+
+    private String calcularSeparado() {
+        jdbcTemplate.queryForObject("SELECT ST_AsGeoJSON(calcular_areas_nao_percorridas(?, ?, NULL))::text",
+                String.class, rotaId, BUFFER_METROS);
+        return jdbcTemplate.queryForObject("SELECT obter_estatisticas_cobertura(?, ?, NULL)::text",
+                String.class, rotaId, BUFFER_METROS);
+    }
+
+    private String calcularPassadaUnica() {
+        RotaRepository.CoberturaRota cobertura = repository.calcularCobertura(rotaId, BUFFER_METROS, null, 6).orElseThrow();
+        return cobertura.getEstatisticas();
+    }
+}
@@ -0,0 +1,136 @@
+package utfpr.edu.br.coleta.rota;
+
+import org.junit.jupiter.api.Test;
+import utfpr.edu.br.coleta.rota.dto.AreasNaoPercorridasDTO;
+import utfpr.edu.br.coleta.trajeto.enums.TrajetoStatus;
+import utfpr.edu.br.coleta.trajeto.event.TrajetoExcluidoEvent;
+
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários do cache de cobertura das rotas (cálculo compartilhado e invalidação).
+ *
+ * Autor: Sistema
+ */
+class CoberturaRotaCacheTest {
+
+    private final CoberturaRotaCache cache = new CoberturaRotaCache(null, 100);
+
+    /**
+     * Pedidos simultâneos com a mesma chave devem esperar um único cálculo.
+     */
+    @Test
+    void deveCompartilharCalculoEntrePedidosSimultaneos() throws Exception {
+        CoberturaRotaCache.Chave chave = new CoberturaRotaCache.Chave(1L, 20.0, null);
+        AtomicInteger calculos = new AtomicInteger();
+        CountDownLatch iniciado = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<AreasNaoPercorridasDTO> primeiro = executor.submit(() -> cache.buscar(chave, () -> {
+                calculos.incrementAndGet();
+                iniciado.countDown();
+                aguardar(liberar);
+                return resultado(1L);
+            }));
+            assertTrue(iniciado.await(5, TimeUnit.SECONDS));
+            Future<AreasNaoPercorridasDTO> segundo = executor.submit(() -> cache.buscar(chave, () -> {
+                calculos.incrementAndGet();
+                return resultado(1L);
+            }));
+            liberar.countDown();
+
+            assertSame(primeiro.get(5, TimeUnit.SECONDS), segundo.get(5, TimeUnit.SECONDS));
+            assertEquals(1, calculos.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Um cálculo iniciado antes da invalidação não deve ser reaproveitado depois dela.
+     */
+    @Test
+    void naoDeveGuardarResultadoCalculadoAntesDaInvalidacao() {
+        CoberturaRotaCache.Chave chave = new CoberturaRotaCache.Chave(1L, 20.0, null);
+
+        cache.buscar(chave, () -> {
+            cache.invalidar(1L);
+            return resultado(1L);
+        });
+
+        AtomicInteger calculos = new AtomicInteger();
+        cache.buscar(chave, () -> {
+            calculos.incrementAndGet();
+            return resultado(1L);
+        });
+        assertEquals(1, calculos.get());
+    }
+
+    /**
+     * Erros do cálculo devem chegar ao chamador e não ficar em cache.
+     */
+    @Test
+    void naoDeveGuardarErro() {
+        CoberturaRotaCache.Chave chave = new CoberturaRotaCache.Chave(1L, 20.0, null);
+
+        assertThrows(RotaService.RotaNaoEncontradaException.class, () -> cache.buscar(chave, () -> {
+            throw new RotaService.RotaNaoEncontradaException("Rota com ID 1 não encontrada");
+        }));
+
+        assertEquals(0, cache.tamanho());
+        assertNotNull(cache.buscar(chave, () -> resultado(1L)));
+    }
+
+    /**
+     * Pontos de um trajeto em andamento devem descartar só as entradas daquele trajeto.
+     */
+    @Test
+    void deveInvalidarSomenteEntradasDoTrajeto() {
+        cache.buscar(new CoberturaRotaCache.Chave(1L, 20.0, null), () -> resultado(1L));
+        cache.buscar(new CoberturaRotaCache.Chave(1L, 20.0, 10L), () -> resultado(1L));
+        cache.buscar(new CoberturaRotaCache.Chave(1L, 20.0, 11L), () -> resultado(1L));
+        cache.buscar(new CoberturaRotaCache.Chave(2L, 20.0, null), () -> resultado(2L));
+
+        cache.invalidarTrajeto(1L, 10L, false);
+        assertEquals(3, cache.tamanho());
+
+        cache.invalidarTrajeto(1L, 11L, true);
+        assertEquals(1, cache.tamanho());
+    }
+
+    /**
+     * A exclusão de um trajeto deve descartar as entradas da rota dele, que vem no evento.
+     */
+    @Test
+    void deveInvalidarRotaAoExcluirTrajeto() {
+        cache.buscar(new CoberturaRotaCache.Chave(1L, 20.0, null), () -> resultado(1L));
+        cache.buscar(new CoberturaRotaCache.Chave(1L, 20.0, 10L), () -> resultado(1L));
+        cache.buscar(new CoberturaRotaCache.Chave(2L, 20.0, null), () -> resultado(2L));
+
+        cache.aoExcluirTrajeto(new TrajetoExcluidoEvent(10L, 1L, LocalDate.of(2025, 5, 5), TrajetoStatus.FINALIZADO));
+
+        assertEquals(1, cache.tamanho());
+    }
+
+    private static AreasNaoPercorridasDTO resultado(Long rotaId) {
+        return AreasNaoPercorridasDTO.builder().rotaId(rotaId).bufferMetros(20.0).build();
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package utfpr.edu.br.coleta.rota;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários do relatório de cobertura das rotas ativas (uma linha por rota e limite
+ * de cálculos simultâneos).
+ *
+ * Autor: Sistema
+ */
+@ExtendWith(MockitoExtension.class)
+class RelatorioCoberturaServiceTest {
+
+    private static final LocalDate DIA = LocalDate.of(2025, 5, 5);
+    private static final String ESTATISTICAS = "{\"area_total_m2\": 1000, \"area_coberta_m2\": 800, " +
+            "\"area_nao_coberta_m2\": 200, \"percentual_cobertura\": 80, \"quantidade_trajetos\": 3}";
+
+    // como o ObjectMapper do Spring Boot: datas em ISO
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Mock
+    private RotaRepository repository;
+
+    /**
+     * Cada rota ativa deve sair em uma linha; sem área ou com falha, a linha traz o erro.
+     */
+    @Test
+    void deveEscreverUmaLinhaPorRotaAtiva() throws Exception {
+        when(repository.findByAtivoTrue()).thenReturn(List.of(rota(1L, true), rota(2L, false), rota(3L, true)));
+        when(repository.calcularEstatisticasCoberturaDia(eq(1L), anyDouble(), eq(DIA))).thenReturn(ESTATISTICAS);
+        when(repository.calcularEstatisticasCoberturaDia(eq(3L), anyDouble(), eq(DIA)))
+                .thenThrow(new IllegalStateException("falha"));
+
+        Map<Long, JsonNode> linhas = gerar(service(4));
+
+        assertEquals(3, linhas.size());
+        assertEquals(80.0, linhas.get(1L).get("estatisticas").get("percentual_cobertura").asDouble());
+        assertEquals("2025-05-05", linhas.get(1L).get("dia").asText());
+        assertFalse(linhas.get(1L).has("erro"));
+        assertTrue(linhas.get(2L).has("erro"));
+        assertTrue(linhas.get(3L).has("erro"));
+        verify(repository, never()).calcularEstatisticasCoberturaDia(eq(2L), anyDouble(), any());
+    }
+
+    /**
+     * Um Error no cálculo não é tratado por ele, mas a rota ainda sai em uma linha com erro.
+     */
+    @Test
+    void deveEscreverLinhaDeErroQuandoCalculoLancaError() throws Exception {
+        when(repository.findByAtivoTrue()).thenReturn(List.of(rota(1L, true), rota(2L, true)));
+        when(repository.calcularEstatisticasCoberturaDia(eq(1L), anyDouble(), eq(DIA))).thenReturn(ESTATISTICAS);
+        when(repository.calcularEstatisticasCoberturaDia(eq(2L), anyDouble(), eq(DIA)))
+                .thenThrow(new StackOverflowError());
+
+        Map<Long, JsonNode> linhas = gerar(service(2));
+
+        assertEquals(2, linhas.size());
+        assertFalse(linhas.get(1L).has("erro"));
+        assertTrue(linhas.get(2L).has("erro"));
+    }
+
+    /**
+     * Não deve haver mais cálculos simultâneos que a concorrência configurada.
+     */
+    @Test
+    void naoDeveUltrapassarConcorrencia() throws Exception {
+        List<Rota> rotas = new ArrayList<>();
+        for (long id = 1; id <= 12; id++) {
+            rotas.add(rota(id, true));
+        }
+        when(repository.findByAtivoTrue()).thenReturn(rotas);
+
+        AtomicInteger emAndamento = new AtomicInteger();
+        AtomicInteger maximo = new AtomicInteger();
+        when(repository.calcularEstatisticasCoberturaDia(any(), anyDouble(), any())).thenAnswer(invocacao -> {
+            maximo.accumulateAndGet(emAndamento.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            emAndamento.decrementAndGet();
+            return ESTATISTICAS;
+        });
+
+        assertEquals(12, gerar(service(3)).size());
+        assertTrue(maximo.get() <= 3);
+        assertTrue(maximo.get() > 1);
+    }
+
+    /**
+     * Sem concorrência configurada, deve usar metade do pool de conexões.
+     */
+    @Test
+    void deveUsarMetadeDoPoolSemConcorrenciaConfigurada() {
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            dataSource.setMaximumPoolSize(12);
+
+            assertEquals(6, new RelatorioCoberturaService(repository, objectMapper, dataSource, 0).getConcorrencia());
+            assertEquals(2, new RelatorioCoberturaService(repository, objectMapper, dataSource, 2).getConcorrencia());
+        }
+    }
+
+    private RelatorioCoberturaService service(int concorrencia) {
+        return new RelatorioCoberturaService(repository, objectMapper, null, concorrencia);
+    }
+
+    private Map<Long, JsonNode> gerar(RelatorioCoberturaService service) throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        service.gerarRelatorio(DIA, 20.0, saida);
+
+        Map<Long, JsonNode> linhas = new HashMap<>();
+        for (String linha : saida.toString(StandardCharsets.UTF_8).split("\n")) {
+            JsonNode json = objectMapper.readTree(linha);
+            linhas.put(json.get("rota_id").asLong(), json);
+        }
+        return linhas;
+    }
+
+    private static Rota rota(Long id, boolean comArea) {
+        Rota rota = new Rota();
+        rota.setId(id);
+        rota.setNome("Rota " + id);
+        rota.setAtivo(true);
+        if (comArea) {
+            rota.setAreaGeografica(new GeometryFactory().createPolygon(new Coordinate[]{
+                    new Coordinate(0, 0), new Coordinate(1, 0), new Coordinate(1, 1), new Coordinate(0, 0)}));
+        }
+        return rota;
+    }
+}
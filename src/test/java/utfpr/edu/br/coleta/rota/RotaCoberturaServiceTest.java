@@ -0,0 +1,158 @@
+package utfpr.edu.br.coleta.rota;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import utfpr.edu.br.coleta.config.AbstractIntegrationTest;
+import utfpr.edu.br.coleta.config.TrajetoFixture;
+import utfpr.edu.br.coleta.trajeto.ITrajetoService;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.IPontoTrajetoService;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoCreateDTO;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes de integração da cobertura guardada por rota (rota_cobertura), comparada com a
+ * união dos buffers calculada na hora. Cada trajeto segue uma reta para leste em uma
+ * latitude própria, dentro da área da rota.
+ */
+class RotaCoberturaServiceTest extends AbstractIntegrationTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2025, 5, 5, 8, 0);
+    private static final int QUANTIDADE_PONTOS = 30;
+    private static final double BUFFER_METROS = 20.0;
+
+    @Autowired
+    private IPontoTrajetoService pontoService;
+
+    @Autowired
+    private ITrajetoService trajetoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long rotaId;
+
+    @BeforeEach
+    void setUp() {
+        rotaId = TrajetoFixture.criarRota(jdbcTemplate);
+        jdbcTemplate.update("UPDATE tb_rota SET area_geografica = ST_MakeEnvelope(-52.69, -26.24, -52.67, -26.22, 4326) " +
+                "WHERE id = ?", rotaId);
+    }
+
+    @Test
+    void deveGuardarCoberturaAoFinalizar() {
+        Long primeiro = trajetoComPontos(0, 0, QUANTIDADE_PONTOS);
+        Long segundo = trajetoComPontos(1, 0, QUANTIDADE_PONTOS);
+
+        trajetoService.finalizarTrajeto(primeiro);
+        trajetoService.finalizarTrajeto(segundo);
+
+        assertEquals(areaCalculadaNaHora(), areaGuardada(), 1.0);
+        assertEquals(2, trajetosNoDia());
+    }
+
+    @Test
+    void deveReconstruirAoCancelarTrajetoFinalizado() {
+        Long primeiro = trajetoComPontos(0, 0, QUANTIDADE_PONTOS);
+        Long segundo = trajetoComPontos(1, 0, QUANTIDADE_PONTOS);
+        trajetoService.finalizarTrajeto(primeiro);
+        trajetoService.finalizarTrajeto(segundo);
+        double areaComDois = areaGuardada();
+
+        trajetoService.cancelarTrajeto(segundo);
+
+        assertTrue(areaGuardada() < areaComDois);
+        assertEquals(areaCalculadaNaHora(), areaGuardada(), 1.0);
+        assertEquals(1, trajetosNoDia());
+    }
+
+    @Test
+    void deveReconstruirAoExcluirTrajetoFinalizado() {
+        Long primeiro = trajetoComPontos(0, 0, QUANTIDADE_PONTOS);
+        Long segundo = trajetoComPontos(1, 0, QUANTIDADE_PONTOS);
+        trajetoService.finalizarTrajeto(primeiro);
+        trajetoService.finalizarTrajeto(segundo);
+        double areaComDois = areaGuardada();
+
+        trajetoService.delete(segundo);
+
+        assertTrue(areaGuardada() < areaComDois);
+        assertEquals(areaCalculadaNaHora(), areaGuardada(), 1.0);
+        assertEquals(1, trajetosNoDia());
+    }
+
+    @Test
+    void deveUnirPontosRecebidosAposFinalizar() {
+        Long trajetoId = trajetoComPontos(0, 0, QUANTIDADE_PONTOS);
+        trajetoService.finalizarTrajeto(trajetoId);
+        double areaAntes = areaGuardada();
+
+        pontoService.registrarPontosLote(pontos(trajetoId, 0, QUANTIDADE_PONTOS, QUANTIDADE_PONTOS + 10), null);
+
+        assertTrue(areaGuardada() > areaAntes);
+        assertEquals(areaCalculadaNaHora(), areaGuardada(), 1.0);
+        assertEquals(1, trajetosNoDia());
+    }
+
+    @Test
+    void deveRefazerCoberturaComPontoNoMeioAposFinalizar() {
+        Long trajetoId = TrajetoFixture.criarTrajeto(jdbcTemplate, rotaId);
+        // vértices a ~100 m um do outro, para o trecho desviado ficar fora dos buffers vizinhos
+        List<PontoTrajetoCreateDTO> esparsos = new ArrayList<>();
+        for (int i = 0; i < QUANTIDADE_PONTOS; i += 10) {
+            esparsos.addAll(pontos(trajetoId, 0, i, i + 1));
+        }
+        pontoService.registrarPontosLote(esparsos, null);
+        trajetoService.finalizarTrajeto(trajetoId);
+
+        // ponto atrasado entre os dois primeiros vértices, ~220 m ao norte
+        pontoService.registrarPontosLote(pontos(trajetoId, 1, 5, 6), null);
+
+        assertEquals(areaCalculadaNaHora(), areaGuardada(), 1.0);
+        assertEquals(1, trajetosNoDia());
+    }
+
+    private Long trajetoComPontos(int faixa, int inicio, int fim) {
+        Long trajetoId = TrajetoFixture.criarTrajeto(jdbcTemplate, rotaId);
+        pontoService.registrarPontosLote(pontos(trajetoId, faixa, inicio, fim), null);
+        return trajetoId;
+    }
+
+    private double areaGuardada() {
+        return jdbcTemplate.queryForObject(
+                "SELECT ST_Area(cobertura) FROM rota_cobertura WHERE rota_id = ? AND buffer_metros = ?",
+                Double.class, rotaId, BUFFER_METROS);
+    }
+
+    private double areaCalculadaNaHora() {
+        return jdbcTemplate.queryForObject(
+                "SELECT ST_Area(ST_Union(buffer_cobertura_trajeto(t.id, t.caminho, ?))) FROM trajeto t " +
+                "WHERE t.rota_id = ? AND t.status = 'FINALIZADO'",
+                Double.class, BUFFER_METROS, rotaId);
+    }
+
+    private Integer trajetosNoDia() {
+        return jdbcTemplate.queryForObject(
+                "SELECT sum(quantidade_trajetos)::INTEGER FROM rota_cobertura_dia WHERE rota_id = ? AND buffer_metros = ?",
+                Integer.class, rotaId, BUFFER_METROS);
+    }
+
+    private List<PontoTrajetoCreateDTO> pontos(Long trajetoId, int faixa, int inicio, int fim) {
+        List<PontoTrajetoCreateDTO> pontos = new ArrayList<>();
+        for (int i = inicio; i < fim; i++) {
+            PontoTrajetoCreateDTO dto = new PontoTrajetoCreateDTO();
+            dto.setTrajetoId(trajetoId);
+            dto.setLatitude(-26.2289 + faixa * 0.002);
+            dto.setLongitude(-52.6889 + i * 1e-4);
+            dto.setHorario(INICIO.plusSeconds(i * 10L));
+            pontos.add(dto);
+        }
+        return pontos;
+    }
+}
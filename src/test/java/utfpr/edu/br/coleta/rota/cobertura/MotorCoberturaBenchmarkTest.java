@@ -0,0 +1,113 @@
+package utfpr.edu.br.coleta.rota.cobertura;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import utfpr.edu.br.coleta.config.AbstractIntegrationTest;
+import utfpr.edu.br.coleta.config.TrajetoFixture;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Benchmark dos motores de cobertura: tempo médio do PostGIS (calcular_cobertura_rota) e do
+ * JTS na aplicação para as mesmas rotas, conferindo que os percentuais batem.
+ *
+ * Usa as rotas de {@code -Dbenchmark.rotas=1,2,3} (banco com dados reais, p.ex. uma cópia
+ * de produção apontada na configuração de teste); sem a propriedade, cria rotas sintéticas.
+ * O PostGIS usa o cálculo na hora: a cobertura guardada em rota_cobertura é removida antes.
+ *
+ * Não roda na suíte normal. Para executar:
+ * <pre>
+ * mvn test -Dtest=MotorCoberturaBenchmarkTest -Dbenchmark=true
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class MotorCoberturaBenchmarkTest extends AbstractIntegrationTest {
+
+    private static final int ROTAS_SINTETICAS = 3;
+    private static final int TRAJETOS_POR_ROTA = 20;
+    private static final int VERTICES_POR_TRAJETO = 2_000;
+    private static final int REPETICOES = 5;
+    private static final double BUFFER_METROS = 20.0;
+
+    @Autowired
+    private MotorCoberturaPostgis postgis;
+
+    @Autowired
+    private MotorCoberturaJts jts;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<Long> rotas;
+
+    @BeforeEach
+    void prepararRotas() {
+        String informadas = System.getProperty("benchmark.rotas");
+        if (informadas != null && !informadas.isBlank()) {
+            rotas = Arrays.stream(informadas.split(",")).map(String::trim).map(Long::valueOf).toList();
+        } else {
+            rotas = new ArrayList<>();
+            for (int i = 0; i < ROTAS_SINTETICAS; i++) {
+                rotas.add(criarRotaSintetica());
+            }
+        }
+        for (Long rotaId : rotas) {
+            jdbcTemplate.update("DELETE FROM rota_cobertura WHERE rota_id = ?", rotaId);
+        }
+    }
+
+    @Test
+    void compararPostgisComJts() {
+        for (Long rotaId : rotas) {
+            // aquecimento
+            postgis.calcular(rotaId, BUFFER_METROS, null);
+            jts.calcular(rotaId, BUFFER_METROS, null);
+
+            long inicio = System.nanoTime();
+            ResultadoCobertura resultadoPostgis = null;
+            for (int i = 0; i < REPETICOES; i++) {
+                resultadoPostgis = postgis.calcular(rotaId, BUFFER_METROS, null);
+            }
+            double msPostgis = (System.nanoTime() - inicio) / 1e6 / REPETICOES;
+
+            inicio = System.nanoTime();
+            ResultadoCobertura resultadoJts = null;
+            for (int i = 0; i < REPETICOES; i++) {
+                resultadoJts = jts.calcular(rotaId, BUFFER_METROS, null);
+            }
+            double msJts = (System.nanoTime() - inicio) / 1e6 / REPETICOES;
+
+            assertEquals(resultadoPostgis.estatisticas().getQuantidadeTrajetos(),
+                    resultadoJts.estatisticas().getQuantidadeTrajetos());
+            assertEquals(resultadoPostgis.estatisticas().getPercentualCobertura(),
+                    resultadoJts.estatisticas().getPercentualCobertura(), 0.1);
+
+            System.out.printf("Rota %d (%d trajetos, cobertura %.2f%%): PostGIS %8.1f ms | JTS %8.1f ms%n",
+                    rotaId, resultadoJts.estatisticas().getQuantidadeTrajetos(),
+                    resultadoJts.estatisticas().getPercentualCobertura(), msPostgis, msJts);
+        }
+    }
+
+    private Long criarRotaSintetica() {
+        Long rotaId = TrajetoFixture.criarRota(jdbcTemplate);
+        jdbcTemplate.update("UPDATE tb_rota SET area_geografica = ST_MakeEnvelope(-52.70, -26.25, -52.66, -26.21, 4326) " +
+                "WHERE id = ?", rotaId);
+        for (int i = 0; i < TRAJETOS_POR_ROTA; i++) {
+            Long trajetoId = TrajetoFixture.criarTrajeto(jdbcTemplate, rotaId);
+            // zigue-zague de leste a oeste, cada trajeto em uma faixa de latitude
+            jdbcTemplate.update("UPDATE trajeto SET status = 'FINALIZADO', caminho = (" +
+                    "SELECT ST_MakeLine(ST_SetSRID(ST_MakePoint(-52.70 + n * 0.04 / ?, " +
+                    "-26.25 + ? * 0.002 + (n % 2) * 0.0004), 4326) ORDER BY n) " +
+                    "FROM generate_series(0, ? - 1) n) WHERE id = ?",
+                    VERTICES_POR_TRAJETO, i, VERTICES_POR_TRAJETO, trajetoId);
+        }
+        return rotaId;
+    }
+}
@@ -0,0 +1,137 @@
+package utfpr.edu.br.coleta.rota.cobertura;
+
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.PrecisionModel;
+import utfpr.edu.br.coleta.rota.dto.AreasNaoPercorridasDTO.EstatisticasCobertura;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários da cobertura aproximada por grade (sem banco): o resultado deve ficar
+ * dentro de {@code erro_maximo_m2} do cálculo exato em JTS.
+ *
+ * Autor: Sistema
+ */
+class MotorCoberturaGradeTest {
+
+    private static final GeometryFactory FACTORY = new GeometryFactory(new PrecisionModel(), 4326);
+    private static final GeometryFactory FACTORY_METROS = new GeometryFactory(new PrecisionModel(), 3857);
+
+    // 0,02° x 0,02° em torno de (-26.23, -52.68)
+    private static final Geometry AREA = FACTORY.toGeometry(
+            new Envelope(-52.69, -52.67, -26.24, -26.22));
+
+    // polígono côncavo com furo, para exercitar o preenchimento
+    private static final Geometry AREA_IRREGULAR = FACTORY.createPolygon(
+            FACTORY.createLinearRing(new Coordinate[]{
+                    new Coordinate(-52.690, -26.240), new Coordinate(-52.670, -26.240),
+                    new Coordinate(-52.675, -26.230), new Coordinate(-52.670, -26.220),
+                    new Coordinate(-52.690, -26.220), new Coordinate(-52.690, -26.240)}),
+            new LinearRing[]{FACTORY.createLinearRing(new Coordinate[]{
+                    new Coordinate(-52.686, -26.236), new Coordinate(-52.682, -26.236),
+                    new Coordinate(-52.682, -26.232), new Coordinate(-52.686, -26.232),
+                    new Coordinate(-52.686, -26.236)})});
+
+    /**
+     * Áreas total e coberta de caminhos irregulares devem ficar dentro do erro máximo
+     * informado em relação ao cálculo exato.
+     */
+    @Test
+    void deveFicarDentroDoErroMaximoDoCalculoExato() {
+        List<Geometry> caminhos = List.of(
+                linha(-52.70, -26.23, -52.66, -26.225),
+                FACTORY.createLineString(new Coordinate[]{
+                        new Coordinate(-52.688, -26.238), new Coordinate(-52.684, -26.229),
+                        new Coordinate(-52.679, -26.235), new Coordinate(-52.672, -26.221)}));
+
+        EstatisticasCobertura exato = MotorCoberturaJts.calcular(AREA_IRREGULAR, caminhos, 20.0).estatisticas();
+        EstatisticasCobertura aproximado = MotorCoberturaGrade.calcular(grade(AREA_IRREGULAR, 10.0), caminhos, 20.0)
+                .estatisticas();
+
+        double erro = aproximado.getErroMaximoM2();
+        assertTrue(erro > 0);
+        assertEquals(exato.getAreaTotalM2(), aproximado.getAreaTotalM2(), erro);
+        assertEquals(exato.getAreaCobertaM2(), aproximado.getAreaCobertaM2(), erro);
+        // o limite é o pior caso; a diferença real deve ser bem menor
+        assertTrue(Math.abs(exato.getAreaCobertaM2() - aproximado.getAreaCobertaM2()) < erro / 4);
+        assertEquals(2, aproximado.getQuantidadeTrajetos());
+    }
+
+    /**
+     * Sem caminhos na área, nada fica coberto; caminhos nulos contam como trajetos.
+     */
+    @Test
+    void deveManterAreaInteiraSemCaminhosNaArea() {
+        Geometry longe = linha(-52.80, -26.30, -52.79, -26.30);
+
+        ResultadoCobertura resultado = MotorCoberturaGrade.calcular(grade(AREA, 10.0), Arrays.asList(longe, null), 20.0);
+
+        assertEquals(0.0, resultado.estatisticas().getAreaCobertaM2());
+        assertEquals(0.0, resultado.estatisticas().getPercentualCobertura());
+        assertEquals(2, resultado.estatisticas().getQuantidadeTrajetos());
+        assertEquals("MultiPolygon", resultado.areasNaoCobertas().getGeometria().getGeometryType());
+    }
+
+    /**
+     * Um buffer que cobre a área inteira deve resultar em 100% e nenhuma célula não coberta.
+     */
+    @Test
+    void deveCobrirAreaInteira() {
+        Geometry caminho = linha(-52.70, -26.23, -52.66, -26.23);
+
+        ResultadoCobertura resultado = MotorCoberturaGrade.calcular(grade(AREA, 10.0), List.of(caminho), 3_000.0);
+
+        assertEquals(100.0, resultado.estatisticas().getPercentualCobertura(), 1e-9);
+        assertTrue(resultado.areasNaoCobertas().getGeometria().isEmpty());
+    }
+
+    /**
+     * A grade de um retângulo alinhado tem exatamente a área do retângulo arredondada às
+     * células, e a geometria das células não cobertas tem a área não coberta.
+     */
+    @Test
+    void deveGerarGeometriaComAreaDasCelulas() {
+        Geometry metros = FACTORY_METROS.toGeometry(new Envelope(0, 1_000, 0, 500));
+        GradeCobertura grade = GradeCobertura.rasterizar(metros, 10.0, 16_000_000L);
+
+        GradeCobertura.Contagem contagem = grade.calcular(List.of(
+                FACTORY_METROS.createLineString(new Coordinate[]{new Coordinate(0, 250), new Coordinate(1_000, 250)})),
+                50.0);
+
+        assertEquals(500_000.0, contagem.areaTotalM2(), 1e-6);
+        // centros de 205 a 295: 10 linhas cobertas
+        assertEquals(100 * 10 * 100.0, contagem.areaCobertaM2(), 1e-6);
+        Geometry naoCobertas = grade.paraGeometria(contagem.naoCobertas(), FACTORY_METROS);
+        assertEquals(contagem.areaTotalM2() - contagem.areaCobertaM2(), naoCobertas.getArea(), 1e-6);
+        assertEquals(2, naoCobertas.getNumGeometries());
+    }
+
+    /**
+     * Áreas muito grandes aumentam o lado da célula para respeitar o limite de células.
+     */
+    @Test
+    void deveAumentarCelulaAcimaDoLimite() {
+        Geometry metros = FACTORY_METROS.toGeometry(new Envelope(0, 100_000, 0, 100_000));
+
+        GradeCobertura grade = GradeCobertura.rasterizar(metros, 10.0, 1_000_000L);
+
+        assertEquals(100.0, grade.getLado(), 1e-9);
+        assertTrue((long) grade.getColunas() * grade.getLinhas() <= 1_000_000L);
+    }
+
+    private static GradeCobertura grade(Geometry areaGraus, double lado) {
+        return GradeCobertura.rasterizar(WebMercator.paraMetros(areaGraus), lado, 16_000_000L);
+    }
+
+    private static Geometry linha(double lon1, double lat1, double lon2, double lat2) {
+        return FACTORY.createLineString(new Coordinate[]{new Coordinate(lon1, lat1), new Coordinate(lon2, lat2)});
+    }
+}
@@ -0,0 +1,98 @@
+package utfpr.edu.br.coleta.rota.cobertura;
+
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.springframework.jdbc.core.JdbcTemplate;
+import utfpr.edu.br.coleta.rota.RotaService.CoberturaSobrecarregadaException;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Testes unitários do cálculo de cobertura em JTS (sem banco): área coberta por uma faixa,
+ * casos extremos e a projeção Web Mercator.
+ *
+ * Autor: Sistema
+ */
+class MotorCoberturaJtsTest {
+
+    private static final GeometryFactory FACTORY = new GeometryFactory(new PrecisionModel(), 4326);
+
+    // 0,02° x 0,02° em torno de (-26.23, -52.68)
+    private static final Geometry AREA = FACTORY.toGeometry(
+            new Envelope(-52.69, -52.67, -26.24, -26.22));
+
+    /**
+     * Um caminho que atravessa a área deve cobrir uma faixa de 2 x buffer na largura da área.
+     */
+    @Test
+    void deveCobrirFaixaDoCaminho() {
+        Geometry caminho = linha(-52.70, -26.23, -52.66, -26.23);
+
+        ResultadoCobertura resultado = MotorCoberturaJts.calcular(AREA, List.of(caminho), 20.0);
+
+        double larguraMetros = WebMercator.RAIO_TERRA * Math.toRadians(0.02);
+        assertEquals(larguraMetros * 40, resultado.estatisticas().getAreaCobertaM2(), larguraMetros * 40 * 0.01);
+        assertEquals(1, resultado.estatisticas().getQuantidadeTrajetos());
+        assertEquals("MultiPolygon", resultado.areasNaoCobertas().getGeometria().getGeometryType());
+    }
+
+    /**
+     * Sem caminhos na área, a área inteira fica não coberta; caminhos nulos contam como trajetos.
+     */
+    @Test
+    void deveManterAreaInteiraSemCaminhosNaArea() {
+        Geometry longe = linha(-52.80, -26.30, -52.79, -26.30);
+
+        ResultadoCobertura resultado = MotorCoberturaJts.calcular(AREA, Arrays.asList(longe, null), 20.0);
+
+        assertEquals(0.0, resultado.estatisticas().getPercentualCobertura());
+        assertEquals(2, resultado.estatisticas().getQuantidadeTrajetos());
+        assertEquals("Polygon", resultado.areasNaoCobertas().getGeometria().getGeometryType());
+    }
+
+    /**
+     * Um buffer que cobre a área inteira deve resultar em 100% e polígono vazio.
+     */
+    @Test
+    void deveCobrirAreaInteira() {
+        Geometry caminho = linha(-52.70, -26.23, -52.66, -26.23);
+
+        ResultadoCobertura resultado = MotorCoberturaJts.calcular(AREA, List.of(caminho), 3_000.0);
+
+        assertEquals(100.0, resultado.estatisticas().getPercentualCobertura(), 1e-9);
+        assertTrue(resultado.areasNaoCobertas().getGeometria().isEmpty());
+    }
+
+    /**
+     * Pedido recusado pelo pool deve sair como sobrecarga (503), não como erro de processamento.
+     */
+    @Test
+    void deveIndicarSobrecargaQuandoPoolRecusaCalculo() {
+        MotorCoberturaJts motor = new MotorCoberturaJts(mock(JdbcTemplate.class), 1, 1);
+        motor.encerrar();
+
+        assertThrows(CoberturaSobrecarregadaException.class, () -> motor.calcular(1L, 20.0, null));
+    }
+
+    /**
+     * Ida e volta entre 4326 e 3857 deve preservar as coordenadas.
+     */
+    @Test
+    void deveConverterIdaEVoltaWebMercator() {
+        Geometry metros = WebMercator.paraMetros(AREA);
+        assertEquals(3857, metros.getSRID());
+        assertTrue(WebMercator.paraGraus(metros).equalsExact(AREA, 1e-9));
+    }
+
+    private static Geometry linha(double lon1, double lat1, double lon2, double lat2) {
+        return FACTORY.createLineString(new Coordinate[]{new Coordinate(lon1, lat1), new Coordinate(lon2, lat2)});
+    }
+}
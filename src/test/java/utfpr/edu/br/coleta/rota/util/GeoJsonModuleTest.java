@@ -0,0 +1,87 @@
+package utfpr.edu.br.coleta.rota.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.PrecisionModel;
+import utfpr.edu.br.coleta.rota.dto.AreasNaoPercorridasDTO;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários da serialização de geometrias em GeoJSON: estrutura igual à do
+ * ST_AsGeoJSON, arredondamento das coordenadas e cópia do texto do PostGIS.
+ *
+ * Autor: Sistema
+ */
+class GeoJsonModuleTest {
+
+    private static final GeometryFactory FACTORY = new GeometryFactory(new PrecisionModel(), 4326);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new GeoJsonModule(6));
+
+    /**
+     * Coordenadas devem ser arredondadas às casas decimais configuradas.
+     */
+    @Test
+    void deveArredondarCoordenadas() throws Exception {
+        Geometry ponto = FACTORY.createPoint(new Coordinate(-52.123456789, -26.987654321));
+
+        assertEquals("{\"type\":\"Point\",\"coordinates\":[-52.123457,-26.987654]}",
+                objectMapper.writeValueAsString(ponto));
+    }
+
+    /**
+     * Polígonos com furo e multipolígonos devem ter os níveis de arrays do GeoJSON.
+     */
+    @Test
+    void deveEscreverMultiPoligonoComFuro() throws Exception {
+        Polygon comFuro = FACTORY.createPolygon(
+                FACTORY.createLinearRing(new Coordinate[]{new Coordinate(0, 0), new Coordinate(4, 0),
+                        new Coordinate(4, 4), new Coordinate(0, 0)}),
+                new LinearRing[]{FACTORY.createLinearRing(new Coordinate[]{
+                        new Coordinate(1, 0.5), new Coordinate(3, 0.5), new Coordinate(3, 2.5), new Coordinate(1, 0.5)})});
+        Polygon quadrado = (Polygon) FACTORY.toGeometry(new Envelope(10, 11, 10, 11));
+
+        String json = objectMapper.writeValueAsString(
+                FACTORY.createMultiPolygon(new Polygon[]{comFuro, quadrado}));
+
+        assertEquals("{\"type\":\"MultiPolygon\",\"coordinates\":["
+                + "[[[0.0,0.0],[4.0,0.0],[4.0,4.0],[0.0,0.0]],[[1.0,0.5],[3.0,0.5],[3.0,2.5],[1.0,0.5]]],"
+                + "[[[10.0,10.0],[10.0,11.0],[11.0,11.0],[11.0,10.0],[10.0,10.0]]]]}", json);
+    }
+
+    /**
+     * Geometrias vazias devem ter lista de coordenadas vazia.
+     */
+    @Test
+    void deveEscreverGeometriaVazia() throws Exception {
+        assertEquals("{\"type\":\"MultiPolygon\",\"coordinates\":[]}",
+                objectMapper.writeValueAsString(FACTORY.createMultiPolygon()));
+    }
+
+    /**
+     * O texto do PostGIS deve ir para a resposta como está, e a geometria JTS serializada
+     * no mesmo campo.
+     */
+    @Test
+    void deveCopiarTextoDoPostgisNaResposta() throws Exception {
+        String texto = "{\"type\":\"Polygon\",\"coordinates\":[[[1,2],[3,4],[5,6],[1,2]]]}";
+        AreasNaoPercorridasDTO dto = AreasNaoPercorridasDTO.builder()
+                .rotaId(1L)
+                .areasNaoCobertas(GeometriaGeoJson.texto(texto))
+                .build();
+
+        assertEquals("{\"rota_id\":1,\"areas_nao_cobertas\":" + texto + "}", objectMapper.writeValueAsString(dto));
+
+        dto.setAreasNaoCobertas(GeometriaGeoJson.de(FACTORY.createPoint(new Coordinate(1, 2))));
+        assertEquals("{\"rota_id\":1,\"areas_nao_cobertas\":{\"type\":\"Point\",\"coordinates\":[1.0,2.0]}}",
+                objectMapper.writeValueAsString(dto));
+        assertNull(GeometriaGeoJson.texto("null"));
+    }
+}
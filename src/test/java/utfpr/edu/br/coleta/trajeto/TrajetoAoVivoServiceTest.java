@@ -0,0 +1,226 @@
+package utfpr.edu.br.coleta.trajeto;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import utfpr.edu.br.coleta.trajeto.dto.PosicaoVeiculoDTO;
+import utfpr.edu.br.coleta.trajeto.enums.TrajetoStatus;
+import utfpr.edu.br.coleta.trajeto.event.TrajetoStatusAlteradoEvent;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoDTO;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.event.PontosTrajetoRegistradosEvent;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários do mapa de posições ao vivo e das alterações enviadas por SSE.
+ *
+ * Autor: Sistema
+ */
+@ExtendWith(MockitoExtension.class)
+class TrajetoAoVivoServiceTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2025, 5, 5, 8, 0);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private TrajetoAoVivoService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TrajetoAoVivoService(jdbcTemplate, 1000, 30, 15, 3);
+    }
+
+    /**
+     * Deve guardar só a posição mais recente do lote e consultar o trajeto uma única vez.
+     */
+    @Test
+    void deveManterUltimaPosicaoDoTrajeto() {
+        emAndamento(10L);
+
+        service.aoRegistrarPontos(evento(10L, ponto(2, -26.2), ponto(5, -26.5), ponto(3, -26.3)));
+        service.aoRegistrarPontos(evento(10L, ponto(6, -26.6)));
+
+        List<PosicaoVeiculoDTO> posicoes = service.listarPosicoes();
+        assertEquals(1, posicoes.size());
+        assertEquals(-26.6, posicoes.get(0).getLatitude());
+        assertEquals(3L, posicoes.get(0).getRotaId());
+        assertEquals(7L, posicoes.get(0).getCaminhaoId());
+        verify(jdbcTemplate, times(1)).queryForList(anyString(), eq(10L));
+    }
+
+    /**
+     * Pontos atrasados, mais antigos que a posição conhecida, não devem voltar a posição.
+     */
+    @Test
+    void deveIgnorarPontoMaisAntigoQueOConhecido() {
+        emAndamento(10L);
+        service.aoRegistrarPontos(evento(10L, ponto(5, -26.5)));
+        service.coletarAlteracoes();
+
+        service.aoRegistrarPontos(evento(10L, ponto(1, -26.1)));
+
+        assertEquals(-26.5, service.listarPosicoes().get(0).getLatitude());
+        assertTrue(service.coletarAlteracoes().posicoes().isEmpty());
+    }
+
+    /**
+     * Pontos de um trajeto que não está em andamento não devem aparecer no mapa.
+     */
+    @Test
+    void deveIgnorarTrajetoQueNaoEstaEmAndamento() {
+        when(jdbcTemplate.queryForList(anyString(), eq(11L))).thenReturn(List.of(
+                Map.of("status", TrajetoStatus.FINALIZADO.name(), "rota_id", 3L, "caminhao_id", 7L)));
+
+        service.aoRegistrarPontos(evento(11L, ponto(1, -26.1)));
+
+        assertTrue(service.listarPosicoes().isEmpty());
+        assertTrue(service.coletarAlteracoes().posicoes().isEmpty());
+    }
+
+    /**
+     * Ao finalizar o trajeto, ele deve sair do mapa e ser informado como removido.
+     */
+    @Test
+    void deveRemoverTrajetoAoFinalizar() {
+        emAndamento(10L);
+        service.aoRegistrarPontos(evento(10L, ponto(1, -26.1)));
+        service.coletarAlteracoes();
+
+        service.aoAlterarStatus(new TrajetoStatusAlteradoEvent(10L, TrajetoStatus.FINALIZADO));
+
+        assertTrue(service.listarPosicoes().isEmpty());
+        TrajetoAoVivoService.Alteracoes alteracoes = service.coletarAlteracoes();
+        assertTrue(alteracoes.posicoes().isEmpty());
+        assertEquals(List.of(10L), alteracoes.removidos());
+    }
+
+    /**
+     * As alterações devem ser entregues uma única vez, com uma posição por trajeto.
+     */
+    @Test
+    void deveColetarAlteracoesUmaVezPorTrajeto() {
+        emAndamento(10L);
+        emAndamento(20L);
+        service.aoRegistrarPontos(evento(10L, ponto(1, -26.1)));
+        service.aoRegistrarPontos(evento(10L, ponto(2, -26.2)));
+        service.aoRegistrarPontos(evento(20L, ponto(1, -25.1)));
+
+        TrajetoAoVivoService.Alteracoes alteracoes = service.coletarAlteracoes();
+
+        assertEquals(2, alteracoes.posicoes().size());
+        assertTrue(alteracoes.posicoes().stream()
+                .anyMatch(p -> p.getTrajetoId().equals(10L) && p.getLatitude() == -26.2));
+        assertTrue(service.coletarAlteracoes().posicoes().isEmpty());
+    }
+
+    /**
+     * Um cliente lento não deve atrasar os demais e, com a fila cheia, deve ser desconectado.
+     */
+    @Test
+    void deveDesconectarClienteLentoSemAtrasarOsDemais() throws Exception {
+        // intervalo longo: os envios são disparados pelo teste, não pelo agendamento
+        service = new TrajetoAoVivoService(jdbcTemplate, 60_000, 30, 15, 3);
+        service.iniciar();
+        try {
+            CountDownLatch liberar = new CountDownLatch(1);
+            EmissorDeTeste lento = new EmissorDeTeste(liberar);
+            EmissorDeTeste rapido = new EmissorDeTeste(null);
+            service.inscrever(lento);
+            service.inscrever(rapido);
+            emAndamento(10L);
+            assertTrue(lento.emEnvio.await(5, TimeUnit.SECONDS));
+            assertTrue(rapido.aguardarEnvios(1));
+
+            // o rápido recebe cada posição enquanto o lento segue preso no snapshot
+            for (int i = 1; i <= 5; i++) {
+                service.aoRegistrarPontos(evento(10L, ponto(i, -26.0 - i / 10.0)));
+                service.enviarAlteracoes();
+                assertTrue(rapido.aguardarEnvios(i + 1));
+            }
+            assertEquals(1, service.quantidadeInscritos());
+
+            liberar.countDown();
+            assertTrue(lento.concluido.await(5, TimeUnit.SECONDS));
+            assertEquals(1, lento.envios.get());
+        } finally {
+            service.encerrar();
+        }
+    }
+
+    private void emAndamento(Long trajetoId) {
+        when(jdbcTemplate.queryForList(anyString(), eq(trajetoId))).thenReturn(List.of(
+                Map.of("status", TrajetoStatus.EM_ANDAMENTO.name(), "rota_id", 3L, "caminhao_id", 7L)));
+    }
+
+    private PontosTrajetoRegistradosEvent evento(Long trajetoId, PontoTrajetoDTO... pontos) {
+        for (PontoTrajetoDTO ponto : pontos) {
+            ponto.setTrajetoId(trajetoId);
+        }
+        return new PontosTrajetoRegistradosEvent(trajetoId, List.of(pontos));
+    }
+
+    private PontoTrajetoDTO ponto(int minuto, double latitude) {
+        PontoTrajetoDTO dto = new PontoTrajetoDTO();
+        dto.setLatitude(latitude);
+        dto.setLongitude(-52.6789);
+        dto.setHorario(INICIO.plusMinutes(minuto));
+        return dto;
+    }
+
+    /**
+     * Emissor que conta os envios e, se tiver {@code liberar}, fica preso no envio até a liberação.
+     */
+    private static class EmissorDeTeste extends SseEmitter {
+
+        private final CountDownLatch liberar;
+        private final AtomicInteger envios = new AtomicInteger();
+        private final CountDownLatch concluido = new CountDownLatch(1);
+        private final CountDownLatch emEnvio = new CountDownLatch(1);
+
+        EmissorDeTeste(CountDownLatch liberar) {
+            this.liberar = liberar;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            emEnvio.countDown();
+            if (liberar != null) {
+                try {
+                    liberar.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            envios.incrementAndGet();
+        }
+
+        @Override
+        public void complete() {
+            concluido.countDown();
+        }
+
+        boolean aguardarEnvios(int quantidade) throws InterruptedException {
+            long limite = System.currentTimeMillis() + 5000;
+            while (envios.get() < quantidade && System.currentTimeMillis() < limite) {
+                Thread.sleep(10);
+            }
+            return envios.get() == quantidade;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package utfpr.edu.br.coleta.trajeto;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import utfpr.edu.br.coleta.config.AbstractIntegrationTest;
+import utfpr.edu.br.coleta.config.TrajetoFixture;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.IPontoTrajetoService;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.PontoTrajeto;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoCreateDTO;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes de integração da manutenção incremental de trajeto.caminho durante a ingestão.
+ * O caminho incremental deve ser sempre igual à linha montada do zero com todos os pontos,
+ * e a distância acumulada igual à medida do caminho completo.
+ */
+class TrajetoCaminhoServiceTest extends AbstractIntegrationTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2025, 5, 5, 8, 0);
+
+    @Autowired
+    private IPontoTrajetoService pontoService;
+
+    @Autowired
+    private TrajetoCaminhoService caminhoService;
+
+    @Autowired
+    private ITrajetoService trajetoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long trajetoId;
+
+    @BeforeEach
+    void setUp() {
+        trajetoId = TrajetoFixture.criarTrajeto(jdbcTemplate);
+    }
+
+    @Test
+    void deveManterCaminhoNuloComUmPonto() {
+        pontoService.registrarPonto(ponto(0));
+
+        assertNull(jdbcTemplate.queryForObject("SELECT ST_AsText(caminho) FROM trajeto WHERE id = ?", String.class, trajetoId));
+        assertEquals(INICIO, jdbcTemplate.queryForObject(
+                "SELECT horario_ultimo_ponto FROM trajeto WHERE id = ?", LocalDateTime.class, trajetoId));
+    }
+
+    @Test
+    void deveAnexarPontosEmOrdem() {
+        pontoService.registrarPontosLote(pontos(0, 10), null);
+        pontoService.registrarPontosLote(pontos(10, 20), null);
+        pontoService.registrarPonto(ponto(20));
+
+        assertCaminhoIgualAoReconstruido(21);
+    }
+
+    @Test
+    void deveIncorporarPontosAtrasados() {
+        pontoService.registrarPontosLote(pontos(0, 30), null);
+
+        // lote com pontos que se intercalam aos já registrados, além de um novo ponto ao fim
+        List<PontoTrajetoCreateDTO> atrasados = new ArrayList<>();
+        atrasados.add(ponto(30));
+        atrasados.add(pontoEntre(5));
+        atrasados.add(pontoEntre(12));
+        pontoService.registrarPontosLote(atrasados, null);
+
+        assertCaminhoIgualAoReconstruido(33);
+    }
+
+    @Test
+    void deveIncorporarPontoAnteriorAoPrimeiro() {
+        pontoService.registrarPontosLote(pontos(5, 10), null);
+        pontoService.registrarPontosLote(pontos(0, 5), null);
+
+        assertCaminhoIgualAoReconstruido(10);
+        assertEquals(INICIO, jdbcTemplate.queryForObject(
+                "SELECT horario_primeiro_ponto FROM trajeto WHERE id = ?", LocalDateTime.class, trajetoId));
+    }
+
+    @Test
+    void deveIgnorarDuplicadosNoCaminho() {
+        pontoService.registrarPontosLote(pontos(0, 10), null);
+        pontoService.registrarPontosLote(pontos(0, 12), null);
+
+        assertCaminhoIgualAoReconstruido(12);
+    }
+
+    @Test
+    void deveReconciliarDistanciaAoFinalizar() {
+        pontoService.registrarPontosLote(pontos(0, 20), null);
+        jdbcTemplate.update("UPDATE trajeto SET distancia_total = 999 WHERE id = ?", trajetoId);
+
+        Double distancia = trajetoService.finalizarTrajeto(trajetoId).getDistanciaTotal();
+
+        assertEquals(caminhoService.calcularDistanciaKm(trajetoId), distancia, 1e-9);
+        // 19 segmentos de ~14,9 m cada
+        assertEquals(0.284, distancia, 0.001);
+    }
+
+    @Test
+    void deveLerPontoGravadoPeloCrud() {
+        pontoService.registrarPontosLote(pontos(0, 10), null);
+
+        // fora do intervalo de horários gravado pela ingestão
+        PontoTrajeto ponto = new PontoTrajeto();
+        ponto.setTrajeto(trajetoService.findOne(trajetoId));
+        ponto.setLocalizacao(new GeometryFactory(new PrecisionModel(), 4326)
+                .createPoint(new Coordinate(-52.6789, -26.2289)));
+        ponto.setHorario(INICIO.plusHours(2));
+        pontoService.save(ponto);
+
+        assertEquals(11, pontoService.findByTrajeto(trajetoId).size());
+        assertEquals(INICIO.plusHours(2), jdbcTemplate.queryForObject(
+                "SELECT horario_ultimo_ponto FROM trajeto WHERE id = ?", LocalDateTime.class, trajetoId));
+        assertCaminhoIgualAoReconstruido(11);
+    }
+
+    @Test
+    void deveLerPontosDeTrajetoSemIntervalo() {
+        pontoService.registrarPontosLote(pontos(0, 5), null);
+        jdbcTemplate.update("UPDATE trajeto SET horario_primeiro_ponto = NULL, horario_ultimo_ponto = NULL WHERE id = ?",
+                trajetoId);
+
+        assertEquals(5, pontoService.findByTrajeto(trajetoId).size());
+    }
+
+    private void assertCaminhoIgualAoReconstruido(int vertices) {
+        String incremental = jdbcTemplate.queryForObject(
+                "SELECT ST_AsText(caminho) FROM trajeto WHERE id = ?", String.class, trajetoId);
+        String reconstruido = jdbcTemplate.queryForObject(
+                "SELECT ST_AsText(ST_MakeLine(localizacao ORDER BY horario)) FROM ponto_trajeto WHERE trajeto_id = ?",
+                String.class, trajetoId);
+
+        assertEquals(reconstruido, incremental);
+        assertEquals(vertices, jdbcTemplate.queryForObject(
+                "SELECT ST_NPoints(caminho) FROM trajeto WHERE id = ?", Integer.class, trajetoId));
+
+        Double distancia = jdbcTemplate.queryForObject(
+                "SELECT distancia_total FROM trajeto WHERE id = ?", Double.class, trajetoId);
+        assertEquals(caminhoService.calcularDistanciaKm(trajetoId), distancia, 1e-9);
+    }
+
+    private List<PontoTrajetoCreateDTO> pontos(int inicio, int fim) {
+        List<PontoTrajetoCreateDTO> pontos = new ArrayList<>();
+        for (int i = inicio; i < fim; i++) {
+            pontos.add(ponto(i));
+        }
+        return pontos;
+    }
+
+    private PontoTrajetoCreateDTO ponto(int segundo) {
+        PontoTrajetoCreateDTO dto = new PontoTrajetoCreateDTO();
+        dto.setTrajetoId(trajetoId);
+        dto.setLatitude(-26.2289 + segundo * 1e-4);
+        dto.setLongitude(-52.6789 + segundo * 1e-4);
+        dto.setHorario(INICIO.plusSeconds(segundo * 10L));
+        return dto;
+    }
+
+    /** Ponto cinco segundos depois do ponto {@code segundo}, fora da grade de 10 s dos demais. */
+    private PontoTrajetoCreateDTO pontoEntre(int segundo) {
+        PontoTrajetoCreateDTO dto = ponto(segundo);
+        dto.setLatitude(dto.getLatitude() + 5e-5);
+        dto.setHorario(dto.getHorario().plusSeconds(5));
+        return dto;
+    }
+}
@@ -0,0 +1,73 @@
+package utfpr.edu.br.coleta.trajeto;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import utfpr.edu.br.coleta.config.AbstractIntegrationTest;
+import utfpr.edu.br.coleta.config.TrajetoFixture;
+import utfpr.edu.br.coleta.trajeto.dto.TrajetoCreateDTO;
+import utfpr.edu.br.coleta.trajeto.dto.TrajetoDTO;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes de integração do ciclo de vida do trajeto pelo serviço (início, finalização e
+ * cancelamento), com os listeners de status rodando na transação.
+ */
+class TrajetoServiceImplTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private ITrajetoService trajetoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TrajetoCreateDTO dto;
+
+    @BeforeEach
+    void setUp() {
+        // reaproveita rota, caminhão e motorista do trajeto da fixture
+        Map<String, Object> base = jdbcTemplate.queryForMap(
+                "SELECT rota_id, caminhao_id, motorista_id FROM trajeto WHERE id = ?",
+                TrajetoFixture.criarTrajeto(jdbcTemplate));
+        jdbcTemplate.update("UPDATE tb_motorista SET cnh_categoria = 'E' WHERE id = ?", base.get("motorista_id"));
+
+        dto = new TrajetoCreateDTO();
+        dto.setRotaId(((Number) base.get("rota_id")).longValue());
+        dto.setCaminhaoId(((Number) base.get("caminhao_id")).longValue());
+        dto.setMotoristaId(((Number) base.get("motorista_id")).longValue());
+    }
+
+    @Test
+    void deveIniciarTrajeto() {
+        TrajetoDTO iniciado = trajetoService.iniciarTrajeto(dto);
+
+        assertNotNull(iniciado.getId());
+        assertEquals("EM_ANDAMENTO", status(iniciado.getId()));
+    }
+
+    @Test
+    void deveIniciarEFinalizarTrajeto() {
+        Long id = trajetoService.iniciarTrajeto(dto).getId();
+
+        trajetoService.finalizarTrajeto(id);
+
+        assertEquals("FINALIZADO", status(id));
+    }
+
+    @Test
+    void deveIniciarECancelarTrajeto() {
+        Long id = trajetoService.iniciarTrajeto(dto).getId();
+
+        trajetoService.cancelarTrajeto(id);
+
+        assertEquals("CANCELADO", status(id));
+    }
+
+    private String status(Long id) {
+        return jdbcTemplate.queryForObject("SELECT status FROM trajeto WHERE id = ?", String.class, id);
+    }
+}
@@ -0,0 +1,105 @@
+package utfpr.edu.br.coleta.trajeto;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import utfpr.edu.br.coleta.config.AbstractIntegrationTest;
+import utfpr.edu.br.coleta.config.TrajetoFixture;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.IPontoTrajetoService;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoCreateDTO;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes de integração das versões simplificadas do caminho geradas ao finalizar o trajeto.
+ * Os pontos seguem uma reta para leste com desvios alternados de ~3,3 m para o norte:
+ * a tolerância de 1 m mantém todos os vértices e as de 5 m e 20 m reduzem a linha à reta.
+ */
+class TrajetoSimplificacaoServiceTest extends AbstractIntegrationTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2025, 5, 5, 8, 0);
+    private static final int QUANTIDADE_PONTOS = 50;
+
+    @Autowired
+    private IPontoTrajetoService pontoService;
+
+    @Autowired
+    private ITrajetoService trajetoService;
+
+    @Autowired
+    private TrajetoSimplificacaoService simplificacaoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long trajetoId;
+
+    @BeforeEach
+    void setUp() {
+        trajetoId = TrajetoFixture.criarTrajeto(jdbcTemplate);
+    }
+
+    @Test
+    void deveGerarVersoesSimplificadasAoFinalizar() {
+        pontoService.registrarPontosLote(pontos(0, QUANTIDADE_PONTOS), null);
+
+        trajetoService.finalizarTrajeto(trajetoId);
+
+        assertEquals(QUANTIDADE_PONTOS, vertices(1));
+        assertEquals(2, vertices(5));
+        assertEquals(2, vertices(20));
+    }
+
+    @Test
+    void deveRefazerVersoesComPontosAposFinalizar() {
+        pontoService.registrarPontosLote(pontos(0, QUANTIDADE_PONTOS), null);
+        trajetoService.finalizarTrajeto(trajetoId);
+
+        pontoService.registrarPontosLote(pontos(QUANTIDADE_PONTOS, QUANTIDADE_PONTOS + 10), null);
+
+        assertEquals(QUANTIDADE_PONTOS + 10, vertices(1));
+    }
+
+    @Test
+    void deveEscolherMaiorToleranciaDentroDoPedido() {
+        pontoService.registrarPontosLote(pontos(0, QUANTIDADE_PONTOS), null);
+        trajetoService.finalizarTrajeto(trajetoId);
+
+        assertEquals(QUANTIDADE_PONTOS, simplificacaoService.buscarCaminho(trajetoId, 4.0).orElseThrow().getNumPoints());
+        assertEquals(2, simplificacaoService.buscarCaminho(trajetoId, 5.0).orElseThrow().getNumPoints());
+        // abaixo da menor tolerância, a versão menos simplificada
+        assertEquals(QUANTIDADE_PONTOS, simplificacaoService.buscarCaminho(trajetoId, 0.5).orElseThrow().getNumPoints());
+    }
+
+    @Test
+    void deveUsarCaminhoCompletoSemVersoesSimplificadas() {
+        pontoService.registrarPontosLote(pontos(0, QUANTIDADE_PONTOS), null);
+
+        assertEquals(QUANTIDADE_PONTOS, simplificacaoService.buscarCaminho(trajetoId, 20.0).orElseThrow().getNumPoints());
+        assertTrue(simplificacaoService.buscarCaminho(TrajetoFixture.criarTrajeto(jdbcTemplate), 20.0).isEmpty());
+    }
+
+    private Integer vertices(double toleranciaMetros) {
+        return jdbcTemplate.queryForObject(
+                "SELECT vertices FROM trajeto_caminho_simplificado WHERE trajeto_id = ? AND tolerancia_metros = ?",
+                Integer.class, trajetoId, toleranciaMetros);
+    }
+
+    private List<PontoTrajetoCreateDTO> pontos(int inicio, int fim) {
+        List<PontoTrajetoCreateDTO> pontos = new ArrayList<>();
+        for (int i = inicio; i < fim; i++) {
+            PontoTrajetoCreateDTO dto = new PontoTrajetoCreateDTO();
+            dto.setTrajetoId(trajetoId);
+            dto.setLatitude(-26.2289 + (i % 2) * 3e-5);
+            dto.setLongitude(-52.6789 + i * 1e-4);
+            dto.setHorario(INICIO.plusSeconds(i * 10L));
+            pontos.add(dto);
+        }
+        return pontos;
+    }
+}
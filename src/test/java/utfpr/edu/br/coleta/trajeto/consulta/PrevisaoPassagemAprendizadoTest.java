@@ -0,0 +1,138 @@
+package utfpr.edu.br.coleta.trajeto.consulta;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import utfpr.edu.br.coleta.config.AbstractIntegrationTest;
+import utfpr.edu.br.coleta.config.TrajetoFixture;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.IPontoTrajetoService;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoCreateDTO;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes de integração das funções que aprendem a previsão de passagem
+ * (registrar_passagens_trajeto e atualizar_previsao_rota), inclusive com dois trajetos
+ * da mesma rota atualizados ao mesmo tempo.
+ */
+class PrevisaoPassagemAprendizadoTest extends AbstractIntegrationTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2025, 5, 5, 8, 0);
+
+    // ~1 km para leste em 10 minutos: atravessa umas 7 células de 150 m
+    private static final int QUANTIDADE_PONTOS = 60;
+
+    @Autowired
+    private PrevisaoPassagemService service;
+
+    @Autowired
+    private IPontoTrajetoService pontoService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long rotaId;
+
+    @BeforeEach
+    void setUp() {
+        rotaId = TrajetoFixture.criarRota(jdbcTemplate);
+    }
+
+    @Test
+    void deveRegistrarPrimeiraPassagemPorCelula() {
+        Long trajetoId = trajetoFinalizado(0);
+
+        service.atualizar(trajetoId);
+
+        Integer celulas = jdbcTemplate.queryForObject(
+                "SELECT count(*)::INTEGER FROM passagem_celula WHERE trajeto_id = ?", Integer.class, trajetoId);
+        assertTrue(celulas >= 5, "células percorridas: " + celulas);
+        // a primeira célula é a do primeiro ponto, no minuto zero
+        int[] primeira = PrevisaoPassagemService.celula(-26.2289, -52.6889);
+        assertEquals(0.0, jdbcTemplate.queryForObject(
+                "SELECT minutos_desde_inicio FROM passagem_celula WHERE trajeto_id = ? AND celula_x = ? AND celula_y = ?",
+                Double.class, trajetoId, primeira[0], primeira[1]));
+        assertEquals(celulas, jdbcTemplate.queryForObject(
+                "SELECT count(*)::INTEGER FROM previsao_passagem_celula WHERE rota_id = ? AND amostras = 1",
+                Integer.class, rotaId));
+    }
+
+    @Test
+    void deveCalcularPercentisEntreTrajetos() {
+        Long primeiro = trajetoFinalizado(0);
+        Long segundo = trajetoFinalizado(20);
+
+        service.atualizar(primeiro);
+        service.atualizar(segundo);
+
+        int[] primeira = PrevisaoPassagemService.celula(-26.2289, -52.6889);
+        List<Double> mediana = jdbcTemplate.queryForList(
+                "SELECT minuto_dia_mediano FROM previsao_passagem_celula " +
+                "WHERE rota_id = ? AND celula_x = ? AND celula_y = ? AND amostras = 2",
+                Double.class, rotaId, primeira[0], primeira[1]);
+        // 08:00 e 08:20
+        assertEquals(List.of(8 * 60 + 10.0), mediana);
+    }
+
+    @Test
+    void deveAtualizarTrajetosDaMesmaRotaAoMesmoTempo() throws Exception {
+        Long primeiro = trajetoFinalizado(0);
+        Long segundo = trajetoFinalizado(20);
+        CountDownLatch primeiroAtualizado = new CountDownLatch(1);
+
+        // o primeiro segura a transação aberta depois de recalcular a rota
+        CompletableFuture<Void> tarefa = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    service.atualizar(primeiro);
+                    primeiroAtualizado.countDown();
+                    esperar(500);
+                }));
+        assertTrue(primeiroAtualizado.await(10, TimeUnit.SECONDS));
+        transactionTemplate.executeWithoutResult(status -> service.atualizar(segundo));
+        tarefa.get(10, TimeUnit.SECONDS);
+
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT count(DISTINCT trajeto_id)::INTEGER FROM passagem_celula WHERE rota_id = ?",
+                Integer.class, rotaId));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*)::INTEGER FROM previsao_passagem_celula WHERE rota_id = ? AND amostras <> 2",
+                Integer.class, rotaId));
+    }
+
+    private Long trajetoFinalizado(int minutoInicio) {
+        Long trajetoId = TrajetoFixture.criarTrajeto(jdbcTemplate, rotaId);
+        List<PontoTrajetoCreateDTO> pontos = new ArrayList<>();
+        for (int i = 0; i < QUANTIDADE_PONTOS; i++) {
+            PontoTrajetoCreateDTO dto = new PontoTrajetoCreateDTO();
+            dto.setTrajetoId(trajetoId);
+            dto.setLatitude(-26.2289);
+            dto.setLongitude(-52.6889 + i * 1.5e-4);
+            dto.setHorario(INICIO.plusMinutes(minutoInicio).plusSeconds(i * 10L));
+            pontos.add(dto);
+        }
+        pontoService.registrarPontosLote(pontos, null);
+        jdbcTemplate.update("UPDATE trajeto SET status = 'FINALIZADO', data_fim = ? WHERE id = ?",
+                INICIO.plusMinutes(minutoInicio + 10), trajetoId);
+        return trajetoId;
+    }
+
+    private static void esperar(long milissegundos) {
+        try {
+            Thread.sleep(milissegundos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
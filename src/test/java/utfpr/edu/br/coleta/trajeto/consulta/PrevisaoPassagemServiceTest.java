@@ -0,0 +1,83 @@
+package utfpr.edu.br.coleta.trajeto.consulta;
+
+import org.junit.jupiter.api.Test;
+import utfpr.edu.br.coleta.trajeto.consulta.PrevisaoPassagemService.EstatisticaCelula;
+import utfpr.edu.br.coleta.trajeto.consulta.dto.PrevisaoColetaDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários das contas da previsão de passagem (grade, escolha da célula e janela de chegada).
+ *
+ * Autor: Sistema
+ */
+class PrevisaoPassagemServiceTest {
+
+    private static final LocalDateTime AGORA = LocalDateTime.of(2025, 5, 5, 9, 0);
+
+    /**
+     * A célula deve seguir a grade de 150 m de EPSG:3857 usada em registrar_passagens_trajeto.
+     */
+    @Test
+    void deveCalcularCelulaNaGradeDoBanco() {
+        // ST_Transform para 3857: x = -5864188,3 e y = -3027458,9
+        int[] celula = PrevisaoPassagemService.celula(-26.2289, -52.6789);
+
+        assertEquals(-39095, celula[0]);
+        assertEquals(-20184, celula[1]);
+    }
+
+    /**
+     * Deve preferir a célula do endereço e, sem ela, a vizinha com mais amostras.
+     */
+    @Test
+    void deveEscolherCelulaMaisProximaDoEndereco() {
+        EstatisticaCelula vizinhaPouca = estatistica(11, 20, 2, 30);
+        EstatisticaCelula vizinhaMuita = estatistica(9, 21, 8, 30);
+        EstatisticaCelula propria = estatistica(10, 20, 1, 30);
+
+        assertEquals(propria, PrevisaoPassagemService.escolherCelula(
+                List.of(vizinhaPouca, propria, vizinhaMuita), 10, 20).orElseThrow());
+        assertEquals(vizinhaMuita, PrevisaoPassagemService.escolherCelula(
+                List.of(vizinhaPouca, vizinhaMuita), 10, 20).orElseThrow());
+        assertTrue(PrevisaoPassagemService.escolherCelula(List.of(), 10, 20).isEmpty());
+    }
+
+    /**
+     * Chegada = agora + (tempo típico até o endereço - tempo típico até o caminhão), com a
+     * janela dada pelos percentis 10 e 90.
+     */
+    @Test
+    void deveEstimarJanelaDeChegada() {
+        PrevisaoColetaDTO dto = new PrevisaoColetaDTO();
+
+        PrevisaoPassagemService.estimarChegada(dto, estatistica(0, 0, 10, 60), 40, AGORA);
+
+        assertFalse(dto.getJaPassou());
+        assertEquals(AGORA.plusMinutes(20), dto.getPrevisaoChegada());
+        assertEquals(AGORA.plusMinutes(15), dto.getPrevisaoChegadaInicio());
+        assertEquals(AGORA.plusMinutes(30), dto.getPrevisaoChegadaFim());
+    }
+
+    /**
+     * Com o caminhão bem adiante do endereço, a previsão deve indicar que ele já passou.
+     */
+    @Test
+    void deveIndicarQueCaminhaoJaPassou() {
+        PrevisaoColetaDTO dto = new PrevisaoColetaDTO();
+
+        PrevisaoPassagemService.estimarChegada(dto, estatistica(0, 0, 10, 60), 90, AGORA);
+
+        assertTrue(dto.getJaPassou());
+        assertNull(dto.getPrevisaoChegada());
+    }
+
+    // p10 = mediano - 5 e p90 = mediano + 10 (minutos desde o início do trajeto)
+    private EstatisticaCelula estatistica(int x, int y, int amostras, double minutosInicioMediano) {
+        return new EstatisticaCelula(x, y, amostras, 540, 560, 580,
+                minutosInicioMediano - 5, minutosInicioMediano, minutosInicioMediano + 10);
+    }
+}
@@ -0,0 +1,173 @@
+package utfpr.edu.br.coleta.trajeto.pontotrajeto;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import utfpr.edu.br.coleta.storage.MinioService;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.binario.PontoTrajetoArquivoCodec;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários do arquivamento de pontos (envio antes do bloqueio) e da junção entre
+ * pontos arquivados e pontos ainda na tabela.
+ *
+ * Autor: Sistema
+ */
+@ExtendWith(MockitoExtension.class)
+class PontoTrajetoArquivadorTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2025, 3, 10, 7, 30);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private MinioService minioService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PontoTrajetoArquivador arquivador;
+
+    @BeforeEach
+    void setUp() {
+        arquivador = new PontoTrajetoArquivador(jdbcTemplate, minioService, new TransactionTemplate(transactionManager));
+    }
+
+    /**
+     * Deve enviar o arquivo, e só então bloquear o trajeto, marcar e remover os pontos.
+     */
+    @Test
+    void deveArquivarComEnvioAntesDoBloqueio() {
+        pontosLidos(null, List.of(ponto(7, 0), ponto(9, 10)));
+        arquivavel(true);
+        assinaturaNaTabela("2-9");
+        lenient().when(jdbcTemplate.update(startsWith("DELETE"), eq(1L), eq(1L), eq(1L))).thenReturn(2);
+
+        assertTrue(arquivador.arquivar(1L));
+
+        var ordem = inOrder(minioService, jdbcTemplate);
+        ordem.verify(minioService).uploadBytes(eq("pontos-trajeto/trajeto-1-2-9.pta"), any(), anyString());
+        ordem.verify(jdbcTemplate).query(endsWith("FOR NO KEY UPDATE"), any(RowMapper.class), eq(1L));
+        ordem.verify(jdbcTemplate).update(anyString(), eq("pontos-trajeto/trajeto-1-2-9.pta"), eq(1L));
+        ordem.verify(jdbcTemplate).update(startsWith("DELETE"), eq(1L), eq(1L), eq(1L));
+        verify(minioService, never()).deleteObject(anyString());
+    }
+
+    /**
+     * Trajeto arquivado com pontos recebidos depois deve ganhar um novo arquivo com todos os
+     * pontos, e o arquivo anterior deve ser apagado.
+     */
+    @Test
+    void deveRearquivarComPontosRecebidosDepois() throws Exception {
+        String anterior = "pontos-trajeto/trajeto-1-1-3.pta";
+        pontosLidos(anterior, List.of(ponto(7, 0), ponto(9, 10)));
+        when(minioService.downloadBytes(anterior))
+                .thenReturn(PontoTrajetoArquivoCodec.codificar(1L, List.of(ponto(3, 5))));
+        arquivavel(true);
+        assinaturaNaTabela("2-9");
+
+        assertTrue(arquivador.arquivar(1L));
+
+        var ordem = inOrder(minioService, jdbcTemplate);
+        ordem.verify(minioService).uploadBytes(eq("pontos-trajeto/trajeto-1-3-9.pta"), any(), anyString());
+        ordem.verify(jdbcTemplate).update(anyString(), eq("pontos-trajeto/trajeto-1-3-9.pta"), eq(1L));
+        ordem.verify(minioService).deleteObject(anterior);
+    }
+
+    /**
+     * Trajeto sem pontos não deve gerar arquivo.
+     */
+    @Test
+    void naoDeveArquivarTrajetoSemPontos() {
+        pontosLidos(null, List.of());
+
+        assertFalse(arquivador.arquivar(1L));
+
+        verifyNoInteractions(minioService, transactionManager);
+    }
+
+    /**
+     * Se os pontos mudaram entre a leitura e o bloqueio, nada deve ser removido da tabela,
+     * e o objeto enviado deve ser apagado.
+     */
+    @Test
+    void naoDeveRemoverPontosQueMudaramDuranteOEnvio() {
+        pontosLidos(null, List.of(ponto(7, 0), ponto(9, 10)));
+        arquivavel(true);
+        assinaturaNaTabela("3-12");
+
+        assertFalse(arquivador.arquivar(1L));
+
+        verify(minioService).uploadBytes(eq("pontos-trajeto/trajeto-1-2-9.pta"), any(), anyString());
+        verify(jdbcTemplate, never()).update(anyString(), any(), any());
+        verify(jdbcTemplate, never()).update(anyString(), any(), any(), any());
+        verify(minioService).deleteObject("pontos-trajeto/trajeto-1-2-9.pta");
+    }
+
+    /**
+     * Deve intercalar por horário e descartar da tabela os pontos já presentes no arquivo.
+     */
+    @Test
+    void deveMesclarEmOrdemDeHorarioSemDuplicados() {
+        List<PontoTrajetoDTO> arquivados = List.of(ponto(1, 0), ponto(2, 10), ponto(3, 20));
+        List<PontoTrajetoDTO> naTabela = List.of(ponto(10, 5), ponto(11, 10), ponto(12, 30));
+
+        List<PontoTrajetoDTO> pontos = PontoTrajetoArquivador.mesclar(arquivados, naTabela);
+
+        assertEquals(List.of(1L, 10L, 2L, 3L, 12L), pontos.stream().map(PontoTrajetoDTO::getId).toList());
+    }
+
+    @Test
+    void deveManterArquivadosSemPontosNaTabela() {
+        List<PontoTrajetoDTO> arquivados = List.of(ponto(1, 0), ponto(2, 10));
+
+        assertEquals(arquivados, PontoTrajetoArquivador.mesclar(arquivados, List.of()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void pontosLidos(String arquivo, List<PontoTrajetoDTO> pontos) {
+        when(jdbcTemplate.query(contains("JOIN trajeto"), any(RowMapper.class), eq(1L))).thenReturn((List) pontos.stream()
+                .map(ponto -> new PontoTrajetoArquivador.PontoNaTabela(ponto, arquivo))
+                .toList());
+    }
+
+    private void assinaturaNaTabela(String assinatura) {
+        lenient().when(jdbcTemplate.queryForObject(startsWith("SELECT count(*)"), eq(String.class), eq(1L), eq(1L), eq(1L)))
+                .thenReturn(assinatura);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void arquivavel(boolean arquivavel) {
+        when(jdbcTemplate.query(endsWith("FOR NO KEY UPDATE"), any(RowMapper.class), eq(1L)))
+                .thenReturn((List) List.of(arquivavel));
+    }
+
+    private PontoTrajetoDTO ponto(long id, int segundos) {
+        PontoTrajetoDTO dto = new PontoTrajetoDTO();
+        dto.setId(id);
+        dto.setTrajetoId(1L);
+        dto.setLatitude(-26.2289);
+        dto.setLongitude(-52.6789);
+        dto.setHorario(INICIO.plusSeconds(segundos));
+        return dto;
+    }
+}
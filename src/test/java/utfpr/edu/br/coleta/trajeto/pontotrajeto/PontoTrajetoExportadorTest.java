@@ -0,0 +1,82 @@
+package utfpr.edu.br.coleta.trajeto.pontotrajeto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import utfpr.edu.br.coleta.config.AbstractIntegrationTest;
+import utfpr.edu.br.coleta.config.TrajetoFixture;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoCreateDTO;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes de integração da exportação de pontos em NDJSON.
+ */
+class PontoTrajetoExportadorTest extends AbstractIntegrationTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2025, 5, 5, 8, 0);
+
+    @Autowired
+    private IPontoTrajetoService service;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long trajetoId;
+
+    @BeforeEach
+    void setUp() {
+        trajetoId = TrajetoFixture.criarTrajeto(jdbcTemplate);
+    }
+
+    @Test
+    void deveExportarUmPontoPorLinhaEmOrdemDeHorario() throws Exception {
+        // mais pontos que o fetch size, gravados fora de ordem
+        int quantidade = PontoTrajetoExportador.TAMANHO_FETCH * 2 + 10;
+        List<PontoTrajetoCreateDTO> pontos = new ArrayList<>();
+        for (int i = quantidade - 1; i >= 0; i--) {
+            PontoTrajetoCreateDTO dto = new PontoTrajetoCreateDTO();
+            dto.setTrajetoId(trajetoId);
+            dto.setLatitude(-26.2289 + i * 1e-5);
+            dto.setLongitude(-52.6789);
+            dto.setHorario(INICIO.plusSeconds(i));
+            pontos.add(dto);
+        }
+        service.registrarPontosLote(pontos, null);
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        long exportados = service.exportarPontos(trajetoId, saida);
+
+        String[] linhas = saida.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(quantidade, exportados);
+        assertEquals(quantidade, linhas.length);
+
+        JsonNode primeira = objectMapper.readTree(linhas[0]);
+        JsonNode ultima = objectMapper.readTree(linhas[quantidade - 1]);
+        assertEquals(trajetoId, primeira.get("trajetoId").asLong());
+        assertEquals(-26.2289, primeira.get("latitude").asDouble(), 1e-9);
+        assertEquals(-52.6789, primeira.get("longitude").asDouble(), 1e-9);
+        assertEquals(INICIO, objectMapper.treeToValue(primeira.get("horario"), LocalDateTime.class));
+        assertEquals(INICIO.plusSeconds(quantidade - 1), objectMapper.treeToValue(ultima.get("horario"), LocalDateTime.class));
+    }
+
+    @Test
+    void deveExportarVazioParaTrajetoSemPontos() throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        assertEquals(0, service.exportarPontos(trajetoId, saida));
+        assertEquals(0, saida.size());
+    }
+}
@@ -0,0 +1,173 @@
+package utfpr.edu.br.coleta.trajeto.pontotrajeto;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoBatchResponseDTO;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoCreateDTO;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.ReciboIngestaoDTO;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.enums.StatusReciboIngestao;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários da fila de ingestão assíncrona de pontos.
+ *
+ * Autor: Sistema
+ */
+@ExtendWith(MockitoExtension.class)
+class PontoTrajetoFilaIngestaoTest {
+
+    @Mock
+    private IPontoTrajetoService service;
+
+    private PontoTrajetoFilaIngestao fila;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (fila != null) {
+            fila.encerrar();
+        }
+    }
+
+    /**
+     * Deve gravar o lote em segundo plano e marcar o recibo como concluído.
+     */
+    @Test
+    void deveConcluirReciboAposGravar() throws InterruptedException {
+        when(service.registrarLotesAgrupados(anyList())).thenAnswer(inv -> {
+            List<List<PontoTrajetoCreateDTO>> lotes = inv.getArgument(0);
+            return lotes.stream().map(l -> resposta(l.size())).toList();
+        });
+        fila = criarFila(10, 1);
+
+        ReciboIngestaoDTO recibo = fila.enfileirar(pontos(3)).orElseThrow();
+        assertEquals(3, recibo.getTotalRecebidos());
+
+        ReciboIngestaoDTO concluido = aguardarFinalizado(recibo);
+        assertEquals(StatusReciboIngestao.CONCLUIDO, concluido.getStatus());
+        assertEquals(3, concluido.getResultado().getTotalSalvos());
+        // o recibo devolvido ao enfileirar é uma cópia, não muda com o processamento
+        assertEquals(StatusReciboIngestao.PENDENTE, recibo.getStatus());
+        assertNull(recibo.getConcluidoEm());
+    }
+
+    /**
+     * Deve recusar lotes quando a fila estiver cheia.
+     */
+    @Test
+    void deveRecusarQuandoFilaCheia() throws InterruptedException {
+        CountDownLatch bloqueio = new CountDownLatch(1);
+        CountDownLatch emGravacao = new CountDownLatch(1);
+        when(service.registrarLotesAgrupados(anyList())).thenAnswer(inv -> {
+            emGravacao.countDown();
+            bloqueio.await();
+            List<List<PontoTrajetoCreateDTO>> lotes = inv.getArgument(0);
+            return lotes.stream().map(l -> resposta(l.size())).toList();
+        });
+        fila = criarFila(1, 1);
+
+        assertTrue(fila.enfileirar(pontos(1)).isPresent());
+        assertTrue(emGravacao.await(5, TimeUnit.SECONDS));
+        assertTrue(fila.enfileirar(pontos(1)).isPresent());
+
+        Optional<ReciboIngestaoDTO> recusado = fila.enfileirar(pontos(1));
+
+        bloqueio.countDown();
+        assertTrue(recusado.isEmpty());
+    }
+
+    /**
+     * Deve gravar os lotes individualmente quando a transação agrupada falhar,
+     * marcando como erro apenas o lote com problema.
+     */
+    @Test
+    void deveIsolarLoteComErro() throws InterruptedException {
+        CountDownLatch bloqueio = new CountDownLatch(1);
+        when(service.registrarLotesAgrupados(anyList())).thenAnswer(inv -> {
+            bloqueio.await();
+            List<List<PontoTrajetoCreateDTO>> lotes = inv.getArgument(0);
+            if (lotes.stream().anyMatch(l -> l.size() == 2)) {
+                throw new IllegalStateException("falha no banco");
+            }
+            return lotes.stream().map(l -> resposta(l.size())).toList();
+        });
+        fila = criarFila(10, 1);
+
+        // o primeiro lote segura o worker para que os dois seguintes sejam agrupados
+        ReciboIngestaoDTO primeiro = fila.enfileirar(pontos(1)).orElseThrow();
+        ReciboIngestaoDTO comErro = fila.enfileirar(pontos(2)).orElseThrow();
+        ReciboIngestaoDTO valido = fila.enfileirar(pontos(3)).orElseThrow();
+        bloqueio.countDown();
+
+        assertEquals(StatusReciboIngestao.CONCLUIDO, aguardarFinalizado(primeiro).getStatus());
+        assertEquals(StatusReciboIngestao.ERRO, aguardarFinalizado(comErro).getStatus());
+        assertEquals(StatusReciboIngestao.CONCLUIDO, aguardarFinalizado(valido).getStatus());
+    }
+
+    /**
+     * Deve gravar os lotes pendentes antes de encerrar e recusar novos lotes depois disso.
+     */
+    @Test
+    void deveEsvaziarFilaAoEncerrar() throws InterruptedException {
+        when(service.registrarLotesAgrupados(anyList())).thenAnswer(inv -> {
+            List<List<PontoTrajetoCreateDTO>> lotes = inv.getArgument(0);
+            return lotes.stream().map(l -> resposta(l.size())).toList();
+        });
+        fila = criarFila(100, 1);
+
+        List<ReciboIngestaoDTO> recibos = List.of(
+                fila.enfileirar(pontos(1)).orElseThrow(),
+                fila.enfileirar(pontos(2)).orElseThrow(),
+                fila.enfileirar(pontos(3)).orElseThrow());
+
+        fila.encerrar();
+
+        assertEquals(0, fila.tamanho());
+        recibos.forEach(r -> assertEquals(StatusReciboIngestao.CONCLUIDO,
+                fila.consultar(r.getId()).orElseThrow().getStatus()));
+        assertTrue(fila.enfileirar(pontos(1)).isEmpty());
+    }
+
+    private PontoTrajetoFilaIngestao criarFila(int capacidade, int workers) {
+        PontoTrajetoFilaIngestao nova = new PontoTrajetoFilaIngestao(service, capacidade, workers, 20, 60, 10);
+        nova.iniciar();
+        return nova;
+    }
+
+    private ReciboIngestaoDTO aguardarFinalizado(ReciboIngestaoDTO recibo) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < limite) {
+            ReciboIngestaoDTO atual = fila.consultar(recibo.getId()).orElseThrow();
+            if (atual.finalizado()) {
+                return atual;
+            }
+            Thread.sleep(10);
+        }
+        fail("Recibo " + recibo.getId() + " não foi finalizado");
+        return null;
+    }
+
+    private PontoTrajetoBatchResponseDTO resposta(int salvos) {
+        PontoTrajetoBatchResponseDTO resposta = new PontoTrajetoBatchResponseDTO();
+        resposta.setTotalRecebidos(salvos);
+        resposta.setTotalSalvos(salvos);
+        return resposta;
+    }
+
+    private List<PontoTrajetoCreateDTO> pontos(int quantidade) {
+        return IntStream.range(0, quantidade)
+                .mapToObj(i -> new PontoTrajetoCreateDTO())
+                .toList();
+    }
+}
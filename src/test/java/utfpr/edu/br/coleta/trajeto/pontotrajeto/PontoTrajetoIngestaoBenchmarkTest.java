@@ -0,0 +1,91 @@
+package utfpr.edu.br.coleta.trajeto.pontotrajeto;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import utfpr.edu.br.coleta.config.AbstractIntegrationTest;
+import utfpr.edu.br.coleta.config.TrajetoFixture;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoBatchResponseDTO;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoCreateDTO;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Benchmark de ingestão de pontos: compara pontos/segundo do caminho antigo
+ * (um registrarPonto por ponto, via JPA) com o caminho em lote do PontoTrajetoBatchWriter
+ * e com o COPY binário do PontoTrajetoCopyWriter.
+ *
+ * Não roda na suíte normal. Para executar:
+ * <pre>
+ * mvn test -Dtest=PontoTrajetoIngestaoBenchmarkTest -Dbenchmark=true
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PontoTrajetoIngestaoBenchmarkTest extends AbstractIntegrationTest {
+
+    private static final int QUANTIDADE_PONTOS = 5_000;
+
+    @Autowired
+    private IPontoTrajetoService service;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long trajetoId;
+
+    @BeforeEach
+    void criarTrajeto() {
+        trajetoId = TrajetoFixture.criarTrajeto(jdbcTemplate);
+    }
+
+    @Test
+    void compararPontosPorSegundo() {
+        List<PontoTrajetoCreateDTO> pontosUnitarios = gerarPontos(QUANTIDADE_PONTOS, LocalDateTime.now().minusDays(2));
+        List<PontoTrajetoCreateDTO> pontosLote = gerarPontos(QUANTIDADE_PONTOS, LocalDateTime.now().minusDays(1));
+        List<PontoTrajetoCreateDTO> pontosCopy = gerarPontos(QUANTIDADE_PONTOS, LocalDateTime.now().minusHours(12));
+
+        long inicio = System.nanoTime();
+        for (PontoTrajetoCreateDTO ponto : pontosUnitarios) {
+            service.registrarPonto(ponto);
+        }
+        double segundosUnitario = (System.nanoTime() - inicio) / 1e9;
+
+        inicio = System.nanoTime();
+        PontoTrajetoBatchResponseDTO resposta = service.registrarPontosLote(pontosLote, null);
+        double segundosLote = (System.nanoTime() - inicio) / 1e9;
+
+        inicio = System.nanoTime();
+        PontoTrajetoBatchResponseDTO respostaCopy = service.registrarPontosLoteCopy(pontosCopy, null);
+        double segundosCopy = (System.nanoTime() - inicio) / 1e9;
+
+        assertEquals(QUANTIDADE_PONTOS, resposta.getTotalSalvos());
+        assertEquals(QUANTIDADE_PONTOS, respostaCopy.getTotalSalvos());
+
+        System.out.printf("Ingestão de %d pontos%n", QUANTIDADE_PONTOS);
+        System.out.printf("  registrarPonto (um a um): %8.0f pontos/s (%.2fs)%n",
+                QUANTIDADE_PONTOS / segundosUnitario, segundosUnitario);
+        System.out.printf("  registrarPontosLote:      %8.0f pontos/s (%.2fs)%n",
+                QUANTIDADE_PONTOS / segundosLote, segundosLote);
+        System.out.printf("  registrarPontosLoteCopy:  %8.0f pontos/s (%.2fs)%n",
+                QUANTIDADE_PONTOS / segundosCopy, segundosCopy);
+    }
+
+    private List<PontoTrajetoCreateDTO> gerarPontos(int quantidade, LocalDateTime inicio) {
+        List<PontoTrajetoCreateDTO> pontos = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            PontoTrajetoCreateDTO dto = new PontoTrajetoCreateDTO();
+            dto.setTrajetoId(trajetoId);
+            dto.setLatitude(-26.2289 + i * 1e-5);
+            dto.setLongitude(-52.6789 + i * 1e-5);
+            dto.setHorario(inicio.plusSeconds(i));
+            pontos.add(dto);
+        }
+        return pontos;
+    }
+}
@@ -0,0 +1,51 @@
+package utfpr.edu.br.coleta.trajeto.pontotrajeto;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários da remoção dos lotes antigos de ponto_trajeto_lote.
+ *
+ * Autor: Sistema
+ */
+@ExtendWith(MockitoExtension.class)
+class PontoTrajetoLoteRetencaoJobTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Deve remover blocos até um vir incompleto.
+     */
+    @Test
+    void deveRemoverEmBlocosAteEsgotar() {
+        LocalDateTime limite = LocalDateTime.of(2025, 5, 5, 0, 0);
+        when(jdbcTemplate.update(anyString(), eq(limite)))
+                .thenReturn(PontoTrajetoLoteRetencaoJob.LOTES_POR_BLOCO, PontoTrajetoLoteRetencaoJob.LOTES_POR_BLOCO, 7);
+
+        int removidos = new PontoTrajetoLoteRetencaoJob(jdbcTemplate, 30).removerAnteriores(limite);
+
+        assertEquals(2 * PontoTrajetoLoteRetencaoJob.LOTES_POR_BLOCO + 7, removidos);
+        verify(jdbcTemplate, times(3)).update(anyString(), eq(limite));
+    }
+
+    /**
+     * Com retenção zero, nada deve ser removido.
+     */
+    @Test
+    void naoDeveRemoverComRetencaoZero() {
+        new PontoTrajetoLoteRetencaoJob(jdbcTemplate, 0).executar();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,85 @@
+package utfpr.edu.br.coleta.trajeto.pontotrajeto;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários da manutenção das partições de ponto_trajeto.
+ *
+ * Autor: Sistema
+ */
+@ExtendWith(MockitoExtension.class)
+class PontoTrajetoParticaoJobTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Deve pedir a partição do mês atual e dos meses seguintes configurados.
+     */
+    @Test
+    void deveCriarParticoesDoMesAtualEFuturas() {
+        PontoTrajetoParticaoJob job = new PontoTrajetoParticaoJob(jdbcTemplate, 2, 0);
+
+        job.criarParticoesFuturas(YearMonth.of(2025, 11));
+
+        verify(jdbcTemplate).queryForObject(anyString(), eq(String.class), eq(LocalDate.of(2025, 11, 1)));
+        verify(jdbcTemplate).queryForObject(anyString(), eq(String.class), eq(LocalDate.of(2025, 12, 1)));
+        verify(jdbcTemplate).queryForObject(anyString(), eq(String.class), eq(LocalDate.of(2026, 1, 1)));
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    /**
+     * Deve tentar desanexar só as partições mensais anteriores ao limite, nunca a padrão.
+     */
+    @Test
+    void deveDesanexarSomenteParticoesAntigas() {
+        PontoTrajetoParticaoJob job = new PontoTrajetoParticaoJob(jdbcTemplate, 3, 12);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(
+                "ponto_trajeto_2024_01", "ponto_trajeto_2024_06", "ponto_trajeto_padrao"));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq("ponto_trajeto_2024_01")))
+                .thenReturn(true);
+
+        job.desanexarAntigas(YearMonth.of(2024, 6));
+
+        verify(jdbcTemplate).queryForObject(anyString(), eq(Boolean.class), eq("ponto_trajeto_2024_01"));
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Boolean.class), eq("ponto_trajeto_2024_06"));
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Boolean.class), eq("ponto_trajeto_padrao"));
+    }
+
+    /**
+     * Partição antiga que ainda tem pontos é mantida pela função do banco; o job segue para as próximas.
+     */
+    @Test
+    void deveSeguirQuandoParticaoAntigaAindaTemPontos() {
+        PontoTrajetoParticaoJob job = new PontoTrajetoParticaoJob(jdbcTemplate, 3, 12);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(
+                "ponto_trajeto_2024_01", "ponto_trajeto_2024_02"));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), anyString())).thenReturn(false, true);
+
+        job.desanexarAntigas(YearMonth.of(2024, 6));
+
+        verify(jdbcTemplate).queryForObject(anyString(), eq(Boolean.class), eq("ponto_trajeto_2024_01"));
+        verify(jdbcTemplate).queryForObject(anyString(), eq(Boolean.class), eq("ponto_trajeto_2024_02"));
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void deveIdentificarMesDaParticao() {
+        assertEquals(YearMonth.of(2025, 3), PontoTrajetoParticaoJob.mesDaParticao("ponto_trajeto_2025_03"));
+        assertNull(PontoTrajetoParticaoJob.mesDaParticao("ponto_trajeto_padrao"));
+        assertNull(PontoTrajetoParticaoJob.mesDaParticao("ponto_trajeto_lote"));
+    }
+}
@@ -0,0 +1,375 @@
+package utfpr.edu.br.coleta.trajeto.pontotrajeto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.modelmapper.ModelMapper;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import utfpr.edu.br.coleta.trajeto.Trajeto;
+import utfpr.edu.br.coleta.trajeto.TrajetoRepository;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.binario.PontoTrajetoBinarioEncoder;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoBatchResponseDTO;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoCreateDTO;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoDTO;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoFeedDTO;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.event.PontosTrajetoRegistradosEvent;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários da ingestão em lote do PontoTrajetoServiceImpl.
+ * O banco é simulado com Mockito; o JSON é lido com um ObjectMapper real.
+ *
+ * Autor: Sistema
+ */
+@ExtendWith(MockitoExtension.class)
+class PontoTrajetoServiceImplTest {
+
+    @Mock
+    private PontoTrajetoRepository repository;
+
+    @Mock
+    private TrajetoRepository trajetoRepository;
+
+    @Mock
+    private PontoTrajetoBatchWriter batchWriter;
+
+    @Mock
+    private PontoTrajetoCopyWriter copyWriter;
+
+    @Mock
+    private PontoTrajetoExportador exportador;
+
+    @Mock
+    private PontoTrajetoArquivador arquivador;
+
+    @Mock
+    private PontoTrajetoLoteRegistro loteRegistro;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PontoTrajetoServiceImpl service;
+
+    private final List<Integer> tamanhosGravados = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        service = new PontoTrajetoServiceImpl(repository, trajetoRepository, batchWriter, copyWriter,
+                exportador, arquivador, loteRegistro, eventPublisher, new TransactionTemplate(transactionManager),
+                new ModelMapper(), objectMapper);
+
+        lenient().when(trajetoRepository.findIdsExistentes(anyCollection())).thenReturn(Set.of(1L));
+        lenient().when(batchWriter.inserir(anyList())).thenAnswer(inv -> {
+            List<PontoTrajetoCreateDTO> pontos = inv.getArgument(0);
+            tamanhosGravados.add(pontos.size());
+            return pontos.stream().map(this::salvo).toList();
+        });
+    }
+
+    /**
+     * Deve gravar os pontos em blocos de tamanho fixo e retornar apenas os totais.
+     */
+    @Test
+    void deveGravarStreamEmBlocos() throws IOException {
+        int quantidade = PontoTrajetoServiceImpl.TAMANHO_BLOCO_STREAM * 2 + 5;
+
+        PontoTrajetoBatchResponseDTO resposta = service.registrarPontosLoteStream(json(gerarPontos(quantidade)));
+
+        assertEquals(quantidade, resposta.getTotalRecebidos());
+        assertEquals(quantidade, resposta.getTotalSalvos());
+        assertEquals(0, resposta.getTotalErros());
+        assertTrue(resposta.getPontosSalvos().isEmpty());
+        assertEquals(List.of(PontoTrajetoServiceImpl.TAMANHO_BLOCO_STREAM, PontoTrajetoServiceImpl.TAMANHO_BLOCO_STREAM, 5),
+                tamanhosGravados);
+    }
+
+    /**
+     * Deve reportar pelo índice original os pontos inválidos e os que não podem ser convertidos,
+     * sem interromper a leitura dos demais.
+     */
+    @Test
+    void deveReportarErrosPorIndiceNoStream() throws IOException {
+        List<String> pontos = gerarPontos(4);
+        pontos.set(1, "{\"trajetoId\": 99, \"latitude\": -26.2, \"longitude\": -52.6, \"horario\": \"2025-01-01T10:00:01\"}");
+        pontos.set(2, "{\"trajetoId\": 1, \"latitude\": -26.2, \"longitude\": -52.6, \"horario\": \"ontem\"}");
+
+        PontoTrajetoBatchResponseDTO resposta = service.registrarPontosLoteStream(json(pontos));
+
+        assertEquals(4, resposta.getTotalRecebidos());
+        assertEquals(2, resposta.getTotalSalvos());
+        assertEquals(2, resposta.getTotalErros());
+        assertEquals(1, resposta.getErros().get(0).getIndice());
+        assertTrue(resposta.getErros().get(0).getMensagem().contains("não encontrado"));
+        assertEquals(2, resposta.getErros().get(1).getIndice());
+    }
+
+    /**
+     * Deve manter os blocos já gravados e interromper a leitura quando o JSON estiver truncado.
+     */
+    @Test
+    void deveInterromperStreamComJsonTruncado() throws IOException {
+        String truncado = "[" + String.join(",", gerarPontos(3)) + ", {\"trajetoId\": 1, \"lat";
+
+        PontoTrajetoBatchResponseDTO resposta = service.registrarPontosLoteStream(
+                new ByteArrayInputStream(truncado.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(3, resposta.getTotalSalvos());
+        assertEquals(1, resposta.getTotalErros());
+        assertEquals(3, resposta.getErros().get(0).getIndice());
+    }
+
+    /**
+     * Deve rejeitar um corpo que não seja um array JSON.
+     */
+    @Test
+    void deveRejeitarCorpoQueNaoEArray() {
+        assertThrows(IllegalArgumentException.class, () -> service.registrarPontosLoteStream(
+                new ByteArrayInputStream("{\"trajetoId\": 1}".getBytes(StandardCharsets.UTF_8))));
+        verifyNoInteractions(batchWriter);
+    }
+
+    /**
+     * Deve decodificar o formato binário direto para a gravação em blocos.
+     */
+    @Test
+    void deveGravarLoteBinario() throws IOException {
+        List<PontoTrajetoCreateDTO> pontos = gerarDTOs(PontoTrajetoServiceImpl.TAMANHO_BLOCO_STREAM + 1);
+
+        PontoTrajetoBatchResponseDTO resposta = service.registrarPontosLoteBinario(
+                new ByteArrayInputStream(PontoTrajetoBinarioEncoder.codificar(1L, pontos)));
+
+        assertEquals(pontos.size(), resposta.getTotalRecebidos());
+        assertEquals(pontos.size(), resposta.getTotalSalvos());
+        assertEquals(List.of(PontoTrajetoServiceImpl.TAMANHO_BLOCO_STREAM, 1), tamanhosGravados);
+    }
+
+    /**
+     * Deve contar como duplicados os pontos que o banco ignorou por já estarem registrados.
+     */
+    @Test
+    void deveContarDuplicadosNoLote() {
+        when(loteRegistro.reservar("lote-1", 3)).thenReturn(Optional.empty());
+        List<PontoTrajetoCreateDTO> pontos = gerarDTOs(3);
+        when(batchWriter.inserir(anyList())).thenReturn(List.of(salvo(pontos.get(2))));
+
+        PontoTrajetoBatchResponseDTO resposta = service.registrarPontosLote(pontos, "lote-1");
+
+        assertEquals(1, resposta.getTotalSalvos());
+        assertEquals(2, resposta.getTotalDuplicados());
+        assertEquals(0, resposta.getTotalErros());
+        assertTrue(resposta.todosSalvos());
+        verify(loteRegistro).concluir("lote-1", resposta);
+
+        // só o ponto efetivamente inserido vai para o evento
+        ArgumentCaptor<PontosTrajetoRegistradosEvent> evento = ArgumentCaptor.forClass(PontosTrajetoRegistradosEvent.class);
+        verify(eventPublisher).publishEvent(evento.capture());
+        assertEquals(1L, evento.getValue().getTrajetoId());
+        assertEquals(1, evento.getValue().getPontos().size());
+        assertEquals(pontos.get(2).getHorario(), evento.getValue().getHorarioMinimo());
+    }
+
+    /**
+     * Deve recusar coordenadas NaN ou infinitas, que passam por comparações de intervalo comuns.
+     */
+    @Test
+    void deveRecusarCoordenadasNaoFinitas() {
+        List<PontoTrajetoCreateDTO> pontos = gerarDTOs(5);
+        pontos.get(1).setLatitude(Double.NaN);
+        pontos.get(2).setLongitude(Double.POSITIVE_INFINITY);
+        pontos.get(3).setLatitude(Double.NEGATIVE_INFINITY);
+
+        PontoTrajetoBatchResponseDTO resposta = service.registrarPontosLote(pontos, null);
+
+        assertEquals(2, resposta.getTotalSalvos());
+        assertEquals(3, resposta.getTotalErros());
+        assertEquals(List.of(1, 2, 3), resposta.getErros().stream().map(e -> e.getIndice()).toList());
+        assertEquals(List.of(2), tamanhosGravados);
+    }
+
+    /**
+     * Deve publicar um evento por trajeto, com o intervalo de horários dos pontos gravados.
+     */
+    @Test
+    void devePublicarUmEventoPorTrajeto() {
+        when(trajetoRepository.findIdsExistentes(anyCollection())).thenReturn(Set.of(1L, 2L));
+        List<PontoTrajetoCreateDTO> pontos = gerarDTOs(4);
+        pontos.get(1).setTrajetoId(2L);
+        pontos.get(3).setTrajetoId(2L);
+
+        service.registrarPontosLote(pontos, null);
+
+        ArgumentCaptor<PontosTrajetoRegistradosEvent> eventos = ArgumentCaptor.forClass(PontosTrajetoRegistradosEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(eventos.capture());
+        PontosTrajetoRegistradosEvent doTrajeto2 = eventos.getAllValues().get(1);
+        assertEquals(2L, doTrajeto2.getTrajetoId());
+        assertEquals(pontos.get(1).getHorario(), doTrajeto2.getHorarioMinimo());
+        assertEquals(pontos.get(3).getHorario(), doTrajeto2.getHorarioMaximo());
+    }
+
+    /**
+     * Deve devolver o resumo anterior sem gravar nada quando o lote já foi processado.
+     */
+    @Test
+    void deveIgnorarLoteJaProcessado() {
+        PontoTrajetoBatchResponseDTO anterior = new PontoTrajetoBatchResponseDTO();
+        anterior.setTotalRecebidos(3);
+        anterior.setTotalSalvos(3);
+        when(loteRegistro.reservar("lote-1", 3)).thenReturn(Optional.of(anterior));
+
+        PontoTrajetoBatchResponseDTO resposta = service.registrarPontosLote(gerarDTOs(3), "lote-1");
+
+        assertSame(anterior, resposta);
+        verifyNoInteractions(batchWriter);
+        verify(loteRegistro, never()).concluir(any(), any());
+    }
+
+    /**
+     * Deve continuar do horário do ponto informado em aposId e indicar que há mais pontos
+     * quando o banco devolve um além do limite.
+     */
+    @Test
+    void deveBuscarPontosAposCursorDoId() {
+        LocalDateTime horario = LocalDateTime.of(2025, 1, 1, 8, 0);
+        when(repository.findById(10L)).thenReturn(Optional.of(entidade(10L, horario)));
+        when(repository.findApos(1L, horario, 10L, 3)).thenReturn(List.of(
+                entidade(11L, horario.plusSeconds(1)),
+                entidade(12L, horario.plusSeconds(2)),
+                entidade(13L, horario.plusSeconds(3))));
+
+        PontoTrajetoFeedDTO feed = service.buscarPontosApos(1L, null, 10L, 2);
+
+        assertEquals(2, feed.getPontos().size());
+        assertTrue(feed.isTemMais());
+        assertEquals(12L, feed.getProximoId());
+        assertEquals(horario.plusSeconds(2), feed.getProximoHorario());
+    }
+
+    /**
+     * Em trajeto arquivado, o feed deve percorrer os pontos do arquivo junto com os da tabela.
+     */
+    @Test
+    void deveBuscarPontosAposCursorEmTrajetoArquivado() {
+        LocalDateTime horario = LocalDateTime.of(2025, 1, 1, 8, 0);
+        when(arquivador.lerArquivados(1L)).thenReturn(List.of(
+                convertido(entidade(1L, horario)), convertido(entidade(2L, horario.plusSeconds(1)))));
+        when(repository.findByTrajetoId(1L)).thenReturn(List.of(entidade(30L, horario.plusSeconds(2))));
+
+        PontoTrajetoFeedDTO feed = service.buscarPontosApos(1L, null, 1L, 10);
+
+        assertEquals(List.of(2L, 30L), feed.getPontos().stream().map(PontoTrajetoDTO::getId).toList());
+        assertFalse(feed.isTemMais());
+        verify(repository, never()).findApos(any(), any(), any(), anyInt());
+    }
+
+    /**
+     * Sem pontos novos, deve devolver o mesmo cursor recebido.
+     */
+    @Test
+    void deveManterCursorSemPontosNovos() {
+        LocalDateTime horario = LocalDateTime.of(2025, 1, 1, 8, 0);
+        when(repository.findApos(1L, horario, 10L, 501)).thenReturn(List.of());
+
+        PontoTrajetoFeedDTO feed = service.buscarPontosApos(1L, horario, 10L, 500);
+
+        assertTrue(feed.getPontos().isEmpty());
+        assertFalse(feed.isTemMais());
+        assertEquals(horario, feed.getProximoHorario());
+        assertEquals(10L, feed.getProximoId());
+    }
+
+    /**
+     * Deve rejeitar cursor com ponto de outro trajeto.
+     */
+    @Test
+    void deveRejeitarCursorDeOutroTrajeto() {
+        when(repository.findById(10L)).thenReturn(Optional.of(entidade(10L, LocalDateTime.now())));
+
+        assertThrows(IllegalArgumentException.class, () -> service.buscarPontosApos(2L, null, 10L, 500));
+        verify(repository, never()).findApos(any(), any(), any(), anyInt());
+    }
+
+    private PontoTrajeto entidade(Long id, LocalDateTime horario) {
+        Trajeto trajeto = new Trajeto();
+        trajeto.setId(1L);
+        PontoTrajeto ponto = new PontoTrajeto();
+        ponto.setId(id);
+        ponto.setTrajeto(trajeto);
+        ponto.setLocalizacao(new GeometryFactory(new PrecisionModel(), 4326).createPoint(new Coordinate(-52.6789, -26.2289)));
+        ponto.setHorario(horario);
+        return ponto;
+    }
+
+    private PontoTrajetoDTO convertido(PontoTrajeto ponto) {
+        PontoTrajetoDTO dto = new PontoTrajetoDTO();
+        dto.setId(ponto.getId());
+        dto.setTrajetoId(ponto.getTrajeto().getId());
+        dto.setHorario(ponto.getHorario());
+        return dto;
+    }
+
+    private PontoTrajetoDTO salvo(PontoTrajetoCreateDTO ponto) {
+        PontoTrajetoDTO dto = new PontoTrajetoDTO();
+        dto.setTrajetoId(ponto.getTrajetoId());
+        dto.setLatitude(ponto.getLatitude());
+        dto.setLongitude(ponto.getLongitude());
+        dto.setHorario(ponto.getHorario());
+        return dto;
+    }
+
+    private List<PontoTrajetoCreateDTO> gerarDTOs(int quantidade) {
+        List<PontoTrajetoCreateDTO> pontos = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            PontoTrajetoCreateDTO dto = new PontoTrajetoCreateDTO();
+            dto.setTrajetoId(1L);
+            dto.setLatitude(-26.2289 + i * 1e-5);
+            dto.setLongitude(-52.6789 + i * 1e-5);
+            dto.setHorario(LocalDateTime.of(2025, 1, 1, 8, 0).plusSeconds(i));
+            pontos.add(dto);
+        }
+        return pontos;
+    }
+
+    private List<String> gerarPontos(int quantidade) {
+        List<String> pontos = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            pontos.add(String.format(Locale.ROOT,
+                    "{\"trajetoId\": 1, \"latitude\": %.6f, \"longitude\": %.6f, \"horario\": \"2025-01-01T%02d:%02d:%02d\"}",
+                    -26.2289 + i * 1e-5, -52.6789 + i * 1e-5, (i / 3600) % 24, (i / 60) % 60, i % 60));
+        }
+        return pontos;
+    }
+
+    private ByteArrayInputStream json(List<String> pontos) {
+        return new ByteArrayInputStream(("[" + String.join(",", pontos) + "]").getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,81 @@
+package utfpr.edu.br.coleta.trajeto.pontotrajeto.binario;
+
+import org.junit.jupiter.api.Test;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoDTO;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do formato colunar de arquivamento de pontos.
+ *
+ * Autor: Sistema
+ */
+class PontoTrajetoArquivoCodecTest {
+
+    /**
+     * Deve recuperar ids, horários (com microssegundos), coordenadas e observações.
+     */
+    @Test
+    void deveCodificarEDecodificarPontos() throws IOException {
+        List<PontoTrajetoDTO> pontos = gerarPontos(1000);
+        pontos.get(3).setObservacao("Rua bloqueada, desvio pela Av. Tupi");
+        pontos.get(4).setObservacao("");
+        pontos.get(5).setHorario(pontos.get(5).getHorario().plusNanos(123_456_000));
+
+        List<PontoTrajetoDTO> lidos = PontoTrajetoArquivoCodec.decodificar(PontoTrajetoArquivoCodec.codificar(42L, pontos));
+
+        assertEquals(pontos.size(), lidos.size());
+        for (int i = 0; i < pontos.size(); i++) {
+            PontoTrajetoDTO original = pontos.get(i);
+            PontoTrajetoDTO lido = lidos.get(i);
+            assertEquals(original.getId(), lido.getId());
+            assertEquals(42L, lido.getTrajetoId());
+            assertEquals(original.getHorario(), lido.getHorario());
+            assertEquals(original.getLatitude(), lido.getLatitude(), 1e-7);
+            assertEquals(original.getLongitude(), lido.getLongitude(), 1e-7);
+            assertEquals(original.getObservacao(), lido.getObservacao());
+        }
+    }
+
+    /**
+     * Pontos a cada segundo, em linha, devem ocupar bem menos que 8 bytes por ponto.
+     */
+    @Test
+    void deveCompactarPontosSequenciais() {
+        byte[] arquivo = PontoTrajetoArquivoCodec.codificar(1L, gerarPontos(10_000));
+
+        assertTrue(arquivo.length < 10_000 * 2, "tamanho: " + arquivo.length);
+    }
+
+    @Test
+    void deveAceitarTrajetoSemPontos() throws IOException {
+        assertTrue(PontoTrajetoArquivoCodec.decodificar(PontoTrajetoArquivoCodec.codificar(1L, List.of())).isEmpty());
+    }
+
+    @Test
+    void deveRejeitarAssinaturaInvalida() {
+        byte[] arquivo = PontoTrajetoArquivoCodec.codificar(1L, gerarPontos(3));
+        arquivo[0] = 'X';
+
+        assertThrows(IOException.class, () -> PontoTrajetoArquivoCodec.decodificar(arquivo));
+    }
+
+    private List<PontoTrajetoDTO> gerarPontos(int quantidade) {
+        List<PontoTrajetoDTO> pontos = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            PontoTrajetoDTO dto = new PontoTrajetoDTO();
+            dto.setId(5000L + i);
+            dto.setTrajetoId(42L);
+            dto.setLatitude(-26.2289123 + i * 1e-5);
+            dto.setLongitude(-52.6789456 + i * 2e-5);
+            dto.setHorario(LocalDateTime.of(2025, 3, 10, 7, 30).plusSeconds(i));
+            pontos.add(dto);
+        }
+        return pontos;
+    }
+}
@@ -0,0 +1,151 @@
+package utfpr.edu.br.coleta.trajeto.pontotrajeto.binario;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import utfpr.edu.br.coleta.trajeto.pontotrajeto.dto.PontoTrajetoCreateDTO;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do formato binário compacto de upload de pontos (Varint, encoder e decoder).
+ *
+ * Autor: Sistema
+ */
+class PontoTrajetoBinarioCodecTest {
+
+    /**
+     * Deve codificar e decodificar varints com e sem sinal, incluindo os extremos.
+     */
+    @Test
+    void deveCodificarVarints() throws IOException {
+        long[] valores = {0, 1, -1, 63, -64, 64, 8191, -8192, Integer.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE};
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (long valor : valores) {
+            Varint.escreverComSinal(out, valor);
+        }
+
+        ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+        for (long valor : valores) {
+            assertEquals(valor, Varint.lerComSinal(in));
+        }
+        assertEquals(-1, in.read());
+    }
+
+    /**
+     * Deve recuperar os pontos originais, com coordenadas arredondadas a 1e-6 graus.
+     */
+    @Test
+    void deveDecodificarOsPontosCodificados() throws IOException {
+        List<PontoTrajetoCreateDTO> pontos = gerarPontos(500);
+        pontos.get(10).setObservacao("Rua bloqueada");
+
+        PontoTrajetoBinarioDecoder decoder = new PontoTrajetoBinarioDecoder(
+                new ByteArrayInputStream(PontoTrajetoBinarioEncoder.codificar(42L, pontos)));
+
+        assertEquals(42L, decoder.getTrajetoId());
+        assertEquals(500, decoder.getQuantidade());
+
+        for (PontoTrajetoCreateDTO original : pontos) {
+            assertTrue(decoder.temProximo());
+            PontoTrajetoCreateDTO lido = decoder.proximo();
+            assertEquals(42L, lido.getTrajetoId());
+            assertEquals(original.getLatitude(), lido.getLatitude(), 1e-6);
+            assertEquals(original.getLongitude(), lido.getLongitude(), 1e-6);
+            assertEquals(original.getHorario().withNano(original.getHorario().getNano() / 1_000_000 * 1_000_000),
+                    lido.getHorario());
+            assertEquals(original.getObservacao(), lido.getObservacao());
+        }
+        assertFalse(decoder.temProximo());
+    }
+
+    /**
+     * Deve ser ao menos 10 vezes menor que o mesmo lote em JSON.
+     */
+    @Test
+    void deveSerMuitoMenorQueJson() throws IOException {
+        List<PontoTrajetoCreateDTO> pontos = gerarPontos(3600);
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        int tamanhoJson = objectMapper.writeValueAsBytes(pontos).length;
+        int tamanhoBinario = PontoTrajetoBinarioEncoder.codificar(42L, pontos).length;
+
+        assertTrue(tamanhoBinario * 10 < tamanhoJson,
+                "binário: " + tamanhoBinario + " bytes, JSON: " + tamanhoJson + " bytes");
+    }
+
+    /**
+     * Deve falhar com EOFException quando os dados terminam no meio de um ponto.
+     */
+    @Test
+    void deveFalharComDadosTruncados() throws IOException {
+        byte[] dados = PontoTrajetoBinarioEncoder.codificar(42L, gerarPontos(3));
+        PontoTrajetoBinarioDecoder decoder = new PontoTrajetoBinarioDecoder(
+                new ByteArrayInputStream(Arrays.copyOf(dados, dados.length - 2)));
+
+        decoder.proximo();
+        decoder.proximo();
+        assertThrows(EOFException.class, decoder::proximo);
+    }
+
+    /**
+     * Deve rejeitar versões desconhecidas do formato.
+     */
+    @Test
+    void deveRejeitarVersaoDesconhecida() {
+        byte[] dados = PontoTrajetoBinarioEncoder.codificar(42L, gerarPontos(1));
+        dados[0] = 99;
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new PontoTrajetoBinarioDecoder(new ByteArrayInputStream(dados)));
+    }
+
+    /**
+     * Quantidade no cabeçalho acima de int (ou com varint malformado) deve ser recusada como formato inválido.
+     */
+    @Test
+    void deveRejeitarQuantidadeForaDoIntervalo() throws IOException {
+        for (long quantidade : new long[]{Integer.MAX_VALUE + 1L, -1L}) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            out.write(FormatoBinarioPontos.VERSAO);
+            Varint.escreverSemSinal(out, 42L);
+            Varint.escreverSemSinal(out, quantidade);
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> new PontoTrajetoBinarioDecoder(new ByteArrayInputStream(out.toByteArray())));
+        }
+
+        byte[] malformado = new byte[13];
+        malformado[0] = FormatoBinarioPontos.VERSAO;
+        malformado[1] = 42;
+        Arrays.fill(malformado, 2, 13, (byte) 0x80);
+        assertThrows(IllegalArgumentException.class,
+                () -> new PontoTrajetoBinarioDecoder(new ByteArrayInputStream(malformado)));
+    }
+
+    private List<PontoTrajetoCreateDTO> gerarPontos(int quantidade) {
+        LocalDateTime inicio = LocalDateTime.of(2025, 3, 10, 7, 30, 0, 250_000_000);
+        List<PontoTrajetoCreateDTO> pontos = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            PontoTrajetoCreateDTO dto = new PontoTrajetoCreateDTO();
+            dto.setTrajetoId(42L);
+            dto.setLatitude(-26.2289123456789 + i * 0.0000871234);
+            dto.setLongitude(-52.6789987654321 + Math.sin(i / 50.0) * 0.0003);
+            dto.setHorario(inicio.plusNanos(i * 1_000_400_000L));
+            pontos.add(dto);
+        }
+        return pontos;
+    }
+}
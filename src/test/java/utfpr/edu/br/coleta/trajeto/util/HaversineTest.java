@@ -0,0 +1,62 @@
+package utfpr.edu.br.coleta.trajeto.util;
+
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários do cálculo de distância por haversine.
+ *
+ * Autor: Sistema
+ */
+class HaversineTest {
+
+    /**
+     * Um grau de latitude mede cerca de 111,2 km na esfera de raio médio.
+     */
+    @Test
+    void deveMedirUmGrauDeLatitude() {
+        assertEquals(111_195, Haversine.distanciaMetros(0, 0, 1, 0), 1);
+        assertEquals(111_195, Haversine.distanciaMetros(-26, -52, -25, -52), 1);
+    }
+
+    /**
+     * Um grau de longitude encolhe com o cosseno da latitude.
+     */
+    @Test
+    void deveEncolherLongitudeComALatitude() {
+        double noEquador = Haversine.distanciaMetros(0, 0, 0, 1);
+        double em60Graus = Haversine.distanciaMetros(60, 0, 60, 1);
+
+        assertEquals(noEquador / 2, em60Graus, 50);
+    }
+
+    /**
+     * Deve medir distâncias curtas entre pontos de GPS com precisão de centímetros.
+     */
+    @Test
+    void deveMedirDistanciasCurtas() {
+        // 1e-5 grau de latitude ≈ 1,11 m
+        assertEquals(1.112, Haversine.distanciaMetros(-26.2289, -52.6789, -26.22891, -52.6789), 0.001);
+        assertEquals(0, Haversine.distanciaMetros(-26.2289, -52.6789, -26.2289, -52.6789));
+    }
+
+    /**
+     * O comprimento de uma linha é a soma dos segmentos, na ordem das coordenadas.
+     */
+    @Test
+    void deveSomarSegmentosDaLinha() {
+        Coordinate a = new Coordinate(-52.6789, -26.2289);
+        Coordinate b = new Coordinate(-52.6700, -26.2289);
+        Coordinate c = new Coordinate(-52.6700, -26.2200);
+
+        double esperado = Haversine.distanciaMetros(a, b) + Haversine.distanciaMetros(b, c);
+
+        assertEquals(esperado, Haversine.comprimentoMetros(List.of(a, b, c)), 1e-9);
+        assertEquals(0, Haversine.comprimentoMetros(List.of(a)));
+        assertEquals(0, Haversine.comprimentoMetros(List.of()));
+    }
+}